@@ -0,0 +1,73 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jfr;
+
+import edu.stanford.ramcloud.Status;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A JDK Flight Recorder event for the retrieval of one batch of objects by a
+ * TableIterator.
+ *
+ * @see RAMCloudReadEvent
+ */
+@Name("edu.stanford.ramcloud.EnumerationBatch")
+@Label("RAMCloud Enumeration Batch")
+@Category("RAMCloud")
+@Description("The retrieval of a batch of objects while enumerating a table")
+@Threshold("1 ms")
+@StackTrace(false)
+public class RAMCloudEnumerationBatchEvent extends Event
+        implements Events.EnumerationBatch {
+    @Label("Table ID")
+    long tableId;
+
+    @Label("Batch Size")
+    @Description("Bytes of objects in the batch")
+    @DataAmount
+    int batchSize;
+
+    @Label("Status")
+    String status;
+
+    /**
+     * Ends the event and commits it if it is enabled and over its threshold.
+     *
+     * @param tableId
+     *      The table being enumerated.
+     * @param batchSize
+     *      The number of bytes in the batch, or 0 at the end of the table.
+     * @param status
+     *      The status code of the retrieval.
+     */
+    @Override
+    public void finish(long tableId, int batchSize, int status) {
+        end();
+        if (shouldCommit()) {
+            this.tableId = tableId;
+            this.batchSize = batchSize;
+            this.status = Status.statuses[status].name();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jfr;
+
+/**
+ * Creates the Flight Recorder events for Events. It is only loaded when
+ * jdk.jfr is available.
+ */
+public class RAMCloudEventFactory implements Events.Factory {
+    @Override
+    public Events.Read beginRead() {
+        RAMCloudReadEvent event = new RAMCloudReadEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public Events.MultiOp beginMultiOp() {
+        RAMCloudMultiOpEvent event = new RAMCloudMultiOpEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public Events.TransactionCommit beginTransactionCommit() {
+        RAMCloudTransactionCommitEvent event =
+                new RAMCloudTransactionCommitEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public Events.EnumerationBatch beginEnumerationBatch() {
+        RAMCloudEnumerationBatchEvent event =
+                new RAMCloudEnumerationBatchEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,98 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jfr;
+
+import edu.stanford.ramcloud.Status;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A JDK Flight Recorder event for one call into C++ made by a multi-op
+ * handler, covering one batch of the operations of a multi-op. A multi-op
+ * may span many tables, so the event records sizes in bytes rather than
+ * per-table details.
+ *
+ * @see RAMCloudReadEvent
+ */
+@Name("edu.stanford.ramcloud.MultiOp")
+@Label("RAMCloud Multi-Op Batch")
+@Category("RAMCloud")
+@Description("One batch of a multi-read, multi-write, multi-remove or "
+        + "mixed multi-op")
+@Threshold("1 ms")
+@StackTrace(false)
+public class RAMCloudMultiOpEvent extends Event
+        implements Events.MultiOp {
+    @Label("Handler")
+    Class<?> handler;
+
+    @Label("Batch Size")
+    int batchSize;
+
+    @Label("Request Size")
+    @Description("Bytes of keys, values and headers sent to C++")
+    @DataAmount
+    int requestSize;
+
+    @Label("Response Size")
+    @Description("Bytes of results returned from C++")
+    @DataAmount
+    int responseSize;
+
+    @Label("Failures")
+    int failures;
+
+    @Label("Status")
+    @Description("The status of the first operation that failed")
+    String status;
+
+    /**
+     * Ends the event and commits it if it is enabled and over its threshold.
+     *
+     * @param handler
+     *      The class of the multi-op handler.
+     * @param batchSize
+     *      The number of operations in the batch.
+     * @param requestSize
+     *      The number of bytes of the batch written to the shared buffer.
+     * @param responseSize
+     *      The number of bytes of results read from the shared buffer.
+     * @param failures
+     *      The number of operations that did not return STATUS_OK.
+     * @param status
+     *      The status code of the first operation that failed, or 0.
+     */
+    @Override
+    public void finish(Class<?> handler, int batchSize, int requestSize,
+                       int responseSize, int failures, int status) {
+        end();
+        if (shouldCommit()) {
+            this.handler = handler;
+            this.batchSize = batchSize;
+            this.requestSize = requestSize;
+            this.responseSize = responseSize;
+            this.failures = failures;
+            this.status = Status.statuses[status].name();
+            commit();
+        }
+    }
+}
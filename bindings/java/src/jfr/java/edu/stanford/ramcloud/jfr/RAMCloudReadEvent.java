@@ -0,0 +1,92 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jfr;
+
+import edu.stanford.ramcloud.Status;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A JDK Flight Recorder event for a single-object read, so that slow reads
+ * can be lined up with GC pauses and safepoints in a recording.
+ *
+ * Like the other RAMCloud events, it is only recorded for reads that take
+ * longer than its threshold, 1 ms by default. The threshold can be changed
+ * in a .jfc settings file:
+ *
+ * <pre>
+ * &lt;event name="edu.stanford.ramcloud.Read"&gt;
+ *   &lt;setting name="enabled"&gt;true&lt;/setting&gt;
+ *   &lt;setting name="threshold"&gt;100 us&lt;/setting&gt;
+ * &lt;/event&gt;
+ * </pre>
+ *
+ * or with Recording.enable(RAMCloudReadEvent.class).withThreshold(). While
+ * no recording enables the event, recording it costs a check of a flag that
+ * the JIT compiles away.
+ */
+@Name("edu.stanford.ramcloud.Read")
+@Label("RAMCloud Read")
+@Category("RAMCloud")
+@Description("A read of a single object")
+@Threshold("1 ms")
+@StackTrace(false)
+public class RAMCloudReadEvent extends Event
+        implements Events.Read {
+    @Label("Table ID")
+    long tableId;
+
+    @Label("Key Size")
+    @DataAmount
+    int keySize;
+
+    @Label("Value Size")
+    @DataAmount
+    int valueSize;
+
+    @Label("Status")
+    String status;
+
+    /**
+     * Ends the event and commits it if it is enabled and over its threshold.
+     *
+     * @param tableId
+     *      The table read from.
+     * @param keySize
+     *      The length of the key.
+     * @param valueSize
+     *      The length of the value read, or 0 if the read failed.
+     * @param status
+     *      The status code of the read.
+     */
+    @Override
+    public void finish(long tableId, int keySize, int valueSize, int status) {
+        end();
+        if (shouldCommit()) {
+            this.tableId = tableId;
+            this.keySize = keySize;
+            this.valueSize = valueSize;
+            this.status = Status.statuses[status].name();
+            commit();
+        }
+    }
+}
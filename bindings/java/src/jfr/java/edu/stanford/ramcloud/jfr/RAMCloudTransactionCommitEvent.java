@@ -0,0 +1,80 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jfr;
+
+import edu.stanford.ramcloud.Status;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A JDK Flight Recorder event for the commit of a transaction, from the
+ * start of the commit until the outcome is known.
+ *
+ * @see RAMCloudReadEvent
+ */
+@Name("edu.stanford.ramcloud.TransactionCommit")
+@Label("RAMCloud Transaction Commit")
+@Category("RAMCloud")
+@Description("The commit of a transaction")
+@Threshold("1 ms")
+@StackTrace(false)
+public class RAMCloudTransactionCommitEvent extends Event
+        implements Events.TransactionCommit {
+    @Label("Operations")
+    @Description("The number of reads, writes, removes and increments in the "
+            + "transaction")
+    int operations;
+
+    @Label("Mode")
+    @Description("commit, commitAndSync or commitAsync")
+    String mode;
+
+    @Label("Committed")
+    boolean committed;
+
+    @Label("Status")
+    String status;
+
+    /**
+     * Ends the event and commits it if it is enabled and over its threshold.
+     *
+     * @param mode
+     *      The method used to commit.
+     * @param operations
+     *      The number of operations in the transaction.
+     * @param committed
+     *      True if the transaction committed, false if it aborted or failed.
+     * @param status
+     *      The status code of the commit.
+     */
+    @Override
+    public void finish(String mode, int operations, boolean committed,
+                       int status) {
+        end();
+        if (shouldCommit()) {
+            this.mode = mode;
+            this.operations = operations;
+            this.committed = committed;
+            this.status = Status.statuses[status].name();
+            commit();
+        }
+    }
+}
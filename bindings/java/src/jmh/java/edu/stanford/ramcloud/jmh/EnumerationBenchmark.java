@@ -0,0 +1,66 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jmh;
+
+import edu.stanford.ramcloud.RAMCloud;
+import edu.stanford.ramcloud.TableIterator;
+import edu.stanford.ramcloud.multiop.WriteBatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of enumerating a whole table with a TableIterator against the
+ * mock cluster. The objects counter gives the throughput in objects rather
+ * than enumerations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnumerationBenchmark {
+    @Param({"1000", "10000"})
+    public int tableSize;
+
+    @Param({"100"})
+    public int valueSize;
+
+    private RAMCloud ramcloud;
+    private long tableId;
+
+    @Setup(Level.Trial)
+    public void setUp(MockClusterState cluster) {
+        ramcloud = cluster.ramcloud;
+        tableId = ramcloud.createTable("enumeration");
+        byte[] value = MockClusterState.value(valueSize);
+        WriteBatch batch = new WriteBatch(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            batch.add(tableId, MockClusterState.key(i, 16), value);
+        }
+        ramcloud.write(batch);
+    }
+
+    @Benchmark
+    public void enumerate(MultiOpBenchmark.Objects counter, Blackhole bh) {
+        TableIterator iterator = ramcloud.getTableIterator(tableId);
+        while (iterator.hasNext()) {
+            bh.consume(iterator.next());
+            counter.objects++;
+        }
+    }
+}
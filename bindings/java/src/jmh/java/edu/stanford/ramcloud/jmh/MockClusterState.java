@@ -0,0 +1,75 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jmh;
+
+import edu.stanford.ramcloud.RAMCloud;
+import edu.stanford.ramcloud.test.TestCluster;
+import java.util.Arrays;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * An in-process mock cluster with one master, shared by the benchmarks of
+ * one trial. RAMCloud objects are not thread safe, so benchmarks using this
+ * state must run with a single thread.
+ */
+@State(Scope.Benchmark)
+public class MockClusterState {
+    /**
+     * The size of the master's log. Its cleaner runs, so benchmarks can
+     * overwrite objects indefinitely.
+     */
+    public static final int LOG_MEGABYTES = 256;
+
+    /**
+     * The largest value the master accepts.
+     */
+    public static final int MAX_VALUE_SIZE = 32 * 1024;
+
+    public RAMCloud ramcloud;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TestCluster cluster = new TestCluster(LOG_MEGABYTES, MAX_VALUE_SIZE);
+        ramcloud = new RAMCloud(cluster.getRamcloudClientPointer());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // The mock cluster itself is never deleted, as in the unit tests.
+        ramcloud.disconnect();
+    }
+
+    /**
+     * Returns a key of the given size that is distinct for each index.
+     */
+    public static byte[] key(int index, int size) {
+        byte[] key = new byte[size];
+        Arrays.fill(key, (byte) 'k');
+        byte[] digits = Integer.toString(index).getBytes();
+        System.arraycopy(digits, 0, key, Math.max(size - digits.length, 0),
+                         Math.min(digits.length, size));
+        return key;
+    }
+
+    /**
+     * Returns a value of the given size.
+     */
+    public static byte[] value(int size) {
+        byte[] value = new byte[size];
+        Arrays.fill(value, (byte) 'v');
+        return value;
+    }
+}
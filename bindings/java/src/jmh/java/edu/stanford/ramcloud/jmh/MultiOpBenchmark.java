@@ -0,0 +1,104 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jmh;
+
+import edu.stanford.ramcloud.RAMCloud;
+import edu.stanford.ramcloud.multiop.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput of multi-reads and multi-writes against the mock cluster, both
+ * with arrays of MultiOpObjects and with columnar batches, as a function of
+ * the number of objects per call. The objects counter gives the throughput
+ * in objects rather than calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiOpBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    public int batchSize;
+
+    @Param({"100"})
+    public int valueSize;
+
+    private RAMCloud ramcloud;
+    private MultiReadObject[] reads;
+    private MultiWriteObject[] writes;
+    private ReadBatch readBatch;
+    private WriteBatch writeBatch;
+
+    /**
+     * Counts the objects read or written.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Objects {
+        public long objects;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            objects = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(MockClusterState cluster) {
+        ramcloud = cluster.ramcloud;
+        long tableId = ramcloud.createTable("multi");
+        byte[] value = MockClusterState.value(valueSize);
+        reads = new MultiReadObject[batchSize];
+        writes = new MultiWriteObject[batchSize];
+        readBatch = new ReadBatch(batchSize);
+        writeBatch = new WriteBatch(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            byte[] key = MockClusterState.key(i, 16);
+            reads[i] = new MultiReadObject(tableId, key);
+            writes[i] = new MultiWriteObject(tableId, key, value);
+            readBatch.add(tableId, key);
+            writeBatch.add(tableId, key, value);
+        }
+        ramcloud.write(writes);
+    }
+
+    @Benchmark
+    public void multiRead(Objects counter) {
+        ramcloud.read(reads);
+        counter.objects += batchSize;
+    }
+
+    @Benchmark
+    public void multiWrite(Objects counter) {
+        ramcloud.write(writes);
+        counter.objects += batchSize;
+    }
+
+    @Benchmark
+    public void readBatch(Objects counter) {
+        ramcloud.read(readBatch);
+        counter.objects += batchSize;
+    }
+
+    @Benchmark
+    public void writeBatch(Objects counter) {
+        ramcloud.write(writeBatch);
+        counter.objects += batchSize;
+    }
+}
@@ -0,0 +1,80 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jmh;
+
+import edu.stanford.ramcloud.RAMCloud;
+import edu.stanford.ramcloud.RAMCloudObject;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Latency of single-object reads, writes and removes against the mock
+ * cluster, as a function of key and value size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SingleObjectBenchmark {
+    @Param({"8", "64", "512"})
+    public int keySize;
+
+    @Param({"16", "1024", "16384"})
+    public int valueSize;
+
+    private RAMCloud ramcloud;
+    private long tableId;
+    private byte[] key;
+    private byte[] value;
+
+    @Setup(Level.Trial)
+    public void setUp(MockClusterState cluster) {
+        ramcloud = cluster.ramcloud;
+        tableId = ramcloud.createTable("single");
+        key = MockClusterState.key(0, keySize);
+        value = MockClusterState.value(valueSize);
+        ramcloud.write(tableId, key, value, null);
+    }
+
+    /**
+     * Writes the object before each remove, so every remove finds it.
+     */
+    @State(Scope.Thread)
+    public static class ExistingObject {
+        @Setup(Level.Invocation)
+        public void write(SingleObjectBenchmark benchmark) {
+            benchmark.ramcloud.write(benchmark.tableId, benchmark.key,
+                                     benchmark.value, null);
+        }
+    }
+
+    @Benchmark
+    public RAMCloudObject read() {
+        return ramcloud.read(tableId, key);
+    }
+
+    @Benchmark
+    public long write() {
+        return ramcloud.write(tableId, key, value, null);
+    }
+
+    @Benchmark
+    public long remove(ExistingObject object) {
+        return ramcloud.remove(tableId, key);
+    }
+}
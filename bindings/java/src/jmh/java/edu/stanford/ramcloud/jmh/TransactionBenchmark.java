@@ -0,0 +1,89 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jmh;
+
+import edu.stanford.ramcloud.RAMCloud;
+import edu.stanford.ramcloud.RAMCloudTransaction;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Latency of committing transactions against the mock cluster, as a
+ * function of the number of objects each transaction touches. The
+ * transaction is reused with clear(), so construction is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionBenchmark {
+    @Param({"1", "4", "16"})
+    public int objects;
+
+    @Param({"100"})
+    public int valueSize;
+
+    private long tableId;
+    private byte[][] keys;
+    private byte[] value;
+    private RAMCloudTransaction transaction;
+
+    @Setup(Level.Trial)
+    public void setUp(MockClusterState cluster) {
+        RAMCloud ramcloud = cluster.ramcloud;
+        tableId = ramcloud.createTable("transaction");
+        value = MockClusterState.value(valueSize);
+        keys = new byte[objects][];
+        for (int i = 0; i < objects; i++) {
+            keys[i] = MockClusterState.key(i, 16);
+            ramcloud.write(tableId, keys[i], value, null);
+        }
+        transaction = new RAMCloudTransaction(ramcloud);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transaction.close();
+    }
+
+    /**
+     * Writes each object and commits.
+     */
+    @Benchmark
+    public boolean writeCommit() {
+        transaction.clear();
+        for (byte[] key : keys) {
+            transaction.write(tableId, key, value);
+        }
+        return transaction.commit();
+    }
+
+    /**
+     * Reads then writes each object and commits, the usual
+     * read-modify-write pattern.
+     */
+    @Benchmark
+    public boolean readWriteCommit() {
+        transaction.clear();
+        for (byte[] key : keys) {
+            transaction.read(tableId, key);
+            transaction.write(tableId, key, value);
+        }
+        return transaction.commit();
+    }
+}
@@ -0,0 +1,144 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cluster-free benchmarks of the encoding and decoding done on every call:
+ * RejectRules encoding, status checking and parsing of the object blobs
+ * returned by enumeration. Run them with "./gradlew jmhMarshalling", which
+ * adds JMH's GC profiler so the gc.alloc.rate.norm column gives the bytes
+ * allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarshallingBenchmark {
+    /**
+     * The number of objects in the synthetic enumeration blob.
+     */
+    private static final int BLOB_OBJECTS = 100;
+
+    /**
+     * Key and value sizes of the objects in the enumeration blob. An 8-byte
+     * key is parsed as a 64-bit integer key.
+     */
+    @Param({"8", "30"})
+    public int keySize;
+
+    @Param({"16", "1024"})
+    public int valueSize;
+
+    private RejectRules rules;
+    private ByteBuffer objectBlob;
+    private int tableDoesntExist;
+    private int objectDoesntExist;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rules = new RejectRules();
+        rules.setGivenVersion(5);
+        rules.rejectIfVersionNeGiven(true);
+        objectBlob = objectBlob(BLOB_OBJECTS, keySize, valueSize);
+        tableDoesntExist = Status.STATUS_TABLE_DOESNT_EXIST.ordinal();
+        objectDoesntExist = Status.STATUS_OBJECT_DOESNT_EXIST.ordinal();
+    }
+
+    /**
+     * Builds a blob of objects in the format returned by the C++ enumerate
+     * RPC, which is that of the Object class in Object.h.
+     */
+    static ByteBuffer objectBlob(int objects, int keySize, int valueSize) {
+        int objectSize = 27 + keySize + valueSize;
+        ByteBuffer blob = ByteBuffer.allocateDirect((4 + objectSize) * objects)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < objects; i++) {
+            blob.putInt(objectSize)
+                    .putInt(0)              // checksum
+                    .putInt(0)              // timestamp
+                    .putLong(i + 1)         // version
+                    .putLong(1)             // table ID
+                    .put((byte) 1)          // number of keys
+                    .putShort((short) keySize);
+            for (int j = 0; j < keySize; j++) {
+                blob.put((byte) (i + j));
+            }
+            for (int j = 0; j < valueSize; j++) {
+                blob.put((byte) j);
+            }
+        }
+        blob.flip();
+        return blob;
+    }
+
+    @Benchmark
+    public byte[] rejectRulesBytes_default() {
+        return RAMCloud.getRejectRulesBytes(null);
+    }
+
+    @Benchmark
+    public byte[] rejectRulesBytes() {
+        return RAMCloud.getRejectRulesBytes(rules);
+    }
+
+    @Benchmark
+    public void checkStatus_ok() {
+        ClientException.checkStatus(0);
+    }
+
+    /**
+     * A status whose exception is a shared instance.
+     */
+    @Benchmark
+    public Object checkStatus_objectDoesntExist() {
+        try {
+            ClientException.checkStatus(objectDoesntExist);
+            return null;
+        } catch (ClientException e) {
+            return e;
+        }
+    }
+
+    /**
+     * A status whose exception is constructed on each failure.
+     */
+    @Benchmark
+    public Object checkStatus_tableDoesntExist() {
+        try {
+            ClientException.checkStatus(tableDoesntExist);
+            return null;
+        } catch (ClientException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOB_OBJECTS)
+    public void parseObject(Blackhole bh) {
+        objectBlob.rewind();
+        while (objectBlob.hasRemaining()) {
+            bh.consume(TableIterator.parseObject(objectBlob));
+        }
+    }
+}
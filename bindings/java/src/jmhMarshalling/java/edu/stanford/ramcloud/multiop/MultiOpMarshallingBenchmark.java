@@ -0,0 +1,197 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.multiop;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cluster-free benchmarks of how each MultiOpHandler encodes one request into
+ * and decodes one response from the shared ByteBuffer, without calling into
+ * C++. The handlers are built with null pointers and never handle a request.
+ * Run them with "./gradlew jmhMarshalling", which adds JMH's GC profiler so
+ * the gc.alloc.rate.norm column gives the bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiOpMarshallingBenchmark {
+    @Param({"16", "1024"})
+    public int valueSize;
+
+    private ByteBuffer buffer;
+    private ByteBuffer readResponse;
+    private ByteBuffer versionResponse;
+    private ByteBuffer incrementResponse;
+
+    private MultiReadHandler readHandler;
+    private MultiWriteHandler writeHandler;
+    private MultiRemoveHandler removeHandler;
+    private MixedMultiOpHandler mixedHandler;
+    private ReadBatch readBatch;
+    private ReadBatchHandler readBatchHandler;
+    private WriteBatchHandler writeBatchHandler;
+
+    private MultiReadObject read;
+    private MultiReadObject longKeyRead;
+    private MultiWriteObject write;
+    private MultiRemoveObject remove;
+    private MultiIncrementObject increment;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        buffer = ByteBuffer.allocateDirect(64 * 1024)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        byte[] key = "benchmark key 0123456789".getBytes();
+        byte[] value = new byte[valueSize];
+
+        // Responses as laid out by C++, after the status of each.
+        readResponse = ByteBuffer.allocateDirect(12 + valueSize)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        readResponse.putLong(1).putInt(valueSize).put(value).flip();
+        versionResponse = ByteBuffer.allocateDirect(8)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        versionResponse.putLong(1).flip();
+        incrementResponse = ByteBuffer.allocateDirect(16)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        incrementResponse.putLong(1).putLong(2).flip();
+
+        readHandler = new MultiReadHandler(buffer, 0, 0);
+        writeHandler = new MultiWriteHandler(buffer, 0, 0);
+        removeHandler = new MultiRemoveHandler(buffer, 0, 0);
+        mixedHandler = new MixedMultiOpHandler(buffer, 0, 0);
+
+        read = new MultiReadObject(1, key);
+        longKeyRead = new MultiReadObject(1, 42L);
+        write = new MultiWriteObject(1, key, value);
+        remove = new MultiRemoveObject(1, key);
+        increment = new MultiIncrementObject(1, key, 1L);
+
+        readBatch = new ReadBatch(1);
+        readBatch.add(1, key);
+        readBatchHandler = new ReadBatchHandler(buffer, 0, 0);
+        setField(ReadBatchHandler.class, readBatchHandler, readBatch);
+        WriteBatch writeBatch = new WriteBatch(1);
+        writeBatch.add(1, key, value);
+        writeBatchHandler = new WriteBatchHandler(buffer, 0, 0);
+        setField(WriteBatchHandler.class, writeBatchHandler, writeBatch);
+    }
+
+    /**
+     * Binds a batch handler to a batch without going through handle(),
+     * which would call into C++.
+     */
+    private static void setField(Class<?> handlerClass, Object handler,
+                                 Object batch) throws Exception {
+        Field field = handlerClass.getDeclaredField("batch");
+        field.setAccessible(true);
+        field.set(handler, batch);
+    }
+
+    private ByteBuffer request() {
+        buffer.clear();
+        return buffer;
+    }
+
+    private static ByteBuffer response(ByteBuffer response) {
+        response.rewind();
+        return response;
+    }
+
+    @Benchmark
+    public boolean multiRead_writeRequest() {
+        return readHandler.writeRequest(request(), read);
+    }
+
+    @Benchmark
+    public boolean multiRead_writeRequest_longKey() {
+        return readHandler.writeRequest(request(), longKeyRead);
+    }
+
+    @Benchmark
+    public MultiReadObject multiRead_readResponse() {
+        readHandler.readResponse(response(readResponse), read);
+        return read;
+    }
+
+    @Benchmark
+    public boolean multiWrite_writeRequest() {
+        return writeHandler.writeRequest(request(), write);
+    }
+
+    @Benchmark
+    public MultiWriteObject multiWrite_readResponse() {
+        writeHandler.readResponse(response(versionResponse), write);
+        return write;
+    }
+
+    @Benchmark
+    public boolean multiRemove_writeRequest() {
+        return removeHandler.writeRequest(request(), remove);
+    }
+
+    @Benchmark
+    public MultiRemoveObject multiRemove_readResponse() {
+        removeHandler.readResponse(response(versionResponse), remove);
+        return remove;
+    }
+
+    @Benchmark
+    public boolean mixed_writeRequest_increment() {
+        return mixedHandler.writeRequest(request(), increment);
+    }
+
+    @Benchmark
+    public MultiIncrementObject mixed_readResponse_increment() {
+        mixedHandler.readResponse(response(incrementResponse), increment);
+        return increment;
+    }
+
+    @Benchmark
+    public boolean readBatch_loadRequest() {
+        return readBatchHandler.loadRequest(request(), 0);
+    }
+
+    /**
+     * Includes discarding the previous value, which the handler does once
+     * per call, so the value arena does not grow.
+     */
+    @Benchmark
+    public ByteBuffer readBatch_unloadResult() {
+        readBatch.resetResults();
+        ByteBuffer response = response(readResponse);
+        readBatchHandler.unloadResult(response, 0, 0);
+        return response;
+    }
+
+    @Benchmark
+    public boolean writeBatch_loadRequest() {
+        return writeBatchHandler.loadRequest(request(), 0);
+    }
+
+    @Benchmark
+    public ByteBuffer writeBatch_unloadResult() {
+        ByteBuffer response = response(versionResponse);
+        writeBatchHandler.unloadResult(response, 0, 0);
+        return response;
+    }
+}
@@ -14,10 +14,16 @@
  */
 
 #include <RamCloud.h>
+#include <ClientTransactionManager.h>
+#include <CoordinatorClient.h>
 #include <MultiRead.h>
 #include <MultiWrite.h>
 #include <MultiRemove.h>
+#include <PerfStats.h>
+#include <ServerMetrics.h>
+#include <TimeTrace.h>
 
+#include <Transaction.h>
 #include <Util.h>
 #include "edu_stanford_ramcloud_RAMCloud.h"
 #include "JavaCommon.h"
@@ -239,13 +245,511 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppGetTableId(JNIEnv *env,
     buffer.write(tableId);
 }
 
+/**
+ * Fetch the tablet configuration of a table from the coordinator.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param jRamCloud
+ *      The calling class.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ will communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ RamCloud object
+ *          4 bytes for the capacity of the ByteBuffer
+ *          8 bytes for the ID of the table
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the getTableConfig operation
+ *          4 bytes for the number of tablets in the table
+ *          4 bytes for the number of tablets that follow, which is smaller
+ *              if the rest did not fit in the buffer
+ *          For each tablet that follows:
+ *              8 bytes for the start key hash of the tablet
+ *              8 bytes for the end key hash of the tablet
+ *              8 bytes for the server ID of the owning master
+ *              1 byte, nonzero if the tablet is recovering
+ *              4 bytes for the length of the master's service locator
+ *              byte array for the master's service locator
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppGetTableConfig(JNIEnv *env,
+        jclass jRamCloud,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    RamCloud* ramcloud = buffer.readPointer<RamCloud>();
+    uint32_t capacity = buffer.read<uint32_t>();
+    uint64_t tableId = buffer.read<uint64_t>();
+    ProtoBuf::TableConfig tableConfig;
+    buffer.rewind();
+    try {
+        CoordinatorClient::getTableConfig(ramcloud->clientContext, tableId,
+                                          &tableConfig);
+    } EXCEPTION_CATCHER(buffer);
+    buffer.write<uint32_t>(tableConfig.tablet_size());
+    uint32_t* numWritten = buffer.getPointer<uint32_t>();
+    *numWritten = 0;
+    for (const ProtoBuf::TableConfig::Tablet& tablet : tableConfig.tablet()) {
+        const string& locator = tablet.service_locator();
+        if (uint64_t(buffer.mark) + 29 + locator.length() > capacity) {
+            break;
+        }
+        (*numWritten)++;
+        buffer.write<uint64_t>(tablet.start_key_hash());
+        buffer.write<uint64_t>(tablet.end_key_hash());
+        buffer.write<uint64_t>(tablet.server_id());
+        buffer.write<uint8_t>(tablet.state() ==
+                ProtoBuf::TableConfig::Tablet::RECOVERING ? 1 : 0);
+        buffer.write<uint32_t>(downCast<uint32_t>(locator.length()));
+        memcpy(buffer.getVoidPointer(downCast<uint32_t>(locator.length())),
+               locator.data(), locator.length());
+    }
+}
 
-#if TIME_CPP
-uint32_t test_num_current = 0;
-const uint32_t test_num_times = 100000;
+/**
+ * Writes a protocol buffer to a ByteBuffer, preceded by its length, so that
+ * Java can decode it. If the message does not fit in the buffer, only its
+ * length is written, and Java reports the error.
+ *
+ * \param buffer
+ *      The buffer to write to, positioned after the status.
+ * \param capacity
+ *      The capacity of the buffer.
+ * \param message
+ *      The message to write.
+ */
+static void
+writeProtoBuf(ByteBuffer& buffer, uint32_t capacity,
+              const google::protobuf::Message& message)
+{
+    uint32_t length = downCast<uint32_t>(message.ByteSize());
+    buffer.write(length);
+    if (uint64_t(buffer.mark) + length > capacity) {
+        return;
+    }
+    message.SerializeToArray(buffer.getVoidPointer(length), length);
+}
 
-uint64_t test_times[test_num_times];
-#endif
+/**
+ * Fetch the list of masters in the cluster from the coordinator.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param jRamCloud
+ *      The calling class.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ will communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ RamCloud object
+ *          4 bytes for the capacity of the ByteBuffer
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the getMasterList operation
+ *          4 bytes for the number of masters
+ *          4 bytes for the number of masters that follow, which is smaller
+ *              if the rest did not fit in the buffer
+ *          For each master that follows:
+ *              8 bytes for the server ID of the master
+ *              4 bytes for the services the server runs
+ *              4 bytes for the status of the server
+ *              4 bytes for the length of the master's service locator
+ *              byte array for the master's service locator
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppGetMasterList(JNIEnv *env,
+        jclass jRamCloud,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    RamCloud* ramcloud = buffer.readPointer<RamCloud>();
+    uint32_t capacity = buffer.read<uint32_t>();
+    ProtoBuf::ServerList serverList;
+    buffer.rewind();
+    try {
+        CoordinatorClient::getMasterList(ramcloud->clientContext, &serverList);
+    } EXCEPTION_CATCHER(buffer);
+    buffer.write<uint32_t>(serverList.server_size());
+    uint32_t* numWritten = buffer.getPointer<uint32_t>();
+    *numWritten = 0;
+    for (const ProtoBuf::ServerList::Entry& server : serverList.server()) {
+        const string& locator = server.service_locator();
+        if (uint64_t(buffer.mark) + 20 + locator.length() > capacity) {
+            break;
+        }
+        (*numWritten)++;
+        buffer.write<uint64_t>(server.server_id());
+        buffer.write<uint32_t>(server.services());
+        buffer.write<uint32_t>(server.status());
+        buffer.write<uint32_t>(downCast<uint32_t>(locator.length()));
+        memcpy(buffer.getVoidPointer(downCast<uint32_t>(locator.length())),
+               locator.data(), locator.length());
+    }
+}
+
+/**
+ * Fetch the raw metrics of a server.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param jRamCloud
+ *      The calling class.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ will communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ RamCloud object
+ *          4 bytes for the capacity of the ByteBuffer
+ *          1 byte, nonzero if the server is selected by an object rather
+ *              than by service locator
+ *          If the server is selected by an object:
+ *              8 bytes for the ID of the table containing the object
+ *              4 bytes for the length of the key of the object
+ *              byte array for the key of the object
+ *          Otherwise:
+ *              NULL-terminated string for the server's service locator
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the getMetrics operation
+ *          4 bytes for the number of metrics
+ *          4 bytes for the number of metrics that follow, which is smaller
+ *              if the rest did not fit in the buffer
+ *          For each metric that follows:
+ *              4 bytes for the length of the name of the metric
+ *              byte array for the name of the metric
+ *              8 bytes for the value of the metric
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppGetMetrics(JNIEnv *env,
+        jclass jRamCloud,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    RamCloud* ramcloud = buffer.readPointer<RamCloud>();
+    uint32_t capacity = buffer.read<uint32_t>();
+    bool byObject = buffer.read<uint8_t>() != 0;
+    uint64_t tableId = 0;
+    uint32_t keyLength = 0;
+    void* key = NULL;
+    char* serviceLocator = NULL;
+    if (byObject) {
+        tableId = buffer.read<uint64_t>();
+        keyLength = buffer.read<uint32_t>();
+        key = buffer.getVoidPointer(keyLength);
+    } else {
+        serviceLocator = buffer.pointer + buffer.mark;
+    }
+    ServerMetrics metrics;
+    buffer.rewind();
+    try {
+        if (byObject) {
+            metrics = ramcloud->getMetrics(tableId, key,
+                                           downCast<uint16_t>(keyLength));
+        } else {
+            metrics = ramcloud->getMetrics(serviceLocator);
+        }
+    } SERVER_EXCEPTION_CATCHER(buffer);
+    buffer.write<uint32_t>(downCast<uint32_t>(metrics.size()));
+    uint32_t* numWritten = buffer.getPointer<uint32_t>();
+    *numWritten = 0;
+    for (ServerMetrics::iterator it = metrics.begin(); it != metrics.end();
+            it++) {
+        if (uint64_t(buffer.mark) + 12 + it->first.length() > capacity) {
+            break;
+        }
+        (*numWritten)++;
+        buffer.write<uint32_t>(downCast<uint32_t>(it->first.length()));
+        memcpy(buffer.getVoidPointer(downCast<uint32_t>(it->first.length())),
+               it->first.data(), it->first.length());
+        buffer.write<uint64_t>(it->second);
+    }
+}
+
+/**
+ * Fetch the statistics of a server.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param jRamCloud
+ *      The calling class.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ will communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ RamCloud object
+ *          4 bytes for the capacity of the ByteBuffer
+ *          NULL-terminated string for the server's service locator
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the getServerStatistics operation
+ *          4 bytes for the length of the serialized ServerStatistics
+ *          byte array for the serialized ServerStatistics protocol buffer, if it
+ *              fits in the buffer
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppGetServerStatistics(
+        JNIEnv *env,
+        jclass jRamCloud,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    RamCloud* ramcloud = buffer.readPointer<RamCloud>();
+    uint32_t capacity = buffer.read<uint32_t>();
+    char* serviceLocator = buffer.pointer + buffer.mark;
+    ProtoBuf::ServerStatistics serverStats;
+    buffer.rewind();
+    try {
+        ramcloud->getServerStatistics(serviceLocator, serverStats);
+    } SERVER_EXCEPTION_CATCHER(buffer);
+    writeProtoBuf(buffer, capacity, serverStats);
+}
+
+/**
+ * Fetch the log metrics of a master.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param jRamCloud
+ *      The calling class.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ will communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ RamCloud object
+ *          4 bytes for the capacity of the ByteBuffer
+ *          NULL-terminated string for the master's service locator
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the getLogMetrics operation
+ *          4 bytes for the length of the serialized LogMetrics
+ *          byte array for the serialized LogMetrics protocol buffer, if it
+ *              fits in the buffer
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppGetLogMetrics(JNIEnv *env,
+        jclass jRamCloud,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    RamCloud* ramcloud = buffer.readPointer<RamCloud>();
+    uint32_t capacity = buffer.read<uint32_t>();
+    char* serviceLocator = buffer.pointer + buffer.mark;
+    ProtoBuf::LogMetrics logMetrics;
+    buffer.rewind();
+    try {
+        ramcloud->getLogMetrics(serviceLocator, logMetrics);
+    } SERVER_EXCEPTION_CATCHER(buffer);
+    writeProtoBuf(buffer, capacity, logMetrics);
+}
+
+/**
+ * Fetch the configuration of a server.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param jRamCloud
+ *      The calling class.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ will communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ RamCloud object
+ *          4 bytes for the capacity of the ByteBuffer
+ *          NULL-terminated string for the server's service locator
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the getServerConfig operation
+ *          4 bytes for the length of the serialized ServerConfig
+ *          byte array for the serialized ServerConfig protocol buffer, if it
+ *              fits in the buffer
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppGetServerConfig(JNIEnv *env,
+        jclass jRamCloud,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    RamCloud* ramcloud = buffer.readPointer<RamCloud>();
+    uint32_t capacity = buffer.read<uint32_t>();
+    char* serviceLocator = buffer.pointer + buffer.mark;
+    ProtoBuf::ServerConfig serverConfig;
+    buffer.rewind();
+    try {
+        ramcloud->getServerConfig(serviceLocator, serverConfig);
+    } SERVER_EXCEPTION_CATCHER(buffer);
+    writeProtoBuf(buffer, capacity, serverConfig);
+}
+
+/**
+ * Collect the PerfStats counters of every server in the cluster.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param jRamCloud
+ *      The calling class.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ will communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ RamCloud object
+ *          4 bytes for the capacity of the ByteBuffer
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the serverControlAll operation
+ *          4 bytes for the number of servers that responded
+ *          4 bytes for the number of servers that follow, which is smaller
+ *              if the rest did not fit in the buffer
+ *          For each server that follows:
+ *              8 bytes for the server ID
+ *              8 bytes for the time the stats were collected, in cycles
+ *              8 bytes for the number of cycles per second, as a double
+ *              4 bytes for the number of counters that follow
+ *              8 bytes for each counter, in the order of the fields of
+ *                  PerfStats, from readCount to logUsedBytesInBackups
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppGetPerfStats(JNIEnv *env,
+        jclass jRamCloud,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    RamCloud* ramcloud = buffer.readPointer<RamCloud>();
+    uint32_t capacity = buffer.read<uint32_t>();
+    Buffer output;
+    buffer.rewind();
+    try {
+        ramcloud->serverControlAll(WireFormat::GET_PERF_STATS, NULL, 0,
+                                   &output);
+    } EXCEPTION_CATCHER(buffer);
+
+    uint32_t* numServers = buffer.getPointer<uint32_t>();
+    *numServers = 0;
+    uint32_t* numWritten = buffer.getPointer<uint32_t>();
+    *numWritten = 0;
+    uint32_t offset = sizeof32(WireFormat::ServerControlAll::Response);
+    while (offset < output.size()) {
+        const WireFormat::ServerControl::Response* header =
+                output.getOffset<WireFormat::ServerControl::Response>(offset);
+        if (header == NULL) {
+            break;
+        }
+        offset += sizeof32(*header);
+        if (header->outputLength < sizeof32(PerfStats)
+                || offset + sizeof32(PerfStats) > output.size()) {
+            offset += header->outputLength;
+            continue;
+        }
+        PerfStats stats;
+        output.copy(offset, sizeof32(stats), &stats);
+        offset += header->outputLength;
+        (*numServers)++;
+        // Every counter is a field of PerfStats, so this bounds the size of
+        // the entry.
+        if (*numWritten < *numServers - 1
+                || buffer.mark + 28 + sizeof32(stats) > capacity) {
+            continue;
+        }
+        (*numWritten)++;
+
+        buffer.write<uint64_t>(header->serverId);
+        buffer.write<uint64_t>(stats.collectionTime);
+        buffer.write<double>(stats.cyclesPerSecond);
+        uint32_t* numCounters = buffer.getPointer<uint32_t>();
+        *numCounters = 0;
+#define WRITE_COUNTER(counter) \
+        buffer.write<uint64_t>(stats.counter); (*numCounters)++
+        // The order below must match PerfStats.Counter in Java.
+        WRITE_COUNTER(readCount);
+        WRITE_COUNTER(readObjectBytes);
+        WRITE_COUNTER(readKeyBytes);
+        WRITE_COUNTER(writeCount);
+        WRITE_COUNTER(writeObjectBytes);
+        WRITE_COUNTER(writeKeyBytes);
+        WRITE_COUNTER(dispatchActiveCycles);
+        WRITE_COUNTER(workerActiveCycles);
+        WRITE_COUNTER(btreeNodeReads);
+        WRITE_COUNTER(btreeNodeWrites);
+        WRITE_COUNTER(btreeBytesRead);
+        WRITE_COUNTER(btreeBytesWritten);
+        WRITE_COUNTER(btreeNodeSplits);
+        WRITE_COUNTER(btreeNodeCoalesces);
+        WRITE_COUNTER(btreeRebalances);
+        WRITE_COUNTER(logBytesAppended);
+        WRITE_COUNTER(replicationRpcs);
+        WRITE_COUNTER(logSyncCycles);
+        WRITE_COUNTER(segmentUnopenedCycles);
+        WRITE_COUNTER(compactorInputBytes);
+        WRITE_COUNTER(compactorSurvivorBytes);
+        WRITE_COUNTER(compactorActiveCycles);
+        WRITE_COUNTER(cleanerInputMemoryBytes);
+        WRITE_COUNTER(cleanerInputDiskBytes);
+        WRITE_COUNTER(cleanerSurvivorBytes);
+        WRITE_COUNTER(cleanerActiveCycles);
+        WRITE_COUNTER(backupReadOps);
+        WRITE_COUNTER(backupReadBytes);
+        WRITE_COUNTER(backupReadActiveCycles);
+        WRITE_COUNTER(backupBytesReceived);
+        WRITE_COUNTER(backupWriteOps);
+        WRITE_COUNTER(backupWriteBytes);
+        WRITE_COUNTER(backupWriteActiveCycles);
+        WRITE_COUNTER(migrationPhase1Bytes);
+        WRITE_COUNTER(migrationPhase1Cycles);
+        WRITE_COUNTER(networkInputBytes);
+        WRITE_COUNTER(networkOutputBytes);
+        WRITE_COUNTER(logSizeBytes);
+        WRITE_COUNTER(logUsedBytes);
+        WRITE_COUNTER(logFreeBytes);
+        WRITE_COUNTER(logLiveBytes);
+        WRITE_COUNTER(logMaxLiveBytes);
+        WRITE_COUNTER(logAppendableBytes);
+        WRITE_COUNTER(logUsedBytesInBackups);
+#undef WRITE_COUNTER
+    }
+}
+
+/**
+ * Copies the records of this process's TimeTrace into the buffer so that
+ * Java can merge them with its own trace. If they do not all fit, the most
+ * recent records are returned.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param jRamCloud
+ *      The calling class.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ will communicate.
+ *      The format for the input buffer is:
+ *          4 bytes for the number of bytes available for the output
+ *      The format for the output buffer is:
+ *          4 bytes for the status code
+ *          8 bytes for Cycles::rdtsc() on entry to this function
+ *          8 bytes for the number of cycles per second, as a double
+ *          4 bytes for the number of records that follow
+ *          For each record, oldest first:
+ *              8 bytes for the timestamp of the record, in cycles
+ *              4 bytes for the length of the message
+ *              The message, not NUL-terminated
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppGetTimeTrace(JNIEnv *env,
+        jclass jRamCloud,
+        jlong byteBufferPointer) {
+    uint64_t now = Cycles::rdtsc();
+    ByteBuffer buffer(byteBufferPointer);
+    uint32_t capacity = buffer.read<uint32_t>();
+    buffer.rewind();
+
+    std::vector<TimeTrace::Record> records;
+    try {
+        TimeTrace::getRecords(&records);
+    } EXCEPTION_CATCHER(buffer);
+
+    buffer.write(now);
+    buffer.write(Cycles::perSecond());
+
+    // Walk back from the newest record to find how many fit.
+    uint32_t used = 4 + 8 + 8 + 4;
+    size_t first = records.size();
+    while (first > 0) {
+        uint32_t size = 8 + 4 + downCast<uint32_t>(
+                records[first - 1].message.size());
+        if (used + size > capacity) {
+            break;
+        }
+        used += size;
+        first--;
+    }
+
+    buffer.write(downCast<uint32_t>(records.size() - first));
+    for (size_t i = first; i < records.size(); i++) {
+        const string& message = records[i].message;
+        buffer.write(records[i].timestamp);
+        buffer.write(downCast<uint32_t>(message.size()));
+        memcpy(buffer.getVoidPointer(downCast<uint32_t>(message.size())),
+               message.data(), message.size());
+    }
+}
 
 /**
  * Read the current contents of an object.
@@ -267,12 +771,17 @@ uint64_t test_times[test_num_times];
  *          8 bytes for the version of the read object
  *          4 bytes for the size of the read value
  *          byte array for the read value
+ * \param phaseTimesPointer
+ *      The address of the PhaseTimes in which to record the phases of this
+ *      call, or 0 if they should not be recorded.
  */
 JNIEXPORT void
 JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppRead(
         JNIEnv *env,
         jclass jRamCloud,
-        jlong byteBufferPointer) {
+        jlong byteBufferPointer,
+        jlong phaseTimesPointer) {
+    PhaseTimer timer(phaseTimesPointer);
     ByteBuffer byteBuffer(byteBufferPointer);
     RamCloud* ramcloud = byteBuffer.readPointer<RamCloud>();
     uint64_t tableId = byteBuffer.read<uint64_t>();
@@ -282,10 +791,8 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppRead(
     Buffer buffer;
     uint64_t version;
     byteBuffer.rewind();
-#if TIME_CPP
-    uint64_t start = Cycles::rdtsc();
-#endif
     try {
+        TIME_RPC(timer);
         ramcloud->read(tableId,
                        key,
                        keyLength,
@@ -293,15 +800,6 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppRead(
                        &rejectRules,
                        &version);
     } EXCEPTION_CATCHER(byteBuffer);
-#if TIME_CPP
-    test_times[test_num_current] = Cycles::rdtsc() - start;
-    test_num_current++;
-    if (test_num_current == test_num_times) {
-        std::sort(boost::begin(test_times), boost::end(test_times));
-        printf("Median C++ Read Time: %f\n", Cycles::toSeconds(test_times[test_num_times / 2]) * 1000000);
-        test_num_current = 0;
-    }
-#endif
     byteBuffer.write(version);
     byteBuffer.write(buffer.size());
     buffer.copy(0, buffer.size(), byteBuffer.getVoidPointer());
@@ -327,11 +825,16 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppRead(
  *      The format for the output buffer is:
  *          4 bytes for the status code of the remove operation
  *          8 bytes for the version of the object just before deletion
+ * \param phaseTimesPointer
+ *      The address of the PhaseTimes in which to record the phases of this
+ *      call, or 0 if they should not be recorded.
  */
 JNIEXPORT void
 JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppRemove(JNIEnv *env,
         jclass jRamCloud,
-        jlong byteBufferPointer) {
+        jlong byteBufferPointer,
+        jlong phaseTimesPointer) {
+    PhaseTimer timer(phaseTimesPointer);
     ByteBuffer buffer(byteBufferPointer);
     RamCloud* ramcloud = buffer.readPointer<RamCloud>();
     uint64_t tableId = buffer.read<uint64_t>();
@@ -341,6 +844,7 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppRemove(JNIEnv *env,
     uint64_t version;
     buffer.rewind();
     try {
+        TIME_RPC(timer);
         ramcloud->remove(tableId, key, keyLength, &rejectRules, &version);
     } EXCEPTION_CATCHER(buffer);
     buffer.write(version);
@@ -367,11 +871,16 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppRemove(JNIEnv *env,
  *      The format for the output buffer is:
  *          4 bytes for the status code of the write operation
  *          8 bytes for the version of the object written
+ * \param phaseTimesPointer
+ *      The address of the PhaseTimes in which to record the phases of this
+ *      call, or 0 if they should not be recorded.
  */
 JNIEXPORT void
 JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppWrite(JNIEnv *env,
         jclass jRamCloud,
-        jlong byteBufferPointer) {
+        jlong byteBufferPointer,
+        jlong phaseTimesPointer) {
+    PhaseTimer timer(phaseTimesPointer);
     ByteBuffer buffer(byteBufferPointer);
     RamCloud* ramcloud = buffer.readPointer<RamCloud>();
     uint64_t tableId = buffer.read<uint64_t>();
@@ -382,25 +891,70 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppWrite(JNIEnv *env,
     RejectRules rules = buffer.read<RejectRules>();
     uint64_t version;
     buffer.rewind();
-#if TIME_CPP
-    uint64_t start = Cycles::rdtsc();
-#endif
     try {
+        TIME_RPC(timer);
         ramcloud->write(tableId,
                         key, keyLength,
                         value, valueLength,
                         &rules,
                         &version);
     } EXCEPTION_CATCHER(buffer);
-#if TIME_CPP
-    test_times[test_num_current] = Cycles::rdtsc() - start;
-    test_num_current++;
-    if (test_num_current == test_num_times) {
-        std::sort(boost::begin(test_times), boost::end(test_times));
-        printf("Median C++ Write Time: %f\n", Cycles::toSeconds(test_times[test_num_times / 2]) * 1000000);
-        test_num_current = 0;
-    }
-#endif
     buffer.write(version);
 }
 
+/**
+ * Poll the RamCloud object once, giving asynchronous operations such as
+ * transaction commits a chance to make progress, and report which of the
+ * given transactions have finished committing.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param jRamCloud
+ *      The calling class.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ RamCloud object
+ *          4 bytes for the number of transactions being committed
+ *          For each transaction:
+ *              8 bytes for a pointer to a C++ Transaction object
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the poll
+ *          For each transaction:
+ *              4 bytes for the state of the commit (0 = in progress,
+ *                  1 = committed, 2 = aborted, 3 = failed)
+ *              4 bytes for the status code if the commit failed
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloud_cppPoll(
+        JNIEnv *env,
+        jclass jRamCloud,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    RamCloud* ramcloud = buffer.readPointer<RamCloud>();
+    uint32_t numTransactions = buffer.read<uint32_t>();
+    Transaction* transactions[numTransactions];
+    for (uint32_t i = 0; i < numTransactions; i++) {
+        transactions[i] = buffer.readPointer<Transaction>();
+    }
+    buffer.rewind();
+    try {
+        ramcloud->transactionManager->poll();
+        ramcloud->poll();
+    } EXCEPTION_CATCHER(buffer);
+
+    for (uint32_t i = 0; i < numTransactions; i++) {
+        uint32_t state = 0;
+        uint32_t status = 0;
+        try {
+            if (transactions[i]->isCommitReady()) {
+                state = transactions[i]->commit() ? 1 : 2;
+            }
+        } catch (ClientException& e) {
+            state = 3;
+            status = e.status;
+        }
+        buffer.write(state);
+        buffer.write(status);
+    }
+}
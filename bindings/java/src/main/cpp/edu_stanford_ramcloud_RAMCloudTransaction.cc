@@ -13,6 +13,8 @@
  * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
  */
 
+#include <memory>
+
 #include <RamCloud.h>
 
 #include <Util.h>
@@ -78,6 +80,34 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppDeconstructor(
     } EXCEPTION_CATCHER(buffer); 
 }
 
+/**
+ * Reset a RAMCloudTransaction object so that it can be used for a new
+ * transaction, reusing the C++ Transaction object.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param transaction
+ *      The calling object.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ Transaction object
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the reset operation
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppReset(
+        JNIEnv *env,
+        jobject javaRAMCloudTransactionObject,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    Transaction* transaction = buffer.readPointer<Transaction>();
+    buffer.rewind();
+    try {
+        transaction->reset();
+    } EXCEPTION_CATCHER(buffer);
+}
+
 /**
  * Commits the transaction defined by the operations performed on this
  * transaction (read, remove, write).  This method blocks until a decision is
@@ -180,6 +210,34 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppCommitAndSync(
         buffer.write<uint32_t>(0);
 }
 
+/**
+ * Start committing the transaction without blocking. The commit makes
+ * progress when the RamCloud object is polled.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param transaction
+ *      The calling object.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ Transaction object
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the operation
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppStartCommit(
+        JNIEnv *env,
+        jobject javaRAMCloudTransactionObject,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    Transaction* transaction = buffer.readPointer<Transaction>();
+    buffer.rewind();
+    try {
+        transaction->startCommit();
+    } EXCEPTION_CATCHER(buffer);
+}
+
 /**
  * Read the current contents of an object as part of this transaction.
  *
@@ -196,6 +254,9 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppCommitAndSync(
  *          byte array for the key to find
  *      The format for the output buffer is:
  *          4 bytes for the status code of the read operation
+ *          4 bytes for a boolean for whether or not the object exists
+ *          8 bytes for the version of the object when first read by this
+ *              transaction, or 0 if it was not read from a server
  *          4 bytes for the size of the read value
  *          byte array for the read value
  */
@@ -213,8 +274,9 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppRead(
     buffer.rewind();
 
     bool exists;
+    uint64_t version;
     try {
-        transaction->read(tableId, key, keyLength, &value, &exists);
+        transaction->read(tableId, key, keyLength, &value, &exists, &version);
     } EXCEPTION_CATCHER(buffer);
 
     if(exists == true)
@@ -222,10 +284,78 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppRead(
     else
         buffer.write<uint32_t>(0);
 
+    buffer.write(version);
     buffer.write(value.size());
     value.copy(0, value.size(), buffer.getVoidPointer());
 }
 
+/**
+ * Atomically add to the value of an object as part of this transaction. The
+ * object is read through the transaction's cache (issuing an RPC only if it
+ * has not been read or written yet), the sum is computed in C++, and the
+ * result is written back to the cache, all in a single call. An object that
+ * does not exist is treated as holding 0.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param transaction
+ *      The calling object.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ Transaction object
+ *          8 bytes for the ID of the table containing the object
+ *          4 bytes for the length of the key
+ *          byte array for the key
+ *          1 byte for the type of the value (0 = int64, 1 = double)
+ *          8 bytes for the value to add
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the increment operation
+ *          8 bytes for the new value of the object
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppIncrement(
+        JNIEnv *env,
+        jobject javaRAMCloudTransactionObject,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    Transaction* transaction = buffer.readPointer<Transaction>();
+    uint64_t tableId = buffer.read<uint64_t>();
+    uint32_t keyLength = buffer.read<uint32_t>();
+    void* key = buffer.getVoidPointer(keyLength);
+    uint8_t isDouble = buffer.read<uint8_t>();
+    int64_t incrementInt64 = buffer.read<int64_t>();
+    double incrementDouble;
+    memcpy(&incrementDouble, &incrementInt64, sizeof(incrementDouble));
+    buffer.rewind();
+
+    int64_t newValue = 0;
+    try {
+        Buffer value;
+        bool exists;
+        transaction->read(tableId, key, downCast<uint16_t>(keyLength),
+                          &value, &exists);
+        int64_t oldValue = 0;
+        if (exists) {
+            if (value.size() != sizeof(oldValue)) {
+                ClientException::throwException(HERE, STATUS_INVALID_OBJECT);
+            }
+            value.copy(0, sizeof(oldValue), &oldValue);
+        }
+        if (isDouble) {
+            double sum;
+            memcpy(&sum, &oldValue, sizeof(sum));
+            sum += incrementDouble;
+            memcpy(&newValue, &sum, sizeof(newValue));
+        } else {
+            newValue = oldValue + incrementInt64;
+        }
+        transaction->write(tableId, key, downCast<uint16_t>(keyLength),
+                           &newValue, sizeof(newValue));
+    } EXCEPTION_CATCHER(buffer);
+    buffer.write(newValue);
+}
+
 /**
  * Delete an object from a table as part of this transaction. If the object does
  * not currently exist then the operation succeeds without doing anything.
@@ -298,3 +428,141 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppWrite(
     } EXCEPTION_CATCHER(buffer);
 }
 
+
+/**
+ * Read the current contents of several objects in one table as part of this
+ * transaction. All reads are issued as batched ReadOps before waiting on any
+ * of them, so they complete in roughly one round of RPCs.
+ *
+ * If the values do not all fit in the ByteBuffer, only the leading results
+ * that fit are returned. The values of the other objects are then in the
+ * transaction's cache, so reading them again does not issue any RPCs.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param transaction
+ *      The calling object.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ Transaction object
+ *          8 bytes for the ID of the table to read from
+ *          4 bytes for the capacity of the ByteBuffer
+ *          4 bytes for the number of keys to read
+ *          For each key:
+ *              4 bytes for the length of the key to find
+ *              byte array for the key to find
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the read operation
+ *          4 bytes for the number of results in the buffer
+ *          For each result:
+ *              4 bytes for a boolean for whether or not the object exists
+ *              8 bytes for the version of the object when first read by
+ *                  this transaction, or 0 if it was not read from a server
+ *              4 bytes for the size of the read value
+ *              byte array for the read value
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppReadAll(
+        JNIEnv *env,
+        jobject javaRAMCloudTransactionObject,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    // The status and results are written through a separate view of the
+    // buffer, since the keys are read inside the try block.
+    ByteBuffer output(byteBufferPointer);
+    Transaction* transaction = buffer.readPointer<Transaction>();
+    uint64_t tableId = buffer.read<uint64_t>();
+    uint32_t bufferCapacity = buffer.read<uint32_t>();
+    uint32_t numKeys = buffer.read<uint32_t>();
+
+    // There may be hundreds of keys, so keep these off the JNI thread's
+    // stack.
+    std::unique_ptr<Buffer[]> values(new Buffer[numKeys]);
+    std::unique_ptr<Tub<Transaction::ReadOp>[]> readOps(
+            new Tub<Transaction::ReadOp>[numKeys]);
+    std::unique_ptr<bool[]> exists(new bool[numKeys]);
+    std::unique_ptr<uint64_t[]> versions(new uint64_t[numKeys]);
+
+    try {
+        // The ReadOps copy their keys, so the input may be overwritten below.
+        for (uint32_t i = 0; i < numKeys; i++) {
+            uint32_t keyLength = buffer.read<uint32_t>();
+            void* key = buffer.getVoidPointer(keyLength);
+            readOps[i].construct(transaction, tableId, key,
+                                 downCast<uint16_t>(keyLength), &values[i],
+                                 true);
+        }
+        for (uint32_t i = 0; i < numKeys; i++) {
+            readOps[i]->wait(&exists[i], &versions[i]);
+        }
+    } EXCEPTION_CATCHER(output);
+
+    uint32_t* numResults = output.getPointer<uint32_t>();
+    *numResults = 0;
+    for (uint32_t i = 0; i < numKeys; i++) {
+        uint32_t valueLength = values[i].size();
+        if (output.mark + 16 + valueLength > bufferCapacity) {
+            break;
+        }
+        output.write<uint32_t>(exists[i] ? 1 : 0);
+        output.write(versions[i]);
+        output.write(valueLength);
+        values[i].copy(0, valueLength, output.getVoidPointer(valueLength));
+        (*numResults)++;
+    }
+}
+
+/**
+ * Apply a batch of buffered writes and removes to this transaction, in
+ * order, in a single call.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param transaction
+ *      The calling object.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ Transaction object
+ *          4 bytes for the number of operations
+ *          For each operation:
+ *              1 byte for the type of operation (0 = write, 1 = remove)
+ *              8 bytes for the ID of the table
+ *              4 bytes for the length of the key
+ *              byte array for the key
+ *              For writes:
+ *                  4 bytes for the length of the value to write
+ *                  byte array for the value to write
+ *      The format for the output buffer is:
+ *          4 bytes for the status code of the operations
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_RAMCloudTransaction_cppWriteAll(
+        JNIEnv *env,
+        jobject javaRAMCloudTransactionObject,
+        jlong byteBufferPointer) {
+    ByteBuffer buffer(byteBufferPointer);
+    // The status is written through a separate view of the buffer, since
+    // the operations are read inside the try block.
+    ByteBuffer output(byteBufferPointer);
+    Transaction* transaction = buffer.readPointer<Transaction>();
+    uint32_t numOps = buffer.read<uint32_t>();
+    try {
+        for (uint32_t i = 0; i < numOps; i++) {
+            uint8_t type = buffer.read<uint8_t>();
+            uint64_t tableId = buffer.read<uint64_t>();
+            uint32_t keyLength = buffer.read<uint32_t>();
+            void* key = buffer.getVoidPointer(keyLength);
+            if (type == 0) {
+                uint32_t valueLength = buffer.read<uint32_t>();
+                void* value = buffer.getVoidPointer(valueLength);
+                transaction->write(tableId, key, downCast<uint16_t>(keyLength),
+                                   value, valueLength);
+            } else {
+                transaction->remove(tableId, key,
+                                    downCast<uint16_t>(keyLength));
+            }
+        }
+    } EXCEPTION_CATCHER(output);
+}
@@ -152,8 +152,9 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloudTransactionReadOp_cppWait(
     buffer.rewind();
 
     bool exists;
+    uint64_t version;
     try {
-        readOp->wait(&exists);
+        readOp->wait(&exists, &version);
     } EXCEPTION_CATCHER(buffer);
 
     if(exists == true)
@@ -161,6 +162,7 @@ JNICALL Java_edu_stanford_ramcloud_RAMCloudTransactionReadOp_cppWait(
     else
         buffer.write<uint32_t>(0);
 
+    buffer.write(version);
     buffer.write(value->size());
     value->copy(0, value->size(), buffer.getVoidPointer());
 }
@@ -15,6 +15,7 @@
 
 
 #include <RamCloud.h>
+#include <MultiIncrement.h>
 #include <MultiRead.h>
 #include <MultiWrite.h>
 #include <MultiRemove.h>
@@ -37,11 +38,18 @@ static void printBuffer(ByteBuffer buffer, uint32_t len) {
 /**
  * Calls Java to read the results in the ByteBuffer and store them on the Java
  * heap, so that C++ can resume filling the buffer from the beginning without
- * fear of overwriting data that has not yet been stored in Java.
+ * fear of overwriting data that has not yet been stored in Java. The time
+ * spent in Java is recorded as upcall time in the given PhaseTimer.
+ *
+ * \return
+ *      False if Java threw an exception while reading the results. The
+ *      exception is left pending, so the caller must return to Java without
+ *      making any further JNI calls.
  */
-void flushBuffer(
+bool flushBuffer(
         JNIEnv *env,
         const jobject &multiOpHandler,
+        PhaseTimer &timer,
         ByteBuffer &buffer,
         uint32_t numObjects,
         uint32_t currentIndex) {
@@ -51,10 +59,55 @@ void flushBuffer(
             env->GetMethodID(env->GetObjectClass(multiOpHandler),
                             "unloadBuffer",
                             "()V");
-    env->CallVoidMethod(multiOpHandler, unloadBufferId);
+    {
+        TIME_UPCALL(timer);
+        env->CallVoidMethod(multiOpHandler, unloadBufferId);
+    }
+    if (env->ExceptionCheck()) {
+        return false;
+    }
     buffer.rewind();
     buffer.write(currentIndex);
     buffer.mark += 4;
+    return true;
+}
+
+/**
+ * Reports every operation of a batch as failed with STATUS_INTERNAL_ERROR,
+ * without starting any RPCs. Used when the batch cannot be parsed.
+ *
+ * \param currentIndex
+ *      The index of the first operation of the batch.
+ * \param numObjects
+ *      The number of operations in the batch.
+ * \param bufferCapacity
+ *      The capacity of the ByteBuffer.
+ */
+static void
+failBatch(
+        JNIEnv *env,
+        const jobject &multiOpHandler,
+        PhaseTimer &timer,
+        ByteBuffer &buffer,
+        uint32_t currentIndex,
+        uint32_t numObjects,
+        uint32_t bufferCapacity) {
+    buffer.rewind();
+    buffer.write(currentIndex);
+    buffer.mark += 4;
+    uint32_t lastFlush(0);
+    for (uint32_t i = 0; i < numObjects; i++) {
+        if (buffer.mark + 4 >= bufferCapacity) {
+            if (!flushBuffer(env, multiOpHandler, timer, buffer, i - lastFlush,
+                             currentIndex + i)) {
+                return;
+            }
+            lastFlush = i;
+        }
+        buffer.write(static_cast<uint32_t>(STATUS_INTERNAL_ERROR));
+    }
+    flushBuffer(env, multiOpHandler, timer, buffer, numObjects - lastFlush,
+                currentIndex + numObjects);
 }
 
 /**
@@ -70,10 +123,12 @@ void flushBuffer(
  *          8 bytes for a pointer to a C++ RamCloud object
  *          4 bytes for the index of the first read operation
  *          4 bytes for the number of multiread operations
+ *          4 bytes for the capacity of the ByteBuffer
  *          For each read operation:
  *              8 bytes for the tableId to read from
  *              2 bytes for the length of the key to read
  *              byte array for the key to read
+ *              12 bytes representing the RejectRules for this operation
  *      The format for the output buffer is:
  *          4 bytes for index of the first read operation
  *          4 bytes for the number of results in the buffer
@@ -83,17 +138,23 @@ void flushBuffer(
  *                  8 bytes for the version of the read object
  *                  4 bytes for the length of the read value
  *                  byte array for the read value
+ * \param phaseTimesPointer
+ *      The address of the PhaseTimes in which to record the phases of this
+ *      call, or 0 if they should not be recorded.
  */
 JNIEXPORT void
 JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiRead(
         JNIEnv *env,
         jobject multiOpHandler,
-        jlong byteBufferPointer) {
+        jlong byteBufferPointer,
+        jlong phaseTimesPointer) {
+    PhaseTimer timer(phaseTimesPointer);
     ByteBuffer buffer(byteBufferPointer);
     RamCloud* ramcloud = buffer.readPointer<RamCloud>();
 
     uint32_t currentIndex = buffer.read<uint32_t>();
     uint32_t numObjects = buffer.read<uint32_t>();
+    uint32_t bufferCapacity = buffer.read<uint32_t>();
 
     // ObjectBuffers that the object values will be read into.
     Tub<ObjectBuffer> values[numObjects];
@@ -108,31 +169,32 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiRead(
         uint64_t tableId = buffer.read<uint64_t>();
         uint16_t keyLength = buffer.read<uint16_t>();
         void* key = buffer.getVoidPointer(keyLength);
+        RejectRules* rule = buffer.getPointer<RejectRules>();
         objects[i] = {
             tableId,
             key,
             keyLength,
-            &values[i]
+            &values[i],
+            rule
         };
         objectPointers[i] = &objects[i];
     }
 
-#if TIME_CPP
-    uint64_t start = Cycles::rdtsc();
-#endif
-    ramcloud->multiRead(objectPointers, numObjects);
-#if TIME_CPP
-    start = Cycles::rdtsc() - start;
-    printf("C++ MultiRead Time: %f\n", Cycles::toSeconds(start) * 1000000 / numObjects);
-#endif
+    {
+        TIME_RPC(timer);
+        ramcloud->multiRead(objectPointers, numObjects);
+    }
 
     buffer.rewind();
     buffer.write(currentIndex);
     buffer.mark += 4;
     uint32_t lastFlush(0);
     for (int i = 0; i < numObjects; i++) {
-        if (buffer.mark + 4 >= bufferSize) {
-            flushBuffer(env, multiOpHandler, buffer, i - lastFlush, currentIndex);
+        if (buffer.mark + 4 >= bufferCapacity) {
+            if (!flushBuffer(env, multiOpHandler, timer, buffer, i - lastFlush,
+                             currentIndex)) {
+                return;
+            }
             lastFlush = i;
         }
         uint32_t status = static_cast<uint32_t>(objects[i].status);
@@ -143,8 +205,11 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiRead(
             // If the next result can't fit into the buffer, call Java to read
             // the data currently in the buffer and resume filling it from the
             // beginning.
-            if (buffer.mark + 12 + valueLength >= bufferSize) {
-                flushBuffer(env, multiOpHandler, buffer, i - lastFlush, currentIndex);
+            if (buffer.mark + 12 + valueLength >= bufferCapacity) {
+                if (!flushBuffer(env, multiOpHandler, timer, buffer, i - lastFlush,
+                                 currentIndex)) {
+                    return;
+                }
                 lastFlush = i;
                 buffer.write(status);
             }
@@ -155,7 +220,7 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiRead(
         }
         currentIndex++;
     }
-    flushBuffer(env, multiOpHandler, buffer, numObjects - lastFlush, currentIndex);
+    flushBuffer(env, multiOpHandler, timer, buffer, numObjects - lastFlush, currentIndex);
 }
 
 /**
@@ -171,6 +236,7 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiRead(
  *          8 bytes for a pointer to a C++ RamCloud object
  *          4 bytes for the index of the first write operation
  *          4 bytes for the number of multiwrite operations
+ *          4 bytes for the capacity of the ByteBuffer
  *          For each write operation:
  *              8 bytes for the tableId to write to
  *              2 bytes for the length of the key to write
@@ -185,17 +251,23 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiRead(
  *              4 bytes for the status of the operation.
  *              If the status is 0:
  *                  8 bytes for the version of the written object
+ * \param phaseTimesPointer
+ *      The address of the PhaseTimes in which to record the phases of this
+ *      call, or 0 if they should not be recorded.
  */
 JNIEXPORT void
 JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiWrite(
         JNIEnv *env,
         jobject multiOpHandler,
-        jlong byteBufferPointer) {
+        jlong byteBufferPointer,
+        jlong phaseTimesPointer) {
+    PhaseTimer timer(phaseTimesPointer);
     ByteBuffer buffer(byteBufferPointer);
     RamCloud* ramcloud = buffer.readPointer<RamCloud>();
 
     uint32_t currentIndex = buffer.read<uint32_t>();
     uint32_t numObjects = buffer.read<uint32_t>();
+    uint32_t bufferCapacity = buffer.read<uint32_t>();
 
     Tub<MultiWriteObject> objects[numObjects];
     MultiWriteObject* objectPointers[numObjects];
@@ -217,29 +289,31 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiWrite(
         objectPointers[i] = objects[i].get();
     }
 
-#if TIME_CPP
-    uint64_t start = Cycles::rdtsc();
-#endif
-    ramcloud->multiWrite(objectPointers, numObjects);
-#if TIME_CPP
-    start = Cycles::rdtsc() - start;
-    printf("C++ MultiWrite Time: %f\n", Cycles::toSeconds(start) * 1000000 / numObjects);
-#endif
+    {
+        TIME_RPC(timer);
+        ramcloud->multiWrite(objectPointers, numObjects);
+    }
 
     buffer.rewind();
     buffer.write(currentIndex);
     buffer.mark += 4;
     uint32_t lastFlush(0);
     for (int i = 0; i < numObjects; i++) {
-        if (buffer.mark + 4 >= bufferSize) {
-            flushBuffer(env, multiOpHandler, buffer, i - lastFlush, currentIndex);
+        if (buffer.mark + 4 >= bufferCapacity) {
+            if (!flushBuffer(env, multiOpHandler, timer, buffer, i - lastFlush,
+                             currentIndex)) {
+                return;
+            }
             lastFlush = i;
         }
         uint32_t status = static_cast<uint32_t>(objectPointers[i]->status);
         buffer.write(status);
         if (status == 0) {
-            if (buffer.mark + 8 >= bufferSize) {
-                flushBuffer(env, multiOpHandler, buffer, i - lastFlush, currentIndex);
+            if (buffer.mark + 8 >= bufferCapacity) {
+                if (!flushBuffer(env, multiOpHandler, timer, buffer, i - lastFlush,
+                                 currentIndex)) {
+                    return;
+                }
                 lastFlush = i;
                 buffer.write(status);
             }
@@ -247,7 +321,7 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiWrite(
         }
         currentIndex++;
     }
-    flushBuffer(env, multiOpHandler, buffer, numObjects - lastFlush, currentIndex);
+    flushBuffer(env, multiOpHandler, timer, buffer, numObjects - lastFlush, currentIndex);
 }
 
 /**
@@ -263,6 +337,7 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiWrite(
  *          8 bytes for a pointer to a C++ RamCloud object
  *          4 bytes for the index of the first remove operation
  *          4 bytes for the number of multiremove operations
+ *          4 bytes for the capacity of the ByteBuffer
  *          For each remove operation:
  *              8 bytes for the tableId to remove to
  *              2 bytes for the length of the key to remove
@@ -275,20 +350,23 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiWrite(
  *              4 bytes for the status of the operation
  *              If the status is 0:
  *                  8 bytes for the version of the object just before removal
+ * \param phaseTimesPointer
+ *      The address of the PhaseTimes in which to record the phases of this
+ *      call, or 0 if they should not be recorded.
  */
 JNIEXPORT void
 JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiRemove(
         JNIEnv *env,
         jobject multiOpHandler,
-        jlong byteBufferPointer) {
-#if TIME_CPP
-    uint64_t start = Cycles::rdtsc();
-#endif
+        jlong byteBufferPointer,
+        jlong phaseTimesPointer) {
+    PhaseTimer timer(phaseTimesPointer);
     ByteBuffer buffer(byteBufferPointer);
     RamCloud* ramcloud = buffer.readPointer<RamCloud>();
 
     uint32_t currentIndex = buffer.read<uint32_t>();
     uint32_t numObjects = buffer.read<uint32_t>();
+    uint32_t bufferCapacity = buffer.read<uint32_t>();
 
     Tub<MultiRemoveObject> objects[numObjects];
     MultiRemoveObject* objectPointers[numObjects];
@@ -306,26 +384,31 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiRemove(
         objectPointers[i] = objects[i].get();
     }
 
-    ramcloud->multiRemove(objectPointers, numObjects);
-#if TIME_CPP
-    start = Cycles::rdtsc() - start;
-    printf("C++ MultiRemove Time: %f\n", Cycles::toSeconds(start) * 1000000 / numObjects);
-#endif
+    {
+        TIME_RPC(timer);
+        ramcloud->multiRemove(objectPointers, numObjects);
+    }
 
     buffer.rewind();
     buffer.write(currentIndex);
     buffer.mark += 4;
     uint32_t lastFlush(0);
     for (int i = 0; i < numObjects; i++) {
-        if (buffer.mark + 4 >= bufferSize) {
-            flushBuffer(env, multiOpHandler, buffer, i - lastFlush, currentIndex);
+        if (buffer.mark + 4 >= bufferCapacity) {
+            if (!flushBuffer(env, multiOpHandler, timer, buffer, i - lastFlush,
+                             currentIndex)) {
+                return;
+            }
             lastFlush = i;
         }
         uint32_t status = static_cast<uint32_t>(objectPointers[i]->status);
         buffer.write(status);
         if (status == 0) {
-            if (buffer.mark + 8 >= bufferSize) {
-                flushBuffer(env, multiOpHandler, buffer, i - lastFlush, currentIndex);
+            if (buffer.mark + 8 >= bufferCapacity) {
+                if (!flushBuffer(env, multiOpHandler, timer, buffer, i - lastFlush,
+                                 currentIndex)) {
+                    return;
+                }
                 lastFlush = i;
                 buffer.write(status);
             }
@@ -333,5 +416,241 @@ JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiRemove(
         }
         currentIndex++;
     }
-    flushBuffer(env, multiOpHandler, buffer, numObjects - lastFlush, currentIndex);
+    flushBuffer(env, multiOpHandler, timer, buffer, numObjects - lastFlush, currentIndex);
+}
+
+/**
+ * Type tags preceding each operation in a mixed multi-op request. These must
+ * match the constants in MixedMultiOpHandler.java.
+ */
+enum MixedOpType {
+    MIXED_READ = 0,
+    MIXED_WRITE = 1,
+    MIXED_REMOVE = 2,
+    MIXED_INCREMENT = 3
+};
+
+/**
+ * Performs a batch of mixed read, write, remove and increment operations. The
+ * operations are grouped by type, and one MultiOp of each type is started
+ * before waiting on any of them, so that all of the RPCs are in flight at the
+ * same time.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param multiOpHandler
+ *      The calling class.
+ * \param byteBufferPointer
+ *      A pointer to the ByteBuffer through which Java and C++ will communicate.
+ *      The format for the input buffer is:
+ *          8 bytes for a pointer to a C++ RamCloud object
+ *          4 bytes for the index of the first operation
+ *          4 bytes for the number of operations
+ *          4 bytes for the capacity of the ByteBuffer
+ *          For each operation:
+ *              1 byte for the type of the operation (see MixedOpType)
+ *              The operation, in the same format as the single-type
+ *              multi-ops above. Increments are encoded as:
+ *                  8 bytes for the tableId of the object to increment
+ *                  2 bytes for the length of the key
+ *                  byte array for the key
+ *                  8 bytes for the integer summand
+ *                  8 bytes for the floating point summand
+ *                  12 bytes representing the RejectRules for this operation
+ *      The format for the output buffer is:
+ *          4 bytes for index of the first operation
+ *          4 bytes for the number of results in the buffer
+ *          For each result:
+ *              4 bytes for the status of the operation
+ *              If the status is 0:
+ *                  8 bytes for the version of the object
+ *                  For reads:
+ *                      4 bytes for the length of the read value
+ *                      byte array for the read value
+ *                  For increments:
+ *                      8 bytes for the new value of the object
+ * \param phaseTimesPointer
+ *      The address of the PhaseTimes in which to record the phases of this
+ *      call, or 0 if they should not be recorded.
+ */
+JNIEXPORT void
+JNICALL Java_edu_stanford_ramcloud_multiop_MultiOpHandler_cppMultiOp(
+        JNIEnv *env,
+        jobject multiOpHandler,
+        jlong byteBufferPointer,
+        jlong phaseTimesPointer) {
+    PhaseTimer timer(phaseTimesPointer);
+    ByteBuffer buffer(byteBufferPointer);
+    RamCloud* ramcloud = buffer.readPointer<RamCloud>();
+
+    uint32_t currentIndex = buffer.read<uint32_t>();
+    uint32_t numObjects = buffer.read<uint32_t>();
+    uint32_t bufferCapacity = buffer.read<uint32_t>();
+
+    // The type of each operation and a pointer to its request object, in the
+    // order the operations appear in the batch.
+    uint8_t types[numObjects];
+    MultiOpObject* batchPointers[numObjects];
+
+    Tub<ObjectBuffer> values[numObjects];
+    Tub<MultiReadObject> readObjects[numObjects];
+    MultiReadObject* readPointers[numObjects];
+    uint32_t numReads = 0;
+
+    Tub<MultiWriteObject> writeObjects[numObjects];
+    MultiWriteObject* writePointers[numObjects];
+    uint32_t numWrites = 0;
+
+    Tub<MultiRemoveObject> removeObjects[numObjects];
+    MultiRemoveObject* removePointers[numObjects];
+    uint32_t numRemoves = 0;
+
+    Tub<MultiIncrementObject> incrementObjects[numObjects];
+    MultiIncrementObject* incrementPointers[numObjects];
+    uint32_t numIncrements = 0;
+
+    for (uint32_t i = 0; i < numObjects; i++) {
+        types[i] = buffer.read<uint8_t>();
+        uint64_t tableId = buffer.read<uint64_t>();
+        uint16_t keyLength = buffer.read<uint16_t>();
+        void* key = buffer.getVoidPointer(keyLength);
+        switch (types[i]) {
+            case MIXED_READ: {
+                RejectRules* rule = buffer.getPointer<RejectRules>();
+                readObjects[i].construct(tableId, key, keyLength, &values[i],
+                                         rule);
+                readPointers[numReads++] = readObjects[i].get();
+                batchPointers[i] = readObjects[i].get();
+                break;
+            }
+            case MIXED_WRITE: {
+                uint32_t valueLength = buffer.read<uint32_t>();
+                void* value = buffer.getVoidPointer(valueLength);
+                RejectRules* rule = buffer.getPointer<RejectRules>();
+                writeObjects[i].construct(tableId, key, keyLength,
+                                          value, valueLength, rule);
+                writePointers[numWrites++] = writeObjects[i].get();
+                batchPointers[i] = writeObjects[i].get();
+                break;
+            }
+            case MIXED_REMOVE: {
+                RejectRules* rule = buffer.getPointer<RejectRules>();
+                removeObjects[i].construct(tableId, key, keyLength, rule);
+                removePointers[numRemoves++] = removeObjects[i].get();
+                batchPointers[i] = removeObjects[i].get();
+                break;
+            }
+            case MIXED_INCREMENT: {
+                int64_t incrementInt64 = buffer.read<int64_t>();
+                double incrementDouble = buffer.read<double>();
+                RejectRules* rule = buffer.getPointer<RejectRules>();
+                incrementObjects[i].construct(tableId, key, keyLength,
+                                              incrementInt64, incrementDouble,
+                                              rule);
+                incrementPointers[numIncrements++] = incrementObjects[i].get();
+                batchPointers[i] = incrementObjects[i].get();
+                break;
+            }
+            default:
+                // The length of an unknown operation is unknown too, so the
+                // rest of the batch can't be parsed. Fail all of it before
+                // any RPCs are started.
+                failBatch(env, multiOpHandler, timer, buffer, currentIndex,
+                          numObjects, bufferCapacity);
+                return;
+        }
+    }
+
+    // Start every sub-batch before waiting on any of them. Each MultiOp
+    // starts its RPCs in its constructor. The sub-batches outlive the timed
+    // interval, so it is held in a Tub and ended explicitly.
+    Tub<PhaseTimer::Interval> rpcInterval;
+    rpcInterval.construct(timer, &PhaseTimes::rpcNanos);
+    Tub<MultiRead> multiRead;
+    Tub<MultiWrite> multiWrite;
+    Tub<MultiRemove> multiRemove;
+    Tub<MultiIncrement> multiIncrement;
+    if (numReads > 0)
+        multiRead.construct(ramcloud, readPointers, numReads);
+    if (numWrites > 0)
+        multiWrite.construct(ramcloud, writePointers, numWrites);
+    if (numRemoves > 0)
+        multiRemove.construct(ramcloud, removePointers, numRemoves);
+    if (numIncrements > 0)
+        multiIncrement.construct(ramcloud, incrementPointers, numIncrements);
+
+    bool readDone = !multiRead;
+    bool writeDone = !multiWrite;
+    bool removeDone = !multiRemove;
+    bool incrementDone = !multiIncrement;
+    while (!(readDone && writeDone && removeDone && incrementDone)) {
+        if (!readDone)
+            readDone = multiRead->isReady();
+        if (!writeDone)
+            writeDone = multiWrite->isReady();
+        if (!removeDone)
+            removeDone = multiRemove->isReady();
+        if (!incrementDone)
+            incrementDone = multiIncrement->isReady();
+        ramcloud->poll();
+    }
+    rpcInterval.destroy();
+
+    buffer.rewind();
+    buffer.write(currentIndex);
+    buffer.mark += 4;
+    uint32_t lastFlush(0);
+    for (uint32_t i = 0; i < numObjects; i++) {
+        if (buffer.mark + 4 >= bufferCapacity) {
+            if (!flushBuffer(env, multiOpHandler, timer, buffer, i - lastFlush,
+                             currentIndex)) {
+                return;
+            }
+            lastFlush = i;
+        }
+        uint32_t status = static_cast<uint32_t>(batchPointers[i]->status);
+        buffer.write(status);
+        if (status == 0) {
+            uint32_t valueLength = 0;
+            const void* value = NULL;
+            uint32_t resultLength = 8;
+            if (types[i] == MIXED_READ) {
+                value = values[i].get()->getValue(&valueLength);
+                resultLength += 4 + valueLength;
+            } else if (types[i] == MIXED_INCREMENT) {
+                resultLength += 8;
+            }
+            // If the next result can't fit into the buffer, call Java to read
+            // the data currently in the buffer and resume filling it from the
+            // beginning.
+            if (buffer.mark + resultLength >= bufferCapacity) {
+                if (!flushBuffer(env, multiOpHandler, timer, buffer, i - lastFlush,
+                                 currentIndex)) {
+                    return;
+                }
+                lastFlush = i;
+                buffer.write(status);
+            }
+            switch (types[i]) {
+                case MIXED_READ:
+                    buffer.write(readObjects[i]->version);
+                    buffer.write(valueLength);
+                    memcpy(buffer.getVoidPointer(), value, valueLength);
+                    buffer.mark += valueLength;
+                    break;
+                case MIXED_WRITE:
+                    buffer.write(writeObjects[i]->version);
+                    break;
+                case MIXED_REMOVE:
+                    buffer.write(removeObjects[i]->version);
+                    break;
+                case MIXED_INCREMENT:
+                    buffer.write(incrementObjects[i]->version);
+                    buffer.write(incrementObjects[i]->newValue.asInt64);
+                    break;
+            }
+        }
+        currentIndex++;
+    }
+    flushBuffer(env, multiOpHandler, timer, buffer, numObjects - lastFlush, currentIndex);
 }
@@ -22,6 +22,8 @@
 #define RAMCLOUD_JAVACOMMON_H
 
 #include <ClientException.h>
+#include <Cycles.h>
+#include <Transport.h>
 #include "ByteBuffer.h"
 
 namespace RAMCloud {
@@ -45,15 +47,115 @@ namespace RAMCloud {
     }                                                                   \
     statusBuffer.write<uint32_t>(0);
 
-// Time C++ blocks
-#define TIME_CPP false
+/**
+ * Like EXCEPTION_CATCHER, but also reports a TransportException, which RPCs
+ * addressed to a particular service locator throw when the server cannot be
+ * reached, as STATUS_SERVER_NOT_UP.
+ */
+#define SERVER_EXCEPTION_CATCHER(statusBuffer)                          \
+    catch (TransportException& e) {                                     \
+        statusBuffer.write(static_cast<uint32_t>(STATUS_SERVER_NOT_UP)); \
+        return;                                                         \
+    }                                                                   \
+    EXCEPTION_CATCHER(statusBuffer)
+
+/**
+ * Times recorded by the JNI functions for one Java call, so that Java can
+ * split the call into phases (see ClientMetrics.setPhaseTimingEnabled). Java
+ * allocates this structure in the PHASE_TIMES_SIZE bytes just before the
+ * shared ByteBuffer of each RAMCloud object, passes its address explicitly to
+ * each JNI function that records times, zeroes the times before each call,
+ * and reads them back afterwards. All times are in nanoseconds.
+ */
+struct PhaseTimes {
+    /// PHASE_TIMES_ENABLED if the times below should be recorded; anything
+    /// else disables recording.
+    uint32_t enabled;
+    uint32_t padding;
+    /// Total time spent inside JNI functions.
+    uint64_t nativeNanos;
+    /// Part of nativeNanos spent waiting for RPCs.
+    uint64_t rpcNanos;
+    /// Part of nativeNanos spent in unloadBuffer upcalls into Java.
+    uint64_t upcallNanos;
+};
+#define PHASE_TIMES_SIZE 32
+#define PHASE_TIMES_ENABLED 0x53484150
+
+/**
+ * Records into a PhaseTimes the time from its construction to its
+ * destruction, which should span a whole JNI function. Does nothing unless
+ * Java passed a PhaseTimes and enabled phase timing in it, in which case the
+ * cost is a few calls to Cycles::rdtsc.
+ */
+class PhaseTimer {
+  public:
+    /**
+     * \param phaseTimesPointer
+     *      The address of the PhaseTimes passed by Java, or 0 if no times
+     *      should be recorded.
+     */
+    explicit PhaseTimer(jlong phaseTimesPointer)
+        : times(reinterpret_cast<PhaseTimes*>(phaseTimesPointer))
+        , enabled(times != NULL && times->enabled == PHASE_TIMES_ENABLED)
+        , start(enabled ? Cycles::rdtsc() : 0)
+    {
+    }
+
+    ~PhaseTimer()
+    {
+        if (enabled) {
+            times->nativeNanos += Cycles::toNanoseconds(Cycles::rdtsc() - start);
+        }
+    }
+
+    /**
+     * Adds the lifetime of this object to one of the times of a PhaseTimer.
+     * Declared inside a try block, it also counts calls that throw.
+     */
+    class Interval {
+      public:
+        Interval(PhaseTimer& timer, uint64_t PhaseTimes::* field)
+            : timer(timer)
+            , field(field)
+            , start(timer.enabled ? Cycles::rdtsc() : 0)
+        {
+        }
+
+        ~Interval()
+        {
+            if (timer.enabled) {
+                timer.times->*field +=
+                        Cycles::toNanoseconds(Cycles::rdtsc() - start);
+            }
+        }
+
+      private:
+        PhaseTimer& timer;
+        uint64_t PhaseTimes::* field;
+        uint64_t start;
+        DISALLOW_COPY_AND_ASSIGN(Interval);
+    };
+
+  private:
+    PhaseTimes* times;
+    bool enabled;
+    uint64_t start;
+    DISALLOW_COPY_AND_ASSIGN(PhaseTimer);
+};
+
+/// Times an RPC as part of a PhaseTimer.
+#define TIME_RPC(timer) \
+    PhaseTimer::Interval _rpcInterval(timer, &PhaseTimes::rpcNanos)
+
+/// Times an upcall into Java as part of a PhaseTimer.
+#define TIME_UPCALL(timer) \
+    PhaseTimer::Interval _upcallInterval(timer, &PhaseTimes::upcallNanos)
 
 #define check_null(var, msg)                                            \
     if (var == NULL) {                                                  \
         throw Exception(HERE, "RAMCloud: NULL returned: " msg "\n");    \
     }
-
-#define bufferSize 2097152
     
 }
 
@@ -25,6 +25,27 @@ public class ClientException extends RuntimeException {
      */
     private static Status[] statuses = Status.values();
 
+    /**
+     * Construct an exception with a stack trace, as for any other
+     * RuntimeException.
+     */
+    public ClientException() {
+        super();
+    }
+
+    /**
+     * Construct an exception that may skip capturing a stack trace.
+     * Filling in the stack trace is by far the most expensive part of
+     * throwing, so the exceptions for routine outcomes are preallocated
+     * without one.
+     *
+     * @param writableStackTrace
+     *      False if the exception should carry no stack trace.
+     */
+    protected ClientException(boolean writableStackTrace) {
+        super(null, null, false, writableStackTrace);
+    }
+
     /**
      * Throws any exceptions if the returned status from the function was
      * not SUCCESS.
@@ -40,11 +61,11 @@ public class ClientException extends RuntimeException {
             case STATUS_TABLE_DOESNT_EXIST:
                 throw new TableDoesntExistException();
             case STATUS_OBJECT_DOESNT_EXIST:
-                throw new ObjectDoesntExistException();
+                throw ObjectDoesntExistException.INSTANCE;
             case STATUS_OBJECT_EXISTS:
-                throw new ObjectExistsException();
+                throw ObjectExistsException.INSTANCE;
             case STATUS_WRONG_VERSION:
-                throw new WrongVersionException();
+                throw WrongVersionException.INSTANCE;
             case STATUS_NO_TABLE_SPACE:
                 throw new NoTableSpaceException();
             case STATUS_MESSAGE_TOO_SHORT:
@@ -104,11 +125,42 @@ public class ClientException extends RuntimeException {
         }
     }
 
+    /**
+     * Like checkStatus, but returns the status instead of throwing when it
+     * is one of the expected outcomes of checking RejectRules
+     * (STATUS_OBJECT_DOESNT_EXIST, STATUS_OBJECT_EXISTS or
+     * STATUS_WRONG_VERSION). Any other failure is still thrown.
+     *
+     * @param statusCode The status returned from C++.
+     * @return The status, which is either STATUS_OK or a RejectRules status.
+     */
+    public static Status checkUnexpectedStatus(int statusCode) {
+        Status status = Status.statuses[statusCode];
+        switch (status) {
+            case STATUS_OK:
+            case STATUS_OBJECT_DOESNT_EXIST:
+            case STATUS_OBJECT_EXISTS:
+            case STATUS_WRONG_VERSION:
+                return status;
+            default:
+                checkStatus(statusCode);
+                return status;
+        }
+    }
+
     /**
      * Superclass covering all exceptions that can be generated as a
-     * result of checking RejectRules.
+     * result of checking RejectRules. checkStatus throws a single shared
+     * instance of each of these, with no stack trace, since they are
+     * routine outcomes rather than errors.
      */
-    public static class RejectRulesException extends ClientException {}
+    public static class RejectRulesException extends ClientException {
+        public RejectRulesException() {}
+
+        protected RejectRulesException(boolean writableStackTrace) {
+            super(writableStackTrace);
+        }
+    }
 
     /**
      * Superclass covering all exceptions that correspond to internal
@@ -118,9 +170,36 @@ public class ClientException extends RuntimeException {
 
     public static class UnknownTabletException extends ClientException {}
     public static class TableDoesntExistException extends ClientException {}
-    public static class ObjectDoesntExistException extends RejectRulesException {}
-    public static class ObjectExistsException extends RejectRulesException {}
-    public static class WrongVersionException extends RejectRulesException {}
+    public static class ObjectDoesntExistException extends RejectRulesException {
+        static final ObjectDoesntExistException INSTANCE =
+                new ObjectDoesntExistException(false);
+
+        public ObjectDoesntExistException() {}
+
+        private ObjectDoesntExistException(boolean writableStackTrace) {
+            super(writableStackTrace);
+        }
+    }
+    public static class ObjectExistsException extends RejectRulesException {
+        static final ObjectExistsException INSTANCE =
+                new ObjectExistsException(false);
+
+        public ObjectExistsException() {}
+
+        private ObjectExistsException(boolean writableStackTrace) {
+            super(writableStackTrace);
+        }
+    }
+    public static class WrongVersionException extends RejectRulesException {
+        static final WrongVersionException INSTANCE =
+                new WrongVersionException(false);
+
+        public WrongVersionException() {}
+
+        private WrongVersionException(boolean writableStackTrace) {
+            super(writableStackTrace);
+        }
+    }
     public static class NoTableSpaceException extends ClientException {}
     public static class MessageTooShortError extends InternalError {}
     public static class UnimplementedRequestError extends InternalError {}
@@ -0,0 +1,310 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative long values, such as latencies in
+ * nanoseconds. Values are counted in log-linear buckets: each power of two is
+ * split into SUB_BUCKETS equal parts, so a recorded value is reported with a
+ * relative error of at most 1 / SUB_BUCKETS. Recording is a few arithmetic
+ * operations and one atomic increment, so it is cheap enough to do on every
+ * operation from many threads.
+ *
+ * The bucket counters are striped by thread, so that threads recording at
+ * the same time mostly increment different cache lines. Queries add up the
+ * stripes; use snapshot() to answer several of them from one pass.
+ */
+public class Histogram {
+    /**
+     * log2 of the number of buckets each power of two is divided into. 128
+     * sub-buckets keep the error below 1%, which tail percentiles such as
+     * p99.9 need, for about 57KB of counters per stripe.
+     */
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Enough buckets to hold any non-negative long.
+     */
+    private static final int NUM_BUCKETS =
+            (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * The number of stripes of bucket counters: the number of processors,
+     * rounded up to a power of two and capped at 8. A stripe is only
+     * allocated once a thread records into it.
+     */
+    private static final int NUM_STRIPES = Math.min(8, Integer.highestOneBit(
+            Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes =
+            new AtomicReferenceArray<AtomicLongArray>(NUM_STRIPES);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Returns the index of the bucket counting the given value.
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS))
+                & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest value counted by the given bucket.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long lower = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Returns the stripe of bucket counters of the calling thread, allocating
+     * it if no thread has recorded into it yet.
+     */
+    private AtomicLongArray stripe() {
+        int index = (int) Thread.currentThread().getId() & (NUM_STRIPES - 1);
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null,
+                                  new AtomicLongArray(NUM_BUCKETS));
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    /**
+     * Adds a value to the histogram. Negative values are counted as 0.
+     *
+     * @param value
+     *      The value to record.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        stripe().incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Get the number of values recorded.
+     *
+     * @return The number of values recorded since the last reset.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the sum of the values recorded.
+     *
+     * @return The sum of the values recorded since the last reset.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Get the mean of the values recorded.
+     *
+     * @return The mean value, or 0 if nothing has been recorded.
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0.0 : (double) getSum() / n;
+    }
+
+    /**
+     * Get the largest value recorded.
+     *
+     * @return The largest value recorded, or 0 if nothing has been recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get an upper bound on the value at the given percentile. Each call
+     * adds up all the bucket counters; to compute several percentiles, take
+     * one snapshot() and query it instead.
+     *
+     * @param percentile
+     *      The percentile to compute, between 0 and 100.
+     * @return The upper bound of the bucket containing the value at the
+     *      percentile, never more than the largest value recorded, or 0 if
+     *      nothing has been recorded.
+     */
+    public long getPercentile(double percentile) {
+        return snapshot().getPercentile(percentile);
+    }
+
+    /**
+     * Get a copy of the current values, so that several statistics can be
+     * computed from one consistent view without adding up the bucket
+     * counters again for each.
+     *
+     * @return The snapshot.
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[NUM_BUCKETS];
+        long total = 0;
+        for (int s = 0; s < NUM_STRIPES; s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                long n = stripe.get(i);
+                buckets[i] += n;
+                total += n;
+            }
+        }
+        return new Snapshot(buckets, total, getSum(), getMax());
+    }
+
+    /**
+     * Discards all recorded values. Values recorded concurrently with a reset
+     * may be partly lost.
+     */
+    public void reset() {
+        for (int s = 0; s < NUM_STRIPES; s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                stripe.set(i, 0);
+            }
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * An immutable copy of the values of a Histogram at one point in time.
+     */
+    public static class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Get the number of values recorded.
+         *
+         * @return The number of values counted in the buckets.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Get the sum of the values recorded.
+         *
+         * @return The sum of the values recorded.
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * Get the mean of the values recorded.
+         *
+         * @return The mean value, or 0 if nothing has been recorded.
+         */
+        public double getMean() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+
+        /**
+         * Get the largest value recorded.
+         *
+         * @return The largest value recorded, or 0 if nothing has been
+         *      recorded.
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Get an upper bound on the value at the given percentile.
+         *
+         * @param percentile
+         *      The percentile to compute, between 0 and 100.
+         * @return The upper bound of the bucket containing the value at the
+         *      percentile, never more than the largest value recorded, or 0
+         *      if nothing has been recorded.
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100.0 * count);
+            rank = Math.max(1, Math.min(count, rank));
+            long seen = 0;
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1f p50=%d p99=%d p999=%d "
+                                 + "max=%d", count, getMean(),
+                                 getPercentile(50), getPercentile(99),
+                                 getPercentile(99.9), max);
+        }
+    }
+}
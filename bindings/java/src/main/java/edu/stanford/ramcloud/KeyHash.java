@@ -0,0 +1,136 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud;
+
+/**
+ * A Java implementation of the key hash used by RAMCloud to assign objects to
+ * tablets. It must produce exactly the same values as Key::getHash in
+ * Key.cc, which takes the first 64 bits of MurmurHash3_x64_128 over the key,
+ * seeded with the low 32 bits of the table ID.
+ *
+ * Hash values are unsigned 64-bit integers; use Long.compareUnsigned to
+ * compare them.
+ */
+public class KeyHash {
+    private static final long c1 = 0x87c37b91114253d5L;
+    private static final long c2 = 0x4cf5ad432745937fL;
+
+    /**
+     * Given a key, returns its hash value.
+     *
+     * @param tableId
+     *      The ID of the table the key is in.
+     * @param key
+     *      The key to hash.
+     * @return The hash value of the key, which determines the tablet that
+     *      stores the object.
+     */
+    public static long getHash(long tableId, byte[] key) {
+        return getHash(tableId, key, 0, key.length);
+    }
+
+    /**
+     * Given a key stored in part of a byte array, returns its hash value.
+     *
+     * @param tableId
+     *      The ID of the table the key is in.
+     * @param key
+     *      The array holding the key.
+     * @param offset
+     *      The index of the first byte of the key in the array.
+     * @param length
+     *      The length of the key in bytes.
+     * @return The hash value of the key.
+     */
+    // The tail is mixed in with a fallthrough switch, as in MurmurHash3.
+    @SuppressWarnings("fallthrough")
+    public static long getHash(long tableId, byte[] key, int offset,
+                               int length) {
+        long seed = tableId & 0xffffffffL;
+        long h1 = seed;
+        long h2 = seed;
+
+        int nblocks = length / 16;
+        for (int i = 0; i < nblocks; i++) {
+            int block = offset + i * 16;
+            long k1 = getLong(key, block);
+            long k2 = getLong(key, block + 8);
+
+            k1 *= c1; k1 = Long.rotateLeft(k1, 31); k1 *= c2; h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27); h1 += h2; h1 = h1 * 5 + 0x52dce729;
+            k2 *= c2; k2 = Long.rotateLeft(k2, 33); k2 *= c1; h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31); h2 += h1; h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int tail = offset + nblocks * 16;
+        long k1 = 0;
+        long k2 = 0;
+        switch (length & 15) {
+            case 15: k2 ^= (key[tail + 14] & 0xffL) << 48;
+            case 14: k2 ^= (key[tail + 13] & 0xffL) << 40;
+            case 13: k2 ^= (key[tail + 12] & 0xffL) << 32;
+            case 12: k2 ^= (key[tail + 11] & 0xffL) << 24;
+            case 11: k2 ^= (key[tail + 10] & 0xffL) << 16;
+            case 10: k2 ^= (key[tail + 9] & 0xffL) << 8;
+            case 9:  k2 ^= (key[tail + 8] & 0xffL);
+                     k2 *= c2; k2 = Long.rotateLeft(k2, 33); k2 *= c1; h2 ^= k2;
+            case 8:  k1 ^= (key[tail + 7] & 0xffL) << 56;
+            case 7:  k1 ^= (key[tail + 6] & 0xffL) << 48;
+            case 6:  k1 ^= (key[tail + 5] & 0xffL) << 40;
+            case 5:  k1 ^= (key[tail + 4] & 0xffL) << 32;
+            case 4:  k1 ^= (key[tail + 3] & 0xffL) << 24;
+            case 3:  k1 ^= (key[tail + 2] & 0xffL) << 16;
+            case 2:  k1 ^= (key[tail + 1] & 0xffL) << 8;
+            case 1:  k1 ^= (key[tail] & 0xffL);
+                     k1 *= c1; k1 = Long.rotateLeft(k1, 31); k1 *= c2; h1 ^= k1;
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        return h1;
+    }
+
+    /**
+     * Reads a little-endian 64-bit value from a byte array.
+     */
+    private static long getLong(byte[] b, int i) {
+        return (b[i] & 0xffL)
+                | (b[i + 1] & 0xffL) << 8
+                | (b[i + 2] & 0xffL) << 16
+                | (b[i + 3] & 0xffL) << 24
+                | (b[i + 4] & 0xffL) << 32
+                | (b[i + 5] & 0xffL) << 40
+                | (b[i + 6] & 0xffL) << 48
+                | (b[i + 7] & 0xffL) << 56;
+    }
+
+    /**
+     * The MurmurHash3 64-bit finalization mix.
+     */
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,98 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Encoding of 64-bit integer keys. A numeric key is stored as the 8 bytes
+ * of the long in big-endian order, the same bytes produced by
+ * ByteBuffer.allocate(8).putLong(key).array(), regardless of the byte order
+ * of the buffer it is written to. Objects written with a long key can
+ * therefore be read with the equivalent byte[] key and vice versa.
+ */
+public final class LongKeys {
+    /**
+     * The length in bytes of an encoded long key.
+     */
+    public static final int LENGTH = 8;
+
+    private LongKeys() {}
+
+    /**
+     * Encode a long key as a byte array.
+     *
+     * @param key
+     *      The key.
+     * @return The 8-byte big-endian encoding of the key.
+     */
+    public static byte[] toBytes(long key) {
+        byte[] out = new byte[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            out[i] = (byte) key;
+            key >>>= 8;
+        }
+        return out;
+    }
+
+    /**
+     * Decode a long key from a byte array.
+     *
+     * @param key
+     *      The encoded key.
+     * @return The key as a long.
+     * @throws IllegalArgumentException
+     *      If the key is not 8 bytes long.
+     */
+    public static long fromBytes(byte[] key) {
+        if (key.length != LENGTH) {
+            throw new IllegalArgumentException(
+                    "Key of length " + key.length + " is not a long key");
+        }
+        long out = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            out = (out << 8) | (key[i] & 0xFF);
+        }
+        return out;
+    }
+
+    /**
+     * Write a long key at the buffer's position, advancing it by 8 bytes.
+     *
+     * @param buffer
+     *      The buffer to write to, in either byte order.
+     * @param key
+     *      The key.
+     */
+    public static void put(ByteBuffer buffer, long key) {
+        buffer.putLong(buffer.order() == ByteOrder.BIG_ENDIAN
+                       ? key : Long.reverseBytes(key));
+    }
+
+    /**
+     * Read a long key from the buffer's position, advancing it by 8 bytes.
+     *
+     * @param buffer
+     *      The buffer to read from, in either byte order.
+     * @return The key.
+     */
+    public static long get(ByteBuffer buffer) {
+        long key = buffer.getLong();
+        return buffer.order() == ByteOrder.BIG_ENDIAN
+               ? key : Long.reverseBytes(key);
+    }
+}
@@ -15,9 +15,20 @@
 package edu.stanford.ramcloud;
 
 import static edu.stanford.ramcloud.ClientException.*;
+import edu.stanford.ramcloud.codec.Codec;
+import edu.stanford.ramcloud.jfr.Events;
+import edu.stanford.ramcloud.metrics.*;
 import edu.stanford.ramcloud.multiop.*;
+import edu.stanford.ramcloud.server.*;
+import edu.stanford.ramcloud.trace.*;
 
 import java.nio.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
 
 /**
  * This class provides Java bindings for RAMCloud. Right now it is a rather
@@ -39,7 +50,12 @@ public class RAMCloud {
         Util.loadLibrary("ramcloud_java");
     }
 
-    private static final int bufferCapacity = 1024 * 1024 * 2;
+    /**
+     * Default size of the ByteBuffer shared between Java and C++. This is
+     * also the smallest size allowed, since C++ assumes that any single object
+     * fits in it.
+     */
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024 * 1024 * 2;
     private static final byte[] defaultRejectRules = new byte[12];
 
     /**
@@ -97,6 +113,12 @@ public class RAMCloud {
      */
     private long cppByteBufferPointer;
 
+    /**
+     * C++ pointer to the phase times that C++ records for ClientMetrics,
+     * which are allocated just before byteBuffer.
+     */
+    private long phaseTimesPointer;
+
     /**
      * Accessor method for byteBuffer. Used by the Transaction class to reuse 
      * RAMCloud's buffer for transferring a stack of arguments to C++.
@@ -129,8 +151,45 @@ public class RAMCloud {
      * Reuse existing MultiOpHandler objects to slightly increase performance.
      */
     private MultiReadHandler multiReadHandler;
+    private StreamingMultiReadHandler streamingMultiReadHandler;
+    private ReadBatchHandler readBatchHandler;
+    private WriteBatchHandler writeBatchHandler;
     private MultiWriteHandler multiWriteHandler;
     private MultiRemoveHandler multiRemoveHandler;
+    private MixedMultiOpHandler mixedMultiOpHandler;
+
+    /**
+     * Java-side cache of tablet placement, created on first use.
+     */
+    private TabletMap tabletMap;
+
+    /**
+     * Latency histograms of the operations performed by this client.
+     */
+    private final ClientMetrics metrics = new ClientMetrics();
+
+    /**
+     * Samples the keys of requests to find hot keys, or null if hot key
+     * detection is off.
+     */
+    private volatile HotKeyDetector hotKeyDetector;
+
+    /**
+     * Statistics for transactions run with runTransaction().
+     */
+    private final TransactionMetrics transactionMetrics =
+            new TransactionMetrics();
+
+    /**
+     * Transactions reused by runTransaction(), created on first use.
+     */
+    private TransactionPool transactionPool;
+
+    /**
+     * Transactions whose commitAsync() has not yet completed.
+     */
+    private final ArrayList<RAMCloudTransaction> pendingCommits =
+            new ArrayList<RAMCloudTransaction>();
 
     /**
      * Construct a RAMCloud for a particular cluster.
@@ -158,9 +217,21 @@ public class RAMCloud {
      *            when it started.
      */
     public RAMCloud(String locator, String clusterName) {
-        byteBuffer = ByteBuffer.allocateDirect(bufferCapacity);
-        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        cppByteBufferPointer = cppGetByteBufferPointer(byteBuffer);
+        this(locator, clusterName, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Construct a RAMCloud for a particular cluster, with a shared buffer of
+     * the given size. A larger buffer lets multi-ops move more data per call
+     * into C++.
+     *
+     * @param bufferCapacity
+     *            Size in bytes of the ByteBuffer shared between Java and C++.
+     *            Must be at least DEFAULT_BUFFER_CAPACITY.
+     * @see #RAMCloud(String, String)
+     */
+    public RAMCloud(String locator, String clusterName, int bufferCapacity) {
+        allocateByteBuffer(bufferCapacity);
         byteBuffer.putInt(locator.length())
                 .put(locator.getBytes())
                 .put((byte) 0)
@@ -186,21 +257,72 @@ public class RAMCloud {
      * Constructor for the unit tests.
      */
     public RAMCloud(long ramcloudClusterHandle) {
-        byteBuffer = ByteBuffer.allocateDirect(bufferCapacity);
+        this(ramcloudClusterHandle, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Constructor for the unit tests, with a shared buffer of the given size.
+     */
+    public RAMCloud(long ramcloudClusterHandle, int bufferCapacity) {
+        allocateByteBuffer(bufferCapacity);
+        this.ramcloudClusterHandle = ramcloudClusterHandle;
+    }
+
+    /**
+     * Allocates the ByteBuffer shared with C++ and looks up its address. The
+     * allocation starts with the phase times that C++ records for
+     * ClientMetrics, whose address is passed to C++ with each call that
+     * records them.
+     *
+     * @param bufferCapacity
+     *            Size in bytes of the buffer to allocate.
+     */
+    private void allocateByteBuffer(int bufferCapacity) {
+        if (bufferCapacity < DEFAULT_BUFFER_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "bufferCapacity must be at least " + DEFAULT_BUFFER_CAPACITY);
+        }
+        ByteBuffer allocation = ByteBuffer.allocateDirect(
+                ClientMetrics.PHASE_BUFFER_SIZE + bufferCapacity);
+        metrics.attachPhaseBuffer(allocation);
+        phaseTimesPointer = cppGetByteBufferPointer(allocation);
+        allocation.position(ClientMetrics.PHASE_BUFFER_SIZE);
+        byteBuffer = allocation.slice();
         byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
         cppByteBufferPointer = cppGetByteBufferPointer(byteBuffer);
-        this.ramcloudClusterHandle = ramcloudClusterHandle;
+    }
+
+    /**
+     * Returns the size of the ByteBuffer shared between Java and C++, which
+     * bounds how much data a single call into C++ can carry.
+     *
+     * @return The capacity in bytes of the shared buffer.
+     */
+    public int getBufferCapacity() {
+        return byteBuffer.capacity();
     }
 
     /**
      * Disconnect from the RAMCloud cluster. This causes the JNI code to destroy
-     * the underlying RAMCloud C++ object.
+     * the underlying RAMCloud C++ object. Asynchronous commits that have not
+     * completed are cancelled and their transactions closed, along with the
+     * transactions pooled by runTransaction(), since their C++ objects refer
+     * to the RAMCloud object.
      */
     public void disconnect() {
         if (ramcloudClusterHandle != 0) {
+            // Closing a transaction removes it from pendingCommits.
+            while (!pendingCommits.isEmpty()) {
+                pendingCommits.get(pendingCommits.size() - 1).close();
+            }
+            if (transactionPool != null) {
+                transactionPool.close();
+                transactionPool = null;
+            }
             cppDisconnect(ramcloudClusterHandle);
             ramcloudClusterHandle = 0;
         }
+        metrics.close();
     }
 
     /**
@@ -258,25 +380,184 @@ public class RAMCloud {
      *         object.
      */
     public RAMCloudObject read(long tableId, byte[] key, RejectRules rules) {
-        byteBuffer.rewind();
-        // long time = System.nanoTime();
-        byteBuffer.putLong(ramcloudClusterHandle)
-                .putLong(tableId)
-                .putInt(key.length)
-                .put(key)
-                .put(getRejectRulesBytes(rules));
-        // long end = System.nanoTime() - time;
-        // System.out.printf("%f\n", ((double) (end) / 1000.0));
-        cppRead(cppByteBufferPointer);
-        byteBuffer.rewind();
-        ClientException.checkStatus(byteBuffer.getInt());
+        checkStatus(readIntoBuffer(tableId, key, 0, rules));
         long version = byteBuffer.getLong();
-        int valueLength = byteBuffer.getInt();
-        byte[] value = new byte[valueLength];
+        byte[] value = new byte[byteBuffer.getInt()];
         byteBuffer.get(value);
         return new RAMCloudObject(key, value, version);
     }
 
+    /**
+     * Read the current contents of an object with a 64-bit integer key.
+     *
+     * @see #read(long, long, edu.stanford.ramcloud.RejectRules)
+     */
+    public RAMCloudObject read(long tableId, long key) {
+        return read(tableId, key, null);
+    }
+
+    /**
+     * Read the current contents of an object with a 64-bit integer key. The
+     * key is encoded directly into the buffer shared with C++, as described
+     * in LongKeys, so no key array is allocated.
+     *
+     * @param tableId
+     *            The table containing the desired object (return value from a
+     *            previous call to getTableId).
+     * @param key
+     *            The key of the object.
+     * @param rules
+     *            If non-NULL, specifies conditions under which the read should
+     *            be aborted with an error.
+     * @return A RAMCloudObject holding the key, value, and version of the read
+     *         object.
+     */
+    public RAMCloudObject read(long tableId, long key, RejectRules rules) {
+        checkStatus(readIntoBuffer(tableId, null, key, rules));
+        long version = byteBuffer.getLong();
+        byte[] value = new byte[byteBuffer.getInt()];
+        byteBuffer.get(value);
+        return new RAMCloudObject(key, value, version);
+    }
+
+    /**
+     * Read the current contents of an object without throwing for the
+     * expected failures of a read, which makes it suitable for miss-heavy
+     * workloads such as cache lookups.
+     *
+     * @param tableId
+     *            The table containing the desired object (return value from a
+     *            previous call to getTableId).
+     * @param key
+     *            Variable length key that uniquely identifies the object within
+     *            tableId.
+     * @param rules
+     *            If non-NULL, specifies conditions under which the read should
+     *            be aborted.
+     * @param result
+     *            If the read succeeds, its key, value, and version are set to
+     *            those of the object. It is left unchanged otherwise, so the
+     *            same holder can be reused across calls; if its value array
+     *            already has the length of the object's value, it is
+     *            overwritten in place rather than reallocated. May be null,
+     *            in which case only the status of the read is returned and
+     *            the value is not copied out of the buffer.
+     * @return STATUS_OK if the read succeeded, otherwise the RejectRules
+     *         status (for example STATUS_OBJECT_DOESNT_EXIST) that aborted it.
+     *         Any other failure is thrown as a ClientException.
+     */
+    public Status tryRead(long tableId, byte[] key, RejectRules rules,
+                          RAMCloudObject result) {
+        int statusCode = readIntoBuffer(tableId, key, 0, rules);
+        if (statusCode != 0) {
+            return ClientException.checkUnexpectedStatus(statusCode);
+        }
+        if (result == null) {
+            return Status.STATUS_OK;
+        }
+        long version = byteBuffer.getLong();
+        int valueLength = byteBuffer.getInt();
+        byte[] value = result.getValueBytes();
+        if (value == null || value.length != valueLength) {
+            value = new byte[valueLength];
+        }
+        byteBuffer.get(value);
+        result.setKeyBytes(key);
+        result.setValueBytes(value);
+        result.setVersion(version);
+        return Status.STATUS_OK;
+    }
+
+    /**
+     * Read the current contents of an object and decode them with a codec.
+     *
+     * @see #readValue(long, byte[], RejectRules, Codec)
+     */
+    public <T> T readValue(long tableId, byte[] key, Codec<T> codec) {
+        return readValue(tableId, key, null, codec);
+    }
+
+    /**
+     * Read the current contents of an object and decode them with a codec.
+     * The value is decoded directly from the buffer shared with C++, without
+     * first being copied into a byte array.
+     *
+     * @param tableId
+     *            The table containing the desired object (return value from a
+     *            previous call to getTableId).
+     * @param key
+     *            Variable length key that uniquely identifies the object within
+     *            tableId.
+     * @param rules
+     *            If non-NULL, specifies conditions under which the read should
+     *            be aborted with an error.
+     * @param codec
+     *            Decodes the value of the object.
+     * @return The decoded value.
+     */
+    public <T> T readValue(long tableId, byte[] key, RejectRules rules,
+                           Codec<T> codec) {
+        checkStatus(readIntoBuffer(tableId, key, 0, rules));
+        byteBuffer.getLong(); // Version
+        int valueLength = byteBuffer.getInt();
+        return codec.decode(byteBuffer, valueLength);
+    }
+
+    /**
+     * Reads an object into the shared buffer. Every read variant goes
+     * through here, so that all of them are recorded in the client metrics,
+     * the hot key detector and a Flight Recorder event in the same way.
+     *
+     * @param tableId
+     *            The table containing the desired object.
+     * @param key
+     *            The key of the object, or null to use longKey.
+     * @param longKey
+     *            The key of the object as a 64-bit integer, encoded as
+     *            described in LongKeys. Only used if key is null.
+     * @param rules
+     *            If non-NULL, specifies conditions under which the read should
+     *            be aborted.
+     * @return The status code of the read. If it is 0, the buffer is
+     *         positioned at the version of the object, which is followed by
+     *         the length of its value and the value.
+     */
+    private int readIntoBuffer(long tableId, byte[] key, long longKey,
+                               RejectRules rules) {
+        long start = metrics.start();
+        if (key != null) {
+            sampleKey(tableId, key);
+        } else {
+            sampleKey(tableId, longKey);
+        }
+        Events.Read event = Events.beginRead();
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putLong(tableId);
+        int keyLength;
+        if (key != null) {
+            keyLength = key.length;
+            byteBuffer.putInt(keyLength)
+                    .put(key);
+        } else {
+            keyLength = LongKeys.LENGTH;
+            byteBuffer.putInt(keyLength);
+            LongKeys.put(byteBuffer, longKey);
+        }
+        byteBuffer.put(getRejectRulesBytes(rules));
+        long callStart = metrics.mark();
+        cppRead(cppByteBufferPointer, phaseTimesPointer);
+        long callEnd = metrics.mark();
+        byteBuffer.rewind();
+        int status = byteBuffer.getInt();
+        // The value length follows the status and the version.
+        int valueLength = status == 0 ? byteBuffer.getInt(12) : 0;
+        event.finish(tableId, keyLength, valueLength, status);
+        metrics.record(Operation.READ, tableId, start, callStart, callEnd,
+                       status == 0);
+        return status;
+    }
+
     /**
      * Delete an object from a table.
      *
@@ -321,15 +602,21 @@ public class RAMCloud {
      * @return The version number of the object (just before deletion).
      */
     public long remove(long tableId, byte[] key, RejectRules rules) {
+        long start = metrics.start();
+        sampleKey(tableId, key);
         byteBuffer.rewind();
         byteBuffer.putLong(ramcloudClusterHandle)
                 .putLong(tableId)
                 .putInt(key.length)
                 .put(key)
                 .put(getRejectRulesBytes(rules));
-        RAMCloud.cppRemove(cppByteBufferPointer);
+        long callStart = metrics.mark();
+        RAMCloud.cppRemove(cppByteBufferPointer, phaseTimesPointer);
+        long callEnd = metrics.mark();
         byteBuffer.rewind();
         int status = byteBuffer.getInt();
+        metrics.record(Operation.REMOVE, tableId, start, callStart, callEnd,
+                       status == 0);
         checkStatus(status);
         long version = byteBuffer.getLong();
         return version;
@@ -396,6 +683,8 @@ public class RAMCloud {
      *         current version of the object, or 0 if the object does not exist.
      */
     public long write(long tableId, byte[] key, byte[] value, RejectRules rules) {
+        long start = metrics.start();
+        sampleKey(tableId, key);
         byteBuffer.rewind();
         byteBuffer.putLong(ramcloudClusterHandle)
                 .putLong(tableId)
@@ -404,14 +693,231 @@ public class RAMCloud {
                 .putInt(value.length)
                 .put(value)
                 .put(getRejectRulesBytes(rules));
-        cppWrite(cppByteBufferPointer);
+        long callStart = metrics.mark();
+        cppWrite(cppByteBufferPointer, phaseTimesPointer);
+        long callEnd = metrics.mark();
         byteBuffer.rewind();
-        checkStatus(byteBuffer.getInt());
+        int status = byteBuffer.getInt();
+        metrics.record(Operation.WRITE, tableId, start, callStart, callEnd,
+                       status == 0);
+        checkStatus(status);
         long version = byteBuffer.getLong();
         return version;
     }
 
+    /**
+     * Replace the value of an object with a 64-bit integer key, or create a
+     * new object if none previously existed.
+     *
+     * @see #write(long, long, byte[], edu.stanford.ramcloud.RejectRules)
+     */
+    public long write(long tableId, long key, byte[] value) {
+        return write(tableId, key, value, null);
+    }
+
+    /**
+     * Replace the value of an object with a 64-bit integer key, or create a
+     * new object if none previously existed. The key is encoded directly
+     * into the buffer shared with C++, as described in LongKeys.
+     *
+     * @param tableId
+     *            The table containing the desired object (return value from a
+     *            previous call to getTableId).
+     * @param key
+     *            The key of the object.
+     * @param value
+     *            The new value for the object.
+     * @param rules
+     *            If non-NULL, specifies conditions under which the write should
+     *            be aborted with an error.
+     * @return The new version of the object.
+     */
+    public long write(long tableId, long key, byte[] value,
+                      RejectRules rules) {
+        long start = metrics.start();
+        sampleKey(tableId, key);
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putLong(tableId)
+                .putInt(LongKeys.LENGTH);
+        LongKeys.put(byteBuffer, key);
+        byteBuffer.putInt(value.length)
+                .put(value)
+                .put(getRejectRulesBytes(rules));
+        long callStart = metrics.mark();
+        cppWrite(cppByteBufferPointer, phaseTimesPointer);
+        long callEnd = metrics.mark();
+        byteBuffer.rewind();
+        int status = byteBuffer.getInt();
+        metrics.record(Operation.WRITE, tableId, start, callStart, callEnd,
+                       status == 0);
+        checkStatus(status);
+        return byteBuffer.getLong();
+    }
+
+    /**
+     * Delete an object with a 64-bit integer key from a table.
+     *
+     * @see #remove(long, long, edu.stanford.ramcloud.RejectRules)
+     */
+    public long remove(long tableId, long key) {
+        return remove(tableId, key, null);
+    }
+
+    /**
+     * Delete an object with a 64-bit integer key from a table. The key is
+     * encoded directly into the buffer shared with C++, as described in
+     * LongKeys.
+     *
+     * @param tableId
+     *            The table containing the object to be deleted (return value
+     *            from a previous call to getTableId).
+     * @param key
+     *            The key of the object.
+     * @param rules
+     *            If non-NULL, specifies conditions under which the delete
+     *            should be aborted with an error.
+     * @return The version number of the object (just before deletion).
+     */
+    public long remove(long tableId, long key, RejectRules rules) {
+        long start = metrics.start();
+        sampleKey(tableId, key);
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putLong(tableId)
+                .putInt(LongKeys.LENGTH);
+        LongKeys.put(byteBuffer, key);
+        byteBuffer.put(getRejectRulesBytes(rules));
+        long callStart = metrics.mark();
+        RAMCloud.cppRemove(cppByteBufferPointer, phaseTimesPointer);
+        long callEnd = metrics.mark();
+        byteBuffer.rewind();
+        int status = byteBuffer.getInt();
+        metrics.record(Operation.REMOVE, tableId, start, callStart, callEnd,
+                       status == 0);
+        checkStatus(status);
+        return byteBuffer.getLong();
+    }
+
+    /**
+     * Replace the value of a given object, or create a new object if none
+     * previously existed, without throwing when the write is aborted by its
+     * RejectRules. This is the cheap way to run a compare-and-swap loop.
+     *
+     * @param tableId
+     *            The table containing the desired object (return value from a
+     *            previous call to getTableId).
+     * @param key
+     *            Variable length key that uniquely identifies the object within
+     *            tableId.
+     * @param value
+     *            The new value for the object.
+     * @param rules
+     *            If non-NULL, specifies conditions under which the write should
+     *            be aborted.
+     * @param result
+     *            If non-null and the write succeeds, its key, value, and
+     *            version are set to those of the new object. It is left
+     *            unchanged otherwise.
+     * @return STATUS_OK if the write succeeded, otherwise the RejectRules
+     *         status (for example STATUS_WRONG_VERSION) that aborted it. Any
+     *         other failure is thrown as a ClientException.
+     */
+    public Status tryWrite(long tableId, byte[] key, byte[] value,
+                           RejectRules rules, RAMCloudObject result) {
+        long start = metrics.start();
+        sampleKey(tableId, key);
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putLong(tableId)
+                .putInt(key.length)
+                .put(key)
+                .putInt(value.length)
+                .put(value)
+                .put(getRejectRulesBytes(rules));
+        long callStart = metrics.mark();
+        cppWrite(cppByteBufferPointer, phaseTimesPointer);
+        long callEnd = metrics.mark();
+        byteBuffer.rewind();
+        int statusCode = byteBuffer.getInt();
+        metrics.record(Operation.WRITE, tableId, start, callStart, callEnd,
+                       statusCode == 0);
+        Status status = ClientException.checkUnexpectedStatus(statusCode);
+        if (status == Status.STATUS_OK && result != null) {
+            result.setKeyBytes(key);
+            result.setValueBytes(value);
+            result.setVersion(byteBuffer.getLong());
+        }
+        return status;
+    }
+
+    /**
+     * Encode a value with a codec and write it to an object.
+     *
+     * @see #writeValue(long, byte[], Object, RejectRules, Codec)
+     */
+    public <T> long writeValue(long tableId, byte[] key, T value,
+                               Codec<T> codec) {
+        return writeValue(tableId, key, value, null, codec);
+    }
+
+    /**
+     * Encode a value with a codec and write it to an object. The value is
+     * encoded directly into the buffer shared with C++, without first being
+     * converted to a byte array.
+     *
+     * @param tableId
+     *            The table containing the desired object (return value from a
+     *            previous call to getTableId).
+     * @param key
+     *            Variable length key that uniquely identifies the object within
+     *            tableId.
+     * @param value
+     *            The new value for the object.
+     * @param rules
+     *            If non-NULL, specifies conditions under which the write should
+     *            be aborted with an error.
+     * @param codec
+     *            Encodes the value.
+     * @return The new version of the object.
+     * @throws IllegalStateException
+     *            If the codec did not encode exactly encodedLength bytes. The
+     *            object is not written.
+     */
+    public <T> long writeValue(long tableId, byte[] key, T value,
+                               RejectRules rules, Codec<T> codec) {
+        long start = metrics.start();
+        sampleKey(tableId, key);
+        int length = codec.encodedLength(value);
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putLong(tableId)
+                .putInt(key.length)
+                .put(key)
+                .putInt(length);
+        int valueStart = byteBuffer.position();
+        codec.encode(value, byteBuffer);
+        if (byteBuffer.position() - valueStart != length) {
+            throw new IllegalStateException(String.format(
+                    "%s encoded %d bytes, but its encodedLength was %d",
+                    codec.getClass().getName(),
+                    byteBuffer.position() - valueStart, length));
+        }
+        byteBuffer.put(getRejectRulesBytes(rules));
+        long callStart = metrics.mark();
+        cppWrite(cppByteBufferPointer, phaseTimesPointer);
+        long callEnd = metrics.mark();
+        byteBuffer.rewind();
+        int status = byteBuffer.getInt();
+        metrics.record(Operation.WRITE, tableId, start, callStart, callEnd,
+                       status == 0);
+        checkStatus(status);
+        return byteBuffer.getLong();
+    }
+
     public long incrementInt64(long tableId, byte[] key, long incrementValue, RejectRules rules) {
+        long start = metrics.start();
+        sampleKey(tableId, key);
         byteBuffer.rewind();
         byteBuffer.putLong(ramcloudClusterHandle)
                 .putLong(tableId)
@@ -421,7 +927,9 @@ public class RAMCloud {
                 .put(getRejectRulesBytes(rules));
         cppIncrementInt64(cppByteBufferPointer);
         byteBuffer.rewind();
-        checkStatus(byteBuffer.getInt());
+        int status = byteBuffer.getInt();
+        metrics.record(Operation.INCREMENT, tableId, start, status == 0);
+        checkStatus(status);
         long value = byteBuffer.getLong();
         return value;
         
@@ -523,6 +1031,292 @@ public class RAMCloud {
         return new TableIterator(this, ramcloudClusterHandle, tableId);
     }
 
+    /**
+     * Fetches the current tablet configuration of a table from the
+     * coordinator. Most callers should use getTabletMap() instead, which
+     * caches the result.
+     *
+     * @param tableId
+     *            The ID of the table.
+     * @return The tablets making up the table, in no particular order.
+     * @throws IllegalStateException
+     *             If the table has too many tablets to fit in the buffer.
+     */
+    public Tablet[] getTablets(long tableId) {
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putInt(byteBuffer.capacity())
+                .putLong(tableId);
+        cppGetTableConfig(cppByteBufferPointer);
+        byteBuffer.rewind();
+        checkStatus(byteBuffer.getInt());
+        int numTablets = readCountThatFits("Table configuration");
+        Tablet[] tablets = new Tablet[numTablets];
+        for (int i = 0; i < numTablets; i++) {
+            long startKeyHash = byteBuffer.getLong();
+            long endKeyHash = byteBuffer.getLong();
+            long serverId = byteBuffer.getLong();
+            boolean recovering = byteBuffer.get() != 0;
+            byte[] locator = new byte[byteBuffer.getInt()];
+            byteBuffer.get(locator);
+            tablets[i] = new Tablet(tableId, startKeyHash, endKeyHash, serverId,
+                                    new String(locator), recovering);
+        }
+        return tablets;
+    }
+
+    /**
+     * Returns a cache of tablet placement that can route keys to their
+     * owning masters without calling into C++.
+     *
+     * @return The TabletMap for this RAMCloud object.
+     */
+    public TabletMap getTabletMap() {
+        if (tabletMap == null) {
+            tabletMap = new TabletMap(this);
+        }
+        return tabletMap;
+    }
+
+    // Server statistics
+
+    /**
+     * Fetches the list of masters in the cluster from the coordinator.
+     *
+     * @return The masters, including those that have crashed but are still
+     *         being recovered.
+     */
+    public List<ServerInfo> getMasters() {
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putInt(byteBuffer.capacity());
+        cppGetMasterList(cppByteBufferPointer);
+        byteBuffer.rewind();
+        checkStatus(byteBuffer.getInt());
+        int numMasters = readCountThatFits("Master list");
+        List<ServerInfo> masters = new ArrayList<>(numMasters);
+        for (int i = 0; i < numMasters; i++) {
+            long serverId = byteBuffer.getLong();
+            int services = byteBuffer.getInt();
+            int status = byteBuffer.getInt();
+            byte[] locator = new byte[byteBuffer.getInt()];
+            byteBuffer.get(locator);
+            masters.add(new ServerInfo(serverId, new String(locator), services,
+                                       status));
+        }
+        return masters;
+    }
+
+    /**
+     * Fetches the raw metrics of a server.
+     *
+     * @param serviceLocator
+     *            The service locator of the server.
+     * @return The server's metrics.
+     */
+    public ServerMetrics getMetrics(String serviceLocator) {
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putInt(byteBuffer.capacity())
+                .put((byte) 0)
+                .put(serviceLocator.getBytes())
+                .put((byte) 0);
+        cppGetMetrics(cppByteBufferPointer);
+        return readServerMetrics();
+    }
+
+    /**
+     * Fetches the raw metrics of the master that owns an object.
+     *
+     * @param tableId
+     *            The table containing the object.
+     * @param key
+     *            The key of the object, which need not exist.
+     * @return The master's metrics.
+     */
+    public ServerMetrics getMetrics(long tableId, byte[] key) {
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putInt(byteBuffer.capacity())
+                .put((byte) 1)
+                .putLong(tableId)
+                .putInt(key.length)
+                .put(key);
+        cppGetMetrics(cppByteBufferPointer);
+        return readServerMetrics();
+    }
+
+    private ServerMetrics readServerMetrics() {
+        byteBuffer.rewind();
+        checkStatus(byteBuffer.getInt());
+        int numMetrics = readCountThatFits("Server metrics");
+        HashMap<String, Long> metrics = new HashMap<>(numMetrics * 2);
+        for (int i = 0; i < numMetrics; i++) {
+            byte[] name = new byte[byteBuffer.getInt()];
+            byteBuffer.get(name);
+            metrics.put(new String(name), byteBuffer.getLong());
+        }
+        return new ServerMetrics(metrics);
+    }
+
+    /**
+     * Fetches the per-tablet and spin lock statistics of a server.
+     *
+     * @param serviceLocator
+     *            The service locator of the server.
+     * @return The server's statistics.
+     */
+    public ServerStatistics getServerStatistics(String serviceLocator) {
+        putServiceLocator(serviceLocator);
+        cppGetServerStatistics(cppByteBufferPointer);
+        return ServerStatistics.parse(readProtoBuf());
+    }
+
+    /**
+     * Fetches the log and cleaner metrics of a master.
+     *
+     * @param serviceLocator
+     *            The service locator of the master.
+     * @return The master's log metrics.
+     */
+    public LogMetrics getLogMetrics(String serviceLocator) {
+        putServiceLocator(serviceLocator);
+        cppGetLogMetrics(cppByteBufferPointer);
+        return LogMetrics.parse(readProtoBuf());
+    }
+
+    /**
+     * Fetches the configuration of a server.
+     *
+     * @param serviceLocator
+     *            The service locator of the server.
+     * @return The server's configuration.
+     */
+    public ServerConfig getServerConfig(String serviceLocator) {
+        putServiceLocator(serviceLocator);
+        cppGetServerConfig(cppByteBufferPointer);
+        return ServerConfig.parse(readProtoBuf());
+    }
+
+    /**
+     * Reads the PerfStats counters of every server in the cluster.
+     *
+     * @return One reading per server that responded.
+     */
+    public List<PerfStats> getPerfStats() {
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putInt(byteBuffer.capacity());
+        cppGetPerfStats(cppByteBufferPointer);
+        byteBuffer.rewind();
+        checkStatus(byteBuffer.getInt());
+        int numServers = readCountThatFits("PerfStats");
+        List<PerfStats> stats = new ArrayList<>(numServers);
+        for (int i = 0; i < numServers; i++) {
+            long serverId = byteBuffer.getLong();
+            long collectionTime = byteBuffer.getLong();
+            double cyclesPerSecond = byteBuffer.getDouble();
+            long[] counters = new long[byteBuffer.getInt()];
+            for (int j = 0; j < counters.length; j++) {
+                counters[j] = byteBuffer.getLong();
+            }
+            stats.add(new PerfStats(serverId, collectionTime, cyclesPerSecond,
+                                    counters));
+        }
+        return stats;
+    }
+
+    private void putServiceLocator(String serviceLocator) {
+        byteBuffer.rewind();
+        byteBuffer.putLong(ramcloudClusterHandle)
+                .putInt(byteBuffer.capacity())
+                .put(serviceLocator.getBytes())
+                .put((byte) 0);
+    }
+
+    /**
+     * Reads the total number of entries and the number that C++ fit in the
+     * buffer.
+     *
+     * @param what
+     *            What the entries are, for the error message.
+     * @return The number of entries that follow.
+     * @throws IllegalStateException
+     *             If some of the entries did not fit in the buffer.
+     */
+    private int readCountThatFits(String what) {
+        int total = byteBuffer.getInt();
+        int written = byteBuffer.getInt();
+        if (written < total) {
+            throw new IllegalStateException(
+                    what + " is larger than the buffer");
+        }
+        return written;
+    }
+
+    /**
+     * Reads the status and serialized protocol buffer written by C++.
+     *
+     * @throws IllegalStateException
+     *             If the protocol buffer did not fit in the buffer.
+     */
+    private byte[] readProtoBuf() {
+        byteBuffer.rewind();
+        checkStatus(byteBuffer.getInt());
+        int length = byteBuffer.getInt();
+        if (length > byteBuffer.remaining()) {
+            throw new IllegalStateException(
+                    "Protocol buffer is larger than the buffer");
+        }
+        byte[] message = new byte[length];
+        byteBuffer.get(message);
+        return message;
+    }
+
+    // Time traces
+
+    /**
+     * Get the events recorded by the C++ TimeTrace of this process, for
+     * example by the RAMCloud client library. Their times are converted from
+     * cycles to the System.nanoTime() clock, so they can be compared with
+     * those of the Java TimeTrace. If the shared buffer cannot hold all of
+     * the events, only the most recent ones are returned.
+     *
+     * @return The events, oldest first.
+     */
+    public List<TraceEvent> getNativeTimeTrace() {
+        byteBuffer.rewind();
+        byteBuffer.putInt(byteBuffer.capacity());
+        long nanos = System.nanoTime();
+        cppGetTimeTrace(cppByteBufferPointer);
+        byteBuffer.rewind();
+        checkStatus(byteBuffer.getInt());
+        long cycles = byteBuffer.getLong();
+        double cyclesPerSecond = byteBuffer.getDouble();
+        int count = byteBuffer.getInt();
+        List<TraceEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long timestamp = byteBuffer.getLong();
+            byte[] message = new byte[byteBuffer.getInt()];
+            byteBuffer.get(message);
+            events.add(new TraceEvent(
+                    TimeTrace.cyclesToNanoTime(timestamp, cycles, nanos,
+                                               cyclesPerSecond),
+                    TraceEvent.Source.NATIVE, new String(message)));
+        }
+        return events;
+    }
+
+    /**
+     * Get the events recorded by both the Java TimeTrace and the C++
+     * TimeTrace of this process, merged into one timeline.
+     *
+     * @return The merged timeline.
+     */
+    public Timeline getTimeTrace() {
+        return new Timeline(TimeTrace.getEvents(), getNativeTimeTrace());
+    }
+
     // Multi-ops
 
     /**
@@ -538,8 +1332,48 @@ public class RAMCloud {
             multiReadHandler = new MultiReadHandler(byteBuffer,
                                                     cppByteBufferPointer,
                                                     ramcloudClusterHandle);
+            multiReadHandler.setPhaseTimesPointer(phaseTimesPointer);
+        }
+        long start = metrics.start();
+        sampleKeys(request);
+        boolean success = false;
+        try {
+            multiReadHandler.handle(request);
+            success = true;
+        } finally {
+            metrics.recordMulti(Operation.MULTI_READ, start, success);
+        }
+    }
+
+    /**
+     * Reads a large number of objects at once, passing each result to a
+     * consumer as it is unloaded from the shared ByteBuffer. Unlike
+     * read(MultiReadObject[]), no values are copied onto the heap and the
+     * MultiReadObjects are left untouched, so peak memory is bounded by the
+     * ByteBuffer rather than by the total size of the values read.
+     *
+     * @param request
+     *      The array of MultiReadObjects to read.
+     * @param consumer
+     *      Receives the status, version and value of each object, in request
+     *      order. The value is a view of the shared ByteBuffer that is only
+     *      valid during the call.
+     */
+    public void read(MultiReadObject[] request, MultiReadConsumer consumer) {
+        if (streamingMultiReadHandler == null) {
+            streamingMultiReadHandler = new StreamingMultiReadHandler(
+                    byteBuffer, cppByteBufferPointer, ramcloudClusterHandle);
+            streamingMultiReadHandler.setPhaseTimesPointer(phaseTimesPointer);
+        }
+        long start = metrics.start();
+        sampleKeys(request);
+        boolean success = false;
+        try {
+            streamingMultiReadHandler.handle(request, consumer);
+            success = true;
+        } finally {
+            metrics.recordMulti(Operation.MULTI_READ, start, success);
         }
-        multiReadHandler.handle(request);
     }
 
     /**
@@ -555,8 +1389,67 @@ public class RAMCloud {
             multiWriteHandler = new MultiWriteHandler(byteBuffer,
                                                       cppByteBufferPointer,
                                                       ramcloudClusterHandle);
+            multiWriteHandler.setPhaseTimesPointer(phaseTimesPointer);
+        }
+        long start = metrics.start();
+        sampleKeys(data);
+        boolean success = false;
+        try {
+            multiWriteHandler.handle(data);
+            success = true;
+        } finally {
+            metrics.recordMulti(Operation.MULTI_WRITE, start, success);
+        }
+    }
+
+    /**
+     * Reads every object in a columnar ReadBatch. The values, versions and
+     * statuses are stored in the batch, replacing those of any earlier read.
+     *
+     * @param batch
+     *      The batch of objects to read.
+     */
+    public void read(ReadBatch batch) {
+        if (readBatchHandler == null) {
+            readBatchHandler = new ReadBatchHandler(byteBuffer,
+                                                    cppByteBufferPointer,
+                                                    ramcloudClusterHandle);
+            readBatchHandler.setPhaseTimesPointer(phaseTimesPointer);
+        }
+        long start = metrics.start();
+        sampleKeys(batch);
+        boolean success = false;
+        try {
+            readBatchHandler.handle(batch);
+            success = true;
+        } finally {
+            metrics.recordMulti(Operation.MULTI_READ, start, success);
+        }
+    }
+
+    /**
+     * Writes every object in a columnar WriteBatch. The resulting versions
+     * and statuses are stored in the batch.
+     *
+     * @param batch
+     *      The batch of objects to write.
+     */
+    public void write(WriteBatch batch) {
+        if (writeBatchHandler == null) {
+            writeBatchHandler = new WriteBatchHandler(byteBuffer,
+                                                      cppByteBufferPointer,
+                                                      ramcloudClusterHandle);
+            writeBatchHandler.setPhaseTimesPointer(phaseTimesPointer);
+        }
+        long start = metrics.start();
+        sampleKeys(batch);
+        boolean success = false;
+        try {
+            writeBatchHandler.handle(batch);
+            success = true;
+        } finally {
+            metrics.recordMulti(Operation.MULTI_WRITE, start, success);
         }
-        multiWriteHandler.handle(data);
     }
 
     /**
@@ -572,8 +1465,286 @@ public class RAMCloud {
             multiRemoveHandler = new MultiRemoveHandler(byteBuffer,
                                                       cppByteBufferPointer,
                                                       ramcloudClusterHandle);
+            multiRemoveHandler.setPhaseTimesPointer(phaseTimesPointer);
+        }
+        long start = metrics.start();
+        sampleKeys(data);
+        boolean success = false;
+        try {
+            multiRemoveHandler.handle(data);
+            success = true;
+        } finally {
+            metrics.recordMulti(Operation.MULTI_REMOVE, start, success);
+        }
+    }
+
+    /**
+     * Performs a batch of mixed reads, writes, removes and increments at once.
+     * The operations are grouped by type and the resulting multi-ops are
+     * issued concurrently, so the whole batch completes in roughly one round
+     * of RPCs. No ordering is guaranteed between operations in the same batch.
+     *
+     * @param request
+     *      The array of MultiReadObjects, MultiWriteObjects,
+     *      MultiRemoveObjects and MultiIncrementObjects to perform. The results
+     *      will be stored in each object, along with its status.
+     */
+    public void execute(MultiOpObject[] request) {
+        if (mixedMultiOpHandler == null) {
+            mixedMultiOpHandler = new MixedMultiOpHandler(byteBuffer,
+                                                          cppByteBufferPointer,
+                                                          ramcloudClusterHandle);
+            mixedMultiOpHandler.setPhaseTimesPointer(phaseTimesPointer);
+        }
+        long start = metrics.start();
+        sampleKeys(request);
+        boolean success = false;
+        try {
+            mixedMultiOpHandler.handle(request);
+            success = true;
+        } finally {
+            metrics.recordMulti(Operation.MULTI_OP, start, success);
+        }
+    }
+
+    // Transactions
+
+    /**
+     * Runs a transaction, retrying it until it commits, using the default
+     * TransactionRetryPolicy.
+     *
+     * @see #runTransaction(Function, TransactionRetryPolicy)
+     */
+    public <T> T runTransaction(Function<RAMCloudTransaction, T> body) {
+        return runTransaction(body, new TransactionRetryPolicy());
+    }
+
+    /**
+     * Runs a transaction, retrying it until it commits. Each attempt calls
+     * body with an empty transaction and then commits it. If the commit
+     * aborts, the same native transaction object is cleared and the attempt
+     * is repeated after a backoff chosen by the policy. The transaction
+     * object is kept for later calls, so it must not be used once body
+     * returns. Statistics about the
+     * attempts are recorded in getTransactionMetrics().
+     *
+     * Since body may run several times, it should have no side effects
+     * outside of the transaction.
+     *
+     * @param body
+     *      Performs the reads and writes of the transaction. Exceptions thrown
+     *      by body are passed on to the caller without retrying.
+     * @param policy
+     *      Controls the backoff between attempts and when to give up.
+     * @return The value returned by body in the attempt that committed.
+     * @throws TimeoutException
+     *      If the transaction did not commit before the policy's deadline or
+     *      within its maximum number of attempts.
+     */
+    public <T> T runTransaction(Function<RAMCloudTransaction, T> body,
+                                TransactionRetryPolicy policy) {
+        long start = System.nanoTime();
+        if (transactionPool == null) {
+            transactionPool = new TransactionPool(this, 1);
+        }
+        RAMCloudTransaction transaction = transactionPool.acquire();
+        try {
+            for (int aborts = 0; ; aborts++) {
+                if (aborts > 0) {
+                    transaction.clear();
+                }
+                T result = body.apply(transaction);
+                if (transaction.commit()) {
+                    transactionMetrics.recordCommit(aborts,
+                                                    System.nanoTime() - start);
+                    return result;
+                }
+                transactionMetrics.recordAbort();
+                long backoff = policy.getBackoffNanos(aborts + 1);
+                if (!policy.shouldRetry(aborts + 1, System.nanoTime() - start,
+                                        backoff)) {
+                    transactionMetrics.recordTimeout();
+                    throw new TimeoutException();
+                }
+                LockSupport.parkNanos(backoff);
+            }
+        } finally {
+            transactionPool.release(transaction);
+        }
+    }
+
+    /**
+     * Gives asynchronous operations, such as commits started with
+     * RAMCloudTransaction.commitAsync(), a chance to make progress. Futures
+     * of commits that have finished are completed from within this method,
+     * so their callbacks run on the calling thread.
+     *
+     * @return The number of asynchronous commits completed by this call.
+     */
+    public int poll() {
+        int completed = 0;
+        int start = 0;
+        do {
+            int count = Math.min(pendingCommits.size() - start,
+                                 (byteBuffer.capacity() - 12) / 8);
+            byteBuffer.rewind();
+            byteBuffer.putLong(ramcloudClusterHandle).putInt(count);
+            for (int i = 0; i < count; i++) {
+                byteBuffer.putLong(pendingCommits.get(start + i)
+                                   .getCppTransactionObjectPointer());
+            }
+            cppPoll(cppByteBufferPointer);
+            byteBuffer.rewind();
+            checkStatus(byteBuffer.getInt());
+
+            // Complete futures only after updating pendingCommits, since their
+            // callbacks may start new commits.
+            RAMCloudTransaction[] done = new RAMCloudTransaction[count];
+            int[] results = new int[count * 2];
+            int numDone = 0;
+            for (int i = 0; i < count; i++) {
+                int state = byteBuffer.getInt();
+                int status = byteBuffer.getInt();
+                if (state != 0) {
+                    done[numDone] = pendingCommits.get(start + i);
+                    results[numDone * 2] = state;
+                    results[numDone * 2 + 1] = status;
+                    numDone++;
+                }
+            }
+            for (int i = 0; i < numDone; i++) {
+                pendingCommits.remove(done[i]);
+            }
+            start += count - numDone;
+            for (int i = 0; i < numDone; i++) {
+                done[i].completeAsyncCommit(results[i * 2],
+                                            results[i * 2 + 1]);
+            }
+            completed += numDone;
+        } while (start < pendingCommits.size());
+        return completed;
+    }
+
+    /**
+     * Calls poll() until the given future is done, then returns its result.
+     *
+     * @param future
+     *      A future completed by poll(), such as one returned by
+     *      RAMCloudTransaction.commitAsync().
+     * @return The result of the future.
+     */
+    public <T> T pollUntilDone(CompletableFuture<T> future) {
+        while (!future.isDone()) {
+            poll();
+        }
+        return future.join();
+    }
+
+    /**
+     * Get the number of asynchronous commits that have not yet completed.
+     *
+     * @return The number of commits waiting for poll().
+     */
+    public int getPendingCommitCount() {
+        return pendingCommits.size();
+    }
+
+    void addPendingCommit(RAMCloudTransaction transaction) {
+        pendingCommits.add(transaction);
+    }
+
+    void removePendingCommit(RAMCloudTransaction transaction) {
+        pendingCommits.remove(transaction);
+    }
+
+    /**
+     * Get the statistics for transactions run with runTransaction().
+     *
+     * @return The TransactionMetrics of this RAMCloud object.
+     */
+    public TransactionMetrics getTransactionMetrics() {
+        return transactionMetrics;
+    }
+
+    /**
+     * Get the live latency histograms and counters of this client, for
+     * example to turn recording off or reset them.
+     *
+     * @return The ClientMetrics of this RAMCloud object.
+     */
+    public ClientMetrics getClientMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get a point-in-time copy of the latency histograms and counters of the
+     * operations performed by this client, overall and per table.
+     *
+     * @return The snapshot.
+     */
+    public MetricsSnapshot metrics() {
+        return metrics.snapshot();
+    }
+
+    /**
+     * Turns hot key detection on or off. While a detector is set, the keys of
+     * this client's single-object operations and multi-ops are sampled into
+     * it. One detector may be shared by several clients.
+     *
+     * @param detector
+     *      The detector to sample keys into, or null to stop sampling.
+     */
+    public void setHotKeyDetector(HotKeyDetector detector) {
+        hotKeyDetector = detector;
+    }
+
+    /**
+     * Get the detector that the keys of this client are sampled into.
+     *
+     * @return The detector, or null if hot key detection is off.
+     */
+    public HotKeyDetector getHotKeyDetector() {
+        return hotKeyDetector;
+    }
+
+    private void sampleKey(long tableId, byte[] key) {
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector != null) {
+            detector.sample(tableId, key);
+        }
+    }
+
+    private void sampleKey(long tableId, long key) {
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector != null) {
+            detector.sample(tableId, key);
+        }
+    }
+
+    private void sampleKeys(MultiOpObject[] request) {
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector == null) {
+            return;
+        }
+        for (MultiOpObject object : request) {
+            if (detector.shouldSample()) {
+                byte[] key = object.getKeyBytes();
+                detector.record(object.getTableId(), key, 0, key.length);
+            }
+        }
+    }
+
+    private void sampleKeys(MultiOpBatch batch) {
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector == null) {
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (detector.shouldSample()) {
+                byte[] key = batch.getKeyBytes(i);
+                detector.record(batch.getTableId(i), key, 0, key.length);
+            }
         }
-        multiRemoveHandler.handle(data);
     }
 
     // Declarations for native methods in c++ file
@@ -589,14 +1760,35 @@ public class RAMCloud {
 
     private static native void cppGetTableId(long cppByteBufferPointer);
 
-    private static native void cppRead(long cppByteBufferPointer);
+    private static native void cppRead(long cppByteBufferPointer,
+                                       long phaseTimesPointer);
 
-    private static native void cppRemove(long cppByteBufferPointer);
+    private static native void cppRemove(long cppByteBufferPointer,
+                                         long phaseTimesPointer);
 
-    private static native void cppWrite(long cppByteBufferPointer);
+    private static native void cppWrite(long cppByteBufferPointer,
+                                        long phaseTimesPointer);
     
     private static native void cppIncrementInt64(long cppByteBufferPointer);
 
+    private static native void cppGetTableConfig(long cppByteBufferPointer);
+
+    private static native void cppGetMasterList(long cppByteBufferPointer);
+
+    private static native void cppGetMetrics(long cppByteBufferPointer);
+
+    private static native void cppGetServerStatistics(long cppByteBufferPointer);
+
+    private static native void cppGetLogMetrics(long cppByteBufferPointer);
+
+    private static native void cppGetServerConfig(long cppByteBufferPointer);
+
+    private static native void cppGetPerfStats(long cppByteBufferPointer);
+
+    private static native void cppGetTimeTrace(long cppByteBufferPointer);
+
+    private static native void cppPoll(long cppByteBufferPointer);
+
     private static native void cppMultiRemove(long ramcloudClusterHandle,
                                               long[] tableIds,
                                               byte[][] objects,
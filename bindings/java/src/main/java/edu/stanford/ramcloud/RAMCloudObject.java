@@ -35,6 +35,13 @@ public class RAMCloudObject {
      * The version of this object, read from the server.
      */
     private long version;
+    /**
+     * The key of this object as a 64-bit integer, if it was given as one.
+     * In that case the byte array form of the key is only built if it is
+     * asked for.
+     */
+    private long longKey;
+    private boolean hasLongKey;
 
     /**
      * Constructs a new RAMCloudObject.
@@ -52,6 +59,23 @@ public class RAMCloudObject {
         this.version = version;
     }
 
+    /**
+     * Constructs a new RAMCloudObject with a 64-bit integer key.
+     *
+     * @param key
+     *            The key of the object, encoded as described in LongKeys.
+     * @param value
+     *            The value of the object, a variable length byte array.
+     * @param version
+     *            The version of the object.
+     */
+    public RAMCloudObject(long key, byte[] value, long version) {
+        this.longKey = key;
+        this.hasLongKey = true;
+        this.value = value;
+        this.version = version;
+    }
+
     /**
      * RAMCloudObject default contructor.
      */
@@ -64,6 +88,9 @@ public class RAMCloudObject {
      * @return The key of the object as a byte array.
      */
     public byte[] getKeyBytes() {
+        if (key == null && hasLongKey) {
+            key = LongKeys.toBytes(longKey);
+        }
         return key;
     }
 
@@ -75,6 +102,42 @@ public class RAMCloudObject {
      */
     public void setKeyBytes(byte[] key) {
         this.key = key;
+        hasLongKey = false;
+    }
+
+    /**
+     * Test whether the key of the object was given as a 64-bit integer.
+     *
+     * @return True if the key was given as a long.
+     */
+    public boolean hasLongKey() {
+        return hasLongKey;
+    }
+
+    /**
+     * Get the key of the object as a 64-bit integer.
+     *
+     * @return The key of the object, decoded as described in LongKeys.
+     * @throws IllegalArgumentException
+     *      If the key is not 8 bytes long.
+     */
+    public long getLongKey() {
+        if (hasLongKey) {
+            return longKey;
+        }
+        return LongKeys.fromBytes(key);
+    }
+
+    /**
+     * Set the key of the object to a 64-bit integer.
+     *
+     * @param key
+     *      The key of the object.
+     */
+    public void setLongKey(long key) {
+        this.key = null;
+        this.longKey = key;
+        hasLongKey = true;
     }
 
     /**
@@ -102,7 +165,7 @@ public class RAMCloudObject {
      * @return The key of the object as a String.
      */
     public String getKey() {
-        return new String(key);
+        return new String(getKeyBytes());
     }
 
     /**
@@ -113,6 +176,7 @@ public class RAMCloudObject {
      */
     public void setKey(String key) {
         this.key = key.getBytes();
+        hasLongKey = false;
     }
 
     /**
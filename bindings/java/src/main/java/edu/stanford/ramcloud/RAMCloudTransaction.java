@@ -18,8 +18,13 @@ package edu.stanford.ramcloud;
 import edu.stanford.ramcloud.*;
 import static edu.stanford.ramcloud.ClientException.checkStatus;
 import static edu.stanford.ramcloud.RAMCloud.getRejectRulesBytes;
+import edu.stanford.ramcloud.jfr.Events;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.log4j.Logger;
 
@@ -36,6 +41,11 @@ public class RAMCloudTransaction {
     private static final Logger logger = 
         Logger.getLogger(RAMCloudTransaction.class);
 
+    /**
+     * The maximum number of keys readAll() passes to C++ in one call.
+     */
+    private static final int READ_ALL_BATCH_LIMIT = 200;
+
     /**
      * Target cluster of this transaction.
      */
@@ -64,6 +74,30 @@ public class RAMCloudTransaction {
      * java object.
      */
     private long cppTransactionObjectPointer;
+
+    /**
+     * Writes and removes buffered in Java until commit, or null if writes are
+     * passed to C++ immediately. A null value marks a remove.
+     */
+    private LinkedHashMap<WriteKey, byte[]> writeSet;
+
+    /**
+     * The result of a commit started with commitAsync(), or null if no
+     * asynchronous commit has been started.
+     */
+    private CompletableFuture<Boolean> commitFuture;
+
+    /**
+     * The number of operations performed since the transaction was created
+     * or cleared, for RAMCloudTransactionCommitEvent.
+     */
+    private int operations;
+
+    /**
+     * The event of the commit started by commitAsync(), finished when the
+     * commit completes.
+     */
+    private Events.TransactionCommit asyncCommitEvent;
     
     /**
      * Constructor for a transaction. Also constructs the underlying C++ 
@@ -73,6 +107,29 @@ public class RAMCloudTransaction {
      *            RAMCloud cluster on which to perform the transaction.
      */
     public RAMCloudTransaction(RAMCloud ramcloud) {
+        this(ramcloud, false);
+    }
+
+    /**
+     * Constructor for a transaction that may buffer its writes in Java.
+     *
+     * When bufferWrites is true, write() and remove() only record the
+     * operation in a Java map keyed by table and key, where a later operation
+     * on the same object replaces an earlier one. Reads of those objects are
+     * answered from the map. The whole write set is passed to C++ in one call
+     * when the transaction commits, which saves a JNI call per write for
+     * transactions with many writes. The caller must not modify key or value
+     * arrays after passing them to this transaction.
+     *
+     * @param ramcloud
+     *            RAMCloud cluster on which to perform the transaction.
+     * @param bufferWrites
+     *            Whether to buffer writes in Java until commit.
+     */
+    public RAMCloudTransaction(RAMCloud ramcloud, boolean bufferWrites) {
+        if (bufferWrites) {
+            writeSet = new LinkedHashMap<WriteKey, byte[]>();
+        }
         this.ramcloud = ramcloud;
         cppRamcloudObjectPointer = ramcloud.getRamCloudClusterHandle();
         byteBuffer = ramcloud.getByteBuffer();
@@ -85,6 +142,15 @@ public class RAMCloudTransaction {
         cppTransactionObjectPointer = byteBuffer.getLong();
     }
 
+    /**
+     * Get the RAMCloud object this transaction operates on.
+     *
+     * @return The RAMCloud object given to the constructor.
+     */
+    public RAMCloud getRAMCloud() {
+        return ramcloud;
+    }
+
     /**
      * Accessor method for getting a pointer to the underlying C++ RAMCloud
      * Transaction object. Used by TransactionReadOp objects which reference a
@@ -126,19 +192,32 @@ public class RAMCloudTransaction {
         return cppByteBufferPointer;
     }
 
+    /**
+     * Whether this transaction buffers its writes in Java until commit.
+     *
+     * @return True if writes are buffered.
+     */
+    public boolean isBufferingWrites() {
+        return writeSet != null;
+    }
+
+    /**
+     * Discards all operations performed on this transaction so that it can be
+     * used for a new transaction attempt. The underlying C++ Transaction
+     * object is reset in place rather than destroyed and reallocated, so
+     * reusing a transaction is much cheaper than constructing a new one.
+     */
     public void clear() {
+        if (writeSet != null) {
+            writeSet.clear();
+        }
+        operations = 0;
+        abandonAsyncCommit();
         byteBuffer.rewind();
         byteBuffer.putLong(cppTransactionObjectPointer);
-        cppDeconstructor(cppByteBufferPointer);
+        cppReset(cppByteBufferPointer);
         byteBuffer.rewind();
         ClientException.checkStatus(byteBuffer.getInt());
-        
-        byteBuffer.rewind();
-        byteBuffer.putLong(cppRamcloudObjectPointer);
-        cppConstructor(cppByteBufferPointer);
-        byteBuffer.rewind();
-        ClientException.checkStatus(byteBuffer.getInt());
-        cppTransactionObjectPointer = byteBuffer.getLong();
     }
     
     /**
@@ -148,6 +227,7 @@ public class RAMCloudTransaction {
      * used after a call to this method.
      */
     public void close() {
+        abandonAsyncCommit();
         if (cppTransactionObjectPointer != 0) {
             byteBuffer.rewind();
             byteBuffer.putLong(cppTransactionObjectPointer);
@@ -178,14 +258,94 @@ public class RAMCloudTransaction {
      * @return True if the transaction was able to commit.  False otherwise.
      */
     public boolean commit() {
+        Events.TransactionCommit event = Events.beginTransactionCommit();
+        flushWrites();
         byteBuffer.rewind();
         byteBuffer.putLong(cppTransactionObjectPointer);
         cppCommit(cppByteBufferPointer);
-        byteBuffer.rewind();
-        ClientException.checkStatus(byteBuffer.getInt());
-        return (byteBuffer.getInt() == 1);
+        return finishCommit(event, "commit");
     }
     
+    /**
+     * Starts committing the transaction without blocking. The commit only
+     * makes progress while RAMCloud.poll() is being called on the RAMCloud
+     * object this transaction belongs to, and the returned future is
+     * completed from within poll(). This lets a single thread keep many
+     * commits in flight at once. Calling this method again returns the same
+     * future.
+     *
+     * The transaction must not be used for anything else until the future
+     * is done. Clearing or closing it before then cancels the future; the
+     * commit itself still runs to completion in C++.
+     *
+     * @return A future that completes with true if the transaction committed
+     *      and false if it aborted, or exceptionally with a ClientException
+     *      if the commit failed.
+     */
+    public CompletableFuture<Boolean> commitAsync() {
+        if (commitFuture != null) {
+            return commitFuture;
+        }
+        Events.TransactionCommit event = Events.beginTransactionCommit();
+        flushWrites();
+        byteBuffer.rewind();
+        byteBuffer.putLong(cppTransactionObjectPointer);
+        cppStartCommit(cppByteBufferPointer);
+        byteBuffer.rewind();
+        int status = byteBuffer.getInt();
+        if (status != 0) {
+            event.finish("commitAsync", operations, false, status);
+            ClientException.checkStatus(status);
+        }
+        asyncCommitEvent = event;
+        commitFuture = new CompletableFuture<Boolean>();
+        ramcloud.addPendingCommit(this);
+        return commitFuture;
+    }
+
+    /**
+     * Completes the future returned by commitAsync(). Called by
+     * RAMCloud.poll() once C++ reports the outcome of the commit.
+     *
+     * @param state
+     *      1 if the transaction committed, 2 if it aborted, 3 if the commit
+     *      failed with the given status.
+     * @param status
+     *      The status code of a failed commit.
+     */
+    void completeAsyncCommit(int state, int status) {
+        if (asyncCommitEvent != null) {
+            asyncCommitEvent.finish("commitAsync", operations, state == 1,
+                                    state == 3 ? status : 0);
+            asyncCommitEvent = null;
+        }
+        if (state == 3) {
+            try {
+                ClientException.checkStatus(status);
+                throw new ClientException.InternalErrorException();
+            } catch (RuntimeException e) {
+                commitFuture.completeExceptionally(e);
+            }
+        } else {
+            commitFuture.complete(state == 1);
+        }
+    }
+
+    /**
+     * Stops tracking an asynchronous commit that has not finished, because the
+     * C++ Transaction object is about to be destroyed.
+     */
+    private void abandonAsyncCommit() {
+        asyncCommitEvent = null;
+        if (commitFuture != null) {
+            if (!commitFuture.isDone()) {
+                ramcloud.removePendingCommit(this);
+                commitFuture.cancel(false);
+            }
+            commitFuture = null;
+        }
+    }
+
     /**
      * Block until the decision of this transaction commit is accepted by all
      * participant servers. If the commit has not yet occurred and a decision is
@@ -194,6 +354,7 @@ public class RAMCloudTransaction {
      * This method is used mostly for testing and benchmarking.
      */
     public void sync() {
+        flushWrites();
         byteBuffer.rewind();
         byteBuffer.putLong(cppTransactionObjectPointer);
         cppSync(cppByteBufferPointer);
@@ -209,12 +370,28 @@ public class RAMCloudTransaction {
      * @return True if the transaction was able to commit. False otherwise.
      */
     public boolean commitAndSync() {
+        Events.TransactionCommit event = Events.beginTransactionCommit();
+        flushWrites();
         byteBuffer.rewind();
         byteBuffer.putLong(cppTransactionObjectPointer);
         cppCommitAndSync(cppByteBufferPointer);
+        return finishCommit(event, "commitAndSync");
+    }
+
+    /**
+     * Reads the outcome of a blocking commit from the buffer and records its
+     * event.
+     *
+     * @return True if the transaction committed.
+     */
+    private boolean finishCommit(Events.TransactionCommit event,
+                                 String mode) {
         byteBuffer.rewind();
-        ClientException.checkStatus(byteBuffer.getInt());
-        return (byteBuffer.getInt() == 1);
+        int status = byteBuffer.getInt();
+        boolean committed = status == 0 && byteBuffer.getInt() == 1;
+        event.finish(mode, operations, committed, status);
+        ClientException.checkStatus(status);
+        return committed;
     }
     
     /**
@@ -237,11 +414,20 @@ public class RAMCloudTransaction {
      *            tableId. It does not necessarily have to be null terminated.
      *            The caller must ensure that the storage for this key is
      *            unchanged through the life of the RPC.
-     * @return A RAMCloudObject holding the key and value of the read object 
-     *          (no version information, defaults to 0), or null if the object
-     *          does not exist.
+     * @return A RAMCloudObject holding the key and value of the read object,
+     *          or null if the object does not exist. The version is the one
+     *          the transaction first read from the server, which is what the
+     *          commit will be validated against; it is 0 if the object was
+     *          first written, not read, by this transaction.
      */
     public RAMCloudObject read(long tableId, byte[] key) {
+        operations++;
+        if (writeSet != null && !writeSet.isEmpty()) {
+            WriteKey writeKey = new WriteKey(tableId, key);
+            if (writeSet.containsKey(writeKey)) {
+                return bufferedObject(key, writeSet.get(writeKey));
+            }
+        }
         byteBuffer.rewind();
         byteBuffer.putLong(cppTransactionObjectPointer)
                 .putLong(tableId)
@@ -259,13 +445,178 @@ public class RAMCloudTransaction {
           return null;
         }
 
+        long version = byteBuffer.getLong();
         int valueLength = byteBuffer.getInt();
         byte[] value = new byte[valueLength];
         byteBuffer.get(value);
 
-        return new RAMCloudObject(key, value, 0);
+        return new RAMCloudObject(key, value, version);
     }
     
+    /**
+     * Read the current contents of several objects in one table as a part of
+     * this transaction. The reads are issued together in a single native call
+     * and share batched RPCs, so the latency is close to that of one read
+     * rather than growing with the number of keys.
+     *
+     * @param tableId
+     *            The table containing the desired objects (return value from
+     *            a previous call to RAMCloud.getTableId).
+     * @param keys
+     *            The keys of the objects to read.
+     * @return An array with one RAMCloudObject per key, in the same order as
+     *          the keys, with versions as described in
+     *          {@link #read(long, byte[])}. An element is null if that
+     *          object does not exist.
+     */
+    public RAMCloudObject[] readAll(long tableId, byte[][] keys) {
+        operations += keys.length;
+        if (writeSet != null && !writeSet.isEmpty()) {
+            return readAllBuffered(tableId, keys);
+        }
+        RAMCloudObject[] out = new RAMCloudObject[keys.length];
+        int done = 0;
+        while (done < keys.length) {
+            byteBuffer.rewind();
+            byteBuffer.putLong(cppTransactionObjectPointer)
+                    .putLong(tableId)
+                    .putInt(byteBuffer.capacity())
+                    .putInt(0); // Placeholder for numKeys
+            int numKeys = 0;
+            while (done + numKeys < keys.length
+                    && numKeys < READ_ALL_BATCH_LIMIT) {
+                byte[] key = keys[done + numKeys];
+                if (byteBuffer.position() + 4 + key.length
+                        > byteBuffer.capacity()) {
+                    break;
+                }
+                byteBuffer.putInt(key.length).put(key);
+                numKeys++;
+            }
+            byteBuffer.putInt(20, numKeys);
+
+            cppReadAll(cppByteBufferPointer);
+
+            byteBuffer.rewind();
+            ClientException.checkStatus(byteBuffer.getInt());
+            int numResults = byteBuffer.getInt();
+            if (numResults == 0) {
+                throw new IllegalStateException(
+                        "Transaction read result is larger than the buffer");
+            }
+            for (int i = 0; i < numResults; i++) {
+                boolean exists = (byteBuffer.getInt() == 1);
+                long version = byteBuffer.getLong();
+                byte[] value = new byte[byteBuffer.getInt()];
+                byteBuffer.get(value);
+                if (exists) {
+                    out[done + i] =
+                            new RAMCloudObject(keys[done + i], value, version);
+                }
+            }
+            done += numResults;
+        }
+        return out;
+    }
+
+    /**
+     * Implements readAll() when some of the keys may have buffered writes:
+     * those are answered from the write set and the rest are read from C++.
+     */
+    private RAMCloudObject[] readAllBuffered(long tableId, byte[][] keys) {
+        RAMCloudObject[] out = new RAMCloudObject[keys.length];
+        int[] unbuffered = new int[keys.length];
+        int numUnbuffered = 0;
+        for (int i = 0; i < keys.length; i++) {
+            WriteKey writeKey = new WriteKey(tableId, keys[i]);
+            if (writeSet.containsKey(writeKey)) {
+                out[i] = bufferedObject(keys[i], writeSet.get(writeKey));
+            } else {
+                unbuffered[numUnbuffered++] = i;
+            }
+        }
+        if (numUnbuffered > 0) {
+            byte[][] toRead = new byte[numUnbuffered][];
+            for (int i = 0; i < numUnbuffered; i++) {
+                toRead[i] = keys[unbuffered[i]];
+            }
+            LinkedHashMap<WriteKey, byte[]> buffered = writeSet;
+            writeSet = null;
+            try {
+                RAMCloudObject[] read = readAll(tableId, toRead);
+                for (int i = 0; i < numUnbuffered; i++) {
+                    out[unbuffered[i]] = read[i];
+                }
+            } finally {
+                writeSet = buffered;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the result of reading an object with a buffered write.
+     *
+     * @param key
+     *      The key of the object.
+     * @param value
+     *      The buffered value, or null if the object was removed.
+     */
+    private static RAMCloudObject bufferedObject(byte[] key, byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        return new RAMCloudObject(key, value, 0);
+    }
+
+    /**
+     * Passes all buffered writes and removes to C++, using as few calls as
+     * the size of the ByteBuffer allows, and empties the write set. If a call
+     * fails, the write set is kept so that nothing buffered is lost; passing
+     * a write to C++ again just replaces the earlier copy.
+     */
+    private void flushWrites() {
+        if (writeSet == null || writeSet.isEmpty()) {
+            return;
+        }
+        byteBuffer.rewind();
+        byteBuffer.putLong(cppTransactionObjectPointer).putInt(0);
+        int numOps = 0;
+        for (Map.Entry<WriteKey, byte[]> entry : writeSet.entrySet()) {
+            byte[] key = entry.getKey().key;
+            byte[] value = entry.getValue();
+            int length = 13 + key.length
+                    + (value == null ? 0 : 4 + value.length);
+            if (numOps > 0
+                    && byteBuffer.position() + length > byteBuffer.capacity()) {
+                sendWrites(numOps);
+                byteBuffer.rewind();
+                byteBuffer.putLong(cppTransactionObjectPointer).putInt(0);
+                numOps = 0;
+            }
+            byteBuffer.put((byte) (value == null ? 1 : 0))
+                    .putLong(entry.getKey().tableId)
+                    .putInt(key.length)
+                    .put(key);
+            if (value != null) {
+                byteBuffer.putInt(value.length).put(value);
+            }
+            numOps++;
+        }
+        sendWrites(numOps);
+        writeSet.clear();
+    }
+
+    /**
+     * Passes the operations written to the ByteBuffer by flushWrites() to C++.
+     */
+    private void sendWrites(int numOps) {
+        byteBuffer.putInt(8, numOps);
+        cppWriteAll(cppByteBufferPointer);
+        byteBuffer.rewind();
+        ClientException.checkStatus(byteBuffer.getInt());
+    }
+
     /**
      * Delete an object from a table as part of this transaction. If the object
      * does not currently exist then the operation succeeds without doing
@@ -290,6 +641,11 @@ public class RAMCloudTransaction {
      *            tableId.
      */
     public void remove(long tableId, byte[] key) {
+        operations++;
+        if (writeSet != null) {
+            writeSet.put(new WriteKey(tableId, key), null);
+            return;
+        }
         byteBuffer.rewind();
         byteBuffer.putLong(cppTransactionObjectPointer)
                 .putLong(tableId)
@@ -334,6 +690,11 @@ public class RAMCloudTransaction {
      *            String providing the new value for the object.
      */
     public void write(long tableId, byte[] key, byte[] value) {
+        operations++;
+        if (writeSet != null) {
+            writeSet.put(new WriteKey(tableId, key), value);
+            return;
+        }
         byteBuffer.rewind();
         byteBuffer.putLong(cppTransactionObjectPointer)
                 .putLong(tableId)
@@ -348,13 +709,160 @@ public class RAMCloudTransaction {
         ClientException.checkStatus(byteBuffer.getInt());
     }
     
+    /**
+     * Add to the value of an object as part of this transaction.
+     *
+     * @see #incrementInt64(long, byte[], long)
+     */
+    public long incrementInt64(long tableId, String key, long incrementValue) {
+        return incrementInt64(tableId, key.getBytes(), incrementValue);
+    }
+
+    /**
+     * Add to the value of an object, interpreted as an 8-byte little-endian
+     * integer, as part of this transaction. The read and the write go
+     * through the transaction's cache in a single native call, so this costs
+     * at most one read RPC and the new value becomes visible to other clients
+     * only when the transaction commits. An object that does not exist is
+     * treated as holding 0.
+     *
+     * @param tableId
+     *            The table containing the desired object (return value from a
+     *            previous call to RAMCloud.getTableId).
+     * @param key
+     *            Variable length key that uniquely identifies the object within
+     *            tableId.
+     * @param incrementValue
+     *            The value to add to the object.
+     * @return The new value of the object.
+     * @throws ClientException.InvalidObjectException
+     *            If the object exists but is not 8 bytes long.
+     */
+    public long incrementInt64(long tableId, byte[] key, long incrementValue) {
+        return increment(tableId, key, (byte) 0, incrementValue);
+    }
+
+    /**
+     * Add to the value of an object as part of this transaction.
+     *
+     * @see #incrementDouble(long, byte[], double)
+     */
+    public double incrementDouble(long tableId, String key,
+                                  double incrementValue) {
+        return incrementDouble(tableId, key.getBytes(), incrementValue);
+    }
+
+    /**
+     * Add to the value of an object, interpreted as an 8-byte little-endian
+     * IEEE 754 double, as part of this transaction.
+     *
+     * @param tableId
+     *            The table containing the desired object (return value from a
+     *            previous call to RAMCloud.getTableId).
+     * @param key
+     *            Variable length key that uniquely identifies the object within
+     *            tableId.
+     * @param incrementValue
+     *            The value to add to the object.
+     * @return The new value of the object.
+     * @throws ClientException.InvalidObjectException
+     *            If the object exists but is not 8 bytes long.
+     * @see #incrementInt64(long, byte[], long)
+     */
+    public double incrementDouble(long tableId, byte[] key,
+                                  double incrementValue) {
+        return Double.longBitsToDouble(increment(tableId, key, (byte) 1,
+                Double.doubleToRawLongBits(incrementValue)));
+    }
+
+    /**
+     * Implements incrementInt64() and incrementDouble(). Values are passed as
+     * raw 8-byte patterns; type is 0 for integers and 1 for doubles. When
+     * writes are buffered the sum is computed here and kept in the write set.
+     */
+    private long increment(long tableId, byte[] key, byte type, long bits) {
+        if (writeSet != null) {
+            // read() counts the operation, and returns the buffered value if
+            // there is one.
+            RAMCloudObject obj = read(tableId, key);
+            byte[] old = (obj == null) ? null : obj.getValueBytes();
+            long oldBits = 0;
+            if (old != null) {
+                if (old.length != 8) {
+                    throw new ClientException.InvalidObjectException();
+                }
+                oldBits = ByteBuffer.wrap(old)
+                        .order(ByteOrder.LITTLE_ENDIAN).getLong();
+            }
+            long newBits;
+            if (type == 1) {
+                newBits = Double.doubleToRawLongBits(
+                        Double.longBitsToDouble(oldBits)
+                        + Double.longBitsToDouble(bits));
+            } else {
+                newBits = oldBits + bits;
+            }
+            writeSet.put(new WriteKey(tableId, key), ByteBuffer.allocate(8)
+                    .order(ByteOrder.LITTLE_ENDIAN).putLong(newBits).array());
+            return newBits;
+        }
+        operations++;
+        byteBuffer.rewind();
+        byteBuffer.putLong(cppTransactionObjectPointer)
+                .putLong(tableId)
+                .putInt(key.length)
+                .put(key)
+                .put(type)
+                .putLong(bits);
+
+        cppIncrement(cppByteBufferPointer);
+
+        byteBuffer.rewind();
+        ClientException.checkStatus(byteBuffer.getInt());
+        return byteBuffer.getLong();
+    }
+
     // Documentation for native methods located in C++ files
     protected native void cppConstructor(long cppByteBufferPointer);
     protected native void cppDeconstructor(long cppByteBufferPointer);
+    protected native void cppReset(long cppByteBufferPointer);
     protected native void cppCommit(long cppByteBufferPointer);
     protected native void cppSync(long cppByteBufferPointer);
     protected native void cppCommitAndSync(long cppByteBufferPointer);
+    protected native void cppStartCommit(long cppByteBufferPointer);
     protected native void cppRead(long cppByteBufferPointer);
+    protected native void cppReadAll(long cppByteBufferPointer);
+    protected native void cppIncrement(long cppByteBufferPointer);
     protected native void cppRemove(long cppByteBufferPointer);
     protected native void cppWrite(long cppByteBufferPointer);
+    protected native void cppWriteAll(long cppByteBufferPointer);
+
+    /**
+     * Identifies an object in the write set.
+     */
+    private static final class WriteKey {
+        final long tableId;
+        final byte[] key;
+        final int hash;
+
+        WriteKey(long tableId, byte[] key) {
+            this.tableId = tableId;
+            this.key = key;
+            this.hash = 31 * Long.hashCode(tableId) + Arrays.hashCode(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof WriteKey)) {
+                return false;
+            }
+            WriteKey that = (WriteKey) other;
+            return tableId == that.tableId && Arrays.equals(key, that.key);
+        }
+    }
 }
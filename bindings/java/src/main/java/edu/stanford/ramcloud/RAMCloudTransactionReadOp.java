@@ -174,11 +174,12 @@ public class RAMCloudTransactionReadOp {
           return null;
         }
 
+        long version = byteBuffer.getLong();
         int valueLength = byteBuffer.getInt();
         byte[] value = new byte[valueLength];
         byteBuffer.get(value);
 
-        return new RAMCloudObject(key, value, 0);
+        return new RAMCloudObject(key, value, version);
     }
     
     // Documentation for native methods located in C++ files
@@ -1,5 +1,8 @@
 package edu.stanford.ramcloud;
 
+import edu.stanford.ramcloud.jfr.Events;
+import edu.stanford.ramcloud.metrics.ClientMetrics;
+import edu.stanford.ramcloud.metrics.Operation;
 import java.util.Iterator;
 import java.nio.*;
 
@@ -72,7 +75,14 @@ public class TableIterator implements Iterator<RAMCloudObject> {
             return true;
         }
         int[] status = new int[1];
+        ClientMetrics metrics = ramcloud.getClientMetrics();
+        long start = metrics.start();
+        Events.EnumerationBatch event = Events.beginEnumerationBatch();
         objectBlob = TableIterator.getNextBatch(tableEnumeratorPointer, status);
+        event.finish(tableId,
+                     objectBlob == null ? 0 : objectBlob.remaining(),
+                     status[0]);
+        metrics.record(Operation.ENUMERATE, tableId, start, status[0] == 0);
         ClientException.checkStatus(status[0]);
         if (objectBlob == null) {
             done = true;
@@ -121,6 +131,19 @@ public class TableIterator implements Iterator<RAMCloudObject> {
         if (!retrieveBatch()) {
             return null;
         }
+        last = parseObject(objectBlob);
+        return last;
+    }
+
+    /**
+     * Parse one object from a blob returned by the C++ enumerate RPC.
+     *
+     * @param objectBlob
+     *      The blob, in little-endian order and positioned at the start of an
+     *      object. It is left positioned at the start of the next object.
+     * @return The object.
+     */
+    static RAMCloudObject parseObject(ByteBuffer objectBlob) {
         // This code depends on the format of the C++ Object class, defined in
         // Object.h. If that changes, this will need to change as well.
         int objectSize = objectBlob.getInt();
@@ -130,14 +153,24 @@ public class TableIterator implements Iterator<RAMCloudObject> {
         // Skip table ID and number of indeces
         objectBlob.position(objectBlob.position() + 9);
         short keySize = objectBlob.getShort();
-        byte[] key = new byte[keySize];
-        objectBlob.get(key);
+        // 8-byte keys are kept as longs (see LongKeys), so iterating a table
+        // with numeric keys does not allocate key arrays unless asked to.
+        long longKey = 0;
+        byte[] key = null;
+        if (keySize == LongKeys.LENGTH) {
+            longKey = LongKeys.get(objectBlob);
+        } else {
+            key = new byte[keySize];
+            objectBlob.get(key);
+        }
         // Remaining bytes are value
         byte[] value = new byte[objectSize - (27 + keySize)];
         objectBlob.get(value);
 
-        last = new RAMCloudObject(key, value, version);
-        return last;
+        if (key == null) {
+            return new RAMCloudObject(longKey, value, version);
+        }
+        return new RAMCloudObject(key, value, version);
     }
 
     /**
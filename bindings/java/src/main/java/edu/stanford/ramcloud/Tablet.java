@@ -0,0 +1,126 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud;
+
+/**
+ * Describes a contiguous range of key hashes from a single table, along with
+ * the master that currently owns it. This mirrors the TabletWithLocator
+ * entries that the C++ ObjectFinder caches.
+ */
+public class Tablet {
+    /**
+     * The ID of the containing table.
+     */
+    private long tableId;
+
+    /**
+     * The smallest hash value for a key that is in this tablet (unsigned).
+     */
+    private long startKeyHash;
+
+    /**
+     * The largest hash value for a key that is in this tablet (unsigned).
+     */
+    private long endKeyHash;
+
+    /**
+     * The server ID of the master owning this tablet.
+     */
+    private long serverId;
+
+    /**
+     * The service locator of the master owning this tablet.
+     */
+    private String serviceLocator;
+
+    /**
+     * Whether the tablet is currently being recovered, and is therefore not
+     * available.
+     */
+    private boolean recovering;
+
+    /**
+     * Constructs a new Tablet.
+     *
+     * @param tableId
+     *      The ID of the containing table.
+     * @param startKeyHash
+     *      The smallest key hash in this tablet.
+     * @param endKeyHash
+     *      The largest key hash in this tablet.
+     * @param serverId
+     *      The server ID of the owning master.
+     * @param serviceLocator
+     *      The service locator of the owning master.
+     * @param recovering
+     *      Whether the tablet is being recovered.
+     */
+    public Tablet(long tableId, long startKeyHash, long endKeyHash,
+                  long serverId, String serviceLocator, boolean recovering) {
+        this.tableId = tableId;
+        this.startKeyHash = startKeyHash;
+        this.endKeyHash = endKeyHash;
+        this.serverId = serverId;
+        this.serviceLocator = serviceLocator;
+        this.recovering = recovering;
+    }
+
+    public long getTableId() {
+        return tableId;
+    }
+
+    public long getStartKeyHash() {
+        return startKeyHash;
+    }
+
+    public long getEndKeyHash() {
+        return endKeyHash;
+    }
+
+    public long getServerId() {
+        return serverId;
+    }
+
+    public String getServiceLocator() {
+        return serviceLocator;
+    }
+
+    public boolean isRecovering() {
+        return recovering;
+    }
+
+    /**
+     * Whether a key hash falls within this tablet.
+     *
+     * @param keyHash
+     *      The key hash to check, as returned by KeyHash.getHash.
+     * @return True if the key hash is in this tablet's range.
+     */
+    public boolean contains(long keyHash) {
+        return Long.compareUnsigned(keyHash, startKeyHash) >= 0
+                && Long.compareUnsigned(keyHash, endKeyHash) <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Tablet[tableId: %d, startKeyHash: %s, "
+                             + "endKeyHash: %s, server: %s]",
+                             tableId,
+                             Long.toUnsignedString(startKeyHash),
+                             Long.toUnsignedString(endKeyHash),
+                             serviceLocator);
+    }
+}
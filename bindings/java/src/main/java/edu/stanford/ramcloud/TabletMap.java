@@ -0,0 +1,132 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Java-side cache of tablet placement, so that keys can be routed to the
+ * master that owns them without crossing into C++. Configuration for a table
+ * is fetched from the coordinator the first time the table is looked up, and
+ * can be discarded with flush() when it is known to be stale (for example
+ * after a migration or a crash).
+ *
+ * This class is thread safe, but fetching a table's configuration uses the
+ * owning RAMCloud object, which is not.
+ */
+public class TabletMap {
+    /**
+     * The RAMCloud object used to fetch table configurations.
+     */
+    private RAMCloud ramcloud;
+
+    /**
+     * The tablets of each cached table, sorted by start key hash.
+     */
+    private Map<Long, Tablet[]> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty TabletMap. Meant only to be called internally in the
+     * Java bindings; use RAMCloud.getTabletMap() instead.
+     */
+    TabletMap(RAMCloud ramcloud) {
+        this.ramcloud = ramcloud;
+    }
+
+    /**
+     * Returns the tablets making up a table, fetching them from the
+     * coordinator if they are not already cached.
+     *
+     * @param tableId
+     *      The ID of the table.
+     * @return The tablets of the table, sorted by start key hash.
+     */
+    public Tablet[] getTablets(long tableId) {
+        Tablet[] tablets = tables.get(tableId);
+        if (tablets == null) {
+            tablets = ramcloud.getTablets(tableId);
+            Arrays.sort(tablets, new Comparator<Tablet>() {
+                @Override
+                public int compare(Tablet a, Tablet b) {
+                    return Long.compareUnsigned(a.getStartKeyHash(),
+                                                b.getStartKeyHash());
+                }
+            });
+            tables.put(tableId, tablets);
+        }
+        return tablets;
+    }
+
+    /**
+     * Finds the tablet that stores a given key.
+     *
+     * @param tableId
+     *      The ID of the table containing the key.
+     * @param key
+     *      The key to look up.
+     * @return The tablet owning the key, or null if no tablet covers it.
+     */
+    public Tablet lookup(long tableId, byte[] key) {
+        return lookup(tableId, KeyHash.getHash(tableId, key));
+    }
+
+    /**
+     * Finds the tablet that stores a given key hash.
+     *
+     * @param tableId
+     *      The ID of the table containing the key.
+     * @param keyHash
+     *      The hash of the key, as returned by KeyHash.getHash.
+     * @return The tablet owning the key hash, or null if no tablet covers it.
+     */
+    public Tablet lookup(long tableId, long keyHash) {
+        Tablet[] tablets = getTablets(tableId);
+        int low = 0;
+        int high = tablets.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Tablet tablet = tablets[mid];
+            if (Long.compareUnsigned(keyHash, tablet.getStartKeyHash()) < 0) {
+                high = mid - 1;
+            } else if (Long.compareUnsigned(keyHash,
+                                            tablet.getEndKeyHash()) > 0) {
+                low = mid + 1;
+            } else {
+                return tablet;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Discards the cached configuration of a table; it will be fetched again
+     * the next time it is needed.
+     *
+     * @param tableId
+     *      The ID of the table to flush.
+     */
+    public void flush(long tableId) {
+        tables.remove(tableId);
+    }
+
+    /**
+     * Discards the cached configuration of all tables.
+     */
+    public void flush() {
+        tables.clear();
+    }
+}
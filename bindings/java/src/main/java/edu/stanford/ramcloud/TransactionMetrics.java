@@ -0,0 +1,119 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms describing the transactions run through
+ * RAMCloud.runTransaction. All methods are thread safe.
+ */
+public class TransactionMetrics {
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder aborts = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * The number of retries needed by each committed transaction.
+     */
+    private final Histogram retriesPerCommit = new Histogram();
+
+    /**
+     * The time in nanoseconds from the start of the first attempt to the end
+     * of the successful commit, for each committed transaction.
+     */
+    private final Histogram commitLatency = new Histogram();
+
+    void recordAbort() {
+        attempts.increment();
+        aborts.increment();
+    }
+
+    void recordCommit(int retries, long latencyNanos) {
+        attempts.increment();
+        commits.increment();
+        retriesPerCommit.record(retries);
+        commitLatency.record(latencyNanos);
+    }
+
+    void recordTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * Get the number of commit attempts, successful or not.
+     */
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    /**
+     * Get the number of transactions that committed.
+     */
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    /**
+     * Get the number of attempts that aborted.
+     */
+    public long getAborts() {
+        return aborts.sum();
+    }
+
+    /**
+     * Get the number of transactions given up on because of the retry
+     * policy's deadline or attempt limit.
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Get the fraction of commit attempts that aborted.
+     *
+     * @return A value between 0 and 1, or 0 if nothing has been attempted.
+     */
+    public double getAbortRate() {
+        long n = getAttempts();
+        return n == 0 ? 0.0 : (double) getAborts() / n;
+    }
+
+    /**
+     * Get the histogram of retries needed by committed transactions.
+     */
+    public Histogram getRetriesPerCommit() {
+        return retriesPerCommit;
+    }
+
+    /**
+     * Get the histogram of end-to-end latencies, in nanoseconds, of
+     * committed transactions, including any retries and backoff.
+     */
+    public Histogram getCommitLatency() {
+        return commitLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "attempts=%d commits=%d aborts=%d timeouts=%d abortRate=%.3f "
+                + "retries=[%s] latencyNs=[%s]",
+                getAttempts(), getCommits(), getAborts(), getTimeouts(),
+                getAbortRate(), retriesPerCommit, commitLatency);
+    }
+}
@@ -0,0 +1,142 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of RAMCloudTransaction objects for a single RAMCloud object.
+ * Transactions released to the pool are cleared, which resets their C++
+ * Transaction objects in place, and handed out again by acquire(), so
+ * applications running many short transactions avoid constructing and
+ * destroying native transactions.
+ *
+ * The pool itself is thread safe. The transactions it hands out still share
+ * the RAMCloud object's buffer, so the usual rule applies: only one thread
+ * at a time may use a RAMCloud object and its transactions.
+ */
+public class TransactionPool {
+    /**
+     * The cluster on which pooled transactions operate.
+     */
+    private final RAMCloud ramcloud;
+
+    /**
+     * Whether pooled transactions buffer their writes in Java.
+     */
+    private final boolean bufferWrites;
+
+    /**
+     * The largest number of idle transactions kept; extra released
+     * transactions are closed.
+     */
+    private final int maxIdle;
+
+    private final ConcurrentLinkedDeque<RAMCloudTransaction> idle =
+            new ConcurrentLinkedDeque<RAMCloudTransaction>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /**
+     * Constructs an empty pool.
+     *
+     * @param ramcloud
+     *      The RAMCloud object that pooled transactions operate on.
+     * @param maxIdle
+     *      The largest number of idle transactions to keep.
+     * @param bufferWrites
+     *      Whether pooled transactions buffer their writes in Java; see
+     *      RAMCloudTransaction(RAMCloud, boolean).
+     */
+    public TransactionPool(RAMCloud ramcloud, int maxIdle,
+                           boolean bufferWrites) {
+        this.ramcloud = ramcloud;
+        this.maxIdle = maxIdle;
+        this.bufferWrites = bufferWrites;
+    }
+
+    /**
+     * Constructs an empty pool of transactions that do not buffer writes.
+     *
+     * @see #TransactionPool(RAMCloud, int, boolean)
+     */
+    public TransactionPool(RAMCloud ramcloud, int maxIdle) {
+        this(ramcloud, maxIdle, false);
+    }
+
+    /**
+     * Get an empty transaction, reusing an idle one if possible.
+     *
+     * @return A transaction with no operations performed on it.
+     */
+    public RAMCloudTransaction acquire() {
+        RAMCloudTransaction transaction = idle.pollFirst();
+        if (transaction != null) {
+            idleCount.decrementAndGet();
+            return transaction;
+        }
+        return new RAMCloudTransaction(ramcloud, bufferWrites);
+    }
+
+    /**
+     * Return a transaction to the pool once the caller is done with it. The
+     * transaction is cleared, whether or not it was committed, and must not
+     * be used by the caller afterwards.
+     *
+     * @param transaction
+     *      A transaction obtained from acquire().
+     */
+    public void release(RAMCloudTransaction transaction) {
+        if (transaction.getRAMCloud() != ramcloud
+                || transaction.isBufferingWrites() != bufferWrites) {
+            throw new IllegalArgumentException(
+                    "Transaction does not belong to this pool");
+        }
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            transaction.close();
+            return;
+        }
+        try {
+            transaction.clear();
+        } catch (RuntimeException e) {
+            idleCount.decrementAndGet();
+            throw e;
+        }
+        idle.addFirst(transaction);
+    }
+
+    /**
+     * Get the number of idle transactions in the pool.
+     *
+     * @return The number of transactions waiting to be acquired.
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /**
+     * Closes all idle transactions. Transactions acquired but not yet
+     * released are not affected.
+     */
+    public void close() {
+        RAMCloudTransaction transaction;
+        while ((transaction = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            transaction.close();
+        }
+    }
+}
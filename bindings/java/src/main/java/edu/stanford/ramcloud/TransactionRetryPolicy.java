@@ -0,0 +1,180 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how RAMCloud.runTransaction retries transactions that abort.
+ * After the n-th abort the caller waits a random time between half and all
+ * of min(initialBackoff * 2^(n-1), maxBackoff) before trying again. The
+ * exponential growth spreads contending clients apart, and the jitter keeps
+ * them from retrying in lock step. No attempt is started once the deadline
+ * would be passed.
+ */
+public class TransactionRetryPolicy {
+    private long initialBackoffNanos = TimeUnit.MICROSECONDS.toNanos(100);
+    private long maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private long deadlineNanos = TimeUnit.SECONDS.toNanos(10);
+    private int maxAttempts = Integer.MAX_VALUE;
+
+    /**
+     * Set the backoff before the first retry.
+     *
+     * @param backoff
+     *      The length of the backoff.
+     * @param unit
+     *      The unit of backoff.
+     * @throws IllegalArgumentException
+     *      If backoff is negative.
+     */
+    public void setInitialBackoff(long backoff, TimeUnit unit) {
+        if (backoff < 0) {
+            throw new IllegalArgumentException("backoff must not be negative");
+        }
+        initialBackoffNanos = unit.toNanos(backoff);
+    }
+
+    /**
+     * Get the backoff before the first retry.
+     *
+     * @return The initial backoff in nanoseconds.
+     */
+    public long getInitialBackoffNanos() {
+        return initialBackoffNanos;
+    }
+
+    /**
+     * Set the upper limit on the backoff between retries.
+     *
+     * @param backoff
+     *      The largest backoff.
+     * @param unit
+     *      The unit of backoff.
+     * @throws IllegalArgumentException
+     *      If backoff is negative.
+     */
+    public void setMaxBackoff(long backoff, TimeUnit unit) {
+        if (backoff < 0) {
+            throw new IllegalArgumentException("backoff must not be negative");
+        }
+        maxBackoffNanos = unit.toNanos(backoff);
+    }
+
+    /**
+     * Get the upper limit on the backoff between retries.
+     *
+     * @return The largest backoff in nanoseconds.
+     */
+    public long getMaxBackoffNanos() {
+        return maxBackoffNanos;
+    }
+
+    /**
+     * Set the total time, from the first attempt, after which no more
+     * attempts are made.
+     *
+     * @param deadline
+     *      The time allowed for the transaction.
+     * @param unit
+     *      The unit of deadline.
+     * @throws IllegalArgumentException
+     *      If deadline is negative.
+     */
+    public void setDeadline(long deadline, TimeUnit unit) {
+        if (deadline < 0) {
+            throw new IllegalArgumentException(
+                    "deadline must not be negative");
+        }
+        deadlineNanos = unit.toNanos(deadline);
+    }
+
+    /**
+     * Get the total time, from the first attempt, after which no more
+     * attempts are made.
+     *
+     * @return The deadline in nanoseconds.
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Set the maximum number of attempts, including the first.
+     *
+     * @param maxAttempts
+     *      The maximum number of times to run the transaction.
+     * @throws IllegalArgumentException
+     *      If maxAttempts is less than 1.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Get the maximum number of attempts, including the first.
+     *
+     * @return The maximum number of times to run the transaction.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Decides whether to make another attempt after an abort.
+     *
+     * @param aborts
+     *      The number of times the transaction has aborted so far (at
+     *      least 1).
+     * @param elapsedNanos
+     *      The time since the first attempt started.
+     * @param backoffNanos
+     *      The backoff that would precede the next attempt, as returned by
+     *      getBackoffNanos(aborts).
+     * @return True if the next attempt is within the maximum number of
+     *      attempts and would start before the deadline.
+     */
+    public boolean shouldRetry(int aborts, long elapsedNanos,
+                               long backoffNanos) {
+        return aborts < maxAttempts
+                && elapsedNanos + backoffNanos - deadlineNanos <= 0;
+    }
+
+    /**
+     * Computes the time to wait before the next attempt.
+     *
+     * @param aborts
+     *      The number of times the transaction has aborted so far (at
+     *      least 1).
+     * @return The backoff in nanoseconds.
+     */
+    public long getBackoffNanos(int aborts) {
+        int shift = Math.min(Math.max(aborts - 1, 0), 62);
+        long cap = initialBackoffNanos << shift;
+        if (cap < 0 || (cap >> shift) != initialBackoffNanos
+                || cap > maxBackoffNanos) {
+            cap = maxBackoffNanos;
+        }
+        if (cap <= 1) {
+            return cap;
+        }
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+}
@@ -0,0 +1,62 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts between Java values and the bytes stored in RAMCloud objects.
+ * Codecs encode straight into, and decode straight out of, the ByteBuffer
+ * shared with C++ (or the arenas of a batch), so no intermediate byte array
+ * is needed. The buffers passed to a codec are always little-endian.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#readValue(long, byte[], Codec)
+ * @see edu.stanford.ramcloud.RAMCloud#writeValue(long, byte[], Object, Codec)
+ */
+public interface Codec<T> {
+    /**
+     * Get the number of bytes encode() will write for a value.
+     *
+     * @param value
+     *      The value to be encoded.
+     * @return The encoded length in bytes.
+     */
+    int encodedLength(T value);
+
+    /**
+     * Encode a value at the buffer's current position, advancing the
+     * position by exactly encodedLength(value) bytes.
+     *
+     * @param value
+     *      The value to encode.
+     * @param buffer
+     *      The buffer to write to.
+     */
+    void encode(T value, ByteBuffer buffer);
+
+    /**
+     * Decode a value starting at the buffer's current position. The buffer
+     * is only valid for the duration of the call, so implementations must
+     * not keep a reference to it.
+     *
+     * @param buffer
+     *      The buffer to read from. Its position is advanced past the value.
+     * @param length
+     *      The number of bytes in the encoded value.
+     * @return The decoded value.
+     */
+    T decode(ByteBuffer buffer, int length);
+}
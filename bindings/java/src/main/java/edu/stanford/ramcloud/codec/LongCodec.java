@@ -0,0 +1,57 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.codec;
+
+import edu.stanford.ramcloud.ClientException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a Long as 8 little-endian bytes, the same representation used by
+ * RAMCloud.incrementInt64, so values written with this codec can be
+ * incremented atomically by the server.
+ */
+public final class LongCodec implements Codec<Long> {
+    /**
+     * The shared instance of this stateless codec.
+     */
+    public static final LongCodec INSTANCE = new LongCodec();
+
+    private LongCodec() {}
+
+    @Override
+    public int encodedLength(Long value) {
+        return 8;
+    }
+
+    @Override
+    public void encode(Long value, ByteBuffer buffer) {
+        buffer.putLong(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ClientException.InvalidObjectException
+     *      If the value is not 8 bytes long.
+     */
+    @Override
+    public Long decode(ByteBuffer buffer, int length) {
+        if (length != 8) {
+            throw new ClientException.InvalidObjectException();
+        }
+        return buffer.getLong();
+    }
+}
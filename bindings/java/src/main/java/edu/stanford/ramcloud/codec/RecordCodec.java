@@ -0,0 +1,109 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.codec;
+
+import edu.stanford.ramcloud.ClientException;
+import java.nio.ByteBuffer;
+
+/**
+ * Base class for codecs of flat, fixed-length records: values whose fields
+ * are primitives laid out one after the other. Subclasses read and write the
+ * fields with the ByteBuffer's get/put methods; this class checks that every
+ * record occupies exactly the declared number of bytes.
+ */
+public abstract class RecordCodec<T> implements Codec<T> {
+    /**
+     * The length of every encoded record, in bytes.
+     */
+    private final int recordLength;
+
+    /**
+     * Constructs a RecordCodec.
+     *
+     * @param recordLength
+     *      The length of every encoded record, in bytes.
+     */
+    protected RecordCodec(int recordLength) {
+        this.recordLength = recordLength;
+    }
+
+    /**
+     * Get the length of every encoded record.
+     *
+     * @return The length in bytes.
+     */
+    public int getRecordLength() {
+        return recordLength;
+    }
+
+    /**
+     * Write the fields of a record at the buffer's position.
+     *
+     * @param record
+     *      The record to write.
+     * @param buffer
+     *      The little-endian buffer to write to.
+     */
+    protected abstract void writeFields(T record, ByteBuffer buffer);
+
+    /**
+     * Read the fields of a record from the buffer's position.
+     *
+     * @param buffer
+     *      The little-endian buffer to read from.
+     * @return The record.
+     */
+    protected abstract T readFields(ByteBuffer buffer);
+
+    @Override
+    public final int encodedLength(T value) {
+        return recordLength;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException
+     *      If writeFields did not write exactly getRecordLength() bytes.
+     */
+    @Override
+    public final void encode(T value, ByteBuffer buffer) {
+        int start = buffer.position();
+        writeFields(value, buffer);
+        if (buffer.position() - start != recordLength) {
+            throw new IllegalStateException("Record wrote "
+                    + (buffer.position() - start) + " bytes, expected "
+                    + recordLength);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ClientException.InvalidObjectException
+     *      If the stored value is not getRecordLength() bytes long.
+     */
+    @Override
+    public final T decode(ByteBuffer buffer, int length) {
+        if (length != recordLength) {
+            throw new ClientException.InvalidObjectException();
+        }
+        int start = buffer.position();
+        T record = readFields(buffer);
+        buffer.position(start + length);
+        return record;
+    }
+}
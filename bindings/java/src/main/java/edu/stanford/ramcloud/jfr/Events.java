@@ -0,0 +1,173 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.jfr;
+
+/**
+ * The entry point for the JDK Flight Recorder events of the bindings. The
+ * events extend jdk.jfr.Event, which Java 8 runtimes before 8u262 do not
+ * have, so they are built in a separate source set, src/jfr, and loaded
+ * reflectively the first time this class is used. When they cannot be
+ * loaded, the methods here return an event that records nothing, so the
+ * bindings still run on any Java 8 runtime.
+ *
+ * Callers begin an event before the operation and finish it afterwards:
+ *
+ * <pre>
+ * Events.Read event = Events.beginRead();
+ * ...
+ * event.finish(tableId, key.length, value.length, status);
+ * </pre>
+ */
+public final class Events {
+    /**
+     * The class that creates the Flight Recorder events, in src/jfr.
+     */
+    private static final String FACTORY_CLASS =
+            "edu.stanford.ramcloud.jfr.RAMCloudEventFactory";
+
+    private static final Factory factory = loadFactory();
+
+    private Events() {
+    }
+
+    /**
+     * A read of a single object. Recorded as RAMCloudReadEvent.
+     */
+    public interface Read {
+        void finish(long tableId, int keySize, int valueSize, int status);
+    }
+
+    /**
+     * One batch of a multi-op. Recorded as RAMCloudMultiOpEvent.
+     */
+    public interface MultiOp {
+        void finish(Class<?> handler, int batchSize, int requestSize,
+                    int responseSize, int failures, int status);
+    }
+
+    /**
+     * The commit of a transaction. Recorded as
+     * RAMCloudTransactionCommitEvent.
+     */
+    public interface TransactionCommit {
+        void finish(String mode, int operations, boolean committed,
+                    int status);
+    }
+
+    /**
+     * The retrieval of one batch of objects by a TableIterator. Recorded as
+     * RAMCloudEnumerationBatchEvent.
+     */
+    public interface EnumerationBatch {
+        void finish(long tableId, int batchSize, int status);
+    }
+
+    /**
+     * Creates and begins events. Implemented by RAMCloudEventFactory.
+     */
+    public interface Factory {
+        Read beginRead();
+
+        MultiOp beginMultiOp();
+
+        TransactionCommit beginTransactionCommit();
+
+        EnumerationBatch beginEnumerationBatch();
+    }
+
+    /**
+     * @return True if the Flight Recorder events were loaded, false if the
+     *      events returned by this class record nothing.
+     */
+    public static boolean isAvailable() {
+        return !(factory instanceof Disabled);
+    }
+
+    public static Read beginRead() {
+        return factory.beginRead();
+    }
+
+    public static MultiOp beginMultiOp() {
+        return factory.beginMultiOp();
+    }
+
+    public static TransactionCommit beginTransactionCommit() {
+        return factory.beginTransactionCommit();
+    }
+
+    public static EnumerationBatch beginEnumerationBatch() {
+        return factory.beginEnumerationBatch();
+    }
+
+    private static Factory loadFactory() {
+        try {
+            // Check for jdk.jfr first, so that a missing module shows up
+            // here rather than when an event class is first linked.
+            Class.forName("jdk.jfr.Event");
+            return (Factory) Class.forName(FACTORY_CLASS).newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return Disabled.INSTANCE;
+        }
+    }
+
+    /**
+     * The events used when Flight Recorder events are not available. A
+     * single instance serves as every event, since it keeps no state.
+     */
+    private static final class Disabled implements Factory, Read, MultiOp,
+            TransactionCommit, EnumerationBatch {
+        static final Disabled INSTANCE = new Disabled();
+
+        @Override
+        public Read beginRead() {
+            return this;
+        }
+
+        @Override
+        public MultiOp beginMultiOp() {
+            return this;
+        }
+
+        @Override
+        public TransactionCommit beginTransactionCommit() {
+            return this;
+        }
+
+        @Override
+        public EnumerationBatch beginEnumerationBatch() {
+            return this;
+        }
+
+        @Override
+        public void finish(long tableId, int keySize, int valueSize,
+                           int status) {
+        }
+
+        @Override
+        public void finish(Class<?> handler, int batchSize, int requestSize,
+                           int responseSize, int failures, int status) {
+        }
+
+        @Override
+        public void finish(String mode, int operations, boolean committed,
+                           int status) {
+        }
+
+        @Override
+        public void finish(long tableId, int batchSize, int status) {
+        }
+    }
+}
@@ -0,0 +1,575 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.log4j.Logger;
+
+/**
+ * Latency histograms and failure counts for the operations performed by one
+ * RAMCloud client, both overall and per table. Recording is always on by
+ * default; it costs two System.nanoTime() calls and a few atomic increments
+ * per operation, and neither allocates nor locks once a table has been seen.
+ *
+ * After registerMBeans() has been called, each histogram is also published
+ * as an MXBean named
+ * edu.stanford.ramcloud:type=ClientMetrics,client=N,operation=OP, with an
+ * extra table=ID key for per-table histograms. Publishing is opt-in because
+ * the platform MBean server keeps the histograms reachable until close() is
+ * called.
+ *
+ * Phase timing, which is off by default, additionally splits each call into
+ * the phases of Phase, using times that the JNI functions record with
+ * Cycles::rdtsc in a small buffer shared with Java. The phase histograms are
+ * published with an extra phase=PHASE key.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#metrics()
+ */
+public class ClientMetrics {
+    private static final Logger logger = Logger.getLogger(ClientMetrics.class);
+
+    /**
+     * Passed as the table ID of operations that are not on a single table.
+     */
+    public static final long NO_TABLE = -1;
+
+    /**
+     * The size of the buffer shared with C++ for phase timing, and the
+     * offsets of its fields. These must match struct PhaseTimes in
+     * JavaCommon.h.
+     */
+    public static final int PHASE_BUFFER_SIZE = 32;
+    private static final int PHASE_ENABLED_OFFSET = 0;
+    private static final int NATIVE_NANOS_OFFSET = 8;
+    private static final int RPC_NANOS_OFFSET = 16;
+    private static final int UPCALL_NANOS_OFFSET = 24;
+    private static final int PHASE_TIMES_ENABLED = 0x53484150;
+
+    /**
+     * Used to give each client a distinct JMX name.
+     */
+    private static final AtomicInteger nextClientId = new AtomicInteger();
+
+    /**
+     * The metrics of one table, created the first time the table is used.
+     */
+    private static final class TableMetrics {
+        final long tableId;
+        final AtomicReferenceArray<OperationMetrics> operations =
+                new AtomicReferenceArray<>(Operation.operations.length);
+
+        TableMetrics(long tableId) {
+            this.tableId = tableId;
+        }
+    }
+
+    private final int clientId = nextClientId.getAndIncrement();
+    private final OperationMetrics[] operations =
+            new OperationMetrics[Operation.operations.length];
+
+    /**
+     * Copy-on-write list of the tables seen so far. Clients use few tables,
+     * so a linear scan is faster than hashing and does not box the ID.
+     */
+    private volatile TableMetrics[] tables = new TableMetrics[0];
+
+    private volatile boolean enabled = true;
+
+    /**
+     * The buffer C++ records phase times in, or null if none is attached.
+     */
+    private ByteBuffer phaseBuffer;
+
+    private volatile boolean phaseTiming;
+
+    /**
+     * The histograms of each phase of each operation, indexed by operation
+     * and then phase. Created when phase timing is first enabled.
+     */
+    private OperationMetrics[][] phases;
+
+    /**
+     * Names of the MXBeans registered for this client, or null if the
+     * metrics are not published.
+     */
+    private ArrayList<ObjectName> mbeanNames;
+
+    /**
+     * Constructs a ClientMetrics. Its MXBeans are not registered until
+     * registerMBeans() is called.
+     */
+    public ClientMetrics() {
+        for (Operation operation : Operation.operations) {
+            operations[operation.ordinal()] = new OperationMetrics();
+        }
+    }
+
+    /**
+     * Test whether operations are being recorded.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turn recording of operations on or off.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Attaches the buffer in which C++ records phase times. This is called by
+     * RAMCloud, which owns the buffer; the buffer must only be used by the
+     * thread that uses the client.
+     *
+     * @param buffer
+     *      A direct buffer of PHASE_BUFFER_SIZE bytes, whose address is
+     *      passed to C++ with each call that records phase times.
+     */
+    public void attachPhaseBuffer(ByteBuffer buffer) {
+        phaseBuffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        phaseBuffer.putInt(PHASE_ENABLED_OFFSET,
+                           phaseTiming ? PHASE_TIMES_ENABLED : 0);
+    }
+
+    /**
+     * Test whether calls are being split into phases.
+     */
+    public boolean isPhaseTimingEnabled() {
+        return phaseTiming;
+    }
+
+    /**
+     * Turn splitting calls into phases on or off. This replaces the old
+     * compile-time TIME_CPP switch of the JNI code; while it is off C++ reads
+     * one flag per call and does nothing else.
+     *
+     * @throws IllegalStateException
+     *      If no phase buffer has been attached.
+     */
+    public synchronized void setPhaseTimingEnabled(boolean phaseTiming) {
+        if (phaseBuffer == null) {
+            throw new IllegalStateException("No phase buffer attached");
+        }
+        if (phaseTiming && phases == null) {
+            OperationMetrics[][] created =
+                    new OperationMetrics[Operation.operations.length][];
+            for (Operation operation : Operation.operations) {
+                created[operation.ordinal()] =
+                        new OperationMetrics[Phase.phases.length];
+                for (Phase phase : Phase.phases) {
+                    OperationMetrics metrics = new OperationMetrics();
+                    created[operation.ordinal()][phase.ordinal()] = metrics;
+                    register(metrics, operation, NO_TABLE, phase);
+                }
+            }
+            phases = created;
+        }
+        phaseBuffer.putInt(PHASE_ENABLED_OFFSET,
+                           phaseTiming ? PHASE_TIMES_ENABLED : 0);
+        this.phaseTiming = phaseTiming;
+    }
+
+    /**
+     * Get the time to pass as the start of an operation to record(). This is
+     * 0 when recording is disabled, so a disabled client does not even read
+     * the clock. When phase timing is on this also clears the times recorded
+     * by C++ for the previous call.
+     */
+    public long start() {
+        if (!enabled) {
+            return 0;
+        }
+        if (phaseTiming) {
+            phaseBuffer.putLong(NATIVE_NANOS_OFFSET, 0)
+                    .putLong(RPC_NANOS_OFFSET, 0)
+                    .putLong(UPCALL_NANOS_OFFSET, 0);
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Get the time at which a call enters or leaves C++, to pass to record().
+     * This is 0 unless phase timing is on.
+     */
+    public long mark() {
+        return phaseTiming ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a completed operation.
+     *
+     * @param operation
+     *      The kind of operation.
+     * @param tableId
+     *      The table the operation was on, or NO_TABLE.
+     * @param startNanos
+     *      The return value of start() when the operation began.
+     * @param success
+     *      False if the operation returned a status other than STATUS_OK.
+     */
+    public void record(Operation operation, long tableId, long startNanos,
+                       boolean success) {
+        if (!enabled || startNanos == 0) {
+            return;
+        }
+        recordLatency(operation, tableId, System.nanoTime() - startNanos,
+                      success);
+    }
+
+    /**
+     * Records a completed single-object operation, splitting it into phases
+     * if phase timing is on.
+     *
+     * @param operation
+     *      The kind of operation.
+     * @param tableId
+     *      The table the operation was on.
+     * @param startNanos
+     *      The return value of start() when the operation began.
+     * @param callStartNanos
+     *      The return value of mark() just before calling C++.
+     * @param callEndNanos
+     *      The return value of mark() just after C++ returned.
+     * @param success
+     *      False if the operation returned a status other than STATUS_OK.
+     */
+    public void record(Operation operation, long tableId, long startNanos,
+                       long callStartNanos, long callEndNanos,
+                       boolean success) {
+        if (!enabled || startNanos == 0) {
+            return;
+        }
+        long end = System.nanoTime();
+        recordLatency(operation, tableId, end - startNanos, success);
+        if (!phaseTiming || callStartNanos == 0 || callEndNanos == 0) {
+            return;
+        }
+        long nativeNanos = phaseBuffer.getLong(NATIVE_NANOS_OFFSET);
+        long rpcNanos = phaseBuffer.getLong(RPC_NANOS_OFFSET);
+        long upcallNanos = phaseBuffer.getLong(UPCALL_NANOS_OFFSET);
+        OperationMetrics[] operationPhases = phases[operation.ordinal()];
+        recordPhase(operationPhases, Phase.ENCODE, callStartNanos - startNanos);
+        recordPhase(operationPhases, Phase.JNI,
+                    callEndNanos - callStartNanos - nativeNanos);
+        recordPhase(operationPhases, Phase.NATIVE,
+                    nativeNanos - rpcNanos - upcallNanos);
+        recordPhase(operationPhases, Phase.RPC, rpcNanos);
+        recordPhase(operationPhases, Phase.DECODE, end - callEndNanos);
+    }
+
+    /**
+     * Records a completed multi-op, splitting it into phases if phase timing
+     * is on. A multi-op may call C++ several times, and decodes its results
+     * in unloadBuffer upcalls, so only the total native time is known: ENCODE
+     * covers all Java time outside C++, and UPCALL covers decoding.
+     *
+     * @param operation
+     *      The kind of multi-op.
+     * @param startNanos
+     *      The return value of start() when the operation began.
+     * @param success
+     *      False if the operation threw.
+     */
+    public void recordMulti(Operation operation, long startNanos,
+                            boolean success) {
+        if (!enabled || startNanos == 0) {
+            return;
+        }
+        long latency = System.nanoTime() - startNanos;
+        recordLatency(operation, NO_TABLE, latency, success);
+        if (!phaseTiming) {
+            return;
+        }
+        long nativeNanos = phaseBuffer.getLong(NATIVE_NANOS_OFFSET);
+        long rpcNanos = phaseBuffer.getLong(RPC_NANOS_OFFSET);
+        long upcallNanos = phaseBuffer.getLong(UPCALL_NANOS_OFFSET);
+        OperationMetrics[] operationPhases = phases[operation.ordinal()];
+        recordPhase(operationPhases, Phase.ENCODE, latency - nativeNanos);
+        recordPhase(operationPhases, Phase.NATIVE,
+                    nativeNanos - rpcNanos - upcallNanos);
+        recordPhase(operationPhases, Phase.RPC, rpcNanos);
+        recordPhase(operationPhases, Phase.UPCALL, upcallNanos);
+    }
+
+    private void recordLatency(Operation operation, long tableId,
+                               long latency, boolean success) {
+        operations[operation.ordinal()].record(latency, success);
+        if (tableId != NO_TABLE) {
+            getTableOperation(tableId, operation).record(latency, success);
+        }
+    }
+
+    /**
+     * Records one phase of a call. Java and C++ read different clocks, so
+     * a phase computed as a difference can come out slightly negative; it is
+     * recorded as 0.
+     */
+    private static void recordPhase(OperationMetrics[] operationPhases,
+                                    Phase phase, long nanos) {
+        operationPhases[phase.ordinal()].record(Math.max(nanos, 0), true);
+    }
+
+    /**
+     * Get the live metrics of one phase of an operation.
+     *
+     * @return The metrics, or null if phase timing has never been enabled.
+     */
+    public synchronized OperationMetrics getPhase(Operation operation,
+                                                  Phase phase) {
+        return phases == null ? null
+                : phases[operation.ordinal()][phase.ordinal()];
+    }
+
+    /**
+     * Get the live metrics of one operation over all tables.
+     */
+    public OperationMetrics getOperation(Operation operation) {
+        return operations[operation.ordinal()];
+    }
+
+    /**
+     * Get the live metrics of one operation on one table, creating them if
+     * needed.
+     */
+    public OperationMetrics getTableOperation(long tableId,
+                                              Operation operation) {
+        TableMetrics table = getTable(tableId);
+        OperationMetrics metrics = table.operations.get(operation.ordinal());
+        if (metrics == null) {
+            metrics = new OperationMetrics();
+            if (table.operations.compareAndSet(operation.ordinal(), null,
+                                               metrics)) {
+                register(metrics, operation, tableId);
+            } else {
+                metrics = table.operations.get(operation.ordinal());
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of a table, adding the table if it is new.
+     */
+    private TableMetrics getTable(long tableId) {
+        for (TableMetrics table : tables) {
+            if (table.tableId == tableId) {
+                return table;
+            }
+        }
+        synchronized (this) {
+            TableMetrics[] current = tables;
+            for (TableMetrics table : current) {
+                if (table.tableId == tableId) {
+                    return table;
+                }
+            }
+            TableMetrics[] updated = new TableMetrics[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = new TableMetrics(tableId);
+            tables = updated;
+            return updated[current.length];
+        }
+    }
+
+    /**
+     * Get a point-in-time copy of all metrics.
+     */
+    public MetricsSnapshot snapshot() {
+        EnumMap<Operation, OperationSnapshot> overall =
+                new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.operations) {
+            OperationMetrics metrics = operations[operation.ordinal()];
+            if (metrics.getCount() > 0) {
+                overall.put(operation, metrics.snapshot());
+            }
+        }
+        TreeMap<Long, Map<Operation, OperationSnapshot>> byTable =
+                new TreeMap<>();
+        for (TableMetrics table : tables) {
+            EnumMap<Operation, OperationSnapshot> tableSnapshot =
+                    new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.operations) {
+                OperationMetrics metrics =
+                        table.operations.get(operation.ordinal());
+                if (metrics != null && metrics.getCount() > 0) {
+                    tableSnapshot.put(operation, metrics.snapshot());
+                }
+            }
+            if (!tableSnapshot.isEmpty()) {
+                byTable.put(table.tableId, tableSnapshot);
+            }
+        }
+        EnumMap<Operation, Map<Phase, OperationSnapshot>> byPhase =
+                new EnumMap<>(Operation.class);
+        OperationMetrics[][] current;
+        synchronized (this) {
+            current = phases;
+        }
+        if (current != null) {
+            for (Operation operation : Operation.operations) {
+                EnumMap<Phase, OperationSnapshot> phaseSnapshot =
+                        new EnumMap<>(Phase.class);
+                for (Phase phase : Phase.phases) {
+                    OperationMetrics metrics =
+                            current[operation.ordinal()][phase.ordinal()];
+                    if (metrics.getCount() > 0) {
+                        phaseSnapshot.put(phase, metrics.snapshot());
+                    }
+                }
+                if (!phaseSnapshot.isEmpty()) {
+                    byPhase.put(operation, phaseSnapshot);
+                }
+            }
+        }
+        return new MetricsSnapshot(System.nanoTime(), overall, byTable,
+                                   byPhase);
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public void reset() {
+        for (OperationMetrics metrics : operations) {
+            metrics.reset();
+        }
+        for (TableMetrics table : tables) {
+            for (int i = 0; i < table.operations.length(); i++) {
+                OperationMetrics metrics = table.operations.get(i);
+                if (metrics != null) {
+                    metrics.reset();
+                }
+            }
+        }
+        OperationMetrics[][] current;
+        synchronized (this) {
+            current = phases;
+        }
+        if (current != null) {
+            for (OperationMetrics[] operationPhases : current) {
+                for (OperationMetrics metrics : operationPhases) {
+                    metrics.reset();
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes the metrics of this client through JMX, including those of
+     * tables and phases added later. The MXBeans must be unregistered with
+     * close(), which RAMCloud.disconnect() calls; until then they keep the
+     * metrics reachable. Calling this method again has no effect.
+     */
+    public synchronized void registerMBeans() {
+        if (mbeanNames != null) {
+            return;
+        }
+        mbeanNames = new ArrayList<>();
+        for (Operation operation : Operation.operations) {
+            register(operations[operation.ordinal()], operation, NO_TABLE);
+        }
+        for (TableMetrics table : tables) {
+            for (Operation operation : Operation.operations) {
+                OperationMetrics metrics =
+                        table.operations.get(operation.ordinal());
+                if (metrics != null) {
+                    register(metrics, operation, table.tableId);
+                }
+            }
+        }
+        if (phases != null) {
+            for (Operation operation : Operation.operations) {
+                for (Phase phase : Phase.phases) {
+                    register(phases[operation.ordinal()][phase.ordinal()],
+                             operation, NO_TABLE, phase);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unregisters the MXBeans of this client. Recording still works
+     * afterwards, but nothing is published until registerMBeans() is called
+     * again.
+     */
+    public synchronized void close() {
+        if (mbeanNames == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : mbeanNames) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                logger.debug("Couldn't unregister " + name, e);
+            }
+        }
+        mbeanNames = null;
+    }
+
+    /**
+     * Publishes the metrics of an operation through JMX. Failures are logged
+     * and otherwise ignored, since metrics must never break the client.
+     */
+    private synchronized void register(OperationMetrics metrics,
+                                       Operation operation, long tableId) {
+        register(metrics, operation, tableId, null);
+    }
+
+    /**
+     * Publishes the metrics of an operation or one of its phases through
+     * JMX.
+     *
+     * @param phase
+     *      The phase the metrics are for, or null for the whole operation.
+     */
+    private synchronized void register(OperationMetrics metrics,
+                                       Operation operation, long tableId,
+                                       Phase phase) {
+        if (mbeanNames == null) {
+            return;
+        }
+        try {
+            String name = "edu.stanford.ramcloud:type=ClientMetrics,client="
+                    + clientId
+                    + (tableId == NO_TABLE ? "" : ",table=" + tableId)
+                    + ",operation=" + operation.getMBeanName()
+                    + (phase == null ? "" : ",phase=" + phase.getMBeanName());
+            ObjectName objectName = new ObjectName(name);
+            if (mbeanNames.contains(objectName)) {
+                // A new table's metrics registered by registerMBeans().
+                return;
+            }
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(metrics, objectName);
+            mbeanNames.add(objectName);
+        } catch (JMException e) {
+            logger.warn("Couldn't register client metrics MXBean", e);
+        }
+    }
+}
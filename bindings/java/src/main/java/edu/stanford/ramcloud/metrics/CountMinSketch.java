@@ -0,0 +1,97 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A count-min sketch: approximate counts of an unbounded set of items in a
+ * fixed amount of memory. Estimates are never below the true count, and are
+ * above it by at most a small fraction of the total count with high
+ * probability. Updates are lock-free.
+ */
+class CountMinSketch {
+    private static final long[] seeds = {
+        0x9e3779b97f4a7c15L, 0xc2b2ae3d27d4eb4fL,
+        0x165667b19e3779f9L, 0x85ebca77c2b2ae63L
+    };
+
+    private final int width;
+    private final AtomicLongArray counts;
+
+    /**
+     * Constructs an empty sketch with one row for each seed.
+     *
+     * @param width
+     *      The number of counters in each row, which must be a power of 2.
+     *      The error of an estimate is about 2 / width of the total count.
+     */
+    CountMinSketch(int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException(
+                    "width must be a power of 2: " + width);
+        }
+        this.width = width;
+        counts = new AtomicLongArray(seeds.length * width);
+    }
+
+    /**
+     * Adds to the count of an item.
+     *
+     * @param hash
+     *      A well-mixed 64-bit hash of the item.
+     * @param count
+     *      The amount to add.
+     * @return The estimated count of the item, including this addition.
+     */
+    long add(long hash, long count) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < seeds.length; row++) {
+            estimate = Math.min(estimate,
+                                counts.addAndGet(index(row, hash), count));
+        }
+        return estimate;
+    }
+
+    /**
+     * Get the estimated count of an item.
+     *
+     * @param hash
+     *      A well-mixed 64-bit hash of the item.
+     */
+    long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < seeds.length; row++) {
+            estimate = Math.min(estimate, counts.get(index(row, hash)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Sets all counts to 0. Concurrent additions may be partly lost.
+     */
+    void clear() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    private int index(int row, long hash) {
+        long h = (hash ^ seeds[row]) * 0xff51afd7ed558ccdL;
+        h ^= h >>> 32;
+        return row * width + ((int) h & (width - 1));
+    }
+}
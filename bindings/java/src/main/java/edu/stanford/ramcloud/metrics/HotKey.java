@@ -0,0 +1,100 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+import java.util.Arrays;
+
+/**
+ * One of the most frequently used keys in a HotKeyReport.
+ */
+public class HotKey {
+    private final long tableId;
+    private final byte[] key;
+    private final long keyHash;
+    private final long count;
+    private final double share;
+
+    HotKey(long tableId, byte[] key, long keyHash, long count, double share) {
+        this.tableId = tableId;
+        this.key = key;
+        this.keyHash = keyHash;
+        this.count = count;
+        this.share = share;
+    }
+
+    public long getTableId() {
+        return tableId;
+    }
+
+    /**
+     * Get a copy of the key.
+     */
+    public byte[] getKey() {
+        return Arrays.copyOf(key, key.length);
+    }
+
+    /**
+     * Get the hash of the key, which determines the tablet that stores it
+     * (see KeyHash and TabletMap).
+     */
+    public long getKeyHash() {
+        return keyHash;
+    }
+
+    /**
+     * Get the estimated number of operations on this key during the report's
+     * interval. It is extrapolated from samples, so it is only accurate for
+     * keys used much more often than the sample interval.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the estimated fraction of all operations sampled that were on this
+     * key.
+     */
+    public double getShare() {
+        return share;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("table %d key %s: %d ops (%.1f%%)", tableId,
+                             formatKey(key), count, share * 100);
+    }
+
+    /**
+     * Formats a key as text if it is printable ASCII, otherwise as hex.
+     */
+    static String formatKey(byte[] key) {
+        boolean printable = key.length > 0;
+        for (byte b : key) {
+            if (b < 0x20 || b > 0x7e) {
+                printable = false;
+                break;
+            }
+        }
+        if (printable) {
+            return "\"" + new String(key) + "\"";
+        }
+        StringBuilder out = new StringBuilder("0x");
+        for (byte b : key) {
+            out.append(String.format("%02x", b));
+        }
+        return out.toString();
+    }
+}
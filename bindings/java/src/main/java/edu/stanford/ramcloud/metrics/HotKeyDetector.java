@@ -0,0 +1,522 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+import edu.stanford.ramcloud.KeyHash;
+import edu.stanford.ramcloud.LongKeys;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.apache.log4j.Logger;
+
+/**
+ * Finds the keys and key hash ranges that receive the most requests from
+ * clients, so that a key or tablet overloading a master can be spotted from
+ * the client side while it happens. Attach a detector to one or more
+ * clients with RAMCloud.setHotKeyDetector.
+ *
+ * One operation in sampleInterval, chosen at random, is sampled. The count
+ * of each sampled key is estimated with a count-min sketch, and the keys
+ * with the highest estimates are kept in a small table of candidates. The
+ * key hash space of each table is split into RANGES ranges which are
+ * counted exactly. All updates are lock-free, so a detector can be shared
+ * by clients on different threads.
+ *
+ * report() returns the hottest keys and ranges since the previous report
+ * and starts a new interval; start() calls it periodically and passes the
+ * reports to listeners. After registerMBean() has been called, the latest
+ * report is also published as an MXBean named
+ * edu.stanford.ramcloud:type=HotKeyDetector,detector=N. Publishing is opt-in
+ * because the platform MBean server keeps the detector reachable until
+ * close() is called.
+ */
+public class HotKeyDetector implements HotKeyDetectorMXBean, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(HotKeyDetector.class);
+
+    public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+    public static final int DEFAULT_TOP_K = 16;
+
+    /**
+     * The number of key hash ranges each table is split into.
+     */
+    public static final int RANGE_BITS = 8;
+    public static final int RANGES = 1 << RANGE_BITS;
+
+    /**
+     * The number of counters in each row of the sketch.
+     */
+    private static final int SKETCH_WIDTH = 4096;
+
+    /**
+     * Used to give each detector a distinct JMX name.
+     */
+    private static final AtomicInteger nextDetectorId = new AtomicInteger();
+
+    /**
+     * Receives each report.
+     */
+    public interface Listener {
+        /**
+         * Called from the detector's thread after each periodic report.
+         */
+        void onReport(HotKeyReport report);
+    }
+
+    /**
+     * A key that is among the most used. Its estimate only grows until the
+     * next report.
+     */
+    private static final class Candidate {
+        final long tableId;
+        final byte[] key;
+        final long keyHash;
+        final AtomicLong estimate;
+
+        Candidate(long tableId, byte[] key, long keyHash, long estimate) {
+            this.tableId = tableId;
+            this.key = key;
+            this.keyHash = keyHash;
+            this.estimate = new AtomicLong(estimate);
+        }
+
+        boolean matches(long tableId, long keyHash, byte[] key, int offset,
+                        int length) {
+            if (this.tableId != tableId || this.keyHash != keyHash
+                    || this.key.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (this.key[i] != key[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The range counts of one table, created the first time the table is
+     * sampled.
+     */
+    private static final class TableRanges {
+        final long tableId;
+        final AtomicLongArray counts = new AtomicLongArray(RANGES);
+
+        TableRanges(long tableId) {
+            this.tableId = tableId;
+        }
+    }
+
+    private final int sampleInterval;
+    private final int topK;
+    private final CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH);
+    private final AtomicReferenceArray<Candidate> candidates;
+
+    /**
+     * Copy-on-write list of the tables sampled so far, as in ClientMetrics.
+     */
+    private volatile TableRanges[] tables = new TableRanges[0];
+
+    /**
+     * The number of samples taken in the current interval.
+     */
+    private final AtomicLong samples = new AtomicLong();
+
+    private long intervalStart = System.nanoTime();
+    private volatile HotKeyReport latest =
+            new HotKeyReport(0, 0, new ArrayList<HotKey>(),
+                             new ArrayList<HotRange>());
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService executor;
+
+    /**
+     * Name of the MXBean of this detector, or null if not registered.
+     */
+    private ObjectName mbeanName;
+
+    /**
+     * Constructs a detector with DEFAULT_SAMPLE_INTERVAL and DEFAULT_TOP_K.
+     */
+    public HotKeyDetector() {
+        this(DEFAULT_SAMPLE_INTERVAL, DEFAULT_TOP_K);
+    }
+
+    /**
+     * Constructs a detector. Its MXBean is not registered until
+     * registerMBean() is called.
+     *
+     * @param sampleInterval
+     *      One operation in this many is sampled. 1 samples every operation.
+     * @param topK
+     *      The number of keys and of ranges to report.
+     */
+    public HotKeyDetector(int sampleInterval, int topK) {
+        if (sampleInterval < 1 || topK < 1) {
+            throw new IllegalArgumentException(
+                    "sampleInterval and topK must be positive");
+        }
+        this.sampleInterval = sampleInterval;
+        this.topK = topK;
+        // Keep more candidates than reported, so that keys near the bottom
+        // of the top K are not pushed out by noise.
+        candidates = new AtomicReferenceArray<>(2 * topK);
+    }
+
+    /**
+     * Publishes the latest report of this detector through JMX. The MXBean
+     * must be unregistered with close(); until then it keeps the detector
+     * reachable. Calling this method again has no effect.
+     */
+    public synchronized void registerMBean() {
+        if (mbeanName != null) {
+            return;
+        }
+        try {
+            mbeanName = new ObjectName(
+                    "edu.stanford.ramcloud:type=HotKeyDetector,detector="
+                    + nextDetectorId.getAndIncrement());
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, mbeanName);
+        } catch (JMException e) {
+            logger.warn("Couldn't register hot key detector MXBean", e);
+            mbeanName = null;
+        }
+    }
+
+    /**
+     * Decides whether to sample the current operation.
+     *
+     * @return True for one call in sampleInterval, at random.
+     */
+    public boolean shouldSample() {
+        return sampleInterval == 1
+                || ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+    }
+
+    /**
+     * Samples an operation on a key, one time in sampleInterval.
+     *
+     * @param tableId
+     *      The table of the operation.
+     * @param key
+     *      The key of the operation.
+     */
+    public void sample(long tableId, byte[] key) {
+        if (shouldSample()) {
+            record(tableId, key, 0, key.length);
+        }
+    }
+
+    /**
+     * Samples an operation on a 64-bit integer key, one time in
+     * sampleInterval.
+     *
+     * @see #sample(long, byte[])
+     */
+    public void sample(long tableId, long key) {
+        if (shouldSample()) {
+            byte[] bytes = LongKeys.toBytes(key);
+            record(tableId, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Records an operation that the caller has chosen to sample with
+     * shouldSample().
+     *
+     * @param tableId
+     *      The table of the operation.
+     * @param key
+     *      An array containing the key of the operation.
+     * @param offset
+     *      The offset of the key in the array.
+     * @param length
+     *      The length of the key.
+     */
+    public void record(long tableId, byte[] key, int offset, int length) {
+        samples.incrementAndGet();
+        long keyHash = KeyHash.getHash(tableId, key, offset, length);
+        getTable(tableId).counts.incrementAndGet(
+                (int) (keyHash >>> (64 - RANGE_BITS)));
+        // The key hash is only seeded with the low bits of the table ID.
+        long estimate = sketch.add(keyHash ^ (tableId * 0x9e3779b97f4a7c15L),
+                                   1);
+        offer(tableId, key, offset, length, keyHash, estimate);
+    }
+
+    /**
+     * Adds a key to the candidates if its estimate is higher than the lowest
+     * candidate's. Races between threads may lose an update, which only makes
+     * the result slightly less accurate.
+     */
+    private void offer(long tableId, byte[] key, int offset, int length,
+                       long keyHash, long estimate) {
+        int lowest = -1;
+        Candidate lowestCandidate = null;
+        long lowestEstimate = Long.MAX_VALUE;
+        for (int i = 0; i < candidates.length(); i++) {
+            Candidate candidate = candidates.get(i);
+            if (candidate == null) {
+                if (lowestEstimate > 0) {
+                    lowest = i;
+                    lowestCandidate = null;
+                    lowestEstimate = 0;
+                }
+                continue;
+            }
+            if (candidate.matches(tableId, keyHash, key, offset, length)) {
+                long current = candidate.estimate.get();
+                while (current < estimate
+                        && !candidate.estimate.compareAndSet(current,
+                                                             estimate)) {
+                    current = candidate.estimate.get();
+                }
+                return;
+            }
+            long candidateEstimate = candidate.estimate.get();
+            if (candidateEstimate < lowestEstimate) {
+                lowest = i;
+                lowestCandidate = candidate;
+                lowestEstimate = candidateEstimate;
+            }
+        }
+        if (lowest >= 0 && estimate > lowestEstimate) {
+            candidates.compareAndSet(lowest, lowestCandidate,
+                    new Candidate(tableId,
+                                  Arrays.copyOfRange(key, offset,
+                                                     offset + length),
+                                  keyHash, estimate));
+        }
+    }
+
+    /**
+     * Returns the range counts of a table, adding the table if it is new.
+     */
+    private TableRanges getTable(long tableId) {
+        for (TableRanges table : tables) {
+            if (table.tableId == tableId) {
+                return table;
+            }
+        }
+        synchronized (this) {
+            TableRanges[] current = tables;
+            for (TableRanges table : current) {
+                if (table.tableId == tableId) {
+                    return table;
+                }
+            }
+            TableRanges[] updated = new TableRanges[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = new TableRanges(tableId);
+            tables = updated;
+            return updated[current.length];
+        }
+    }
+
+    /**
+     * Reports the hottest keys and ranges since the previous report, and
+     * starts a new interval. Operations sampled while the report is being
+     * made may be partly lost.
+     *
+     * @return The report, which is also passed to the listeners.
+     */
+    public HotKeyReport report() {
+        HotKeyReport report;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long operations = samples.getAndSet(0) * sampleInterval;
+
+            List<HotKey> keys = new ArrayList<>();
+            for (int i = 0; i < candidates.length(); i++) {
+                Candidate candidate = candidates.getAndSet(i, null);
+                if (candidate != null) {
+                    long count = candidate.estimate.get() * sampleInterval;
+                    keys.add(new HotKey(candidate.tableId, candidate.key,
+                                        candidate.keyHash, count,
+                                        share(count, operations)));
+                }
+            }
+            keys.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+            if (keys.size() > topK) {
+                keys = new ArrayList<>(keys.subList(0, topK));
+            }
+            sketch.clear();
+
+            List<HotRange> ranges = new ArrayList<>();
+            long rangeSize = 1L << (64 - RANGE_BITS);
+            for (TableRanges table : tables) {
+                for (int i = 0; i < RANGES; i++) {
+                    long count = table.counts.getAndSet(i, 0) * sampleInterval;
+                    if (count > 0) {
+                        long start = i * rangeSize;
+                        ranges.add(new HotRange(table.tableId, start,
+                                                start + rangeSize - 1, count,
+                                                share(count, operations)));
+                    }
+                }
+            }
+            ranges.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+            if (ranges.size() > topK) {
+                ranges = new ArrayList<>(ranges.subList(0, topK));
+            }
+
+            report = new HotKeyReport(now - intervalStart, operations, keys,
+                                      ranges);
+            intervalStart = now;
+            latest = report;
+        }
+        for (Listener listener : listeners) {
+            listener.onReport(report);
+        }
+        return report;
+    }
+
+    private static double share(long count, long operations) {
+        return operations == 0 ? 0 : Math.min(1.0, (double) count / operations);
+    }
+
+    /**
+     * Get the most recent report.
+     *
+     * @return The report, which is empty if none has been made.
+     */
+    public HotKeyReport getLatest() {
+        return latest;
+    }
+
+    /**
+     * Adds a listener to be given every periodic report.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts reporting periodically on a daemon thread.
+     *
+     * @param period
+     *      The length of each interval.
+     * @param unit
+     *      The unit of period.
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (executor != null) {
+            throw new IllegalStateException("Already started");
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "HotKeyDetector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> {
+            try {
+                report();
+            } catch (RuntimeException e) {
+                logger.warn("Couldn't report hot keys", e);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stops periodic reports and unregisters the MXBean, if registerMBean()
+     * was called. Sampling still works afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (mbeanName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                        .unregisterMBean(mbeanName);
+            } catch (JMException e) {
+                logger.debug("Couldn't unregister " + mbeanName, e);
+            }
+            mbeanName = null;
+        }
+    }
+
+    @Override
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    @Override
+    public long getCurrentOperations() {
+        return samples.get() * sampleInterval;
+    }
+
+    @Override
+    public long getReportedOperations() {
+        return latest.getOperations();
+    }
+
+    @Override
+    public String[] getHotKeys() {
+        List<HotKey> keys = latest.getKeys();
+        String[] out = new String[keys.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = keys.get(i).toString();
+        }
+        return out;
+    }
+
+    @Override
+    public String[] getHotRanges() {
+        List<HotRange> ranges = latest.getRanges();
+        String[] out = new String[ranges.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = ranges.get(i).toString();
+        }
+        return out;
+    }
+
+    /**
+     * Discards the current interval without reporting it.
+     */
+    @Override
+    public synchronized void reset() {
+        samples.set(0);
+        for (int i = 0; i < candidates.length(); i++) {
+            candidates.set(i, null);
+        }
+        sketch.clear();
+        for (TableRanges table : tables) {
+            for (int i = 0; i < RANGES; i++) {
+                table.counts.set(i, 0);
+            }
+        }
+        intervalStart = System.nanoTime();
+    }
+}
@@ -0,0 +1,84 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The hottest keys and key hash ranges seen by a HotKeyDetector during one
+ * interval.
+ */
+public class HotKeyReport {
+    private final long intervalNanos;
+    private final long operations;
+    private final List<HotKey> keys;
+    private final List<HotRange> ranges;
+
+    HotKeyReport(long intervalNanos, long operations, List<HotKey> keys,
+                 List<HotRange> ranges) {
+        this.intervalNanos = intervalNanos;
+        this.operations = operations;
+        this.keys = Collections.unmodifiableList(keys);
+        this.ranges = Collections.unmodifiableList(ranges);
+    }
+
+    /**
+     * Get the length of the interval covered by this report.
+     */
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * Get the estimated number of operations during the interval.
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    /**
+     * Get the hottest keys.
+     *
+     * @return The keys, hottest first.
+     */
+    public List<HotKey> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Get the hottest key hash ranges.
+     *
+     * @return The ranges, hottest first.
+     */
+    public List<HotRange> getRanges() {
+        return ranges;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%d ops in %.1f s", operations,
+                                 intervalNanos / 1e9));
+        for (HotKey key : keys) {
+            out.append("\n  ").append(key);
+        }
+        for (HotRange range : ranges) {
+            out.append("\n  ").append(range);
+        }
+        return out.toString();
+    }
+}
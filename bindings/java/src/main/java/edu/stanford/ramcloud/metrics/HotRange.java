@@ -0,0 +1,81 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+/**
+ * One of the most frequently used ranges of key hashes in a HotKeyReport.
+ * The key hash space of each table is split into HotKeyDetector.RANGES
+ * equal ranges; a hot range points at the tablet, and so the master, that is
+ * taking the load.
+ */
+public class HotRange {
+    private final long tableId;
+    private final long startKeyHash;
+    private final long endKeyHash;
+    private final long count;
+    private final double share;
+
+    HotRange(long tableId, long startKeyHash, long endKeyHash, long count,
+             double share) {
+        this.tableId = tableId;
+        this.startKeyHash = startKeyHash;
+        this.endKeyHash = endKeyHash;
+        this.count = count;
+        this.share = share;
+    }
+
+    public long getTableId() {
+        return tableId;
+    }
+
+    /**
+     * Get the smallest key hash in the range.
+     */
+    public long getStartKeyHash() {
+        return startKeyHash;
+    }
+
+    /**
+     * Get the largest key hash in the range (inclusive, like
+     * Tablet.getEndKeyHash).
+     */
+    public long getEndKeyHash() {
+        return endKeyHash;
+    }
+
+    /**
+     * Get the estimated number of operations on keys in the range during the
+     * report's interval.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the estimated fraction of all operations sampled that were on keys
+     * in the range.
+     */
+    public double getShare() {
+        return share;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("table %d hashes 0x%016x-0x%016x: %d ops (%.1f%%)",
+                             tableId, startKeyHash, endKeyHash, count,
+                             share * 100);
+    }
+}
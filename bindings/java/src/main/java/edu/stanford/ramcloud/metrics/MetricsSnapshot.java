@@ -0,0 +1,133 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A point-in-time copy of a client's ClientMetrics. Only operations that
+ * have been performed at least once are included.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#metrics()
+ */
+public class MetricsSnapshot {
+    private final long timestampNanos;
+    private final Map<Operation, OperationSnapshot> operations;
+    private final Map<Long, Map<Operation, OperationSnapshot>> tables;
+    private final Map<Operation, Map<Phase, OperationSnapshot>> phases;
+
+    MetricsSnapshot(long timestampNanos,
+                    EnumMap<Operation, OperationSnapshot> operations,
+                    TreeMap<Long, Map<Operation, OperationSnapshot>> tables,
+                    EnumMap<Operation, Map<Phase, OperationSnapshot>> phases) {
+        this.timestampNanos = timestampNanos;
+        this.operations = Collections.unmodifiableMap(operations);
+        this.tables = Collections.unmodifiableMap(tables);
+        this.phases = Collections.unmodifiableMap(phases);
+    }
+
+    /**
+     * Get the value of System.nanoTime() when the snapshot was taken.
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * Get the metrics of each operation, over all tables.
+     */
+    public Map<Operation, OperationSnapshot> getOperations() {
+        return operations;
+    }
+
+    /**
+     * Get the metrics of one operation over all tables.
+     *
+     * @return The metrics, or null if the operation was never performed.
+     */
+    public OperationSnapshot getOperation(Operation operation) {
+        return operations.get(operation);
+    }
+
+    /**
+     * Get the metrics of each operation, by table ID. Multi-ops, which can
+     * span tables, are only counted in getOperations().
+     */
+    public Map<Long, Map<Operation, OperationSnapshot>> getTables() {
+        return tables;
+    }
+
+    /**
+     * Get the metrics of one operation on one table.
+     *
+     * @return The metrics, or null if the operation was never performed on
+     *      the table.
+     */
+    public OperationSnapshot getOperation(long tableId, Operation operation) {
+        Map<Operation, OperationSnapshot> table = tables.get(tableId);
+        return table == null ? null : table.get(operation);
+    }
+
+    /**
+     * Get the phase metrics of each operation. This is empty unless phase
+     * timing was enabled.
+     */
+    public Map<Operation, Map<Phase, OperationSnapshot>> getPhases() {
+        return phases;
+    }
+
+    /**
+     * Get the metrics of one phase of an operation.
+     *
+     * @return The metrics, or null if the phase was never timed.
+     */
+    public OperationSnapshot getPhase(Operation operation, Phase phase) {
+        Map<Phase, OperationSnapshot> operationPhases = phases.get(operation);
+        return operationPhases == null ? null : operationPhases.get(phase);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<Operation, OperationSnapshot> entry
+                : operations.entrySet()) {
+            out.append(entry.getKey()).append(": ").append(entry.getValue())
+                    .append('\n');
+        }
+        for (Map.Entry<Long, Map<Operation, OperationSnapshot>> table
+                : tables.entrySet()) {
+            for (Map.Entry<Operation, OperationSnapshot> entry
+                    : table.getValue().entrySet()) {
+                out.append("table ").append(table.getKey()).append(' ')
+                        .append(entry.getKey()).append(": ")
+                        .append(entry.getValue()).append('\n');
+            }
+        }
+        for (Map.Entry<Operation, Map<Phase, OperationSnapshot>> operation
+                : phases.entrySet()) {
+            for (Map.Entry<Phase, OperationSnapshot> entry
+                    : operation.getValue().entrySet()) {
+                out.append(operation.getKey()).append(' ')
+                        .append(entry.getKey()).append(": ")
+                        .append(entry.getValue()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,40 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+/**
+ * The kinds of client operation whose latency is tracked by ClientMetrics.
+ */
+public enum Operation {
+    READ,
+    WRITE,
+    REMOVE,
+    INCREMENT,
+    MULTI_READ,
+    MULTI_WRITE,
+    MULTI_REMOVE,
+    MULTI_OP,
+    ENUMERATE;
+
+    static final Operation[] operations = Operation.values();
+
+    /**
+     * Get the name used for this operation in JMX object names.
+     */
+    String getMBeanName() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,106 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+import edu.stanford.ramcloud.Histogram;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latency histogram and failure count of one kind of operation. Recording
+ * does not allocate and takes no locks.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final Histogram latency = new Histogram();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Records one completed operation.
+     *
+     * @param latencyNanos
+     *      How long the operation took.
+     * @param success
+     *      False if the operation returned a status other than STATUS_OK.
+     */
+    void record(long latencyNanos, boolean success) {
+        latency.record(latencyNanos);
+        if (!success) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * Get the latency histogram of this operation.
+     *
+     * @return The live histogram, in nanoseconds.
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getMeanLatencyNanos() {
+        return latency.getMean();
+    }
+
+    @Override
+    public long getP50LatencyNanos() {
+        return latency.getPercentile(50);
+    }
+
+    @Override
+    public long getP99LatencyNanos() {
+        return latency.getPercentile(99);
+    }
+
+    @Override
+    public long getP999LatencyNanos() {
+        return latency.getPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxLatencyNanos() {
+        return latency.getMax();
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        failures.reset();
+    }
+
+    /**
+     * Get an immutable copy of the current values.
+     */
+    OperationSnapshot snapshot() {
+        Histogram.Snapshot values = latency.snapshot();
+        return new OperationSnapshot(values.getCount(), getFailureCount(),
+                                     values.getMean(),
+                                     values.getPercentile(50),
+                                     values.getPercentile(99),
+                                     values.getPercentile(99.9),
+                                     values.getMax());
+    }
+}
@@ -0,0 +1,99 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+/**
+ * The metrics of one kind of operation at the time a MetricsSnapshot was
+ * taken. Latencies are in nanoseconds.
+ */
+public class OperationSnapshot {
+    private final long count;
+    private final long failureCount;
+    private final double meanLatency;
+    private final long p50Latency;
+    private final long p99Latency;
+    private final long p999Latency;
+    private final long maxLatency;
+
+    OperationSnapshot(long count, long failureCount, double meanLatency,
+                      long p50Latency, long p99Latency, long p999Latency,
+                      long maxLatency) {
+        this.count = count;
+        this.failureCount = failureCount;
+        this.meanLatency = meanLatency;
+        this.p50Latency = p50Latency;
+        this.p99Latency = p99Latency;
+        this.p999Latency = p999Latency;
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     * Get the number of operations performed.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the number of operations that did not return STATUS_OK.
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Get the mean latency.
+     */
+    public double getMeanLatencyNanos() {
+        return meanLatency;
+    }
+
+    /**
+     * Get the median latency.
+     */
+    public long getP50LatencyNanos() {
+        return p50Latency;
+    }
+
+    /**
+     * Get the 99th percentile latency.
+     */
+    public long getP99LatencyNanos() {
+        return p99Latency;
+    }
+
+    /**
+     * Get the 99.9th percentile latency.
+     */
+    public long getP999LatencyNanos() {
+        return p999Latency;
+    }
+
+    /**
+     * Get the largest latency.
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d failures=%d mean=%.1f p50=%d p99=%d "
+                             + "p999=%d max=%d", count, failureCount,
+                             meanLatency, p50Latency, p99Latency, p999Latency,
+                             maxLatency);
+    }
+}
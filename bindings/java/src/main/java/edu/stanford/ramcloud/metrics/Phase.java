@@ -0,0 +1,67 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.metrics;
+
+/**
+ * The phases a client call is split into when phase timing is enabled (see
+ * ClientMetrics.setPhaseTimingEnabled). The phases of a call add up to its
+ * total latency.
+ */
+public enum Phase {
+    /**
+     * Java writing the request into the buffer shared with C++. For
+     * multi-ops this also includes the JNI transitions, which are not timed
+     * separately.
+     */
+    ENCODE,
+
+    /**
+     * Entering and leaving the JNI function, measured as the time around the
+     * native call that C++ did not see.
+     */
+    JNI,
+
+    /**
+     * C++ time other than waiting for RPCs and calling back into Java.
+     */
+    NATIVE,
+
+    /**
+     * C++ waiting for the RPCs of the call to complete.
+     */
+    RPC,
+
+    /**
+     * unloadBuffer upcalls from C++ into Java, which decode the results of
+     * multi-ops.
+     */
+    UPCALL,
+
+    /**
+     * Java reading the results of a single-object call out of the shared
+     * buffer.
+     */
+    DECODE;
+
+    static final Phase[] phases = Phase.values();
+
+    /**
+     * Get the name used for this phase in JMX object names.
+     */
+    String getMBeanName() {
+        return name().toLowerCase();
+    }
+}
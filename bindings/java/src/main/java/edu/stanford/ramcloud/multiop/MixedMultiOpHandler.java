@@ -0,0 +1,132 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.multiop;
+
+import edu.stanford.ramcloud.*;
+import java.nio.ByteBuffer;
+
+/**
+ * A class that implements the Java bindings to a batch of mixed multi-op
+ * operations. Reads, writes, removes and increments may appear in any order in
+ * a single request; C++ groups them by operation and issues all of the
+ * resulting multi-ops concurrently.
+ */
+public class MixedMultiOpHandler extends MultiOpHandler<MultiOpObject> {
+    /**
+     * Type tags written before each request in the ByteBuffer. These must
+     * match the values in edu_stanford_ramcloud_multiop_MultiOpHandler.cc.
+     */
+    static final byte READ = 0;
+    static final byte WRITE = 1;
+    static final byte REMOVE = 2;
+    static final byte INCREMENT = 3;
+
+    /**
+     * Handlers used to encode and decode the individual requests, which share
+     * their wire format with the single-type multi-ops.
+     */
+    private MultiReadHandler readHandler;
+    private MultiWriteHandler writeHandler;
+    private MultiRemoveHandler removeHandler;
+
+    /**
+     * Constructs a MixedMultiOpHandler object
+     */
+    public MixedMultiOpHandler(ByteBuffer byteBuffer,
+                               long byteBufferPointer,
+                               long ramcloudClusterHandle) {
+        super(byteBuffer, byteBufferPointer, ramcloudClusterHandle);
+        readHandler = new MultiReadHandler(byteBuffer, byteBufferPointer,
+                                           ramcloudClusterHandle);
+        writeHandler = new MultiWriteHandler(byteBuffer, byteBufferPointer,
+                                             ramcloudClusterHandle);
+        removeHandler = new MultiRemoveHandler(byteBuffer, byteBufferPointer,
+                                               ramcloudClusterHandle);
+        setBatchLimit(200);
+    }
+
+    @Override
+    protected boolean writeRequest(ByteBuffer buffer, MultiOpObject request) {
+        int start = buffer.position();
+        if (start + 1 >= buffer.capacity()) {
+            return false;
+        }
+        boolean written;
+        if (request instanceof MultiReadObject) {
+            buffer.put(READ);
+            written = readHandler.writeRequest(buffer,
+                                               (MultiReadObject) request);
+        } else if (request instanceof MultiWriteObject) {
+            buffer.put(WRITE);
+            written = writeHandler.writeRequest(buffer,
+                                                (MultiWriteObject) request);
+        } else if (request instanceof MultiRemoveObject) {
+            buffer.put(REMOVE);
+            written = removeHandler.writeRequest(buffer,
+                                                 (MultiRemoveObject) request);
+        } else if (request instanceof MultiIncrementObject) {
+            buffer.put(INCREMENT);
+            written = writeIncrement(buffer, (MultiIncrementObject) request);
+        } else {
+            throw new IllegalArgumentException(
+                    "Unsupported multi-op: " + request.getClass().getName());
+        }
+        if (!written) {
+            buffer.position(start);
+        }
+        return written;
+    }
+
+    /**
+     * Try to write a single increment request to the ByteBuffer.
+     *
+     * @see #writeRequest(java.nio.ByteBuffer, edu.stanford.ramcloud.multiop.MultiOpObject)
+     */
+    private boolean writeIncrement(ByteBuffer buffer,
+                                   MultiIncrementObject request) {
+        int keyLength = getKeyLength(request);
+        if (buffer.position() + 38 + keyLength >= buffer.capacity()) {
+            return false;
+        }
+        buffer.putLong(request.getTableId())
+                .putShort((short) keyLength);
+        putKey(buffer, request);
+        buffer.putLong(request.getIncrementInt64())
+                .putDouble(request.getIncrementDouble())
+                .put(RAMCloud.getRejectRulesBytes(request.getRejectRules()));
+        return true;
+    }
+
+    @Override
+    protected void readResponse(ByteBuffer buffer, MultiOpObject response) {
+        if (response instanceof MultiReadObject) {
+            readHandler.readResponse(buffer, (MultiReadObject) response);
+        } else if (response instanceof MultiIncrementObject) {
+            MultiIncrementObject increment = (MultiIncrementObject) response;
+            increment.setVersion(buffer.getLong());
+            increment.setNewValue(buffer.getLong());
+        } else {
+            // Writes and removes both return only a version.
+            response.setVersion(buffer.getLong());
+        }
+    }
+
+    @Override
+    protected void callCppHandle(long byteBufferPointer,
+                                 long phaseTimesPointer) {
+        cppMultiOp(byteBufferPointer, phaseTimesPointer);
+    }
+}
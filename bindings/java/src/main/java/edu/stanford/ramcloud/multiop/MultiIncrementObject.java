@@ -0,0 +1,179 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.multiop;
+
+import edu.stanford.ramcloud.*;
+
+/**
+ * RAMCloudObject used for multi-increment operations. Exactly one of the two
+ * summands should be non-zero; it determines whether the stored value is
+ * interpreted as a 64-bit integer or as a double.
+ */
+public class MultiIncrementObject extends MultiOpObject {
+    /**
+     * Value to add to the object when it is interpreted as an integer.
+     */
+    private long incrementInt64;
+
+    /**
+     * Value to add to the object when it is interpreted as a double.
+     */
+    private double incrementDouble;
+
+    /**
+     * An object that stores data on the conditions under which this operation
+     * should abort.
+     */
+    private RejectRules rejectRules;
+
+    /**
+     * The raw 8 bytes of the object's value after the increment, as returned
+     * by the server.
+     */
+    private long newValue;
+
+    /**
+     * Constructor for multi-increment requests.
+     *
+     * @param tableId
+     *      The ID of the table containing the object to increment.
+     * @param key
+     *      The key of the object to increment.
+     * @param incrementInt64
+     *      The value to add if the object is an integer, or 0.
+     * @param incrementDouble
+     *      The value to add if the object is a double, or 0.
+     * @param rules
+     *      The conditions under which to abort the increment.
+     */
+    public MultiIncrementObject(long tableId,
+                                byte[] key,
+                                long incrementInt64,
+                                double incrementDouble,
+                                RejectRules rules) {
+        super(tableId, key, null, -1L, Status.STATUS_OK);
+        this.incrementInt64 = incrementInt64;
+        this.incrementDouble = incrementDouble;
+        this.rejectRules = rules;
+    }
+
+    /**
+     * Constructor for multi-increment requests on integer objects.
+     *
+     * @see #MultiIncrementObject(long, byte[], long, double, edu.stanford.ramcloud.RejectRules)
+     */
+    public MultiIncrementObject(long tableId, byte[] key, long incrementInt64) {
+        this(tableId, key, incrementInt64, 0.0, null);
+    }
+
+    /**
+     * Constructor for multi-increment requests on integer objects.
+     *
+     * @see #MultiIncrementObject(long, byte[], long, double, edu.stanford.ramcloud.RejectRules)
+     */
+    public MultiIncrementObject(long tableId, String key, long incrementInt64) {
+        this(tableId, key.getBytes(), incrementInt64, 0.0, null);
+    }
+
+    /**
+     * Constructor for multi-increment requests on double objects.
+     *
+     * @see #MultiIncrementObject(long, byte[], long, double, edu.stanford.ramcloud.RejectRules)
+     */
+    public MultiIncrementObject(long tableId, byte[] key,
+                                double incrementDouble) {
+        this(tableId, key, 0, incrementDouble, null);
+    }
+
+    /**
+     * Constructor for multi-increment requests on double objects.
+     *
+     * @see #MultiIncrementObject(long, byte[], long, double, edu.stanford.ramcloud.RejectRules)
+     */
+    public MultiIncrementObject(long tableId, String key,
+                                double incrementDouble) {
+        this(tableId, key.getBytes(), 0, incrementDouble, null);
+    }
+
+    /**
+     * Get the value that will be added to an integer object.
+     *
+     * @return The integer summand of this increment.
+     */
+    public long getIncrementInt64() {
+        return incrementInt64;
+    }
+
+    /**
+     * Get the value that will be added to a double object.
+     *
+     * @return The floating point summand of this increment.
+     */
+    public double getIncrementDouble() {
+        return incrementDouble;
+    }
+
+    /**
+     * Get the circumstances under which this increment will abort.
+     *
+     * @return A RejectRules detailing the circumstances under which this
+     *      increment will abort.
+     */
+    public RejectRules getRejectRules() {
+        return rejectRules;
+    }
+
+    /**
+     * Set the circumstances under which this increment will abort.
+     *
+     * @param rules
+     *      The circumstances under which this increment will abort.
+     */
+    public void setRejectRules(RejectRules rules) {
+        this.rejectRules = rules;
+    }
+
+    /**
+     * Get the value of the object after the increment, interpreted as an
+     * integer.
+     *
+     * @return The new value of the object.
+     */
+    public long getNewValueInt64() {
+        return newValue;
+    }
+
+    /**
+     * Get the value of the object after the increment, interpreted as a
+     * double.
+     *
+     * @return The new value of the object.
+     */
+    public double getNewValueDouble() {
+        return Double.longBitsToDouble(newValue);
+    }
+
+    /**
+     * Sets the raw value of the object after the increment. Should only be
+     * called internally.
+     *
+     * @param newValue
+     *      The 8 bytes returned by the server for the new value.
+     */
+    public void setNewValue(long newValue) {
+        this.newValue = newValue;
+    }
+}
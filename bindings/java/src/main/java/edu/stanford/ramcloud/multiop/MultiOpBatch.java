@@ -0,0 +1,274 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.multiop;
+
+import edu.stanford.ramcloud.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Superclass for columnar multi-op batches. Instead of one MultiOpObject per
+ * operation, a batch stores each field in its own array and packs all keys
+ * into a single off-heap arena, so very large batches of small objects cost a
+ * few arrays rather than millions of objects, and encoding them is a tight
+ * loop over primitive arrays.
+ */
+public abstract class MultiOpBatch {
+    /**
+     * Initial sizes used when no expected size is given.
+     */
+    static final int DEFAULT_SIZE = 256;
+    static final int DEFAULT_ARENA_SIZE = 16 * 1024;
+
+    /**
+     * The value of statuses for an operation that has not run yet. It is
+     * distinct from every Status, so that getStatus() can tell it apart from
+     * STATUS_OK.
+     */
+    static final int NOT_RUN = -1;
+
+    /**
+     * The number of operations in this batch.
+     */
+    int size;
+
+    /**
+     * The table ID of each operation.
+     */
+    long[] tableIds;
+
+    /**
+     * All keys, back to back. The key of operation i occupies the bytes from
+     * keyOffsets[i] to keyOffsets[i + 1].
+     */
+    ByteBuffer keyArena;
+    int[] keyOffsets;
+
+    /**
+     * The version and status returned for each operation. The status is
+     * NOT_RUN until a result is stored.
+     */
+    long[] versions;
+    int[] statuses;
+
+    /**
+     * A view of the key arena reused to copy keys without allocating.
+     */
+    private ByteBuffer keyView;
+
+    /**
+     * Constructs an empty batch.
+     *
+     * @param expectedSize
+     *      The number of operations to allocate room for. The batch grows as
+     *      needed.
+     */
+    MultiOpBatch(int expectedSize) {
+        expectedSize = Math.max(expectedSize, 1);
+        tableIds = new long[expectedSize];
+        keyOffsets = new int[expectedSize + 1];
+        versions = new long[expectedSize];
+        statuses = new int[expectedSize];
+        keyArena = ByteBuffer.allocateDirect(DEFAULT_ARENA_SIZE);
+        keyView = keyArena.duplicate();
+    }
+
+    /**
+     * Appends the table ID and key of a new operation.
+     *
+     * @return The index of the new operation.
+     */
+    int addKey(long tableId, byte[] key, int offset, int length) {
+        int index = startKey(tableId, length);
+        keyArena.put(key, offset, length);
+        return index;
+    }
+
+    /**
+     * Appends the table ID and 64-bit integer key of a new operation,
+     * encoding the key directly into the key arena as described in LongKeys.
+     *
+     * @return The index of the new operation.
+     */
+    int addKey(long tableId, long key) {
+        int index = startKey(tableId, LongKeys.LENGTH);
+        LongKeys.put(keyArena, key);
+        return index;
+    }
+
+    /**
+     * Makes room for the key of a new operation and positions the key arena
+     * at its start.
+     *
+     * @return The index of the new operation.
+     */
+    private int startKey(long tableId, int length) {
+        if (size == tableIds.length) {
+            grow(size * 2);
+        }
+        int start = keyOffsets[size];
+        if (start + length > keyArena.capacity()) {
+            keyArena = growArena(keyArena, start, start + length);
+            keyView = keyArena.duplicate();
+        }
+        keyArena.position(start);
+        tableIds[size] = tableId;
+        keyOffsets[size + 1] = start + length;
+        versions[size] = -1L;
+        statuses[size] = NOT_RUN;
+        return size++;
+    }
+
+    /**
+     * Resizes the per-operation arrays.
+     *
+     * @param capacity
+     *      The new number of operations the arrays can hold.
+     */
+    void grow(int capacity) {
+        tableIds = Arrays.copyOf(tableIds, capacity);
+        keyOffsets = Arrays.copyOf(keyOffsets, capacity + 1);
+        versions = Arrays.copyOf(versions, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+    }
+
+    /**
+     * Returns a larger copy of an arena.
+     *
+     * @param arena
+     *      The arena to grow.
+     * @param used
+     *      The number of bytes of the arena in use.
+     * @param required
+     *      The minimum capacity of the new arena.
+     */
+    static ByteBuffer growArena(ByteBuffer arena, int used, int required) {
+        int capacity = arena.capacity();
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        ByteBuffer out = ByteBuffer.allocateDirect(capacity);
+        ByteBuffer old = arena.duplicate();
+        old.clear();
+        old.limit(used);
+        out.put(old);
+        return out;
+    }
+
+    /**
+     * Copies the key of an operation to the given buffer.
+     */
+    void putKey(ByteBuffer buffer, int index) {
+        keyView.clear();
+        keyView.position(keyOffsets[index]);
+        keyView.limit(keyOffsets[index + 1]);
+        buffer.put(keyView);
+    }
+
+    /**
+     * Get the number of operations in this batch.
+     *
+     * @return The number of operations added since the last clear().
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all operations from this batch, keeping the memory allocated
+     * for them so the batch can be refilled cheaply.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Get the ID of the table of an operation.
+     *
+     * @param index
+     *      The index of the operation.
+     * @return The table ID.
+     */
+    public long getTableId(int index) {
+        checkIndex(index);
+        return tableIds[index];
+    }
+
+    /**
+     * Get the length of the key of an operation.
+     *
+     * @param index
+     *      The index of the operation.
+     * @return The length of the key in bytes.
+     */
+    public int getKeyLength(int index) {
+        checkIndex(index);
+        return keyOffsets[index + 1] - keyOffsets[index];
+    }
+
+    /**
+     * Get a copy of the key of an operation.
+     *
+     * @param index
+     *      The index of the operation.
+     * @return The key.
+     */
+    public byte[] getKeyBytes(int index) {
+        byte[] out = new byte[getKeyLength(index)];
+        ByteBuffer key = keyArena.duplicate();
+        key.position(keyOffsets[index]);
+        key.get(out);
+        return out;
+    }
+
+    /**
+     * Get the version returned by the operation.
+     *
+     * @param index
+     *      The index of the operation.
+     * @return The version, or -1 if the operation failed or has not run.
+     */
+    public long getVersion(int index) {
+        checkIndex(index);
+        return versions[index];
+    }
+
+    /**
+     * Get the status of the operation.
+     *
+     * @param index
+     *      The index of the operation.
+     * @return The status of the last run of the operation, or null if the
+     *      operation has not run.
+     */
+    public Status getStatus(int index) {
+        checkIndex(index);
+        if (statuses[index] == NOT_RUN) {
+            return null;
+        }
+        return Status.statuses[statuses[index]];
+    }
+
+    /**
+     * Throws IndexOutOfBoundsException if the index is not in this batch.
+     */
+    void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", size: " + size);
+        }
+    }
+}
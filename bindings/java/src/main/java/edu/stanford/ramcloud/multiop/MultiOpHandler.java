@@ -16,6 +16,7 @@
 package edu.stanford.ramcloud.multiop;
 
 import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.jfr.Events;
 import java.nio.ByteBuffer;
 
 /**
@@ -47,11 +48,26 @@ public abstract class MultiOpHandler<T extends MultiOpObject> {
      */
     private long ramcloudClusterHandle;
 
+    /**
+     * A pointer to the phase times C++ records for ClientMetrics, or 0 if
+     * none should be recorded.
+     */
+    private long phaseTimesPointer;
+
     /**
      * The limit to how many operations to put into one multiop batch
      */
     private int batchLimit = 200;
 
+    /**
+     * The size of the results unloaded, the number of failed operations and
+     * the status of the first failure during the current call into C++, for
+     * RAMCloudMultiOpEvent.
+     */
+    private int responseSize;
+    private int failures;
+    private int firstFailure;
+
     /**
      * Sets the class fields for this MultiOpHandler
      */
@@ -63,6 +79,18 @@ public abstract class MultiOpHandler<T extends MultiOpObject> {
         this.ramcloudClusterHandle = ramcloudClusterHandle;
     }
 
+    /**
+     * Set where C++ records the phases of each call, for
+     * ClientMetrics.setPhaseTimingEnabled. By default no phases are recorded.
+     *
+     * @param phaseTimesPointer
+     *      The address of a buffer of ClientMetrics.PHASE_BUFFER_SIZE bytes
+     *      attached to a ClientMetrics, or 0 to record no phases.
+     */
+    public void setPhaseTimesPointer(long phaseTimesPointer) {
+        this.phaseTimesPointer = phaseTimesPointer;
+    }
+
     /**
      * Set the limit at which this MultiOpHandler will send a batch of requests
      * to C++.
@@ -84,29 +112,61 @@ public abstract class MultiOpHandler<T extends MultiOpObject> {
      */
     public void handle(T[] request) {
         this.objects = request;
-        int totalLength = request.length;
+        handle(request.length);
+    }
 
+    /**
+     * Handles a MultiOp request of the given number of operations, using
+     * loadRequest() to write each operation to the ByteBuffer. Stops before
+     * sending the next batch once isStopped() returns true.
+     *
+     * @param totalLength
+     *      The number of operations in this MultiOp request.
+     */
+    protected void handle(int totalLength) {
         for (int start = 0; start < totalLength; start += batchLimit) {
             int length = Math.min(totalLength - start, batchLimit);
             int sent = 0;
             while (sent < length) {
+                if (isStopped()) {
+                    return;
+                }
+                Events.MultiOp event = Events.beginMultiOp();
                 byteBuffer.rewind();
                 byteBuffer.putLong(ramcloudClusterHandle);
                 byteBuffer.putInt(start + sent);
                 byteBuffer.putInt(0); // Placeholder for numObjects
+                byteBuffer.putInt(byteBuffer.capacity());
                 int i;
                 for (i = 0; i < length - sent; i++) {
-                    if (!writeRequest(byteBuffer, request[i + sent + start])) {
+                    if (!loadRequest(byteBuffer, i + sent + start)) {
                         break;
                     }
                 }
                 byteBuffer.putInt(12, i);
-                callCppHandle(byteBufferPointer);
+                int requestSize = byteBuffer.position();
+                responseSize = 0;
+                failures = 0;
+                firstFailure = 0;
+                callCppHandle(byteBufferPointer, phaseTimesPointer);
+                event.finish(getClass(), i, requestSize, responseSize,
+                             failures, firstFailure);
                 sent += i;
             }
         }
     }
 
+    /**
+     * Tells whether the rest of the current request should be dropped. It is
+     * checked before each batch is sent to C++, so a subclass can stop a
+     * request whose remaining results are no longer wanted.
+     *
+     * @return True to send no more batches. The default is false.
+     */
+    protected boolean isStopped() {
+        return false;
+    }
+
     /**
      * Reads the data currently in the ByteBuffer, and stores it in the
      * MultiOpObject objects array. This method is called only by C++, when one
@@ -121,10 +181,74 @@ public abstract class MultiOpHandler<T extends MultiOpObject> {
 
         for (int i = 0; i < numResults; i++) {
             int status = byteBuffer.getInt();
-            objects[startIndex + i].setStatus(Status.statuses[status]);
-            if (status == 0) {
-                readResponse(byteBuffer, objects[startIndex + i]);
+            if (status != 0 && failures++ == 0) {
+                firstFailure = status;
             }
+            unloadResult(byteBuffer, startIndex + i, status);
+        }
+        responseSize += byteBuffer.position();
+    }
+
+    /**
+     * Stores a single result from the ByteBuffer into the MultiOpObject at the
+     * given index. The ByteBuffer is positioned just after the result's status
+     * and must be left just after the result.
+     *
+     * @param buffer
+     *      The ByteBuffer to read from.
+     * @param index
+     *      The index of the result's object in the request array.
+     * @param status
+     *      The status of the operation; the response payload is only present
+     *      if this is 0.
+     */
+    protected void unloadResult(ByteBuffer buffer, int index, int status) {
+        objects[index].setStatus(Status.statuses[status]);
+        if (status == 0) {
+            readResponse(buffer, objects[index]);
+        }
+    }
+
+    /**
+     * Try to write the operation at the given index to the ByteBuffer.
+     *
+     * @param buffer
+     *      The ByteBuffer to append to.
+     * @param index
+     *      The index of the operation in the request.
+     * @return Whether or not the request was actually written.
+     */
+    protected boolean loadRequest(ByteBuffer buffer, int index) {
+        return writeRequest(buffer, objects[index]);
+    }
+
+    /**
+     * Get the length of the key of an object as it will be written by
+     * putKey(), without encoding 64-bit integer keys into an array.
+     *
+     * @param object
+     *      The object.
+     * @return The length of the key in bytes.
+     */
+    protected static int getKeyLength(RAMCloudObject object) {
+        return object.hasLongKey() ? LongKeys.LENGTH
+                                   : object.getKeyBytes().length;
+    }
+
+    /**
+     * Write the key of an object to the buffer. A 64-bit integer key is
+     * encoded directly, as described in LongKeys.
+     *
+     * @param buffer
+     *      The buffer to write to.
+     * @param object
+     *      The object whose key to write.
+     */
+    protected static void putKey(ByteBuffer buffer, RAMCloudObject object) {
+        if (object.hasLongKey()) {
+            LongKeys.put(buffer, object.getLongKey());
+        } else {
+            buffer.put(object.getKeyBytes());
         }
     }
 
@@ -157,11 +281,19 @@ public abstract class MultiOpHandler<T extends MultiOpObject> {
      *
      * @param byteBufferPointer
      *      A pointer to the shared memory location between Java and C++.
+     * @param phaseTimesPointer
+     *      A pointer to the phase times C++ should record, or 0.
      */
-    protected abstract void callCppHandle(long byteBufferPointer);
+    protected abstract void callCppHandle(long byteBufferPointer,
+                                          long phaseTimesPointer);
 
     // Documentation for native methods located in C++ files
-    protected native void cppMultiRead(long byteBufferPointer);
-    protected native void cppMultiWrite(long byteBufferPointer);
-    protected native void cppMultiRemove(long byteBufferPointer);
+    protected native void cppMultiRead(long byteBufferPointer,
+                                       long phaseTimesPointer);
+    protected native void cppMultiWrite(long byteBufferPointer,
+                                        long phaseTimesPointer);
+    protected native void cppMultiRemove(long byteBufferPointer,
+                                         long phaseTimesPointer);
+    protected native void cppMultiOp(long byteBufferPointer,
+                                     long phaseTimesPointer);
 }
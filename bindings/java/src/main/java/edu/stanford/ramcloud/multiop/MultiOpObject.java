@@ -52,6 +52,18 @@ public abstract class MultiOpObject extends RAMCloudObject {
         this.status = status;
     }
 
+    /**
+     * Contructor for MultiOpObject with a 64-bit integer key.
+     *
+     * @see #MultiOpObject(long, byte[], byte[], long, Status)
+     */
+    public MultiOpObject(long tableId, long key, byte[] value, long version,
+                         Status status) {
+        super(key, value, version);
+        this.tableId = tableId;
+        this.status = status;
+    }
+
     /**
      * Get the ID of the table this object is in.
      *
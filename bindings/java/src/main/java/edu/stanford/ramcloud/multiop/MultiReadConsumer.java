@@ -0,0 +1,43 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.multiop;
+
+import edu.stanford.ramcloud.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the results of a streaming multi-read as they are unloaded from the
+ * shared ByteBuffer, instead of having them copied into the MultiReadObjects.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#read(MultiReadObject[], MultiReadConsumer)
+ */
+public interface MultiReadConsumer {
+    /**
+     * Called once for each object in the request, in request order.
+     *
+     * @param index
+     *      The index of the object in the request array.
+     * @param status
+     *      The status of the read.
+     * @param version
+     *      The version of the object, or -1 if the read failed.
+     * @param value
+     *      A read-only view of the object's value in the shared ByteBuffer, or
+     *      null if the read failed. The view is only valid until this method
+     *      returns; copy out anything that is needed afterwards.
+     */
+    void accept(int index, Status status, long version, ByteBuffer value);
+}
@@ -34,13 +34,14 @@ public class MultiReadHandler extends MultiOpHandler<MultiReadObject> {
 
     @Override
     protected boolean writeRequest(ByteBuffer buffer, MultiReadObject request) {
-        byte[] key = request.getKeyBytes();
-        if (buffer.position() + 10 + key.length >= buffer.capacity()) {
+        int keyLength = getKeyLength(request);
+        if (buffer.position() + 22 + keyLength >= buffer.capacity()) {
             return false;
         }
         buffer.putLong(request.getTableId())
-                .putShort((short) key.length)
-                .put(key);
+                .putShort((short) keyLength);
+        putKey(buffer, request);
+        buffer.put(RAMCloud.getRejectRulesBytes(request.getRejectRules()));
         return true;
     }
 
@@ -55,7 +56,8 @@ public class MultiReadHandler extends MultiOpHandler<MultiReadObject> {
     }
 
     @Override
-    protected void callCppHandle(long byteBufferPointer) {
-        cppMultiRead(byteBufferPointer);
+    protected void callCppHandle(long byteBufferPointer,
+                                 long phaseTimesPointer) {
+        cppMultiRead(byteBufferPointer, phaseTimesPointer);
     }
 }
@@ -21,6 +21,12 @@ import edu.stanford.ramcloud.*;
  * RAMCloudObject used for multi-read operations.
  */
 public class MultiReadObject extends MultiOpObject {
+    /**
+     * The version of the object the caller already holds, or -1 if the value
+     * should always be returned.
+     */
+    private long knownVersion = -1L;
+
     /**
      * Constructor for multi-read requests.
      *
@@ -41,4 +47,69 @@ public class MultiReadObject extends MultiOpObject {
     public MultiReadObject(long tableId, String key) {
         this(tableId, key.getBytes());
     }
+
+    /**
+     * Constructor for multi-read requests with a 64-bit integer key, which is
+     * encoded straight into the request as described in LongKeys.
+     *
+     * @see #MultiReadObject(long, byte[])
+     */
+    public MultiReadObject(long tableId, long key) {
+        super(tableId, key, null, -1L, Status.STATUS_OK);
+    }
+
+    /**
+     * Get the version of the object the caller already holds.
+     *
+     * @return The known version, or -1 if none was set.
+     */
+    public long getKnownVersion() {
+        return knownVersion;
+    }
+
+    /**
+     * Make this read conditional: if the object's version is still the given
+     * one, the server returns only a status and no value. In that case
+     * isUnchanged() returns true after the read, and the value and version of
+     * this object are left as they were, so a cached copy can be refreshed by
+     * reading it again with its own version as the known version.
+     *
+     * This relies on the same check as RejectRules.rejectIfVersionLeGiven;
+     * since versions only increase, a version no greater than the known one
+     * means the object has not changed.
+     *
+     * @param knownVersion
+     *      The version the caller already holds, or -1 to always return the
+     *      value.
+     */
+    public void setKnownVersion(long knownVersion) {
+        this.knownVersion = knownVersion;
+    }
+
+    /**
+     * Whether a conditional read found the object unchanged since the known
+     * version.
+     *
+     * @return True if a known version was set and the object still has it.
+     */
+    public boolean isUnchanged() {
+        return knownVersion != -1L
+                && getStatus() == Status.STATUS_WRONG_VERSION;
+    }
+
+    /**
+     * Returns the RejectRules implementing the known version check, or null
+     * if this read is unconditional.
+     *
+     * @return The RejectRules to send with this read.
+     */
+    RejectRules getRejectRules() {
+        if (knownVersion == -1L) {
+            return null;
+        }
+        RejectRules rules = new RejectRules();
+        rules.setGivenVersion(knownVersion);
+        rules.rejectIfVersionLeGiven(true);
+        return rules;
+    }
 }
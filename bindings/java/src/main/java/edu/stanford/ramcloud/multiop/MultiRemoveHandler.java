@@ -34,14 +34,14 @@ public class MultiRemoveHandler extends MultiOpHandler<MultiRemoveObject> {
     
     @Override
     protected boolean writeRequest(ByteBuffer buffer, MultiRemoveObject request) {
-        byte[] key = request.getKeyBytes();
-        if (buffer.position() + 22 + key.length >= buffer.capacity()) {
+        int keyLength = getKeyLength(request);
+        if (buffer.position() + 22 + keyLength >= buffer.capacity()) {
             return false;
         }
         buffer.putLong(request.getTableId())
-                .putShort((short) key.length)
-                .put(key)
-                .put(RAMCloud.getRejectRulesBytes(request.getRejectRules()));
+                .putShort((short) keyLength);
+        putKey(buffer, request);
+        buffer.put(RAMCloud.getRejectRulesBytes(request.getRejectRules()));
         return true;
     }
 
@@ -51,7 +51,8 @@ public class MultiRemoveHandler extends MultiOpHandler<MultiRemoveObject> {
     }
 
     @Override
-    protected void callCppHandle(long byteBufferPointer) {
-        cppMultiRemove(byteBufferPointer);
+    protected void callCppHandle(long byteBufferPointer,
+                                 long phaseTimesPointer) {
+        cppMultiRemove(byteBufferPointer, phaseTimesPointer);
     }
 }
@@ -34,16 +34,16 @@ public class MultiWriteHandler extends MultiOpHandler<MultiWriteObject> {
     
     @Override
     protected boolean writeRequest(ByteBuffer buffer, MultiWriteObject request) {
-        byte[] key = request.getKeyBytes();
+        int keyLength = getKeyLength(request);
         byte[] value = request.getValueBytes();
-        if (buffer.position() + 26 + key.length + value.length
+        if (buffer.position() + 26 + keyLength + value.length
                 >= buffer.capacity()) {
             return false;
         }
         buffer.putLong(request.getTableId())
-                .putShort((short) key.length)
-                .put(key)
-                .putInt(value.length)
+                .putShort((short) keyLength);
+        putKey(buffer, request);
+        buffer.putInt(value.length)
                 .put(value)
                 .put(RAMCloud.getRejectRulesBytes(request.getRejectRules()));
         return true;
@@ -55,7 +55,8 @@ public class MultiWriteHandler extends MultiOpHandler<MultiWriteObject> {
     }
 
     @Override
-    protected void callCppHandle(long byteBufferPointer) {
-        cppMultiWrite(byteBufferPointer);
+    protected void callCppHandle(long byteBufferPointer,
+                                 long phaseTimesPointer) {
+        cppMultiWrite(byteBufferPointer, phaseTimesPointer);
     }
 }
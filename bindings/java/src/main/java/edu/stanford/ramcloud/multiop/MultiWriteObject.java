@@ -94,6 +94,27 @@ public class MultiWriteObject extends MultiOpObject {
         this(tableId, key, value, null);
     }
 
+    /**
+     * Constructor for multi-write requests with a 64-bit integer key, which is
+     * encoded straight into the request as described in LongKeys.
+     *
+     * @see #MultiWriteObject(long, byte[], byte[], edu.stanford.ramcloud.RejectRules)
+     */
+    public MultiWriteObject(long tableId, long key, byte[] value,
+                            RejectRules rules) {
+        super(tableId, key, value, -1L, Status.STATUS_OK);
+        this.rejectRules = rules;
+    }
+
+    /**
+     * Constructor for multi-write requests with a 64-bit integer key.
+     *
+     * @see #MultiWriteObject(long, long, byte[], edu.stanford.ramcloud.RejectRules)
+     */
+    public MultiWriteObject(long tableId, long key, byte[] value) {
+        this(tableId, key, value, null);
+    }
+
     /**
      * Get the circumstances under which this write will abort.
      *
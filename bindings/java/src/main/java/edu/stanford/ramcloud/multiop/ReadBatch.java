@@ -0,0 +1,226 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.multiop;
+
+import edu.stanford.ramcloud.codec.Codec;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A columnar batch of reads. Values returned by the server are copied into a
+ * single off-heap arena owned by the batch, which is reused by later reads.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#read(ReadBatch)
+ */
+public class ReadBatch extends MultiOpBatch {
+    /**
+     * All values read, back to back. The value of operation i starts at
+     * valueOffsets[i] and is valueLengths[i] bytes long.
+     */
+    ByteBuffer valueArena;
+    int[] valueOffsets;
+    int[] valueLengths;
+
+    /**
+     * The number of bytes of the value arena in use.
+     */
+    int valueArenaSize;
+
+    /**
+     * Constructs an empty ReadBatch.
+     */
+    public ReadBatch() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructs an empty ReadBatch with room for the given number of reads.
+     *
+     * @param expectedSize
+     *      The number of reads to allocate room for.
+     */
+    public ReadBatch(int expectedSize) {
+        super(expectedSize);
+        valueArena = ByteBuffer.allocateDirect(DEFAULT_ARENA_SIZE);
+        valueOffsets = new int[tableIds.length];
+        valueLengths = new int[tableIds.length];
+    }
+
+    /**
+     * Adds a read to this batch.
+     *
+     * @param tableId
+     *      The ID of the table to read from.
+     * @param key
+     *      The key of the object to read.
+     * @return The index of the read in this batch.
+     */
+    public int add(long tableId, byte[] key) {
+        return add(tableId, key, 0, key.length);
+    }
+
+    /**
+     * Adds a read to this batch.
+     *
+     * @param tableId
+     *      The ID of the table to read from.
+     * @param key
+     *      An array containing the key of the object to read.
+     * @param offset
+     *      The offset of the key in the array.
+     * @param length
+     *      The length of the key.
+     * @return The index of the read in this batch.
+     */
+    public int add(long tableId, byte[] key, int offset, int length) {
+        int index = addKey(tableId, key, offset, length);
+        valueLengths[index] = -1;
+        return index;
+    }
+
+    /**
+     * Adds a read of an object with a 64-bit integer key to this batch.
+     *
+     * @see #add(long, byte[])
+     */
+    public int add(long tableId, long key) {
+        int index = addKey(tableId, key);
+        valueLengths[index] = -1;
+        return index;
+    }
+
+    /**
+     * Adds a read to this batch.
+     *
+     * @see #add(long, byte[])
+     */
+    public int add(long tableId, String key) {
+        return add(tableId, key.getBytes());
+    }
+
+    @Override
+    void grow(int capacity) {
+        super.grow(capacity);
+        valueOffsets = Arrays.copyOf(valueOffsets, capacity);
+        valueLengths = Arrays.copyOf(valueLengths, capacity);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        valueArenaSize = 0;
+    }
+
+    /**
+     * Discards the values of a previous read so the batch can be read again.
+     */
+    void resetResults() {
+        valueArenaSize = 0;
+        Arrays.fill(valueLengths, 0, size, -1);
+    }
+
+    /**
+     * Copies a value from the given buffer into the value arena.
+     *
+     * @param buffer
+     *      The buffer, positioned at the start of the value.
+     * @param index
+     *      The index of the read the value belongs to.
+     * @param length
+     *      The length of the value.
+     */
+    void putValue(ByteBuffer buffer, int index, int length) {
+        if (valueArenaSize + length > valueArena.capacity()) {
+            valueArena = growArena(valueArena, valueArenaSize,
+                                   valueArenaSize + length);
+        }
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + length);
+        valueArena.position(valueArenaSize);
+        valueArena.put(buffer);
+        buffer.limit(limit);
+        valueOffsets[index] = valueArenaSize;
+        valueLengths[index] = length;
+        valueArenaSize += length;
+    }
+
+    /**
+     * Get the length of a value read.
+     *
+     * @param index
+     *      The index of the read.
+     * @return The length of the value, or -1 if the read failed.
+     */
+    public int getValueLength(int index) {
+        checkIndex(index);
+        return valueLengths[index];
+    }
+
+    /**
+     * Get a read-only view of a value read. The view is valid until this
+     * batch is read again or cleared.
+     *
+     * @param index
+     *      The index of the read.
+     * @return The value, or null if the read failed.
+     */
+    public ByteBuffer getValue(int index) {
+        if (getValueLength(index) < 0) {
+            return null;
+        }
+        ByteBuffer value = valueArena.asReadOnlyBuffer();
+        value.position(valueOffsets[index]);
+        value.limit(valueOffsets[index] + valueLengths[index]);
+        return value.slice();
+    }
+
+    /**
+     * Decode a value read with a codec, directly from the value arena.
+     *
+     * @param index
+     *      The index of the read.
+     * @param codec
+     *      Decodes the value.
+     * @return The decoded value, or null if the read failed.
+     */
+    public <T> T getValue(int index, Codec<T> codec) {
+        int length = getValueLength(index);
+        if (length < 0) {
+            return null;
+        }
+        valueArena.order(ByteOrder.LITTLE_ENDIAN);
+        valueArena.position(valueOffsets[index]);
+        return codec.decode(valueArena, length);
+    }
+
+    /**
+     * Get a copy of a value read.
+     *
+     * @param index
+     *      The index of the read.
+     * @return The value, or null if the read failed.
+     */
+    public byte[] getValueBytes(int index) {
+        ByteBuffer value = getValue(index);
+        if (value == null) {
+            return null;
+        }
+        byte[] out = new byte[value.remaining()];
+        value.get(out);
+        return out;
+    }
+}
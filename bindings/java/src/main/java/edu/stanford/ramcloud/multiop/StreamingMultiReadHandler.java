@@ -0,0 +1,114 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.multiop;
+
+import edu.stanford.ramcloud.*;
+import java.nio.ByteBuffer;
+
+/**
+ * A multi-read handler that passes each result to a MultiReadConsumer while it
+ * is still in the shared ByteBuffer. No values are copied onto the heap and
+ * the MultiReadObjects are not modified, so memory use is bounded by the size
+ * of the ByteBuffer rather than the size of the result set.
+ */
+public class StreamingMultiReadHandler extends MultiReadHandler {
+    /**
+     * The consumer receiving results for the request currently being handled.
+     */
+    private MultiReadConsumer consumer;
+
+    /**
+     * The exception thrown by the consumer during the current request, if
+     * any. Once the consumer has thrown, no further results are delivered
+     * and no further batches are sent.
+     */
+    private Throwable failure;
+
+    /**
+     * Constructs a StreamingMultiReadHandler object
+     */
+    public StreamingMultiReadHandler(ByteBuffer byteBuffer,
+                                     long byteBufferPointer,
+                                     long ramcloudClusterHandle) {
+        super(byteBuffer, byteBufferPointer, ramcloudClusterHandle);
+    }
+
+    /**
+     * Handles the multi-read request, passing each result to the consumer.
+     *
+     * @param request
+     *      An array of MultiReadObjects specifying the objects to read.
+     * @param consumer
+     *      The consumer that will receive each result. If it throws, no
+     *      further results are delivered, the batches not yet sent to the
+     *      servers are dropped, and the exception is rethrown.
+     */
+    public void handle(MultiReadObject[] request, MultiReadConsumer consumer) {
+        this.consumer = consumer;
+        Throwable thrown;
+        try {
+            handle(request);
+        } finally {
+            thrown = failure;
+            this.consumer = null;
+            this.failure = null;
+        }
+        if (thrown instanceof RuntimeException) {
+            throw (RuntimeException) thrown;
+        }
+        if (thrown != null) {
+            throw (Error) thrown;
+        }
+    }
+
+    @Override
+    protected boolean isStopped() {
+        return failure != null;
+    }
+
+    @Override
+    protected void unloadResult(ByteBuffer buffer, int index, int status) {
+        if (status != 0) {
+            deliver(index, Status.statuses[status], -1L, null);
+            return;
+        }
+        long version = buffer.getLong();
+        int valueLength = buffer.getInt();
+        ByteBuffer value = buffer.slice();
+        value.limit(valueLength);
+        buffer.position(buffer.position() + valueLength);
+        deliver(index, Status.STATUS_OK, version,
+                value.asReadOnlyBuffer().order(buffer.order()));
+    }
+
+    /**
+     * Passes a result to the consumer. This runs in an upcall from C++, so
+     * an exception thrown by the consumer is saved rather than propagated;
+     * the rest of the results of the current batch are still read from the
+     * buffer but not delivered, and handle() sends no more batches.
+     */
+    private void deliver(int index, Status status, long version,
+                         ByteBuffer value) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            consumer.accept(index, status, version, value);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+    }
+}
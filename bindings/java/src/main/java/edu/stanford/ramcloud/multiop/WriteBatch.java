@@ -0,0 +1,192 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.multiop;
+
+import edu.stanford.ramcloud.codec.Codec;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A columnar batch of writes. Keys and values are packed into off-heap arenas
+ * as they are added; the versions and statuses of the writes are stored in
+ * the batch when it is written.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#write(WriteBatch)
+ */
+public class WriteBatch extends MultiOpBatch {
+    /**
+     * All values to write, back to back. The value of operation i occupies
+     * the bytes from valueOffsets[i] to valueOffsets[i + 1].
+     */
+    ByteBuffer valueArena;
+    int[] valueOffsets;
+
+    /**
+     * A view of the value arena reused to copy values without allocating.
+     */
+    private ByteBuffer valueView;
+
+    /**
+     * Constructs an empty WriteBatch.
+     */
+    public WriteBatch() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructs an empty WriteBatch with room for the given number of
+     * writes.
+     *
+     * @param expectedSize
+     *      The number of writes to allocate room for.
+     */
+    public WriteBatch(int expectedSize) {
+        super(expectedSize);
+        valueArena = ByteBuffer.allocateDirect(DEFAULT_ARENA_SIZE);
+        valueView = valueArena.duplicate();
+        valueOffsets = new int[tableIds.length + 1];
+    }
+
+    /**
+     * Adds a write to this batch.
+     *
+     * @param tableId
+     *      The ID of the table to write to.
+     * @param key
+     *      The key of the object to write.
+     * @param value
+     *      The value to write.
+     * @return The index of the write in this batch.
+     */
+    public int add(long tableId, byte[] key, byte[] value) {
+        return addValue(addKey(tableId, key, 0, key.length), value);
+    }
+
+    /**
+     * Adds a write of an object with a 64-bit integer key to this batch.
+     *
+     * @see #add(long, byte[], byte[])
+     */
+    public int add(long tableId, long key, byte[] value) {
+        return addValue(addKey(tableId, key), value);
+    }
+
+    /**
+     * Appends the value of the write just added to the value arena.
+     *
+     * @return The index of the write.
+     */
+    private int addValue(int index, byte[] value) {
+        startValue(index, value.length).put(value);
+        valueOffsets[index + 1] = valueOffsets[index] + value.length;
+        return index;
+    }
+
+    /**
+     * Makes room in the value arena for the value of a write and positions
+     * the arena at its start.
+     *
+     * @param index
+     *      The index of the write; the value starts where the value of the
+     *      previous write ends.
+     * @param length
+     *      The length of the value.
+     * @return The value arena.
+     */
+    private ByteBuffer startValue(int index, int length) {
+        int start = valueOffsets[index];
+        if (start + length > valueArena.capacity()) {
+            valueArena = growArena(valueArena, start, start + length);
+            valueView = valueArena.duplicate();
+        }
+        valueArena.position(start);
+        return valueArena;
+    }
+
+    /**
+     * Adds a write to this batch, encoding the value with a codec directly
+     * into the value arena.
+     *
+     * @param tableId
+     *      The ID of the table to write to.
+     * @param key
+     *      The key of the object to write.
+     * @param value
+     *      The value to write.
+     * @param codec
+     *      Encodes the value.
+     * @return The index of the write in this batch.
+     * @throws IllegalStateException
+     *      If the codec did not encode exactly encodedLength bytes. The batch
+     *      is left unchanged.
+     */
+    public <T> int add(long tableId, byte[] key, T value, Codec<T> codec) {
+        // Encode the value before adding the key, so that the batch is left
+        // unchanged if the codec throws.
+        int length = codec.encodedLength(value);
+        ByteBuffer arena = startValue(size, length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        int start = arena.position();
+        codec.encode(value, arena);
+        if (arena.position() - start != length) {
+            throw new IllegalStateException(String.format(
+                    "%s encoded %d bytes, but its encodedLength was %d",
+                    codec.getClass().getName(), arena.position() - start,
+                    length));
+        }
+        int index = addKey(tableId, key, 0, key.length);
+        valueOffsets[index + 1] = valueOffsets[index] + length;
+        return index;
+    }
+
+    /**
+     * Adds a write to this batch.
+     *
+     * @see #add(long, byte[], byte[])
+     */
+    public int add(long tableId, String key, String value) {
+        return add(tableId, key.getBytes(), value.getBytes());
+    }
+
+    @Override
+    void grow(int capacity) {
+        super.grow(capacity);
+        valueOffsets = Arrays.copyOf(valueOffsets, capacity + 1);
+    }
+
+    /**
+     * Get the length of the value of a write.
+     *
+     * @param index
+     *      The index of the write.
+     * @return The length of the value in bytes.
+     */
+    public int getValueLength(int index) {
+        checkIndex(index);
+        return valueOffsets[index + 1] - valueOffsets[index];
+    }
+
+    /**
+     * Copies the value of a write to the given buffer.
+     */
+    void putValue(ByteBuffer buffer, int index) {
+        valueView.clear();
+        valueView.position(valueOffsets[index]);
+        valueView.limit(valueOffsets[index + 1]);
+        buffer.put(valueView);
+    }
+}
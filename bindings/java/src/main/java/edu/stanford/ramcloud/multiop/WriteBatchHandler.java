@@ -0,0 +1,79 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.multiop;
+
+import edu.stanford.ramcloud.*;
+import java.nio.ByteBuffer;
+
+/**
+ * A class that implements the multi-write operation for a columnar
+ * WriteBatch. It uses the same wire format as MultiWriteHandler.
+ */
+public class WriteBatchHandler extends MultiWriteHandler {
+    /**
+     * The batch currently being written.
+     */
+    private WriteBatch batch;
+
+    /**
+     * Constructs a WriteBatchHandler object
+     */
+    public WriteBatchHandler(ByteBuffer byteBuffer,
+                             long byteBufferPointer,
+                             long ramcloudClusterHandle) {
+        super(byteBuffer, byteBufferPointer, ramcloudClusterHandle);
+    }
+
+    /**
+     * Writes every object in the batch, storing the resulting versions and
+     * statuses in the batch.
+     *
+     * @param batch
+     *      The batch to write.
+     */
+    public void handle(WriteBatch batch) {
+        this.batch = batch;
+        try {
+            handle(batch.size());
+        } finally {
+            this.batch = null;
+        }
+    }
+
+    @Override
+    protected boolean loadRequest(ByteBuffer buffer, int index) {
+        int keyLength = batch.keyOffsets[index + 1] - batch.keyOffsets[index];
+        int valueLength = batch.valueOffsets[index + 1]
+                - batch.valueOffsets[index];
+        if (buffer.position() + 26 + keyLength + valueLength
+                >= buffer.capacity()) {
+            return false;
+        }
+        buffer.putLong(batch.tableIds[index])
+                .putShort((short) keyLength);
+        batch.putKey(buffer, index);
+        buffer.putInt(valueLength);
+        batch.putValue(buffer, index);
+        buffer.put(RAMCloud.getRejectRulesBytes(null));
+        return true;
+    }
+
+    @Override
+    protected void unloadResult(ByteBuffer buffer, int index, int status) {
+        batch.statuses[index] = status;
+        batch.versions[index] = status == 0 ? buffer.getLong() : -1L;
+    }
+}
@@ -0,0 +1,1089 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.perf;
+
+import static edu.stanford.ramcloud.ClientException.*;
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.multiop.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.log4j.Logger;
+
+/**
+ * A Java port of the single-client workloads in apps/ClusterPerf.cc. Each
+ * test has the same name, parameters and output format as its C++
+ * counterpart, so running both against the same cluster shows how much the
+ * Java bindings add to each workload. Tests whose C++ output is
+ * post-processed by scripts/clusterperf.py (readDist and readDistRandom)
+ * print what the script prints.
+ *
+ * Usage: ClusterPerf -C coordinatorLocator [options] testName testName ...
+ */
+public class ClusterPerf {
+    private static final Logger logger = Logger.getLogger(ClusterPerf.class);
+
+    private static final String USAGE =
+            "Usage: ClusterPerf -C <coordinatorLocator> [options] "
+            + "testName testName ...\n\n"
+            + "Runs one or more benchmarks on a RAMCloud cluster through the "
+            + "Java bindings\nand outputs performance information in the "
+            + "same format as apps/ClusterPerf.\n\n"
+            + "Allowed options:\n"
+            + "  -C, --coordinator arg     Locator of the cluster\n"
+            + "  --clusterName arg         Name of the cluster (default main)\n"
+            + "  -c, --count arg           Number of times to invoke operation "
+            + "for test (default 100000)\n"
+            + "  -s, --size arg            Size of objects (in bytes) to use "
+            + "for test (default 100)\n"
+            + "  --numTables arg           Number of tables to use for test "
+            + "(default 10)\n"
+            + "  --warmup arg              Number of times to invoke operation "
+            + "before beginning\n"
+            + "                            measurements (default 100)\n";
+
+    private static final String ALPHANUM =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * Key lengths used by readVaryingKeyLength and writeVaryingKeyLength.
+     */
+    private static final int[] KEY_LENGTHS = {
+        1, 5, 10, 15, 20, 25, 30, 35, 40, 45, 50,
+        55, 60, 65, 70, 75, 80, 85, 90, 95, 100,
+        200, 300, 400, 500, 600, 700, 800, 900, 1000,
+        2000, 3000, 4000, 5000, 6000, 7000, 8000, 9000, 10000,
+        20000, 30000, 40000, 50000, 60000
+    };
+
+    // Command-line options; the defaults match apps/ClusterPerf.
+    private String locator;
+    private String clusterName = "main";
+    private int count = 100000;
+    private int objectSize = 100;
+    private int numTables = 10;
+    private int warmupCount = 100;
+    private List<String> testNames = new ArrayList<>();
+
+    private RAMCloud ramcloud;
+    private long dataTable;
+
+    /**
+     * The tests, by the names used by apps/ClusterPerf and clusterperf.py.
+     */
+    private final Map<String, Runnable> tests = new LinkedHashMap<>();
+
+    private ClusterPerf() {
+        tests.put("basic", this::basic);
+        tests.put("multiRead_oneMaster", this::multiRead_oneMaster);
+        tests.put("multiRead_general", () -> multiRead_general(false));
+        tests.put("multiRead_generalRandom", () -> multiRead_general(true));
+        tests.put("multiWrite_oneMaster", this::multiWrite_oneMaster);
+        tests.put("readDist", this::readDist);
+        tests.put("readDistRandom", this::readDistRandom);
+        tests.put("readNotFound", this::readNotFound);
+        tests.put("readVaryingKeyLength", this::readVaryingKeyLength);
+        tests.put("transaction_oneMaster", this::transaction_oneMaster);
+        tests.put("writeVaryingKeyLength", this::writeVaryingKeyLength);
+    }
+
+    public static void main(String[] args) {
+        ClusterPerf perf = new ClusterPerf();
+        try {
+            perf.parseOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(1);
+        }
+        perf.run();
+    }
+
+    /**
+     * Parses the command line, in the same syntax as apps/ClusterPerf.
+     *
+     * @throws IllegalArgumentException
+     *      If the command line is invalid.
+     */
+    private void parseOptions(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("-")) {
+                testNames.add(arg);
+                continue;
+            }
+            String value;
+            int equals = arg.indexOf('=');
+            if (equals >= 0) {
+                value = arg.substring(equals + 1);
+                arg = arg.substring(0, equals);
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                throw new IllegalArgumentException(
+                        "Missing value for option " + arg);
+            }
+            try {
+                switch (arg) {
+                    case "-C":
+                    case "--coordinator":
+                        locator = value;
+                        break;
+                    case "--clusterName":
+                        clusterName = value;
+                        break;
+                    case "-c":
+                    case "--count":
+                        count = Integer.parseInt(value);
+                        break;
+                    case "-s":
+                    case "--size":
+                        objectSize = Integer.parseInt(value);
+                        break;
+                    case "--numTables":
+                        numTables = Integer.parseInt(value);
+                        break;
+                    case "--warmup":
+                        warmupCount = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(
+                                "Unknown option " + arg);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                        "Invalid value for option " + arg + ": " + value);
+            }
+        }
+        if (locator == null) {
+            throw new IllegalArgumentException("No coordinator locator given");
+        }
+    }
+
+    /**
+     * Runs the tests named on the command line, or all tests if none were
+     * named.
+     */
+    private void run() {
+        ramcloud = new RAMCloud(locator, clusterName);
+        try {
+            dataTable = ramcloud.createTable("data");
+            if (testNames.isEmpty()) {
+                testNames.addAll(tests.keySet());
+            }
+            for (String name : testNames) {
+                Runnable test = tests.get(name);
+                if (test == null) {
+                    System.out.printf("No test named '%s'%n", name);
+                    continue;
+                }
+                test.run();
+            }
+            System.out.flush();
+        } finally {
+            ramcloud.disconnect();
+        }
+    }
+
+    //----------------------------------------------------------------------
+    // Utility functions used by the test functions
+    //----------------------------------------------------------------------
+
+    /**
+     * Given a time value, return a string representation of the value
+     * with an appropriate scale factor, such as "4.2 ms".
+     */
+    static String formatTime(double seconds) {
+        if (seconds < 1.0e-06) {
+            return String.format("%5.1f ns", 1e09 * seconds);
+        } else if (seconds < 1.0e-03) {
+            return String.format("%5.1f us", 1e06 * seconds);
+        } else if (seconds < 1.0) {
+            return String.format("%5.1f ms", 1e03 * seconds);
+        } else {
+            return String.format("%5.1f s ", seconds);
+        }
+    }
+
+    /**
+     * Print a performance measurement consisting of a time value.
+     *
+     * @param name
+     *      Symbolic name for the measurement, in the form test.value.
+     * @param seconds
+     *      Time measurement, in seconds.
+     * @param description
+     *      Human-readable explanation of what the value refers to.
+     */
+    static void printTime(String name, double seconds, String description) {
+        System.out.printf("%-20s %s     %s%n", name, formatTime(seconds),
+                          description);
+    }
+
+    /**
+     * Print a performance measurement consisting of a bandwidth in bytes
+     * per second.
+     *
+     * @see #printTime(String, double, String)
+     */
+    static void printBandwidth(String name, double bandwidth,
+                               String description) {
+        double gb = 1024.0 * 1024.0 * 1024.0;
+        double mb = 1024.0 * 1024.0;
+        double kb = 1024.0;
+        String value;
+        if (bandwidth > gb) {
+            value = String.format("%5.1f GB/s ", bandwidth / gb);
+        } else if (bandwidth > mb) {
+            value = String.format("%5.1f MB/s ", bandwidth / mb);
+        } else if (bandwidth > kb) {
+            value = String.format("%5.1f KB/s ", bandwidth / kb);
+        } else {
+            value = String.format("%5.1f B/s  ", bandwidth);
+        }
+        System.out.printf("%-20s %s  %s%n", name, value, description);
+    }
+
+    /**
+     * Print the median, minimum and tail of a distribution of times, in the
+     * form used by the basic test.
+     *
+     * @param prefix
+     *      The name of the measurement, such as "basic.read100".
+     * @param dist
+     *      The distribution.
+     * @param description
+     *      Human-readable explanation of what was measured.
+     */
+    private static void printDist(String prefix, TimeDist dist,
+                                  String description) {
+        System.out.printf("%-20s %s     %s median%n", prefix,
+                          formatTime(dist.p50), description);
+        System.out.printf("%-20s %s     %s minimum%n", prefix + ".min",
+                          formatTime(dist.min), description);
+        System.out.printf("%-20s %s     %s 90%%%n", prefix + ".9",
+                          formatTime(dist.p90), description);
+        if (dist.p99 != 0) {
+            System.out.printf("%-20s %s     %s 99%%%n", prefix + ".99",
+                              formatTime(dist.p99), description);
+        }
+        if (dist.p999 != 0) {
+            System.out.printf("%-20s %s     %s 99.9%%%n", prefix + ".999",
+                              formatTime(dist.p999), description);
+        }
+    }
+
+    /**
+     * Print a cumulative distribution of times in microseconds, in the
+     * format of print_cdf_from_log in scripts/clusterperf.py.
+     */
+    private static void printCdf(double[] micros) {
+        Arrays.sort(micros);
+        int n = micros.length;
+        System.out.printf("%8.2f    %8.3f%n", 0.0, 0.0);
+        System.out.printf("%8.2f    %8.3f%n", micros[0], 1.0 / n);
+        for (int i = 1; i < 100; i++) {
+            System.out.printf("%8.2f    %8.3f%n", micros[(int) ((long) n * i
+                              / 100)], i / 100.0);
+        }
+        System.out.printf("%8.2f    %8.3f%n", micros[(int) ((long) n * 999
+                          / 1000)], .999);
+        System.out.printf("%8.2f    %9.4f%n", micros[(int) ((long) n * 9999
+                          / 10000)], .9999);
+        System.out.printf("%8.2f    %8.3f%n", micros[n - 1], 1.0);
+    }
+
+    /**
+     * Given an integer value, generate a key of a given length (at least 4)
+     * that corresponds to that value, as makeKey in ClusterPerf.cc does.
+     */
+    static byte[] makeKey(int value, int length) {
+        byte[] key = new byte[length];
+        Arrays.fill(key, (byte) 'x');
+        for (int i = 0; i < 4; i++) {
+            key[i] = (byte) (value >>> (i * 8));
+        }
+        return key;
+    }
+
+    /**
+     * Returns a random alphanumeric key of the given length.
+     */
+    static byte[] randomKey(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] key = new byte[length];
+        for (int i = 0; i < length; i++) {
+            key[i] = (byte) ALPHANUM.charAt(random.nextInt(ALPHANUM.length()));
+        }
+        return key;
+    }
+
+    /**
+     * Returns a value that reflects the table and key it is stored under,
+     * with the same contents as fillBuffer in ClusterPerf.cc, so that lost
+     * or corrupted data can be detected.
+     */
+    static byte[] fillValue(int size, long tableId, byte[] key) {
+        byte[] value = new byte[size];
+        String keyString = new String(key, StandardCharsets.ISO_8859_1);
+        int position = 0;
+        while (position < size) {
+            byte[] chunk = String.format(
+                    "| %d: tableId 0x%x, key %s, keyLength %d %s",
+                    position, tableId, keyString, key.length, "0123456789")
+                    .getBytes(StandardCharsets.ISO_8859_1);
+            int length = Math.min(Math.min(chunk.length, 500),
+                                  size - position);
+            System.arraycopy(chunk, 0, value, position, length);
+            position += length;
+        }
+        return value;
+    }
+
+    /**
+     * Checks that a value read has the contents written by fillValue, and
+     * logs an error if not.
+     *
+     * @return Whether the value is correct.
+     */
+    static boolean checkValue(byte[] value, int expectedLength, long tableId,
+                              byte[] key) {
+        if (value.length != expectedLength) {
+            logger.error(String.format("corrupted data: expected %d bytes, "
+                    + "found %d bytes", expectedLength, value.length));
+            return false;
+        }
+        byte[] expected = fillValue(expectedLength, tableId, key);
+        for (int i = 0; i < expectedLength; i++) {
+            if (value[i] != expected[i]) {
+                logger.error(String.format("corrupted data at offset %d: "
+                        + "expected '%c', found '%c'", i, (char) expected[i],
+                        (char) value[i]));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the tables table0 ... table(count-1), in reverse order as
+     * createTables in ClusterPerf.cc does, and writes one object with the
+     * given key in each.
+     *
+     * @return The IDs of the tables, indexed by table number.
+     */
+    private long[] createTables(int count, int objectSize, byte[] key) {
+        long[] tableIds = new long[count];
+        for (int i = count - 1; i >= 0; i--) {
+            tableIds[i] = ramcloud.createTable("table" + i);
+            ramcloud.write(tableIds[i], key,
+                           fillValue(objectSize, tableIds[i], key), null);
+        }
+        return tableIds;
+    }
+
+    /**
+     * Fill a table with objects whose keys were generated by makeKey(i, ...)
+     * for 0 <= i < numObjects, using multi-writes.
+     */
+    private void fillTable(long tableId, int numObjects, int keyLength,
+                           int valueLength) {
+        // At most 500 objects per multi-write, but fewer if needed to keep
+        // the request under 1 MB.
+        int batchSize = Math.max(Math.min(1000000 / valueLength, 500), 1);
+        byte[] value = new byte[valueLength];
+        Arrays.fill(value, (byte) 'x');
+        MultiWriteObject[] objects = new MultiWriteObject[batchSize];
+        long writeTime = 0;
+        for (int i = 0; i < numObjects; i++) {
+            int j = i % batchSize;
+            objects[j] = new MultiWriteObject(tableId, makeKey(i, keyLength),
+                                              value);
+            if (j == batchSize - 1 || i == numObjects - 1) {
+                MultiWriteObject[] request = j == batchSize - 1
+                        ? objects : Arrays.copyOf(objects, j + 1);
+                long start = System.nanoTime();
+                ramcloud.write(request);
+                writeTime += System.nanoTime() - start;
+            }
+        }
+        double rate = numObjects / TimeDist.seconds(writeTime);
+        logger.info(String.format("write rate for %d-byte objects: "
+                + "%.1f kobjects/sec, %.1f MB/sec", valueLength, rate / 1e03,
+                rate * (keyLength + valueLength) / 1e06));
+    }
+
+    /**
+     * Read a particular object repeatedly and return information about the
+     * distribution of read times.
+     *
+     * @param count
+     *      Read the object this many times, unless time runs out.
+     * @param timeLimit
+     *      Maximum time (in seconds) to spend on this test.
+     */
+    private TimeDist readObject(long tableId, byte[] key, int count,
+                                double timeLimit) {
+        long[] times = new long[count];
+        long total = 0;
+        long stopTime = System.nanoTime() + (long) (timeLimit * 1e09);
+
+        // Read the value once just to warm up all the caches everywhere.
+        RAMCloudObject object = ramcloud.read(tableId, key);
+        int i;
+        for (i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            if (start >= stopTime) {
+                logger.info(String.format("time expired after %d iterations",
+                                          i));
+                break;
+            }
+            object = ramcloud.read(tableId, key);
+            times[i] = System.nanoTime() - start;
+            total += times[i];
+        }
+        TimeDist result = new TimeDist(times, i);
+        result.bandwidth = (double) object.getValueBytes().length * i
+                / TimeDist.seconds(total);
+        return result;
+    }
+
+    /**
+     * Write a particular object repeatedly and return information about the
+     * distribution of write times.
+     *
+     * @see #readObject(long, byte[], int, double)
+     */
+    private TimeDist writeObject(long tableId, byte[] key, byte[] value,
+                                 int count, double timeLimit) {
+        long[] times = new long[count];
+        long total = 0;
+        long stopTime = System.nanoTime() + (long) (timeLimit * 1e09);
+
+        // Write the value once just to warm up all the caches everywhere.
+        ramcloud.write(tableId, key, value, null);
+        int i;
+        for (i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            if (start >= stopTime) {
+                logger.info(String.format("time expired after %d iterations",
+                                          i));
+                break;
+            }
+            ramcloud.write(tableId, key, value, null);
+            times[i] = System.nanoTime() - start;
+            total += times[i];
+        }
+        TimeDist result = new TimeDist(times, i);
+        result.bandwidth = (double) value.length * i / TimeDist.seconds(total);
+        return result;
+    }
+
+    /**
+     * Read randomly-chosen objects from a table filled by fillTable and
+     * return information about the distribution of read times.
+     *
+     * @see #readObject(long, byte[], int, double)
+     */
+    private TimeDist readRandomObjects(long tableId, int numObjects,
+                                       int keyLength, int count,
+                                       double timeLimit) {
+        long[] times = new long[count];
+        long total = 0;
+        int valueLength = 0;
+        long stopTime = System.nanoTime() + (long) (timeLimit * 1e09);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i;
+        for (i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            if (start >= stopTime) {
+                logger.info(String.format("time expired after %d iterations",
+                                          i));
+                break;
+            }
+            byte[] key = makeKey(random.nextInt(numObjects), keyLength);
+            valueLength = ramcloud.read(tableId, key).getValueBytes().length;
+            times[i] = System.nanoTime() - start;
+            total += times[i];
+        }
+        TimeDist result = new TimeDist(times, i);
+        result.bandwidth = (double) valueLength * i / TimeDist.seconds(total);
+        return result;
+    }
+
+    /**
+     * Write randomly-chosen objects in a table filled by fillTable and return
+     * information about the distribution of write times.
+     *
+     * @see #readObject(long, byte[], int, double)
+     */
+    private TimeDist writeRandomObjects(long tableId, int numObjects,
+                                        int keyLength, int valueLength,
+                                        int count, double timeLimit) {
+        long[] times = new long[count];
+        long total = 0;
+        byte[] value = new byte[valueLength];
+        Arrays.fill(value, (byte) 'x');
+        long stopTime = System.nanoTime() + (long) (timeLimit * 1e09);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i;
+        for (i = 0; i < count; i++) {
+            byte[] key = makeKey(random.nextInt(numObjects), keyLength);
+            long start = System.nanoTime();
+            if (start >= stopTime) {
+                logger.info(String.format("time expired after %d iterations",
+                                          i));
+                break;
+            }
+            ramcloud.write(tableId, key, value, null);
+            times[i] = System.nanoTime() - start;
+            total += times[i];
+        }
+        TimeDist result = new TimeDist(times, i);
+        result.bandwidth = (double) valueLength * i / TimeDist.seconds(total);
+        return result;
+    }
+
+    /**
+     * Time how long it takes to read a set of objects in one multi-read,
+     * repeatedly for half a second.
+     *
+     * @return The average time, in seconds, of one multi-read.
+     */
+    private double timeMultiRead(MultiReadObject[] requests) {
+        // Do the multi-read once just to warm up all the caches everywhere.
+        ramcloud.read(requests);
+
+        long runNanos = 500000000L;
+        long start = System.nanoTime();
+        long elapsed;
+        int count = 0;
+        while (true) {
+            for (int i = 0; i < 10; i++) {
+                ramcloud.read(requests);
+            }
+            count += 10;
+            elapsed = System.nanoTime() - start;
+            if (elapsed >= runNanos) {
+                break;
+            }
+        }
+        return TimeDist.seconds(elapsed) / count;
+    }
+
+    /**
+     * Time how long it takes to write a set of objects in one multi-write,
+     * repeatedly for half a second.
+     *
+     * @return The average time, in seconds, of one multi-write.
+     */
+    private double timeMultiWrite(MultiWriteObject[] requests) {
+        long runNanos = 500000000L;
+        long start = System.nanoTime();
+        long elapsed;
+        int count = 0;
+        while (true) {
+            for (int i = 0; i < 10; i++) {
+                ramcloud.write(requests);
+            }
+            count += 10;
+            elapsed = System.nanoTime() - start;
+            if (elapsed >= runNanos) {
+                break;
+            }
+        }
+        return TimeDist.seconds(elapsed) / count;
+    }
+
+    /**
+     * Randomly reorders requests, the same way ClusterPerf.cc does.
+     */
+    private static void scramble(Object[] requests) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < requests.length; i++) {
+            int j = random.nextInt(requests.length);
+            Object tmp = requests[i];
+            requests[i] = requests[j];
+            requests[j] = tmp;
+        }
+    }
+
+    /**
+     * Writes objsPerMaster objects to each of numMasters tables and times
+     * reading them all back in one multi-read.
+     *
+     * @return The average time, in seconds, of one multi-read.
+     */
+    private double doMultiRead(int dataLength, int keyLength, int numMasters,
+                               int objsPerMaster, boolean randomize) {
+        long[] tableIds = createTables(numMasters, dataLength,
+                                       "0".getBytes());
+        MultiReadObject[] requests =
+                new MultiReadObject[numMasters * objsPerMaster];
+        int n = 0;
+        for (int tableNum = 0; tableNum < numMasters; tableNum++) {
+            for (int i = 0; i < objsPerMaster; i++) {
+                byte[] key = randomKey(keyLength);
+                long tableId = tableIds[tableNum];
+                ramcloud.write(tableId, key,
+                               fillValue(dataLength, tableId, key), null);
+                requests[n++] = new MultiReadObject(tableId, key);
+            }
+        }
+        if (randomize) {
+            scramble(requests);
+        }
+
+        double latency = timeMultiRead(requests);
+
+        // Check that the values read were the same as the values written.
+        for (MultiReadObject request : requests) {
+            checkValue(request.getValueBytes(), dataLength,
+                       request.getTableId(), request.getKeyBytes());
+        }
+        return latency;
+    }
+
+    /**
+     * Times writing objsPerMaster objects to each of numMasters tables in
+     * one multi-write.
+     *
+     * @return The average time, in seconds, of one multi-write.
+     */
+    private double doMultiWrite(int dataLength, int keyLength, int numMasters,
+                                int objsPerMaster, boolean randomize) {
+        long[] tableIds = createTables(numMasters, dataLength,
+                                       "0".getBytes());
+        MultiWriteObject[] requests =
+                new MultiWriteObject[numMasters * objsPerMaster];
+        int n = 0;
+        for (int tableNum = 0; tableNum < numMasters; tableNum++) {
+            for (int i = 0; i < objsPerMaster; i++) {
+                byte[] key = randomKey(keyLength);
+                long tableId = tableIds[tableNum];
+                requests[n++] = new MultiWriteObject(
+                        tableId, key, fillValue(dataLength, tableId, key));
+            }
+        }
+        if (randomize) {
+            scramble(requests);
+        }
+        return timeMultiWrite(requests);
+    }
+
+    /**
+     * Times committing transactions that read objsPerMaster objects from
+     * and write writeOpPerMaster of them to each of numMasters tables,
+     * repeatedly for half a second of commit time.
+     *
+     * @return The average time, in seconds, of one commit.
+     */
+    private double doTransaction(int dataLength, int keyLength,
+                                 int numMasters, int objsPerMaster,
+                                 int writeOpPerMaster) {
+        long[] tableIds = createTables(numMasters, dataLength,
+                                       "0".getBytes());
+        byte[][][] keys = new byte[numMasters][objsPerMaster][];
+        byte[][][] values = new byte[numMasters][writeOpPerMaster][];
+        for (int tableNum = 0; tableNum < numMasters; tableNum++) {
+            for (int i = 0; i < objsPerMaster; i++) {
+                keys[tableNum][i] = randomKey(keyLength);
+                // Transactions depend on the objects existing to lock them.
+                ramcloud.write(tableIds[tableNum], keys[tableNum][i],
+                               "default".getBytes(), null);
+            }
+            for (int i = 0; i < writeOpPerMaster; i++) {
+                values[tableNum][i] = fillValue(dataLength,
+                                                tableIds[tableNum],
+                                                keys[tableNum][i]);
+            }
+        }
+
+        long runNanos = 500000000L;
+        long cumulativeElapsed = 0;
+        int count = 0;
+        while (true) {
+            boolean committed;
+            do {
+                RAMCloudTransaction t = new RAMCloudTransaction(ramcloud);
+                try {
+                    for (int tableNum = 0; tableNum < numMasters; tableNum++) {
+                        for (int i = 0; i < objsPerMaster; i++) {
+                            t.read(tableIds[tableNum], keys[tableNum][i]);
+                        }
+                        for (int i = 0; i < writeOpPerMaster; i++) {
+                            t.write(tableIds[tableNum], keys[tableNum][i],
+                                    values[tableNum][i]);
+                        }
+                    }
+                    long start = System.nanoTime();
+                    committed = t.commit();
+                    cumulativeElapsed += System.nanoTime() - start;
+
+                    // Make sure decisions are sent.
+                    t.sync();
+                } finally {
+                    t.close();
+                }
+            } while (!committed);
+            count++;
+            if (cumulativeElapsed >= runNanos) {
+                break;
+            }
+        }
+        return TimeDist.seconds(cumulativeElapsed) / count;
+    }
+
+    /**
+     * Returns the next number of objects per master in the sequence used by
+     * the multi-op and transaction tests: 1-10 by ones, then by tens,
+     * hundreds and thousands.
+     */
+    private static int nextObjsPerMaster(int objsPerMaster) {
+        return objsPerMaster < 10 ? objsPerMaster + 1
+                : objsPerMaster < 100 ? objsPerMaster + 10
+                : objsPerMaster < 1000 ? objsPerMaster + 100
+                : objsPerMaster + 1000;
+    }
+
+    private static void printMultiOpHeader() {
+        System.out.printf("# Num Objs    Num Masters    Objs/Master    "
+                + "Latency (us)    Latency/Obj (us)%n");
+        System.out.printf("#--------------------------------------------------"
+                + "--------------------------%n");
+    }
+
+    private static void printMultiOpResult(int numMasters, int objsPerMaster,
+                                           double latency) {
+        System.out.printf("%10d %14d %14d %14.1f %18.2f%n",
+                numMasters * objsPerMaster, numMasters, objsPerMaster,
+                1e06 * latency, 1e06 * latency / numMasters / objsPerMaster);
+    }
+
+    //----------------------------------------------------------------------
+    // Test functions start here
+    //----------------------------------------------------------------------
+
+    /**
+     * Random read and write times for objects of different sizes.
+     */
+    private void basic() {
+        int[] sizes = {100, 1000, 10000, 100000, 1000000};
+        String[] ids = {"100", "1K", "10K", "100K", "1M"};
+        int keyLength = 30;
+        TimeDist[] readDists = new TimeDist[sizes.length];
+        TimeDist[] writeDists = new TimeDist[sizes.length];
+
+        // Start with the largest object size and work down to the smallest,
+        // so each iteration replaces all of the objects created by the
+        // previous iteration.
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            int size = sizes[i];
+
+            // Generate roughly 500MB of data of the current size. The "20"
+            // accounts for additional overhead per object beyond the key and
+            // value.
+            int numObjects = 200000000 / (size + keyLength + 20);
+            logger.info(String.format("Filling table with %d-byte objects",
+                                      size));
+            fillTable(dataTable, numObjects, keyLength, size);
+
+            logger.info(String.format(
+                    "Starting read test for %d-byte objects", size));
+            readDists[i] = readRandomObjects(dataTable, numObjects, keyLength,
+                                             100000, 2.0);
+
+            logger.info(String.format(
+                    "Starting write test for %d-byte objects", size));
+            writeDists[i] = writeRandomObjects(dataTable, numObjects,
+                                               keyLength, size, 100000, 2.0);
+        }
+
+        for (int i = 0; i < sizes.length; i++) {
+            printDist("basic.read" + ids[i], readDists[i], String.format(
+                    "read random %sB object (%dB key)", ids[i], keyLength));
+            printBandwidth("basic.readBw" + ids[i], readDists[i].bandwidth,
+                    String.format("bandwidth reading %sB objects (%dB key)",
+                                  ids[i], keyLength));
+        }
+        for (int i = 0; i < sizes.length; i++) {
+            printDist("basic.write" + ids[i], writeDists[i], String.format(
+                    "write random %sB object (%dB key)", ids[i], keyLength));
+            printBandwidth("basic.writeBw" + ids[i], writeDists[i].bandwidth,
+                    String.format("bandwidth writing %sB objects (%dB key)",
+                                  ids[i], keyLength));
+        }
+    }
+
+    /**
+     * Multi-read times for objects on a single master.
+     */
+    private void multiRead_oneMaster() {
+        int keyLength = 30;
+        System.out.printf("# RAMCloud multiRead performance for %d B objects"
+                + " with %d byte keys%n", objectSize, keyLength);
+        System.out.printf("# located on a single master.%n");
+        System.out.printf("# Generated by 'clusterperf.py "
+                + "multiRead_oneMaster'%n#%n");
+        printMultiOpHeader();
+        for (int objsPerMaster = 1; objsPerMaster <= 5000;
+                objsPerMaster = nextObjsPerMaster(objsPerMaster)) {
+            double latency = doMultiRead(objectSize, keyLength, 1,
+                                         objsPerMaster, false);
+            printMultiOpResult(1, objsPerMaster, latency);
+        }
+    }
+
+    /**
+     * Multi-read times for an approximately fixed number of objects
+     * distributed evenly across a varying number of masters, optionally
+     * issued in a random order.
+     */
+    private void multiRead_general(boolean randomize) {
+        int keyLength = 30;
+        System.out.printf("# RAMCloud multiRead performance for "
+                + "an approximately fixed number%n");
+        System.out.printf("# of %d B objects with %d byte keys%n", objectSize,
+                          keyLength);
+        System.out.printf("# distributed evenly across varying number of "
+                + "masters.%n");
+        if (randomize) {
+            System.out.printf("# Requests are issued in a random order.%n");
+        }
+        System.out.printf("# Generated by 'clusterperf.py %s'%n#%n",
+                randomize ? "multiRead_generalRandom" : "multiRead_general");
+        printMultiOpHeader();
+        int totalObjs = 5000;
+        for (int numMasters = 1; numMasters <= numTables; numMasters++) {
+            int objsPerMaster = totalObjs / numMasters;
+            double latency = doMultiRead(objectSize, keyLength, numMasters,
+                                         objsPerMaster, randomize);
+            printMultiOpResult(numMasters, objsPerMaster, latency);
+        }
+    }
+
+    /**
+     * Multi-write times for objects on a single master.
+     */
+    private void multiWrite_oneMaster() {
+        int keyLength = 30;
+        System.out.printf("# RAMCloud multiWrite performance for %d B objects"
+                + " with %d byte keys%n", objectSize, keyLength);
+        System.out.printf("# located on a single master.%n");
+        System.out.printf("# Generated by 'clusterperf.py "
+                + "multiWrite_oneMaster'%n#%n");
+        printMultiOpHeader();
+        for (int objsPerMaster = 1; objsPerMaster <= 5000;
+                objsPerMaster = nextObjsPerMaster(objsPerMaster)) {
+            double latency = doMultiWrite(objectSize, keyLength, 1,
+                                          objsPerMaster, false);
+            printMultiOpResult(1, objsPerMaster, latency);
+        }
+    }
+
+    /**
+     * Read a single object many times, and print a cumulative distribution
+     * of read times.
+     */
+    private void readDist() {
+        // Create an object to read, and verify its contents (this also loads
+        // all caches along the way).
+        byte[] key = "123456789012345678901234567890".getBytes();
+        ramcloud.write(dataTable, key, fillValue(objectSize, dataTable, key),
+                       null);
+        checkValue(ramcloud.read(dataTable, key).getValueBytes(), objectSize,
+                   dataTable, key);
+
+        for (int i = 0; i < warmupCount; i++) {
+            ramcloud.read(dataTable, key);
+        }
+
+        // Issue the reads as quickly as possible, and save the times.
+        long[] ticks = new long[count];
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            ramcloud.read(dataTable, key);
+            ticks[i] = System.nanoTime();
+        }
+        double[] micros = new double[count];
+        for (int i = 0; i < count; i++) {
+            micros[i] = (ticks[i] - start) / 1e03;
+            start = ticks[i];
+        }
+
+        System.out.printf("# Cumulative distribution of time for a single "
+                + "client to read a%n"
+                + "# single %d-byte object from a single server.  Each line "
+                + "indicates%n"
+                + "# that a given fraction of all reads took at most a given "
+                + "time%n"
+                + "# to complete.%n"
+                + "# Generated by 'clusterperf.py readDist'%n#%n"
+                + "# Time (usec)  Cum. Fraction%n"
+                + "#---------------------------%n", objectSize);
+        printCdf(micros);
+    }
+
+    /**
+     * Read randomly-chosen objects from a large table (so that there will
+     * be cache misses on the hash table and the object) and print a
+     * cumulative distribution of read times.
+     */
+    private void readDistRandom() {
+        int numKeys = 2000000;
+        int keyLength = 30;
+        fillTable(dataTable, numKeys, keyLength, objectSize);
+
+        // Stop the test after 10 seconds if count keys haven't been read
+        // by then.
+        long stop = System.nanoTime() + 10000000000L;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double[] micros = new double[count];
+        int measured = count;
+        for (int i = 0; i < count; i++) {
+            // Generate the key separately to avoid timing it.
+            byte[] key = makeKey(random.nextInt(numKeys), keyLength);
+            long start = System.nanoTime();
+            ramcloud.read(dataTable, key);
+            long now = System.nanoTime();
+            micros[i] = (now - start) / 1e03;
+            if (now >= stop) {
+                measured = i + 1;
+                logger.info(String.format("Time exceeded: stopping test "
+                        + "after %d measurements", measured));
+                break;
+            }
+        }
+
+        System.out.printf("# Cumulative distribution of time for a single "
+                + "client to read a%n"
+                + "# random %d-byte object from a single server.  Each line "
+                + "indicates%n"
+                + "# that a given fraction of all reads took at most a given "
+                + "time%n"
+                + "# to complete.%n"
+                + "# Generated by 'clusterperf.py readDist'%n#%n"
+                + "# Time (usec)  Cum. Fraction%n"
+                + "#---------------------------%n", objectSize);
+        printCdf(Arrays.copyOf(micros, measured));
+    }
+
+    /**
+     * Read an object that doesn't exist, which exercises exception paths
+     * that are supposed to be fast.
+     */
+    private void readNotFound() {
+        long runNanos = 100000000L;
+        byte[] key = "55".getBytes();
+        long start = System.nanoTime();
+        long elapsed;
+        int count = 0;
+        while (true) {
+            for (int i = 0; i < 10; i++) {
+                try {
+                    ramcloud.read(dataTable, key);
+                } catch (ObjectDoesntExistException e) {
+                    continue;
+                }
+                throw new IllegalStateException("Object exists?");
+            }
+            count += 10;
+            elapsed = System.nanoTime() - start;
+            if (elapsed >= runNanos) {
+                break;
+            }
+        }
+        printTime("readNotFound", TimeDist.seconds(elapsed) / count,
+                  "read object that doesn't exist");
+    }
+
+    /**
+     * Read times for objects with keys of different lengths.
+     */
+    private void readVaryingKeyLength() {
+        System.out.printf("# RAMCloud read performance for %d B objects%n",
+                          objectSize);
+        System.out.printf("# with keys of various lengths.%n");
+        System.out.printf("# Generated by 'clusterperf.py "
+                + "readVaryingKeyLength'%n#%n");
+        System.out.printf("# Key Length      Latency (us)     "
+                + "Bandwidth (MB/s)%n");
+        System.out.printf("#--------------------------------------------------"
+                + "--------------------------%n");
+        for (int keyLength : KEY_LENGTHS) {
+            byte[] key = randomKey(keyLength);
+            ramcloud.write(dataTable, key,
+                           fillValue(objectSize, dataTable, key), null);
+            double t = readObject(dataTable, key, 1000, 1.0).p50;
+            checkValue(ramcloud.read(dataTable, key).getValueBytes(),
+                       objectSize, dataTable, key);
+            System.out.printf("%12d %16.1f %19.1f%n", keyLength, 1e06 * t,
+                    ((keyLength + objectSize) / t) / (1024.0 * 1024.0));
+        }
+    }
+
+    /**
+     * Write times for objects with keys of different lengths.
+     */
+    private void writeVaryingKeyLength() {
+        System.out.printf("# RAMCloud write performance for %d B objects%n",
+                          objectSize);
+        System.out.printf("# with keys of various lengths.%n");
+        System.out.printf("# Generated by 'clusterperf.py "
+                + "writeVaryingKeyLength'%n#%n");
+        System.out.printf("# Key Length      Latency (us)     "
+                + "Bandwidth (MB/s)%n");
+        System.out.printf("#--------------------------------------------------"
+                + "--------------------------%n");
+        for (int keyLength : KEY_LENGTHS) {
+            byte[] key = randomKey(keyLength);
+            byte[] value = fillValue(objectSize, dataTable, key);
+            TimeDist dist = writeObject(dataTable, key, value, 1000, 1.0);
+            checkValue(ramcloud.read(dataTable, key).getValueBytes(),
+                       objectSize, dataTable, key);
+            System.out.printf("%12d %16.1f %19.1f%n", keyLength,
+                    1e06 * dist.p50,
+                    ((keyLength + objectSize) / dist.p50) / (1024.0 * 1024.0));
+        }
+    }
+
+    /**
+     * Transaction commit times for multiple 100B objects with 30B keys on a
+     * single master.
+     */
+    private void transaction_oneMaster() {
+        int dataLength = 100;
+        int keyLength = 30;
+        System.out.printf("# RAMCloud transaction performance for %d B objects"
+                + " with %d byte keys%n", dataLength, keyLength);
+        System.out.printf("# located on a single master.%n");
+        System.out.printf("# Generated by 'clusterperf.py "
+                + "transaction_oneMaster'%n#%n");
+        System.out.printf("# Num Objs    Num Masters    Objs/Master  "
+                + "WriteObjs/Master  Latency (us)    Latency/Obj (us)%n");
+        System.out.printf("#-----------------------------------------------"
+                + "-------------------------------------------%n");
+        for (int objsPerMaster = 1; objsPerMaster <= 30;
+                objsPerMaster = nextObjsPerMaster(objsPerMaster)) {
+            double latency = doTransaction(dataLength, keyLength, 1,
+                                           objsPerMaster, objsPerMaster);
+            System.out.printf("%10d %14d %14d %14d %14.1f %18.2f%n",
+                    objsPerMaster, 1, objsPerMaster, objsPerMaster,
+                    1e06 * latency, 1e06 * latency / objsPerMaster);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.perf;
+
+import java.util.Random;
+
+/**
+ * Chooses which of n records each operation of a workload accesses.
+ * Implementations are immutable and thread safe; the caller supplies the
+ * random number generator, normally ThreadLocalRandom.current().
+ */
+public abstract class KeyDistribution {
+    /**
+     * The number of records; next() returns values in [0, n).
+     */
+    protected final int n;
+
+    protected KeyDistribution(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException(
+                    "Number of records must be positive: " + n);
+        }
+        this.n = n;
+    }
+
+    /**
+     * Get the number of records.
+     *
+     * @return The number of records chosen from.
+     */
+    public int getRecordCount() {
+        return n;
+    }
+
+    /**
+     * Chooses a record.
+     *
+     * @param random
+     *      The source of randomness.
+     * @return The index of the record, in [0, getRecordCount()).
+     */
+    public abstract int next(Random random);
+
+    /**
+     * Parses a distribution given on the command line: "uniform",
+     * "zipfian[:theta]" or "hotspot[:hotSetFraction[:hotOpFraction]]".
+     *
+     * @param spec
+     *      The distribution.
+     * @param n
+     *      The number of records.
+     * @return The distribution.
+     * @throws IllegalArgumentException
+     *      If the distribution is not recognized.
+     */
+    public static KeyDistribution parse(String spec, int n) {
+        String[] parts = spec.split(":");
+        try {
+            switch (parts[0]) {
+                case "uniform":
+                    if (parts.length == 1) {
+                        return new Uniform(n);
+                    }
+                    break;
+                case "zipfian":
+                    if (parts.length <= 2) {
+                        return new Zipfian(n, parts.length == 2
+                                ? Double.parseDouble(parts[1]) : 0.99);
+                    }
+                    break;
+                case "hotspot":
+                    if (parts.length <= 3) {
+                        return new Hotspot(n,
+                                parts.length >= 2
+                                ? Double.parseDouble(parts[1]) : 0.2,
+                                parts.length == 3
+                                ? Double.parseDouble(parts[2]) : 0.8);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("Invalid key distribution: "
+                + spec);
+    }
+
+    /**
+     * Every record is equally likely.
+     */
+    public static class Uniform extends KeyDistribution {
+        public Uniform(int n) {
+            super(n);
+        }
+
+        @Override
+        public int next(Random random) {
+            return random.nextInt(n);
+        }
+
+        @Override
+        public String toString() {
+            return "uniform";
+        }
+    }
+
+    /**
+     * A zipfian distribution skewed toward the lower indices: 0 is the most
+     * popular record, 1 the next most popular, and so on. This is the
+     * algorithm of YCSB's ZipfianGenerator, as used by ClusterPerf.cc.
+     * Popular records are not scrambled across the key space as in YCSB's
+     * ScrambledZipfianGenerator, since RAMCloud places objects by the hash
+     * of their key anyway.
+     */
+    public static class Zipfian extends KeyDistribution {
+        private final double theta;
+        private final double alpha;
+        private final double zetan;
+        private final double eta;
+
+        /**
+         * Constructs a zipfian distribution. This takes time linear in n.
+         *
+         * @param n
+         *      The number of records.
+         * @param theta
+         *      The skew, between 0 and 1; the larger the value, the more
+         *      skewed the distribution. YCSB uses 0.99.
+         */
+        public Zipfian(int n, double theta) {
+            super(n);
+            if (!(theta > 0 && theta < 1)) {
+                throw new IllegalArgumentException(
+                        "Zipfian theta must be between 0 and 1: " + theta);
+            }
+            this.theta = theta;
+            alpha = 1 / (1 - theta);
+            zetan = zeta(n, theta);
+            eta = (1 - Math.pow(2.0 / n, 1 - theta))
+                    / (1 - zeta(2, theta) / zetan);
+        }
+
+        /**
+         * Returns the nth harmonic number with parameter theta.
+         */
+        private static double zeta(int n, double theta) {
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, theta);
+            }
+            return sum;
+        }
+
+        @Override
+        public int next(Random random) {
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            if (uz < 1) {
+                return 0;
+            }
+            if (uz < 1 + Math.pow(0.5, theta)) {
+                return Math.min(1, n - 1);
+            }
+            int index = (int) (n * Math.pow(eta * u - eta + 1.0, alpha));
+            return Math.min(index, n - 1);
+        }
+
+        @Override
+        public String toString() {
+            return "zipfian:" + theta;
+        }
+    }
+
+    /**
+     * A fraction of the operations go to a small, uniformly accessed hot
+     * set of records at the start of the range; the rest go uniformly to
+     * the other records. This is YCSB's HotspotIntegerGenerator.
+     */
+    public static class Hotspot extends KeyDistribution {
+        private final double hotSetFraction;
+        private final double hotOpFraction;
+        private final int hotSetSize;
+
+        /**
+         * Constructs a hotspot distribution.
+         *
+         * @param n
+         *      The number of records.
+         * @param hotSetFraction
+         *      The fraction of the records that are hot, between 0 and 1.
+         * @param hotOpFraction
+         *      The fraction of operations that access the hot set, between
+         *      0 and 1.
+         */
+        public Hotspot(int n, double hotSetFraction, double hotOpFraction) {
+            super(n);
+            if (!(hotSetFraction >= 0 && hotSetFraction <= 1)
+                    || !(hotOpFraction >= 0 && hotOpFraction <= 1)) {
+                throw new IllegalArgumentException(
+                        "Hotspot fractions must be between 0 and 1");
+            }
+            this.hotSetFraction = hotSetFraction;
+            this.hotOpFraction = hotOpFraction;
+            hotSetSize = Math.max(1, Math.min(n,
+                                  (int) (n * hotSetFraction)));
+        }
+
+        @Override
+        public int next(Random random) {
+            if (hotSetSize == n || random.nextDouble() < hotOpFraction) {
+                return random.nextInt(hotSetSize);
+            }
+            return hotSetSize + random.nextInt(n - hotSetSize);
+        }
+
+        @Override
+        public String toString() {
+            return "hotspot:" + hotSetFraction + ":" + hotOpFraction;
+        }
+    }
+}
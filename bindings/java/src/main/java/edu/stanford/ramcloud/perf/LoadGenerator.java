@@ -0,0 +1,567 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.perf;
+
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.multiop.WriteBatch;
+import edu.stanford.ramcloud.perf.OperationMix.Operation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.log4j.Logger;
+
+/**
+ * An open-loop load generator. Operations are issued on a fixed-rate
+ * schedule: operation i is due at start + i / rate, whether or not earlier
+ * operations have completed, and its latency is measured from that intended
+ * start time rather than from when a thread got around to issuing it. When
+ * the cluster falls behind, the queueing delay therefore shows up in the
+ * latencies instead of silently lowering the offered load, which is what
+ * closed-loop clients such as YCSB's do ("coordinated omission").
+ *
+ * Since a RAMCloud object may only be used by one thread at a time, and the
+ * bindings have no asynchronous reads or writes, operations are issued by a
+ * pool of threads that each own a RAMCloud connection. Each thread claims
+ * the next slot of the schedule, waits until it is due and issues it. The
+ * pool must be large enough to sustain the target rate at the expected
+ * latency; when it is not, operations start late and the lateness is
+ * counted.
+ *
+ * Latencies of each kind of operation are reported as histograms for every
+ * reporting interval, followed by a summary of the whole run.
+ *
+ * Usage: LoadGenerator -C coordinatorLocator --rate opsPerSecond [options]
+ */
+public class LoadGenerator {
+    private static final Logger logger =
+            Logger.getLogger(LoadGenerator.class);
+
+    private static final String USAGE =
+            "Usage: LoadGenerator -C <coordinatorLocator> --rate <ops/sec> "
+            + "[options]\n\n"
+            + "Issues operations on a fixed-rate open-loop schedule and "
+            + "reports latencies\nmeasured from each operation's intended "
+            + "start time.\n\n"
+            + "Allowed options:\n"
+            + "  -C, --coordinator arg   Locator of the cluster\n"
+            + "  --clusterName arg       Name of the cluster (default main)\n"
+            + "  --rate arg              Target operations per second\n"
+            + "  --seconds arg           Length of the run (default 30)\n"
+            + "  --warmup arg            Seconds at the start of the run left "
+            + "out of the\n"
+            + "                          summary (default 0)\n"
+            + "  --interval arg          Seconds per reporting interval "
+            + "(default 1)\n"
+            + "  --threads arg           Number of threads issuing operations "
+            + "(default 16)\n"
+            + "  --table arg             Name of the table (default "
+            + "loadgen)\n"
+            + "  --records arg           Number of objects (default "
+            + "1000000)\n"
+            + "  --keyLength arg         Size of keys in bytes, at least 4 "
+            + "(default 30)\n"
+            + "  -s, --size arg          Size of values in bytes (default "
+            + "100)\n"
+            + "  --distribution arg      uniform, zipfian[:theta] or\n"
+            + "                          hotspot[:hotSetFraction"
+            + "[:hotOpFraction]] (default zipfian)\n"
+            + "  --mix arg               Operation weights, such as "
+            + "read=0.95,write=0.05;\n"
+            + "                          operations are read, write and rmw "
+            + "(default\n"
+            + "                          read=0.5,write=0.5)\n"
+            + "  --load                  Write every object before the run\n";
+
+    private static final Operation[] operations = Operation.values();
+
+    // Command-line options.
+    private String locator;
+    private String clusterName = "main";
+    private double rate;
+    private int seconds = 30;
+    private int warmupSeconds = 0;
+    private int intervalSeconds = 1;
+    private int threads = 16;
+    private String tableName = "loadgen";
+    private int records = 1000000;
+    private int keyLength = 30;
+    private int valueSize = 100;
+    private String distributionSpec = "zipfian";
+    private OperationMix mix = OperationMix.parse("read=0.5,write=0.5");
+    private boolean load;
+
+    private KeyDistribution keys;
+    private long tableId;
+
+    /**
+     * The schedule: operation i is due at startNanos + i * nanosPerOperation.
+     * Operations due before measureStartNanos are warmup and operations due
+     * at or after endNanos are not issued.
+     */
+    private final AtomicLong nextOperation = new AtomicLong();
+    private double nanosPerOperation;
+    private long startNanos;
+    private long measureStartNanos;
+    private long endNanos;
+
+    /**
+     * Latencies and error counts of the current reporting interval, replaced
+     * by a new object each time the interval is reported.
+     */
+    private final AtomicReference<Results> interval =
+            new AtomicReference<>(new Results());
+
+    /**
+     * Latencies and error counts of the whole run after warmup.
+     */
+    private final Results totals = new Results();
+
+    /**
+     * The time the last operation due after warmup completed, which ends the
+     * period over which the achieved throughput is computed.
+     */
+    private final AtomicLong lastCompletionNanos = new AtomicLong();
+
+    /**
+     * The time the last interval was reported.
+     */
+    private long lastReportNanos;
+
+    /**
+     * Latency histograms in nanoseconds and error counts for each kind of
+     * operation, indexed by ordinal.
+     */
+    private static class Results {
+        final Histogram[] latencies = new Histogram[operations.length];
+        final LongAdder[] errors = new LongAdder[operations.length];
+
+        /**
+         * The number of threads recording into this object, so the reporter
+         * can wait for them after replacing it.
+         */
+        final AtomicInteger recorders = new AtomicInteger();
+
+        Results() {
+            for (int i = 0; i < operations.length; i++) {
+                latencies[i] = new Histogram();
+                errors[i] = new LongAdder();
+            }
+        }
+
+        void record(Operation operation, long latency, boolean succeeded) {
+            if (succeeded) {
+                latencies[operation.ordinal()].record(latency);
+            } else {
+                errors[operation.ordinal()].increment();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        LoadGenerator generator = new LoadGenerator();
+        try {
+            generator.parseOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(1);
+        }
+        generator.run();
+    }
+
+    /**
+     * Parses the command line.
+     *
+     * @throws IllegalArgumentException
+     *      If the command line is invalid.
+     */
+    private void parseOptions(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--load")) {
+                load = true;
+                continue;
+            }
+            String value;
+            int equals = arg.indexOf('=');
+            if (equals >= 0) {
+                value = arg.substring(equals + 1);
+                arg = arg.substring(0, equals);
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                throw new IllegalArgumentException(
+                        "Missing value for option " + arg);
+            }
+            try {
+                switch (arg) {
+                    case "-C":
+                    case "--coordinator":
+                        locator = value;
+                        break;
+                    case "--clusterName":
+                        clusterName = value;
+                        break;
+                    case "--rate":
+                        rate = Double.parseDouble(value);
+                        break;
+                    case "--seconds":
+                        seconds = Integer.parseInt(value);
+                        break;
+                    case "--warmup":
+                        warmupSeconds = Integer.parseInt(value);
+                        break;
+                    case "--interval":
+                        intervalSeconds = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--table":
+                        tableName = value;
+                        break;
+                    case "--records":
+                        records = Integer.parseInt(value);
+                        break;
+                    case "--keyLength":
+                        keyLength = Integer.parseInt(value);
+                        break;
+                    case "-s":
+                    case "--size":
+                        valueSize = Integer.parseInt(value);
+                        break;
+                    case "--distribution":
+                        distributionSpec = value;
+                        break;
+                    case "--mix":
+                        mix = OperationMix.parse(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(
+                                "Unknown option " + arg);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                        "Invalid value for option " + arg + ": " + value);
+            }
+        }
+        if (locator == null) {
+            throw new IllegalArgumentException("No coordinator locator given");
+        }
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("No target rate given");
+        }
+        if (threads < 1 || seconds < 1 || intervalSeconds < 1
+                || warmupSeconds < 0 || warmupSeconds >= seconds) {
+            throw new IllegalArgumentException("Invalid run length or number "
+                    + "of threads");
+        }
+        if (keyLength < 4) {
+            throw new IllegalArgumentException("Keys must be at least 4 "
+                    + "bytes long");
+        }
+        keys = KeyDistribution.parse(distributionSpec, records);
+    }
+
+    /**
+     * Runs the workload and prints the results.
+     */
+    private void run() {
+        RAMCloud ramcloud = new RAMCloud(locator, clusterName);
+        List<Thread> workers = new ArrayList<>();
+        List<RAMCloud> connections = new ArrayList<>();
+        ScheduledExecutorService reporter = null;
+        try {
+            tableId = ramcloud.createTable(tableName);
+            if (load) {
+                load(ramcloud);
+            }
+
+            // Connect every thread before starting the clock, so connection
+            // setup is not counted as latency.
+            CountDownLatch started = new CountDownLatch(1);
+            for (int i = 0; i < threads; i++) {
+                RAMCloud connection = new RAMCloud(locator, clusterName);
+                connections.add(connection);
+                Thread worker = new Thread(() -> {
+                    try {
+                        started.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    issue(connection);
+                }, "LoadGenerator-" + i);
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+
+            System.out.printf("# Open-loop load of %.0f ops/sec for %d "
+                    + "seconds (%d warmup) from %d threads%n", rate, seconds,
+                    warmupSeconds, threads);
+            System.out.printf("# %d objects with %d byte keys and %d byte "
+                    + "values, keys %s, operations %s%n", records, keyLength,
+                    valueSize, keys, mix);
+            System.out.printf("# Latencies are measured from each "
+                    + "operation's intended start time%n#%n");
+            System.out.printf("# %7s %-6s %10s %10s %8s %10s %10s %10s "
+                    + "%10s%n", "Time(s)", "Op", "Count", "Ops/sec",
+                    "Errors", "p50(us)", "p99(us)", "p99.9(us)", "Max(us)");
+
+            nanosPerOperation = 1e09 / rate;
+            startNanos = System.nanoTime();
+            measureStartNanos = startNanos
+                    + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            endNanos = startNanos + TimeUnit.SECONDS.toNanos(seconds);
+            lastReportNanos = startNanos;
+            reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "LoadGeneratorReporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(this::reportInterval,
+                    intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+            started.countDown();
+
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            reporter.shutdown();
+            reporter.awaitTermination(10, TimeUnit.SECONDS);
+            reportInterval();
+            reportSummary();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            for (RAMCloud connection : connections) {
+                connection.disconnect();
+            }
+            ramcloud.disconnect();
+        }
+    }
+
+    /**
+     * Writes every object of the workload.
+     */
+    private void load(RAMCloud ramcloud) {
+        logger.info(String.format("Loading %d objects", records));
+        byte[] value = new byte[valueSize];
+        Arrays.fill(value, (byte) 'x');
+        int batchSize = Math.max(Math.min(1000000 / valueSize, 1000), 1);
+        WriteBatch batch = new WriteBatch(batchSize);
+        for (int i = 0; i < records; i++) {
+            batch.add(tableId, ClusterPerf.makeKey(i, keyLength), value);
+            if (batch.size() == batchSize || i == records - 1) {
+                ramcloud.write(batch);
+                for (int j = 0; j < batch.size(); j++) {
+                    if (batch.getStatus(j) != Status.STATUS_OK) {
+                        throw new IllegalStateException("Loading failed: "
+                                + batch.getStatus(j));
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Issues scheduled operations on one connection until the run ends.
+     */
+    private void issue(RAMCloud ramcloud) {
+        Random random = ThreadLocalRandom.current();
+        byte[] value = new byte[valueSize];
+        Arrays.fill(value, (byte) 'x');
+        while (true) {
+            long intended = startNanos
+                    + (long) (nextOperation.getAndIncrement()
+                              * nanosPerOperation);
+            if (intended >= endNanos) {
+                return;
+            }
+            Operation operation = mix.next(random);
+            byte[] key = ClusterPerf.makeKey(keys.next(random), keyLength);
+            if (!waitUntil(intended)) {
+                return;
+            }
+            boolean succeeded = true;
+            try {
+                switch (operation) {
+                    case READ:
+                        ramcloud.read(tableId, key);
+                        break;
+                    case WRITE:
+                        ramcloud.write(tableId, key, value, null);
+                        break;
+                    case READ_MODIFY_WRITE:
+                        ramcloud.read(tableId, key);
+                        ramcloud.write(tableId, key, value, null);
+                        break;
+                }
+            } catch (ClientException e) {
+                succeeded = false;
+            }
+            long completion = System.nanoTime();
+            long latency = completion - intended;
+            recordInterval(operation, latency, succeeded);
+            if (intended >= measureStartNanos) {
+                totals.record(operation, latency, succeeded);
+                lastCompletionNanos.accumulateAndGet(completion, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Records an operation in the current interval. The Results recorded
+     * into is registered before use and checked to still be current, so once
+     * reportInterval() has replaced it and seen no recorders, no more
+     * operations land in it.
+     */
+    private void recordInterval(Operation operation, long latency,
+                                boolean succeeded) {
+        Results results;
+        while (true) {
+            results = interval.get();
+            results.recorders.incrementAndGet();
+            if (interval.get() == results) {
+                break;
+            }
+            results.recorders.decrementAndGet();
+        }
+        try {
+            results.record(operation, latency, succeeded);
+        } finally {
+            results.recorders.decrementAndGet();
+        }
+    }
+
+    /**
+     * Waits until the given time. Operations that are already late are not
+     * delayed further.
+     *
+     * @return False if the thread was interrupted.
+     */
+    private static boolean waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (Thread.interrupted()) {
+                return false;
+            }
+            // Parking can oversleep by tens of microseconds, so spin for the
+            // last stretch.
+            if (remaining > 100000) {
+                LockSupport.parkNanos(remaining - 50000);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prints the latencies of the interval since the last report and starts
+     * a new interval.
+     */
+    private synchronized void reportInterval() {
+        long now = System.nanoTime();
+        Results results = interval.getAndSet(new Results());
+        // Wait for the operations being recorded into the old interval, so
+        // none are lost after it is printed.
+        while (results.recorders.get() != 0) {
+            Thread.yield();
+        }
+        double elapsed = (now - lastReportNanos) / 1e09;
+        lastReportNanos = now;
+        if (elapsed <= 0) {
+            return;
+        }
+        for (Operation operation : operations) {
+            Histogram.Snapshot latencies =
+                    results.latencies[operation.ordinal()].snapshot();
+            long errors = results.errors[operation.ordinal()].sum();
+            long count = latencies.getCount();
+            if (count == 0 && errors == 0) {
+                continue;
+            }
+            System.out.printf("%9.1f %-6s %10d %10.1f %8d %10.1f %10.1f "
+                    + "%10.1f %10.1f%n", (now - startNanos) / 1e09,
+                    operation.getName(), count, (count + errors) / elapsed,
+                    errors, latencies.getPercentile(50) / 1e03,
+                    latencies.getPercentile(99) / 1e03,
+                    latencies.getPercentile(99.9) / 1e03,
+                    latencies.getMax() / 1e03);
+        }
+        System.out.flush();
+    }
+
+    /**
+     * Prints the latency distribution of each kind of operation over the
+     * whole run after warmup. The achieved throughput is the number of
+     * operations due after warmup divided by the time from the end of warmup
+     * until the last of them completed, so it falls below the target rate
+     * when the cluster cannot keep up.
+     */
+    private void reportSummary() {
+        double measured = (endNanos - measureStartNanos) / 1e09;
+        long completed = 0;
+        for (Operation operation : operations) {
+            completed += totals.latencies[operation.ordinal()].getCount()
+                    + totals.errors[operation.ordinal()].sum();
+        }
+        double elapsed = (lastCompletionNanos.get() - measureStartNanos)
+                / 1e09;
+        System.out.printf("#%n# Summary of %.0f seconds after warmup: target "
+                + "%.0f ops/sec, achieved %.0f ops/sec over %.1f seconds%n",
+                measured, rate, elapsed > 0 ? completed / elapsed : 0.0,
+                elapsed);
+        System.out.printf("# %-6s %10s %8s %10s %10s %10s %10s %10s %10s "
+                + "%10s%n", "Op", "Count", "Errors", "Mean(us)", "p50(us)",
+                "p90(us)", "p99(us)", "p99.9(us)", "p99.99(us)", "Max(us)");
+        for (Operation operation : operations) {
+            Histogram.Snapshot latencies =
+                    totals.latencies[operation.ordinal()].snapshot();
+            long errors = totals.errors[operation.ordinal()].sum();
+            if (latencies.getCount() == 0 && errors == 0) {
+                continue;
+            }
+            System.out.printf("  %-6s %10d %8d %10.1f %10.1f %10.1f %10.1f "
+                    + "%10.1f %10.1f %10.1f%n", operation.getName(),
+                    latencies.getCount(), errors, latencies.getMean() / 1e03,
+                    latencies.getPercentile(50) / 1e03,
+                    latencies.getPercentile(90) / 1e03,
+                    latencies.getPercentile(99) / 1e03,
+                    latencies.getPercentile(99.9) / 1e03,
+                    latencies.getPercentile(99.99) / 1e03,
+                    latencies.getMax() / 1e03);
+        }
+        System.out.flush();
+    }
+}
@@ -0,0 +1,180 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.perf;
+
+import java.util.Random;
+
+/**
+ * The proportions of each kind of operation in a workload.
+ */
+public class OperationMix {
+    /**
+     * The kinds of operation a workload can issue.
+     */
+    public enum Operation {
+        /**
+         * Read one object.
+         */
+        READ,
+        /**
+         * Overwrite one object.
+         */
+        WRITE,
+        /**
+         * Read one object and then overwrite it, as in YCSB workload F. Its
+         * latency covers both operations.
+         */
+        READ_MODIFY_WRITE;
+
+        /**
+         * The name used on the command line and in reports.
+         */
+        public String getName() {
+            switch (this) {
+                case READ:
+                    return "read";
+                case WRITE:
+                    return "write";
+                default:
+                    return "rmw";
+            }
+        }
+    }
+
+    private static final Operation[] operations = Operation.values();
+
+    /**
+     * The cumulative fraction of operations up to and including each kind,
+     * indexed by ordinal; the last is 1.
+     */
+    private final double[] cumulative = new double[operations.length];
+
+    /**
+     * Constructs a mix from the relative weight of each kind of operation.
+     *
+     * @param weights
+     *      The weight of each kind of operation, indexed by ordinal. Weights
+     *      are non-negative and need not sum to 1.
+     */
+    public OperationMix(double... weights) {
+        if (weights.length != operations.length) {
+            throw new IllegalArgumentException("Expected "
+                    + operations.length + " weights");
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0)) {
+                throw new IllegalArgumentException(
+                        "Weights must not be negative");
+            }
+            total += weight;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Operation mix is empty");
+        }
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum / total;
+        }
+        cumulative[cumulative.length - 1] = 1.0;
+    }
+
+    /**
+     * Parses a mix given on the command line as comma-separated
+     * name=weight pairs, such as "read=0.95,write=0.05". Operations not
+     * named have weight 0.
+     *
+     * @param spec
+     *      The mix.
+     * @return The mix.
+     * @throws IllegalArgumentException
+     *      If the mix is not valid.
+     */
+    public static OperationMix parse(String spec) {
+        double[] weights = new double[operations.length];
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(
+                        "Invalid operation mix: " + spec);
+            }
+            Operation operation = null;
+            for (Operation candidate : operations) {
+                if (candidate.getName().equals(parts[0].trim())) {
+                    operation = candidate;
+                }
+            }
+            if (operation == null) {
+                throw new IllegalArgumentException(
+                        "Unknown operation in mix: " + parts[0]);
+            }
+            try {
+                weights[operation.ordinal()] =
+                        Double.parseDouble(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                        "Invalid operation mix: " + spec);
+            }
+        }
+        return new OperationMix(weights);
+    }
+
+    /**
+     * Get the fraction of operations of a kind.
+     *
+     * @param operation
+     *      The kind of operation.
+     * @return The fraction of operations of that kind, between 0 and 1.
+     */
+    public double getFraction(Operation operation) {
+        int i = operation.ordinal();
+        return i == 0 ? cumulative[0] : cumulative[i] - cumulative[i - 1];
+    }
+
+    /**
+     * Chooses the kind of the next operation.
+     *
+     * @param random
+     *      The source of randomness.
+     * @return The kind of operation.
+     */
+    public Operation next(Random random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (u < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Operation operation : operations) {
+            double fraction = getFraction(operation);
+            if (fraction > 0) {
+                if (out.length() > 0) {
+                    out.append(',');
+                }
+                out.append(operation.getName()).append('=')
+                        .append(String.format("%.3f", fraction));
+            }
+        }
+        return out.toString();
+    }
+}
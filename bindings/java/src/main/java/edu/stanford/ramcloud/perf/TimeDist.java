@@ -0,0 +1,70 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.perf;
+
+import java.util.Arrays;
+
+/**
+ * The distribution of times for a particular operation, computed the same way
+ * as TimeDist in apps/ClusterPerf.cc so results can be compared line by line.
+ * All times are in seconds.
+ */
+public class TimeDist {
+    public final double min;
+    public final double p50;
+    public final double p90;
+    public final double p99;
+    public final double p999;
+    public final double p9999;
+    public final double p99999;
+
+    /**
+     * Average throughput in bytes per second, or 0 if not measured.
+     */
+    public double bandwidth;
+
+    /**
+     * Sorts a set of intervals and computes their distribution.
+     *
+     * @param nanos
+     *      Interval lengths in nanoseconds. The first count are used, and are
+     *      left sorted.
+     * @param count
+     *      The number of intervals measured; must be at least 1.
+     */
+    public TimeDist(long[] nanos, int count) {
+        Arrays.sort(nanos, 0, count);
+        min = seconds(nanos[0]);
+        p50 = percentile(nanos, count, count / 2);
+        p90 = percentile(nanos, count, count - (count + 5) / 10);
+        p99 = percentile(nanos, count, count - (count + 50) / 100);
+        p999 = percentile(nanos, count, count - (count + 500) / 1000);
+        p9999 = percentile(nanos, count, count - (count + 5000) / 10000);
+        p99999 = percentile(nanos, count, count - (count + 50000) / 100000);
+    }
+
+    /**
+     * Returns the interval at the given index, or 0 if there are not enough
+     * intervals for it to be meaningful.
+     */
+    private static double percentile(long[] nanos, int count, int index) {
+        return index < count ? seconds(nanos[index]) : 0;
+    }
+
+    static double seconds(long nanos) {
+        return nanos / 1e09;
+    }
+}
@@ -0,0 +1,361 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.server;
+
+/**
+ * The log metrics of a master, decoded from the LogMetrics protocol buffer.
+ * Only the totals useful for tracking memory use and cleaner activity are
+ * decoded; histograms and per-entry-type breakdowns are skipped. Times are
+ * kept in ticks as reported by the server; use ticksToSeconds() to convert
+ * them.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#getLogMetrics(String)
+ */
+public class LogMetrics {
+    /**
+     * The activity of the in-memory cleaner (the compactor).
+     */
+    public static class CompactorMetrics {
+        private long bytesFreed;
+        private long bytesInCompactedSegments;
+        private long bytesAppendedToSurvivors;
+        private long segmentsCompacted;
+        private long emptySegmentsCompacted;
+        private long ticks;
+
+        public long getBytesFreed() {
+            return bytesFreed;
+        }
+
+        public long getBytesInCompactedSegments() {
+            return bytesInCompactedSegments;
+        }
+
+        public long getBytesAppendedToSurvivors() {
+            return bytesAppendedToSurvivors;
+        }
+
+        public long getSegmentsCompacted() {
+            return segmentsCompacted;
+        }
+
+        public long getEmptySegmentsCompacted() {
+            return emptySegmentsCompacted;
+        }
+
+        /**
+         * Get the time spent compacting.
+         */
+        public long getTicks() {
+            return ticks;
+        }
+    }
+
+    /**
+     * The activity of the disk cleaner.
+     */
+    public static class CleanerMetrics {
+        private long bytesAppendedToSurvivors;
+        private long memoryBytesFreed;
+        private long diskBytesFreed;
+        private long memoryBytesInCleanedSegments;
+        private long diskBytesInCleanedSegments;
+        private long segmentsCleaned;
+        private long emptySegmentsCleaned;
+        private long survivorsCreated;
+        private long runs;
+        private long lowDiskSpaceRuns;
+        private long ticks;
+
+        public long getBytesAppendedToSurvivors() {
+            return bytesAppendedToSurvivors;
+        }
+
+        public long getMemoryBytesFreed() {
+            return memoryBytesFreed;
+        }
+
+        public long getDiskBytesFreed() {
+            return diskBytesFreed;
+        }
+
+        public long getMemoryBytesInCleanedSegments() {
+            return memoryBytesInCleanedSegments;
+        }
+
+        public long getDiskBytesInCleanedSegments() {
+            return diskBytesInCleanedSegments;
+        }
+
+        public long getSegmentsCleaned() {
+            return segmentsCleaned;
+        }
+
+        public long getEmptySegmentsCleaned() {
+            return emptySegmentsCleaned;
+        }
+
+        public long getSurvivorsCreated() {
+            return survivorsCreated;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        public long getLowDiskSpaceRuns() {
+            return lowDiskSpaceRuns;
+        }
+
+        /**
+         * Get the time spent cleaning.
+         */
+        public long getTicks() {
+            return ticks;
+        }
+    }
+
+    private double ticksPerSecond;
+    private long syncCalls;
+    private long syncTicks;
+    private long appendCalls;
+    private long appendTicks;
+    private long noSpaceTicks;
+    private long bytesAppended;
+    private long metadataBytesAppended;
+    private long cleanerDoWorkTicks;
+    private long cleanerSleepTicks;
+    private final CompactorMetrics compactor = new CompactorMetrics();
+    private final CleanerMetrics cleaner = new CleanerMetrics();
+    private long totalSeglets;
+    private long usableSeglets;
+    private long freeSeglets;
+    private long segmentsOnDisk;
+
+    private LogMetrics() {
+    }
+
+    /**
+     * Decodes a serialized LogMetrics protocol buffer.
+     *
+     * @param message
+     *      The serialized protocol buffer.
+     * @return The decoded metrics.
+     */
+    public static LogMetrics parse(byte[] message) {
+        LogMetrics out = new LogMetrics();
+        ProtoBufReader reader = new ProtoBufReader(message);
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 1: out.ticksPerSecond = reader.readDouble(); break;
+                case 2: out.syncCalls = reader.readLong(); break;
+                case 3: out.syncTicks = reader.readLong(); break;
+                case 4: out.appendCalls = reader.readLong(); break;
+                case 5: out.appendTicks = reader.readLong(); break;
+                case 6: out.noSpaceTicks = reader.readLong(); break;
+                case 7: out.bytesAppended = reader.readLong(); break;
+                case 8: out.metadataBytesAppended = reader.readLong(); break;
+                case 9: out.parseCleaner(reader.readMessage()); break;
+                case 10: out.parseSeglets(reader.readMessage()); break;
+                case 11: out.parseSegments(reader.readMessage()); break;
+                default: reader.skip();
+            }
+        }
+        return out;
+    }
+
+    private void parseCleaner(ProtoBufReader reader) {
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 7: cleanerDoWorkTicks = reader.readLong(); break;
+                case 8: cleanerSleepTicks = reader.readLong(); break;
+                case 9: parseCompactor(reader.readMessage()); break;
+                case 10: parseDiskCleaner(reader.readMessage()); break;
+                default: reader.skip();
+            }
+        }
+    }
+
+    private void parseCompactor(ProtoBufReader reader) {
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 3: compactor.bytesFreed = reader.readLong(); break;
+                case 4:
+                    compactor.bytesInCompactedSegments = reader.readLong();
+                    break;
+                case 5:
+                    compactor.bytesAppendedToSurvivors = reader.readLong();
+                    break;
+                case 6: compactor.segmentsCompacted = reader.readLong(); break;
+                case 7:
+                    compactor.emptySegmentsCompacted = reader.readLong();
+                    break;
+                case 12: compactor.ticks = reader.readLong(); break;
+                default: reader.skip();
+            }
+        }
+    }
+
+    private void parseDiskCleaner(ProtoBufReader reader) {
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 1:
+                    cleaner.bytesAppendedToSurvivors = reader.readLong();
+                    break;
+                case 2: cleaner.memoryBytesFreed = reader.readLong(); break;
+                case 3: cleaner.diskBytesFreed = reader.readLong(); break;
+                case 4:
+                    cleaner.memoryBytesInCleanedSegments = reader.readLong();
+                    break;
+                case 5:
+                    cleaner.diskBytesInCleanedSegments = reader.readLong();
+                    break;
+                case 8: cleaner.segmentsCleaned = reader.readLong(); break;
+                case 9: cleaner.emptySegmentsCleaned = reader.readLong(); break;
+                case 10: cleaner.survivorsCreated = reader.readLong(); break;
+                case 11: cleaner.runs = reader.readLong(); break;
+                case 12: cleaner.lowDiskSpaceRuns = reader.readLong(); break;
+                case 18: cleaner.ticks = reader.readLong(); break;
+                default: reader.skip();
+            }
+        }
+    }
+
+    private void parseSeglets(ProtoBufReader reader) {
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 1: totalSeglets = reader.readLong(); break;
+                case 2: usableSeglets = reader.readLong(); break;
+                case 7: freeSeglets = reader.readLong(); break;
+                default: reader.skip();
+            }
+        }
+    }
+
+    private void parseSegments(ProtoBufReader reader) {
+        while (reader.next()) {
+            if (reader.getFieldNumber() == 2) {
+                segmentsOnDisk = reader.readLong();
+            } else {
+                reader.skip();
+            }
+        }
+    }
+
+    /**
+     * Converts a time reported by the server to seconds.
+     *
+     * @param ticks
+     *      A time in server ticks, such as getAppendTicks().
+     * @return The time in seconds.
+     */
+    public double ticksToSeconds(long ticks) {
+        return ticksPerSecond == 0 ? 0 : ticks / ticksPerSecond;
+    }
+
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public long getSyncCalls() {
+        return syncCalls;
+    }
+
+    public long getSyncTicks() {
+        return syncTicks;
+    }
+
+    public long getAppendCalls() {
+        return appendCalls;
+    }
+
+    public long getAppendTicks() {
+        return appendTicks;
+    }
+
+    /**
+     * Get the time appends spent waiting because the log was out of space.
+     */
+    public long getNoSpaceTicks() {
+        return noSpaceTicks;
+    }
+
+    public long getBytesAppended() {
+        return bytesAppended;
+    }
+
+    public long getMetadataBytesAppended() {
+        return metadataBytesAppended;
+    }
+
+    /**
+     * Get the time the cleaner threads spent working.
+     */
+    public long getCleanerDoWorkTicks() {
+        return cleanerDoWorkTicks;
+    }
+
+    /**
+     * Get the time the cleaner threads spent sleeping for lack of work.
+     */
+    public long getCleanerSleepTicks() {
+        return cleanerSleepTicks;
+    }
+
+    public CompactorMetrics getCompactor() {
+        return compactor;
+    }
+
+    public CleanerMetrics getCleaner() {
+        return cleaner;
+    }
+
+    /**
+     * Get the number of seglets of memory given to the log.
+     */
+    public long getTotalSeglets() {
+        return totalSeglets;
+    }
+
+    /**
+     * Get the number of seglets usable for data, excluding reserves.
+     */
+    public long getUsableSeglets() {
+        return usableSeglets;
+    }
+
+    /**
+     * Get the number of seglets free in the default pool.
+     */
+    public long getFreeSeglets() {
+        return freeSeglets;
+    }
+
+    /**
+     * Get the fraction of the log's usable memory in use, from 0 to 1.
+     */
+    public double getMemoryUtilization() {
+        if (usableSeglets == 0) {
+            return 0;
+        }
+        return (double) (usableSeglets - Math.min(freeSeglets, usableSeglets))
+                / usableSeglets;
+    }
+
+    public long getSegmentsOnDisk() {
+        return segmentsOnDisk;
+    }
+}
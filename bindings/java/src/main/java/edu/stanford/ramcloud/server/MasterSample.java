@@ -0,0 +1,120 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.server;
+
+/**
+ * One reading of the statistics of a master, taken by a
+ * MasterStatsCollector.
+ */
+public class MasterSample {
+    private final ServerInfo master;
+    private final long timestampMillis;
+    private final PerfStats perfStats;
+    private final PerfStats previousPerfStats;
+    private final LogMetrics logMetrics;
+
+    /**
+     * Constructs a new MasterSample.
+     *
+     * @param master
+     *      The master sampled.
+     * @param timestampMillis
+     *      The wall clock time of the sample.
+     * @param perfStats
+     *      The master's PerfStats counters, or null if it did not report them.
+     * @param previousPerfStats
+     *      The counters of the previous sample of the master, or null if this
+     *      is the first.
+     * @param logMetrics
+     *      The master's log metrics, or null if they could not be read.
+     */
+    public MasterSample(ServerInfo master, long timestampMillis,
+                        PerfStats perfStats, PerfStats previousPerfStats,
+                        LogMetrics logMetrics) {
+        this.master = master;
+        this.timestampMillis = timestampMillis;
+        this.perfStats = perfStats;
+        this.previousPerfStats = previousPerfStats;
+        this.logMetrics = logMetrics;
+    }
+
+    public ServerInfo getMaster() {
+        return master;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Get the PerfStats counters of the master.
+     *
+     * @return The counters, or null if the master did not report them.
+     */
+    public PerfStats getPerfStats() {
+        return perfStats;
+    }
+
+    /**
+     * Get the log metrics of the master.
+     *
+     * @return The metrics, or null if they could not be read.
+     */
+    public LogMetrics getLogMetrics() {
+        return logMetrics;
+    }
+
+    /**
+     * Get the rate at which a counter grew since the previous sample of the
+     * same master, such as READ_COUNT for reads per second.
+     *
+     * @return The rate per second, or NaN if there is no previous sample.
+     */
+    public double getRate(PerfStats.Counter counter) {
+        if (perfStats == null || previousPerfStats == null) {
+            return Double.NaN;
+        }
+        return perfStats.getRate(previousPerfStats, counter);
+    }
+
+    /**
+     * Get the fraction of the time since the previous sample that a CYCLES
+     * counter grew by, such as WORKER_ACTIVE_CYCLES.
+     *
+     * @return The utilization, or NaN if there is no previous sample.
+     */
+    public double getUtilization(PerfStats.Counter counter) {
+        if (perfStats == null || previousPerfStats == null) {
+            return Double.NaN;
+        }
+        return perfStats.getUtilization(previousPerfStats, counter);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(master.getServiceLocator());
+        if (logMetrics != null) {
+            out.append(String.format(" memory=%.1f%% cleanerRuns=%d",
+                                     logMetrics.getMemoryUtilization() * 100,
+                                     logMetrics.getCleaner().getRuns()));
+        }
+        out.append(String.format(" reads/s=%.0f writes/s=%.0f",
+                                 getRate(PerfStats.Counter.READ_COUNT),
+                                 getRate(PerfStats.Counter.WRITE_COUNT)));
+        return out.toString();
+    }
+}
@@ -0,0 +1,172 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.server;
+
+import edu.stanford.ramcloud.ClientException;
+import edu.stanford.ramcloud.RAMCloud;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
+
+/**
+ * Periodically samples the PerfStats counters and log metrics of every
+ * master in the cluster, for dashboards that track memory use, cleaner
+ * activity and request rates per master.
+ *
+ * RAMCloud objects are not thread safe, and the collector samples from its
+ * own thread, so it must be given a RAMCloud object that nothing else uses.
+ */
+public class MasterStatsCollector implements AutoCloseable {
+    private static final Logger logger =
+            Logger.getLogger(MasterStatsCollector.class);
+
+    /**
+     * Receives each set of samples.
+     */
+    public interface Listener {
+        /**
+         * Called from the collector's thread after each sampling.
+         *
+         * @param samples
+         *      One sample for each master that is up.
+         */
+        void onSample(List<MasterSample> samples);
+    }
+
+    private final RAMCloud ramcloud;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The PerfStats of the last sample of each master, by server ID.
+     */
+    private HashMap<Long, PerfStats> previousPerfStats = new HashMap<>();
+
+    private volatile List<MasterSample> latest = Collections.emptyList();
+    private ScheduledExecutorService executor;
+
+    /**
+     * Constructs a collector that is not yet running.
+     *
+     * @param ramcloud
+     *      The client to sample with, which must not be used elsewhere.
+     */
+    public MasterStatsCollector(RAMCloud ramcloud) {
+        this.ramcloud = ramcloud;
+    }
+
+    /**
+     * Adds a listener to be given every set of samples.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts sampling periodically on a daemon thread.
+     *
+     * @param period
+     *      The time between samples.
+     * @param unit
+     *      The unit of period.
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (executor != null) {
+            throw new IllegalStateException("Already started");
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MasterStatsCollector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> {
+            try {
+                sample();
+            } catch (RuntimeException e) {
+                // Keep sampling; the cluster may recover.
+                logger.warn("Couldn't sample masters", e);
+            }
+        }, 0, period, unit);
+    }
+
+    /**
+     * Stops sampling. The RAMCloud object is not disconnected.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Samples every master now and passes the samples to the listeners.
+     * Masters whose log metrics cannot be read are still included, without
+     * them.
+     *
+     * @return One sample for each master that is up.
+     */
+    public synchronized List<MasterSample> sample() {
+        List<ServerInfo> masters = ramcloud.getMasters();
+        HashMap<Long, PerfStats> perfStats = new HashMap<>();
+        for (PerfStats stats : ramcloud.getPerfStats()) {
+            perfStats.put(stats.getServerId(), stats);
+        }
+        long now = System.currentTimeMillis();
+        List<MasterSample> samples = new ArrayList<>(masters.size());
+        for (ServerInfo master : masters) {
+            if (!master.isUp()) {
+                continue;
+            }
+            LogMetrics logMetrics = null;
+            try {
+                logMetrics = ramcloud.getLogMetrics(master.getServiceLocator());
+            } catch (ClientException e) {
+                logger.warn("Couldn't read log metrics of "
+                            + master.getServiceLocator(), e);
+            }
+            samples.add(new MasterSample(
+                    master, now, perfStats.get(master.getServerId()),
+                    previousPerfStats.get(master.getServerId()), logMetrics));
+        }
+        previousPerfStats = perfStats;
+        samples = Collections.unmodifiableList(samples);
+        latest = samples;
+        for (Listener listener : listeners) {
+            listener.onSample(samples);
+        }
+        return samples;
+    }
+
+    /**
+     * Get the samples taken most recently.
+     *
+     * @return The samples, or an empty list if none have been taken.
+     */
+    public List<MasterSample> getLatest() {
+        return latest;
+    }
+}
@@ -0,0 +1,166 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.server;
+
+/**
+ * A reading of the PerfStats counters of one server, as returned by the
+ * GET_PERF_STATS server control. Counters only ever grow, so they are most
+ * useful as the difference between two readings; see getRate().
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#getPerfStats()
+ */
+public class PerfStats {
+    /**
+     * The counters of a server. The order matches the fields of PerfStats in
+     * C++ and the order in which cppGetPerfStats writes them. Counters
+     * ending in CYCLES are times in server cycles.
+     */
+    public enum Counter {
+        READ_COUNT,
+        READ_OBJECT_BYTES,
+        READ_KEY_BYTES,
+        WRITE_COUNT,
+        WRITE_OBJECT_BYTES,
+        WRITE_KEY_BYTES,
+        DISPATCH_ACTIVE_CYCLES,
+        WORKER_ACTIVE_CYCLES,
+        BTREE_NODE_READS,
+        BTREE_NODE_WRITES,
+        BTREE_BYTES_READ,
+        BTREE_BYTES_WRITTEN,
+        BTREE_NODE_SPLITS,
+        BTREE_NODE_COALESCES,
+        BTREE_REBALANCES,
+        LOG_BYTES_APPENDED,
+        REPLICATION_RPCS,
+        LOG_SYNC_CYCLES,
+        SEGMENT_UNOPENED_CYCLES,
+        COMPACTOR_INPUT_BYTES,
+        COMPACTOR_SURVIVOR_BYTES,
+        COMPACTOR_ACTIVE_CYCLES,
+        CLEANER_INPUT_MEMORY_BYTES,
+        CLEANER_INPUT_DISK_BYTES,
+        CLEANER_SURVIVOR_BYTES,
+        CLEANER_ACTIVE_CYCLES,
+        BACKUP_READ_OPS,
+        BACKUP_READ_BYTES,
+        BACKUP_READ_ACTIVE_CYCLES,
+        BACKUP_BYTES_RECEIVED,
+        BACKUP_WRITE_OPS,
+        BACKUP_WRITE_BYTES,
+        BACKUP_WRITE_ACTIVE_CYCLES,
+        MIGRATION_PHASE1_BYTES,
+        MIGRATION_PHASE1_CYCLES,
+        NETWORK_INPUT_BYTES,
+        NETWORK_OUTPUT_BYTES,
+        LOG_SIZE_BYTES,
+        LOG_USED_BYTES,
+        LOG_FREE_BYTES,
+        LOG_LIVE_BYTES,
+        LOG_MAX_LIVE_BYTES,
+        LOG_APPENDABLE_BYTES,
+        LOG_USED_BYTES_IN_BACKUPS;
+
+        static final Counter[] counters = Counter.values();
+    }
+
+    private final long serverId;
+    private final long collectionTime;
+    private final double cyclesPerSecond;
+    private final long[] counters;
+
+    /**
+     * Constructs a new PerfStats.
+     *
+     * @param serverId
+     *      The ID of the server.
+     * @param collectionTime
+     *      The time the counters were read, in server cycles.
+     * @param cyclesPerSecond
+     *      The rate of the server's cycle counter.
+     * @param counters
+     *      The value of each counter, indexed by Counter.ordinal(). Counters
+     *      missing at the end, as sent by an older server, are taken to be 0.
+     */
+    public PerfStats(long serverId, long collectionTime,
+                     double cyclesPerSecond, long[] counters) {
+        this.serverId = serverId;
+        this.collectionTime = collectionTime;
+        this.cyclesPerSecond = cyclesPerSecond;
+        this.counters = new long[Counter.counters.length];
+        System.arraycopy(counters, 0, this.counters, 0,
+                         Math.min(counters.length, this.counters.length));
+    }
+
+    public long getServerId() {
+        return serverId;
+    }
+
+    /**
+     * Get the time the counters were read, in server cycles.
+     */
+    public long getCollectionTime() {
+        return collectionTime;
+    }
+
+    public double getCyclesPerSecond() {
+        return cyclesPerSecond;
+    }
+
+    /**
+     * Get the value of a counter.
+     */
+    public long get(Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    /**
+     * Get the number of seconds between an earlier reading from the same
+     * server and this one.
+     */
+    public double getSecondsSince(PerfStats earlier) {
+        return (collectionTime - earlier.collectionTime) / cyclesPerSecond;
+    }
+
+    /**
+     * Get the rate at which a counter grew between an earlier reading from
+     * the same server and this one.
+     *
+     * @param earlier
+     *      The earlier reading.
+     * @param counter
+     *      The counter.
+     * @return The growth of the counter per second, or NaN if no time has
+     *      passed.
+     */
+    public double getRate(PerfStats earlier, Counter counter) {
+        double seconds = getSecondsSince(earlier);
+        if (seconds <= 0) {
+            return Double.NaN;
+        }
+        return (get(counter) - earlier.get(counter)) / seconds;
+    }
+
+    /**
+     * Get the fraction of the time between an earlier reading and this one
+     * that a CYCLES counter grew by, such as the utilization of the worker
+     * threads for WORKER_ACTIVE_CYCLES. This may exceed 1 when several
+     * threads contribute to the counter.
+     */
+    public double getUtilization(PerfStats earlier, Counter counter) {
+        return getRate(earlier, counter) / cyclesPerSecond;
+    }
+}
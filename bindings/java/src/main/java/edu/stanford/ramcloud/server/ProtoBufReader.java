@@ -0,0 +1,167 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.server;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A minimal decoder for the protocol buffer wire format, used to turn the
+ * protocol buffers returned by servers into Java objects without depending on
+ * the protobuf runtime. Fields are read in order with next(), and each field
+ * must then be read with the method matching its type, or skipped.
+ */
+final class ProtoBufReader {
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+
+    private final ByteBuffer buffer;
+    private int fieldNumber;
+    private int wireType;
+
+    /**
+     * Constructs a reader for a serialized message.
+     *
+     * @param message
+     *      The serialized message.
+     */
+    ProtoBufReader(byte[] message) {
+        this(ByteBuffer.wrap(message));
+    }
+
+    private ProtoBufReader(ByteBuffer buffer) {
+        this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Advances to the next field of the message.
+     *
+     * @return False if there are no more fields.
+     */
+    boolean next() {
+        if (!buffer.hasRemaining()) {
+            return false;
+        }
+        long tag = readVarint();
+        fieldNumber = (int) (tag >>> 3);
+        wireType = (int) (tag & 7);
+        return true;
+    }
+
+    /**
+     * Get the number of the current field.
+     */
+    int getFieldNumber() {
+        return fieldNumber;
+    }
+
+    /**
+     * Reads an integer field of any encoding.
+     */
+    long readLong() {
+        switch (wireType) {
+            case VARINT:
+                return readVarint();
+            case FIXED64:
+                return buffer.getLong();
+            case FIXED32:
+                return buffer.getInt() & 0xFFFFFFFFL;
+            default:
+                throw new IllegalStateException(
+                        "Field " + fieldNumber + " is not an integer");
+        }
+    }
+
+    int readInt() {
+        return (int) readLong();
+    }
+
+    boolean readBoolean() {
+        return readLong() != 0;
+    }
+
+    double readDouble() {
+        if (wireType != FIXED64) {
+            throw new IllegalStateException(
+                    "Field " + fieldNumber + " is not a double");
+        }
+        return buffer.getDouble();
+    }
+
+    String readString() {
+        ByteBuffer bytes = readBytes();
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    /**
+     * Reads an embedded message.
+     *
+     * @return A reader positioned before the first field of the message.
+     */
+    ProtoBufReader readMessage() {
+        return new ProtoBufReader(readBytes());
+    }
+
+    /**
+     * Skips the current field.
+     */
+    void skip() {
+        switch (wireType) {
+            case VARINT:
+                readVarint();
+                break;
+            case FIXED64:
+                buffer.position(buffer.position() + 8);
+                break;
+            case LENGTH_DELIMITED:
+                readBytes();
+                break;
+            case FIXED32:
+                buffer.position(buffer.position() + 4);
+                break;
+            default:
+                throw new IllegalStateException(
+                        "Unsupported wire type " + wireType);
+        }
+    }
+
+    private ByteBuffer readBytes() {
+        if (wireType != LENGTH_DELIMITED) {
+            throw new IllegalStateException(
+                    "Field " + fieldNumber + " is not length delimited");
+        }
+        int length = (int) readVarint();
+        ByteBuffer bytes = buffer.slice();
+        bytes.limit(length);
+        buffer.position(buffer.position() + length);
+        return bytes;
+    }
+
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+}
@@ -0,0 +1,305 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.server;
+
+/**
+ * The configuration of a server, decoded from the ServerConfig protocol
+ * buffer.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#getServerConfig(String)
+ */
+public class ServerConfig {
+    /**
+     * The configuration of the master service of a server.
+     */
+    public static class Master {
+        private long logBytes;
+        private long hashTableBytes;
+        private boolean disableLogCleaner;
+        private boolean disableInMemoryCleaning;
+        private double backupDiskExpansionFactor;
+        private int cleanerWriteCostThreshold;
+        private String cleanerBalancer = "";
+        private int cleanerThreadCount;
+        private int numReplicas;
+        private boolean useMinCopysets;
+        private boolean useLocalBackup;
+
+        /**
+         * Get the amount of memory given to the log.
+         */
+        public long getLogBytes() {
+            return logBytes;
+        }
+
+        public long getHashTableBytes() {
+            return hashTableBytes;
+        }
+
+        public boolean isLogCleanerDisabled() {
+            return disableLogCleaner;
+        }
+
+        public boolean isInMemoryCleaningDisabled() {
+            return disableInMemoryCleaning;
+        }
+
+        public double getBackupDiskExpansionFactor() {
+            return backupDiskExpansionFactor;
+        }
+
+        public int getCleanerWriteCostThreshold() {
+            return cleanerWriteCostThreshold;
+        }
+
+        public String getCleanerBalancer() {
+            return cleanerBalancer;
+        }
+
+        public int getCleanerThreadCount() {
+            return cleanerThreadCount;
+        }
+
+        /**
+         * Get the number of backup replicas kept of each segment.
+         */
+        public int getNumReplicas() {
+            return numReplicas;
+        }
+
+        public boolean isUseMinCopysets() {
+            return useMinCopysets;
+        }
+
+        public boolean isUseLocalBackup() {
+            return useLocalBackup;
+        }
+    }
+
+    /**
+     * The configuration of the backup service of a server.
+     */
+    public static class Backup {
+        private boolean gc;
+        private boolean inMemory;
+        private int numSegmentFrames;
+        private int maxNonVolatileBuffers;
+        private int maxRecoveryReplicas;
+        private String file = "";
+        private int strategy;
+        private int mockSpeed;
+        private long writeRateLimit;
+
+        public boolean isGc() {
+            return gc;
+        }
+
+        public boolean isInMemory() {
+            return inMemory;
+        }
+
+        public int getNumSegmentFrames() {
+            return numSegmentFrames;
+        }
+
+        public int getMaxNonVolatileBuffers() {
+            return maxNonVolatileBuffers;
+        }
+
+        public int getMaxRecoveryReplicas() {
+            return maxRecoveryReplicas;
+        }
+
+        /**
+         * Get the file replicas are stored in, or "" if none.
+         */
+        public String getFile() {
+            return file;
+        }
+
+        public int getStrategy() {
+            return strategy;
+        }
+
+        public int getMockSpeed() {
+            return mockSpeed;
+        }
+
+        public long getWriteRateLimit() {
+            return writeRateLimit;
+        }
+    }
+
+    private String coordinatorLocator = "";
+    private String localLocator = "";
+    private String clusterName = "";
+    private String services = "";
+    private boolean detectFailures;
+    private boolean pinMemory;
+    private int segmentSize;
+    private int segletSize;
+    private int maxObjectDataSize;
+    private int maxObjectKeySize;
+    private int maxCores;
+    private Master master;
+    private Backup backup;
+
+    private ServerConfig() {
+    }
+
+    /**
+     * Decodes a serialized ServerConfig protocol buffer.
+     *
+     * @param message
+     *      The serialized protocol buffer.
+     * @return The decoded configuration.
+     */
+    public static ServerConfig parse(byte[] message) {
+        ServerConfig out = new ServerConfig();
+        ProtoBufReader reader = new ProtoBufReader(message);
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 1: out.coordinatorLocator = reader.readString(); break;
+                case 2: out.localLocator = reader.readString(); break;
+                case 3: out.clusterName = reader.readString(); break;
+                case 4: out.services = reader.readString(); break;
+                case 5: out.detectFailures = reader.readBoolean(); break;
+                case 6: out.pinMemory = reader.readBoolean(); break;
+                case 7: out.segmentSize = reader.readInt(); break;
+                case 8: out.segletSize = reader.readInt(); break;
+                case 9: out.maxObjectDataSize = reader.readInt(); break;
+                case 10: out.maxObjectKeySize = reader.readInt(); break;
+                case 11: out.maxCores = reader.readInt(); break;
+                case 12: out.master = parseMaster(reader.readMessage()); break;
+                case 13: out.backup = parseBackup(reader.readMessage()); break;
+                default: reader.skip();
+            }
+        }
+        return out;
+    }
+
+    private static Master parseMaster(ProtoBufReader reader) {
+        Master master = new Master();
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 1: master.logBytes = reader.readLong(); break;
+                case 2: master.hashTableBytes = reader.readLong(); break;
+                case 3: master.disableLogCleaner = reader.readBoolean(); break;
+                case 4:
+                    master.disableInMemoryCleaning = reader.readBoolean();
+                    break;
+                case 5:
+                    master.backupDiskExpansionFactor = reader.readDouble();
+                    break;
+                case 6:
+                    master.cleanerWriteCostThreshold = reader.readInt();
+                    break;
+                case 7: master.cleanerBalancer = reader.readString(); break;
+                case 8: master.cleanerThreadCount = reader.readInt(); break;
+                case 9: master.numReplicas = reader.readInt(); break;
+                case 10: master.useMinCopysets = reader.readBoolean(); break;
+                case 11: master.useLocalBackup = reader.readBoolean(); break;
+                default: reader.skip();
+            }
+        }
+        return master;
+    }
+
+    private static Backup parseBackup(ProtoBufReader reader) {
+        Backup backup = new Backup();
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 1: backup.gc = reader.readBoolean(); break;
+                case 2: backup.inMemory = reader.readBoolean(); break;
+                case 3: backup.numSegmentFrames = reader.readInt(); break;
+                case 4: backup.maxNonVolatileBuffers = reader.readInt(); break;
+                case 5: backup.file = reader.readString(); break;
+                case 6: backup.strategy = reader.readInt(); break;
+                case 7: backup.mockSpeed = reader.readInt(); break;
+                case 8: backup.writeRateLimit = reader.readLong(); break;
+                case 20: backup.maxRecoveryReplicas = reader.readInt(); break;
+                default: reader.skip();
+            }
+        }
+        return backup;
+    }
+
+    public String getCoordinatorLocator() {
+        return coordinatorLocator;
+    }
+
+    public String getLocalLocator() {
+        return localLocator;
+    }
+
+    public String getClusterName() {
+        return clusterName;
+    }
+
+    /**
+     * Get the services the server runs, such as "MASTER_SERVICE,
+     * BACKUP_SERVICE".
+     */
+    public String getServices() {
+        return services;
+    }
+
+    public boolean isDetectFailures() {
+        return detectFailures;
+    }
+
+    public boolean isPinMemory() {
+        return pinMemory;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public int getSegletSize() {
+        return segletSize;
+    }
+
+    public int getMaxObjectDataSize() {
+        return maxObjectDataSize;
+    }
+
+    public int getMaxObjectKeySize() {
+        return maxObjectKeySize;
+    }
+
+    public int getMaxCores() {
+        return maxCores;
+    }
+
+    /**
+     * Get the configuration of the master service.
+     *
+     * @return The configuration, or null if the server is not a master.
+     */
+    public Master getMaster() {
+        return master;
+    }
+
+    /**
+     * Get the configuration of the backup service.
+     *
+     * @return The configuration, or null if the server is not a backup.
+     */
+    public Backup getBackup() {
+        return backup;
+    }
+}
@@ -0,0 +1,92 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.server;
+
+/**
+ * Describes a server in the cluster, as listed by the coordinator.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#getMasters()
+ */
+public class ServerInfo {
+    /**
+     * Bits of getServices() for each service a server can run. These match
+     * WireFormat::ServiceType in C++.
+     */
+    public static final int MASTER_SERVICE = 1 << 0;
+    public static final int BACKUP_SERVICE = 1 << 1;
+
+    /**
+     * Values of getStatus(). These match ServerStatus in C++.
+     */
+    public static final int STATUS_UP = 0;
+    public static final int STATUS_CRASHED = 1;
+    public static final int STATUS_REMOVE = 2;
+
+    private final long serverId;
+    private final String serviceLocator;
+    private final int services;
+    private final int status;
+
+    /**
+     * Constructs a new ServerInfo.
+     *
+     * @param serverId
+     *      The ID of the server.
+     * @param serviceLocator
+     *      The service locator of the server.
+     * @param services
+     *      A mask of the services the server runs.
+     * @param status
+     *      The status of the server, such as STATUS_UP.
+     */
+    public ServerInfo(long serverId, String serviceLocator, int services,
+                      int status) {
+        this.serverId = serverId;
+        this.serviceLocator = serviceLocator;
+        this.services = services;
+        this.status = status;
+    }
+
+    public long getServerId() {
+        return serverId;
+    }
+
+    public String getServiceLocator() {
+        return serviceLocator;
+    }
+
+    public int getServices() {
+        return services;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Whether the server is up.
+     */
+    public boolean isUp() {
+        return status == STATUS_UP;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Server[id: %d, locator: %s, services: %d, "
+                             + "status: %d]", serverId, serviceLocator,
+                             services, status);
+    }
+}
@@ -0,0 +1,88 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.server;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The raw metrics of a server (RawMetrics in C++), as returned by
+ * RamCloud::getMetrics. Metrics are named like "master.readCount" and are
+ * counters unless their name says otherwise.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#getMetrics(String)
+ */
+public class ServerMetrics {
+    private final Map<String, Long> metrics;
+
+    /**
+     * Constructs a new ServerMetrics.
+     *
+     * @param metrics
+     *      The value of each metric, by name.
+     */
+    public ServerMetrics(Map<String, Long> metrics) {
+        this.metrics = Collections.unmodifiableMap(new TreeMap<>(metrics));
+    }
+
+    /**
+     * Get the value of a metric.
+     *
+     * @param name
+     *      The name of the metric, such as "master.readCount".
+     * @return The value of the metric, or 0 if the server has no such metric.
+     */
+    public long get(String name) {
+        Long value = metrics.get(name);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * Get all metrics, sorted by name.
+     */
+    public Map<String, Long> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the change of each metric since an earlier reading, like
+     * ServerMetrics::difference in C++. Metrics missing from the earlier
+     * reading are taken to have been 0.
+     *
+     * @param earlier
+     *      An earlier reading from the same server.
+     * @return The differences.
+     */
+    public ServerMetrics difference(ServerMetrics earlier) {
+        TreeMap<String, Long> out = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : metrics.entrySet()) {
+            out.put(entry.getKey(),
+                    entry.getValue() - earlier.get(entry.getKey()));
+        }
+        return new ServerMetrics(out);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Long> entry : metrics.entrySet()) {
+            out.append(entry.getKey()).append(": ").append(entry.getValue())
+                    .append('\n');
+        }
+        return out.toString();
+    }
+}
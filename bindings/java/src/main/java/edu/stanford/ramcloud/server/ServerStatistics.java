@@ -0,0 +1,168 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The statistics of a server, decoded from the ServerStatistics protocol
+ * buffer: the number of reads and writes on each of its tablets, and the
+ * contention on its spin locks.
+ *
+ * @see edu.stanford.ramcloud.RAMCloud#getServerStatistics(String)
+ */
+public class ServerStatistics {
+    /**
+     * The activity on one tablet.
+     */
+    public static class TabletStatistics {
+        private long tableId;
+        private long startKeyHash;
+        private long endKeyHash;
+        private long readsAndWrites;
+
+        public long getTableId() {
+            return tableId;
+        }
+
+        public long getStartKeyHash() {
+            return startKeyHash;
+        }
+
+        public long getEndKeyHash() {
+            return endKeyHash;
+        }
+
+        /**
+         * Get the number of reads and writes of objects in this tablet.
+         */
+        public long getReadsAndWrites() {
+            return readsAndWrites;
+        }
+    }
+
+    /**
+     * The contention on one spin lock.
+     */
+    public static class LockStatistics {
+        private String name = "";
+        private long acquisitions;
+        private long contendedAcquisitions;
+        private long contendedNanos;
+
+        public String getName() {
+            return name;
+        }
+
+        public long getAcquisitions() {
+            return acquisitions;
+        }
+
+        public long getContendedAcquisitions() {
+            return contendedAcquisitions;
+        }
+
+        /**
+         * Get the total time spent waiting for the lock.
+         */
+        public long getContendedNanos() {
+            return contendedNanos;
+        }
+    }
+
+    private final List<TabletStatistics> tablets = new ArrayList<>();
+    private final List<LockStatistics> locks = new ArrayList<>();
+
+    private ServerStatistics() {
+    }
+
+    /**
+     * Decodes a serialized ServerStatistics protocol buffer.
+     *
+     * @param message
+     *      The serialized protocol buffer.
+     * @return The decoded statistics.
+     */
+    public static ServerStatistics parse(byte[] message) {
+        ServerStatistics out = new ServerStatistics();
+        ProtoBufReader reader = new ProtoBufReader(message);
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 1:
+                    out.tablets.add(parseTablet(reader.readMessage()));
+                    break;
+                case 2:
+                    ProtoBufReader spinLockStats = reader.readMessage();
+                    while (spinLockStats.next()) {
+                        if (spinLockStats.getFieldNumber() == 1) {
+                            out.locks.add(
+                                    parseLock(spinLockStats.readMessage()));
+                        } else {
+                            spinLockStats.skip();
+                        }
+                    }
+                    break;
+                default:
+                    reader.skip();
+            }
+        }
+        return out;
+    }
+
+    private static TabletStatistics parseTablet(ProtoBufReader reader) {
+        TabletStatistics tablet = new TabletStatistics();
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 1: tablet.tableId = reader.readLong(); break;
+                case 2: tablet.startKeyHash = reader.readLong(); break;
+                case 3: tablet.endKeyHash = reader.readLong(); break;
+                case 4: tablet.readsAndWrites = reader.readLong(); break;
+                default: reader.skip();
+            }
+        }
+        return tablet;
+    }
+
+    private static LockStatistics parseLock(ProtoBufReader reader) {
+        LockStatistics lock = new LockStatistics();
+        while (reader.next()) {
+            switch (reader.getFieldNumber()) {
+                case 1: lock.name = reader.readString(); break;
+                case 2: lock.acquisitions = reader.readLong(); break;
+                case 3: lock.contendedAcquisitions = reader.readLong(); break;
+                case 4: lock.contendedNanos = reader.readLong(); break;
+                default: reader.skip();
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Get the statistics of each tablet owned by the server.
+     */
+    public List<TabletStatistics> getTablets() {
+        return Collections.unmodifiableList(tablets);
+    }
+
+    /**
+     * Get the statistics of each spin lock in the server.
+     */
+    public List<LockStatistics> getLocks() {
+        return Collections.unmodifiableList(locks);
+    }
+}
@@ -0,0 +1,225 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.stream;
+
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.multiop.*;
+import static edu.stanford.ramcloud.ClientException.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Describes a large object: a value too big for a single RAMCloud object,
+ * stored as a manifest object plus a number of chunk objects in the same
+ * table.
+ *
+ * The manifest is stored under the object's own key. Its value is, in little
+ * endian order:
+ *      4 bytes holding MAGIC
+ *      8 bytes for the total length of the value
+ *      4 bytes for the size of each chunk (the last may be shorter)
+ *      8 bytes for the generation of the chunks
+ *
+ * Chunk i is stored under the key formed by appending a 0 byte, the 8 byte
+ * generation and the 4 byte index i (both little endian) to the object's key.
+ * A writer always stores its chunks under a fresh generation and writes the
+ * manifest last, so readers never see a mix of old and new chunks.
+ */
+public class LargeObject {
+    /**
+     * Marks an object value as a large object manifest.
+     */
+    static final int MAGIC = 0x424f4c52;
+
+    /**
+     * The size in bytes of an encoded manifest.
+     */
+    static final int MANIFEST_SIZE = 24;
+
+    /**
+     * The number of bytes appended to the object's key to form a chunk key.
+     */
+    static final int CHUNK_KEY_SUFFIX = 13;
+
+    private long tableId;
+    private byte[] key;
+    private long length;
+    private int chunkSize;
+    private long generation;
+
+    LargeObject(long tableId, byte[] key, long length, int chunkSize,
+                long generation) {
+        this.tableId = tableId;
+        this.key = key;
+        this.length = length;
+        this.chunkSize = chunkSize;
+        this.generation = generation;
+    }
+
+    /**
+     * Reads the manifest of a large object.
+     *
+     * @param ramcloud
+     *      The cluster holding the object.
+     * @param tableId
+     *      The table containing the object.
+     * @param key
+     *      The key of the object.
+     * @return The large object's description, or null if there is no object
+     *      with the given key.
+     * @throws IllegalArgumentException
+     *      If the object exists but is not a large object manifest.
+     */
+    public static LargeObject find(RAMCloud ramcloud, long tableId,
+                                   byte[] key) {
+        RAMCloudObject manifest;
+        try {
+            manifest = ramcloud.read(tableId, key);
+        } catch (ObjectDoesntExistException ex) {
+            return null;
+        }
+        LargeObject object = parse(tableId, key, manifest.getValueBytes());
+        if (object == null) {
+            throw new IllegalArgumentException(
+                    "Object is not a large object manifest");
+        }
+        return object;
+    }
+
+    /**
+     * Decodes a manifest.
+     *
+     * @param value
+     *      The value of the object stored under the key.
+     * @return The large object's description, or null if the value is not a
+     *      large object manifest.
+     */
+    static LargeObject parse(long tableId, byte[] key, byte[] value) {
+        ByteBuffer manifest = ByteBuffer.wrap(value)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        if (manifest.remaining() != MANIFEST_SIZE
+                || manifest.getInt() != MAGIC) {
+            return null;
+        }
+        return new LargeObject(tableId, key, manifest.getLong(),
+                               manifest.getInt(), manifest.getLong());
+    }
+
+    /**
+     * Deletes a large object along with all of its chunks. Does nothing if
+     * the object does not exist.
+     *
+     * @param ramcloud
+     *      The cluster holding the object.
+     * @param tableId
+     *      The table containing the object.
+     * @param key
+     *      The key of the object.
+     */
+    public static void remove(RAMCloud ramcloud, long tableId, byte[] key) {
+        LargeObject object = find(ramcloud, tableId, key);
+        if (object != null) {
+            ramcloud.remove(tableId, key);
+            object.removeChunks(ramcloud);
+        }
+    }
+
+    /**
+     * Encodes this object's manifest.
+     *
+     * @return The value to store under the object's key.
+     */
+    byte[] getManifestBytes() {
+        byte[] out = new byte[MANIFEST_SIZE];
+        ByteBuffer.wrap(out)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC)
+                .putLong(length)
+                .putInt(chunkSize)
+                .putLong(generation);
+        return out;
+    }
+
+    /**
+     * Returns the key under which a chunk of this object is stored.
+     *
+     * @param index
+     *      The index of the chunk.
+     * @return The key of the chunk.
+     */
+    byte[] getChunkKey(int index) {
+        byte[] out = new byte[key.length + CHUNK_KEY_SUFFIX];
+        ByteBuffer.wrap(out)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put(key)
+                .put((byte) 0)
+                .putLong(generation)
+                .putInt(index);
+        return out;
+    }
+
+    /**
+     * Removes the chunks of this object, leaving the manifest untouched.
+     */
+    void removeChunks(RAMCloud ramcloud) {
+        MultiRemoveObject[] removes = new MultiRemoveObject[getNumChunks()];
+        for (int i = 0; i < removes.length; i++) {
+            removes[i] = new MultiRemoveObject(tableId, getChunkKey(i));
+        }
+        ramcloud.remove(removes);
+    }
+
+    public long getTableId() {
+        return tableId;
+    }
+
+    public byte[] getKeyBytes() {
+        return key;
+    }
+
+    /**
+     * Get the total length of the object's value.
+     *
+     * @return The length of the value in bytes.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Get the size of each chunk of the object. Only the last chunk may be
+     * shorter than this.
+     *
+     * @return The chunk size in bytes.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Get the number of chunks the object's value is split over.
+     *
+     * @return The number of chunks.
+     */
+    public int getNumChunks() {
+        return (int) ((length + chunkSize - 1) / chunkSize);
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+}
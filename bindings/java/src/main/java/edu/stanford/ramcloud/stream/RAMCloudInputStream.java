@@ -0,0 +1,190 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.stream;
+
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.multiop.*;
+import static edu.stanford.ramcloud.ClientException.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An InputStream that reads the value of a large object (see LargeObject).
+ * Chunks are fetched ahead of the reader in batches through multiRead, so
+ * the chunks of a batch are read in parallel.
+ *
+ * Note: This class is not thread safe (neither is RAMCloud)
+ */
+public class RAMCloudInputStream extends InputStream {
+    private RAMCloud ramcloud;
+
+    /**
+     * Describes the object being read, as of when the stream was opened.
+     */
+    private LargeObject object;
+
+    /**
+     * The number of chunks to fetch with a single multiRead.
+     */
+    private int chunksPerBatch;
+
+    /**
+     * The most recently fetched batch of chunks, and the index of its first
+     * chunk.
+     */
+    private byte[][] window = new byte[0][];
+    private int windowStart;
+
+    /**
+     * The offset in the value of the next byte to be returned.
+     */
+    private long position;
+
+    /**
+     * Opens a stream over the value of a large object.
+     *
+     * @param ramcloud
+     *      The cluster holding the object.
+     * @param tableId
+     *      The table containing the object.
+     * @param key
+     *      The key of the object.
+     * @throws ObjectDoesntExistException
+     *      If there is no object with the given key.
+     */
+    public RAMCloudInputStream(RAMCloud ramcloud, long tableId, byte[] key) {
+        this.ramcloud = ramcloud;
+        this.object = LargeObject.find(ramcloud, tableId, key);
+        if (object == null) {
+            throw new ObjectDoesntExistException();
+        }
+        int chunkResponseSize = object.getChunkSize() + 16;
+        this.chunksPerBatch = Math.max(
+                1, ramcloud.getBufferCapacity() / chunkResponseSize);
+    }
+
+    /**
+     * Get the total length of the value being read.
+     *
+     * @return The length of the value in bytes.
+     */
+    public long getLength() {
+        return object.getLength();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position >= object.getLength()) {
+            return -1;
+        }
+        byte[] chunk = currentChunk();
+        int offset = (int) (position % object.getChunkSize());
+        position++;
+        return chunk[offset] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= object.getLength()) {
+            return -1;
+        }
+        int read = 0;
+        while (read < len && position < object.getLength()) {
+            byte[] chunk = currentChunk();
+            int offset = (int) (position % object.getChunkSize());
+            int n = Math.min(len - read, chunk.length - offset);
+            System.arraycopy(chunk, offset, b, off + read, n);
+            read += n;
+            position += n;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, object.getLength() - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        int index = (int) (position / object.getChunkSize());
+        if (position >= object.getLength() || index < windowStart
+                || index >= windowStart + window.length) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE,
+                (long) (windowStart + window.length - index)
+                * object.getChunkSize()
+                - position % object.getChunkSize());
+    }
+
+    /**
+     * Returns the chunk holding the byte at the current position, fetching
+     * the next batch of chunks if needed.
+     */
+    private byte[] currentChunk() throws IOException {
+        int index = (int) (position / object.getChunkSize());
+        if (index < windowStart || index >= windowStart + window.length) {
+            fetch(index);
+        }
+        return window[index - windowStart];
+    }
+
+    /**
+     * Reads a batch of chunks with a single multiRead.
+     *
+     * @param start
+     *      The index of the first chunk to read.
+     */
+    private void fetch(int start) throws IOException {
+        int count = Math.min(chunksPerBatch, object.getNumChunks() - start);
+        MultiReadObject[] reads = new MultiReadObject[count];
+        for (int i = 0; i < count; i++) {
+            reads[i] = new MultiReadObject(object.getTableId(),
+                                           object.getChunkKey(start + i));
+        }
+        ramcloud.read(reads);
+
+        byte[][] chunks = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            Status status = reads[i].getStatus();
+            if (status == Status.STATUS_OBJECT_DOESNT_EXIST) {
+                throw new IOException(
+                        "Large object was replaced while being read");
+            }
+            ClientException.checkStatus(status.ordinal());
+            chunks[i] = reads[i].getValueBytes();
+            long expected = Math.min(object.getChunkSize(),
+                    object.getLength() - (long) (start + i)
+                    * object.getChunkSize());
+            if (chunks[i].length != expected) {
+                throw new IOException("Large object chunk " + (start + i)
+                                      + " has the wrong length");
+            }
+        }
+        window = chunks;
+        windowStart = start;
+    }
+}
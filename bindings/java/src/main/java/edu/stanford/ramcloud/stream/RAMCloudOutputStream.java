@@ -0,0 +1,257 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.stream;
+
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.multiop.*;
+import static edu.stanford.ramcloud.ClientException.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An OutputStream that stores a value of any size as a large object (see
+ * LargeObject). The value is split into fixed size chunks, which are written
+ * in batches through multiWrite; the manifest is written when the stream is
+ * closed, at which point the new value replaces any previous one. The
+ * manifest is replaced conditionally on the version that was read, so when
+ * several streams write the same object, the last one closed wins and the
+ * chunks of every value it replaced are removed exactly once.
+ *
+ * If the stream is never closed, or writing fails, the object keeps its
+ * previous value and the chunks already written are left behind.
+ *
+ * Note: This class is not thread safe (neither is RAMCloud)
+ */
+public class RAMCloudOutputStream extends OutputStream {
+    /**
+     * Chunk size used when none is given. Servers with the default segment
+     * size accept objects up to four times this size.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 512 * 1024;
+
+    private RAMCloud ramcloud;
+    private long tableId;
+    private byte[] key;
+    private int chunkSize;
+
+    /**
+     * Describes the chunks being written; its length is only filled in when
+     * the stream is closed.
+     */
+    private LargeObject chunks;
+
+    /**
+     * The number of full chunks to accumulate before writing them with a
+     * single multiWrite.
+     */
+    private int chunksPerBatch;
+
+    /**
+     * The chunk currently being filled, and how many bytes of it are used.
+     */
+    private byte[] chunk;
+    private int chunkLength;
+
+    /**
+     * Chunks that are complete but not yet written to RAMCloud.
+     */
+    private List<MultiWriteObject> pending = new ArrayList<>();
+
+    /**
+     * The number of chunks completed so far.
+     */
+    private int numChunks;
+
+    /**
+     * The total number of bytes written to the stream so far.
+     */
+    private long length;
+
+    private boolean closed;
+
+    /**
+     * Opens a stream that will replace the value of the given object.
+     *
+     * @param ramcloud
+     *      The cluster to store the object in.
+     * @param tableId
+     *      The table to store the object in.
+     * @param key
+     *      The key of the object.
+     * @param chunkSize
+     *      The size in bytes of each chunk. Must be no larger than the largest
+     *      object the servers accept, and must fit in the RAMCloud object's
+     *      shared buffer.
+     */
+    public RAMCloudOutputStream(RAMCloud ramcloud, long tableId, byte[] key,
+                                int chunkSize) {
+        int chunkRequestSize = chunkSize + key.length
+                + LargeObject.CHUNK_KEY_SUFFIX + 64;
+        if (chunkSize <= 0 || chunkRequestSize > ramcloud.getBufferCapacity()) {
+            throw new IllegalArgumentException(
+                    "chunkSize must be positive and fit in the shared buffer");
+        }
+        this.ramcloud = ramcloud;
+        this.tableId = tableId;
+        this.key = key;
+        this.chunkSize = chunkSize;
+        this.chunksPerBatch = ramcloud.getBufferCapacity() / chunkRequestSize;
+        this.chunks = new LargeObject(tableId, key, 0, chunkSize,
+                                      ThreadLocalRandom.current().nextLong());
+        this.chunk = new byte[chunkSize];
+    }
+
+    /**
+     * Opens a stream with the default chunk size.
+     *
+     * @see #RAMCloudOutputStream(edu.stanford.ramcloud.RAMCloud, long, byte[], int)
+     */
+    public RAMCloudOutputStream(RAMCloud ramcloud, long tableId, byte[] key) {
+        this(ramcloud, tableId, key, DEFAULT_CHUNK_SIZE);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        chunk[chunkLength++] = (byte) b;
+        length++;
+        if (chunkLength == chunkSize) {
+            finishChunk();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            int n = Math.min(len, chunkSize - chunkLength);
+            System.arraycopy(b, off, chunk, chunkLength, n);
+            chunkLength += n;
+            length += n;
+            off += n;
+            len -= n;
+            if (chunkLength == chunkSize) {
+                finishChunk();
+            }
+        }
+    }
+
+    /**
+     * Writes any complete chunks that have not been written yet. A partially
+     * filled chunk is kept until it is full or the stream is closed, and the
+     * new value does not become visible until the stream is closed.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writePending();
+    }
+
+    /**
+     * Writes the remaining chunks and the manifest, making the new value
+     * visible, and then removes the chunks of the previous value. If another
+     * writer replaces the object between reading the previous manifest and
+     * writing the new one, the write is retried against the newer value.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (chunkLength > 0) {
+            finishChunk();
+        }
+        writePending();
+        closed = true;
+
+        LargeObject object = new LargeObject(tableId, key, length, chunkSize,
+                                             chunks.getGeneration());
+        byte[] manifest = object.getManifestBytes();
+        LargeObject previous;
+        while (true) {
+            RejectRules rules = new RejectRules();
+            try {
+                RAMCloudObject current = ramcloud.read(tableId, key);
+                // If the key held a plain object, it is simply overwritten.
+                previous = LargeObject.parse(tableId, key,
+                                             current.getValueBytes());
+                rules.setGivenVersion(current.getVersion());
+                rules.rejectIfVersionNeGiven(true);
+                rules.rejectIfDoesntExist(true);
+            } catch (ObjectDoesntExistException ex) {
+                previous = null;
+                rules.rejectIfExists(true);
+            }
+            try {
+                ramcloud.write(tableId, key, manifest, rules);
+                break;
+            } catch (RejectRulesException ex) {
+                // Another writer got there first; replace its value instead.
+            }
+        }
+        if (previous != null
+                && previous.getGeneration() != object.getGeneration()) {
+            previous.removeChunks(ramcloud);
+        }
+    }
+
+    /**
+     * Queues the current chunk for writing, and writes the queued chunks if
+     * there are enough of them to fill a batch.
+     */
+    private void finishChunk() {
+        byte[] value = chunkLength == chunkSize
+                ? chunk : Arrays.copyOf(chunk, chunkLength);
+        pending.add(new MultiWriteObject(tableId,
+                                         chunks.getChunkKey(numChunks++),
+                                         value));
+        chunk = new byte[chunkSize];
+        chunkLength = 0;
+        if (pending.size() >= chunksPerBatch) {
+            writePending();
+        }
+    }
+
+    /**
+     * Writes all queued chunks with a single multiWrite.
+     */
+    private void writePending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        MultiWriteObject[] writes =
+                pending.toArray(new MultiWriteObject[pending.size()]);
+        pending.clear();
+        ramcloud.write(writes);
+        for (MultiWriteObject write : writes) {
+            ClientException.checkStatus(write.getStatus().ordinal());
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
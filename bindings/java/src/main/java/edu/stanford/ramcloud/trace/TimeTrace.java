@@ -0,0 +1,314 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.trace;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IllegalFormatException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The Java counterpart of the C++ TimeTrace: records events in per-thread
+ * circular buffers so they can be printed later, for example to find out
+ * where the time of a slow call went. Recording an event only stores its
+ * time, its format string and up to four integer arguments; formatting is
+ * deferred until the trace is read.
+ *
+ * Events recorded while a trace is being read may be missing from it. The
+ * events of a thread that has exited are kept until another thread records
+ * its first event.
+ * Events recorded here can be merged with those of the C++ TimeTrace with
+ * edu.stanford.ramcloud.RAMCloud.getTimeTrace.
+ */
+public final class TimeTrace {
+    /**
+     * The buffers of the threads that have recorded events. Buffers of
+     * threads that have exited are removed when a new buffer is added.
+     */
+    private static final List<Buffer> threadBuffers = new ArrayList<>();
+
+    private static final ThreadLocal<Buffer> threadBuffer =
+            ThreadLocal.withInitial(() -> {
+                Buffer buffer = new Buffer();
+                synchronized (threadBuffers) {
+                    Iterator<Buffer> it = threadBuffers.iterator();
+                    while (it.hasNext()) {
+                        Thread owner = it.next().owner.get();
+                        if (owner == null || !owner.isAlive()) {
+                            it.remove();
+                        }
+                    }
+                    threadBuffers.add(buffer);
+                }
+                return buffer;
+            });
+
+    private TimeTrace() {
+    }
+
+    /**
+     * Records an event in the buffer of the calling thread, with the current
+     * time.
+     *
+     * @param format
+     *      A java.util.Formatter format string describing the event, which
+     *      may refer to the arguments. It should be a constant, since it is
+     *      kept in the buffer.
+     */
+    public static void record(String format) {
+        threadBuffer.get().record(System.nanoTime(), format, 0, 0, 0, 0);
+    }
+
+    /**
+     * @see #record(String)
+     */
+    public static void record(String format, int arg0) {
+        threadBuffer.get().record(System.nanoTime(), format, arg0, 0, 0, 0);
+    }
+
+    /**
+     * @see #record(String)
+     */
+    public static void record(String format, int arg0, int arg1) {
+        threadBuffer.get().record(System.nanoTime(), format, arg0, arg1, 0, 0);
+    }
+
+    /**
+     * @see #record(String)
+     */
+    public static void record(String format, int arg0, int arg1, int arg2) {
+        threadBuffer.get().record(System.nanoTime(), format, arg0, arg1, arg2,
+                                  0);
+    }
+
+    /**
+     * @see #record(String)
+     */
+    public static void record(String format, int arg0, int arg1, int arg2,
+                              int arg3) {
+        threadBuffer.get().record(System.nanoTime(), format, arg0, arg1, arg2,
+                                  arg3);
+    }
+
+    /**
+     * Records an event that happened at the given time.
+     *
+     * @param nanos
+     *      The time of the event, on the System.nanoTime() clock.
+     * @see #record(String)
+     */
+    public static void record(long nanos, String format, int arg0, int arg1,
+                              int arg2, int arg3) {
+        threadBuffer.get().record(nanos, format, arg0, arg1, arg2, arg3);
+    }
+
+    /**
+     * Get the events recorded by all threads.
+     *
+     * @return The events, oldest first. As in the C++ TimeTrace, the
+     *      trace starts at the latest of the oldest events of the threads,
+     *      so no thread's events are missing from the part returned.
+     */
+    public static List<TraceEvent> getEvents() {
+        List<Buffer> buffers;
+        synchronized (threadBuffers) {
+            buffers = new ArrayList<>(threadBuffers);
+        }
+        return getEvents(buffers);
+    }
+
+    /**
+     * Discards all of the events recorded so far.
+     */
+    public static void reset() {
+        synchronized (threadBuffers) {
+            for (Buffer buffer : threadBuffers) {
+                buffer.reset();
+            }
+        }
+    }
+
+    /**
+     * Returns the events of the given buffers, merged in time order.
+     */
+    static List<TraceEvent> getEvents(List<Buffer> buffers) {
+        long start = Long.MIN_VALUE;
+        List<TraceEvent> events = new ArrayList<>();
+        for (Buffer buffer : buffers) {
+            List<TraceEvent> bufferEvents = buffer.getEvents();
+            if (!bufferEvents.isEmpty()) {
+                start = Math.max(start, bufferEvents.get(0).getNanos());
+            }
+            events.addAll(bufferEvents);
+        }
+        List<TraceEvent> out = new ArrayList<>(events.size());
+        for (TraceEvent event : events) {
+            if (event.getNanos() >= start) {
+                out.add(event);
+            }
+        }
+        Collections.sort(out, Comparator.comparingLong(TraceEvent::getNanos));
+        return out;
+    }
+
+    /**
+     * Converts a time in cycles of the C++ Cycles::rdtsc clock to the
+     * System.nanoTime() clock, given one moment at which both clocks were
+     * read. The error of the conversion is the time between those two
+     * reads, which for a JNI call is well under a microsecond.
+     *
+     * @param cycles
+     *      The time to convert, in cycles.
+     * @param referenceCycles
+     *      A time in cycles.
+     * @param referenceNanos
+     *      The System.nanoTime() at referenceCycles.
+     * @param cyclesPerSecond
+     *      The rate of the cycle counter, from Cycles::perSecond().
+     * @return The time on the System.nanoTime() clock.
+     */
+    public static long cyclesToNanoTime(long cycles, long referenceCycles,
+                                        long referenceNanos,
+                                        double cyclesPerSecond) {
+        return referenceNanos
+                + Math.round((cycles - referenceCycles) * 1e9 / cyclesPerSecond);
+    }
+
+    /**
+     * A circular buffer of the events of one thread. Only the owning thread
+     * records events into a Buffer. The buffer starts small and doubles as
+     * events are recorded, up to BUFFER_SIZE events, so threads that record
+     * few events use little memory.
+     */
+    static class Buffer {
+        /**
+         * The number of events a buffer holds. Older events are overwritten.
+         */
+        static final int BUFFER_SIZE = 1 << 14;
+
+        /**
+         * The number of events a new buffer has room for.
+         */
+        static final int INITIAL_SIZE = 1 << 8;
+
+        /**
+         * The thread that records events into this buffer.
+         */
+        final WeakReference<Thread> owner =
+                new WeakReference<>(Thread.currentThread());
+
+        /**
+         * The arrays holding the events. They are replaced as a whole when
+         * the buffer grows, so readers see arrays of the same length.
+         */
+        private volatile Slots slots = new Slots(INITIAL_SIZE);
+
+        /**
+         * The index of the slot the next event is recorded in.
+         */
+        private int nextIndex;
+
+        void record(long nanos, String format, int arg0, int arg1, int arg2,
+                    int arg3) {
+            Slots slots = this.slots;
+            int index = nextIndex;
+            if (index == slots.formats.length) {
+                slots = slots.grow();
+                this.slots = slots;
+            }
+            slots.timestamps[index] = nanos;
+            slots.args[4 * index] = arg0;
+            slots.args[4 * index + 1] = arg1;
+            slots.args[4 * index + 2] = arg2;
+            slots.args[4 * index + 3] = arg3;
+            slots.formats[index] = format;
+            nextIndex = (index + 1) & (BUFFER_SIZE - 1);
+        }
+
+        /**
+         * Returns the events of this buffer, oldest first.
+         */
+        List<TraceEvent> getEvents() {
+            Slots slots = this.slots;
+            int mask = slots.formats.length - 1;
+            int end = nextIndex & mask;
+            // If the buffer has wrapped, or is full and about to grow, the
+            // oldest event is the one that will be overwritten next.
+            int index = slots.formats[end] != null ? end : 0;
+            List<TraceEvent> events = new ArrayList<>();
+            do {
+                String format = slots.formats[index];
+                if (format == null) {
+                    break;
+                }
+                events.add(new TraceEvent(slots.timestamps[index],
+                        TraceEvent.Source.JAVA, slots.format(format, index)));
+                index = (index + 1) & mask;
+            } while (index != end);
+            return events;
+        }
+
+        void reset() {
+            Arrays.fill(slots.formats, null);
+            nextIndex = 0;
+        }
+    }
+
+    /**
+     * The storage for the events of a Buffer.
+     */
+    private static class Slots {
+        final long[] timestamps;
+        final String[] formats;
+        final int[] args;
+
+        Slots(int size) {
+            timestamps = new long[size];
+            formats = new String[size];
+            args = new int[4 * size];
+        }
+
+        private Slots(long[] timestamps, String[] formats, int[] args) {
+            this.timestamps = timestamps;
+            this.formats = formats;
+            this.args = args;
+        }
+
+        /**
+         * Returns a copy of these slots with twice the room.
+         */
+        Slots grow() {
+            int size = 2 * formats.length;
+            return new Slots(Arrays.copyOf(timestamps, size),
+                             Arrays.copyOf(formats, size),
+                             Arrays.copyOf(args, 4 * size));
+        }
+
+        String format(String format, int index) {
+            try {
+                return String.format(format, args[4 * index],
+                        args[4 * index + 1], args[4 * index + 2],
+                        args[4 * index + 3]);
+            } catch (IllegalFormatException e) {
+                return format;
+            }
+        }
+    }
+}
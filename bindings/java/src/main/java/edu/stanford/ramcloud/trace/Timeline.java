@@ -0,0 +1,98 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single time-ordered list of the events of several traces, typically the
+ * Java trace and the C++ trace of the same process (see
+ * edu.stanford.ramcloud.RAMCloud.getTimeTrace).
+ */
+public class Timeline {
+    private final List<TraceEvent> events;
+
+    /**
+     * Merges two traces into one timeline. As in the C++ TimeTrace, the
+     * timeline starts at the latest of the oldest events of the traces, so
+     * that a trace going further back than the other does not make it look
+     * as if nothing happened on the other side.
+     *
+     * @param first
+     *      The events of one trace, in time order.
+     * @param second
+     *      The events of the other trace, in time order.
+     */
+    public Timeline(List<TraceEvent> first, List<TraceEvent> second) {
+        long start = Long.MIN_VALUE;
+        if (!first.isEmpty()) {
+            start = first.get(0).getNanos();
+        }
+        if (!second.isEmpty()) {
+            start = Math.max(start, second.get(0).getNanos());
+        }
+        events = new ArrayList<>(first.size() + second.size());
+        int i = 0;
+        int j = 0;
+        while (i < first.size() || j < second.size()) {
+            TraceEvent event;
+            if (j == second.size() || (i < first.size()
+                    && first.get(i).getNanos() <= second.get(j).getNanos())) {
+                event = first.get(i++);
+            } else {
+                event = second.get(j++);
+            }
+            if (event.getNanos() >= start) {
+                events.add(event);
+            }
+        }
+    }
+
+    /**
+     * Get the events of this timeline.
+     *
+     * @return The events, oldest first.
+     */
+    public List<TraceEvent> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Formats the timeline like the C++ TimeTrace.getTrace, with the time of
+     * each event relative to the first and to the previous event, and where
+     * it was recorded.
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        long start = events.isEmpty() ? 0 : events.get(0).getNanos();
+        long previous = start;
+        for (TraceEvent event : events) {
+            if (out.length() != 0) {
+                out.append('\n');
+            }
+            out.append(String.format("%8.1f ns (+%6.1f ns): [%s] %s",
+                    (double) (event.getNanos() - start),
+                    (double) (event.getNanos() - previous),
+                    event.getSource() == TraceEvent.Source.JAVA ? "java" : "c++",
+                    event.getMessage()));
+            previous = event.getNanos();
+        }
+        return out.toString();
+    }
+}
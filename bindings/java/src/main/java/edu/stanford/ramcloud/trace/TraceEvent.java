@@ -0,0 +1,74 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.trace;
+
+/**
+ * One event of a time trace, recorded either by Java (see TimeTrace) or by
+ * the C++ TimeTrace in the same process.
+ */
+public class TraceEvent {
+    /**
+     * Where an event was recorded.
+     */
+    public enum Source {
+        JAVA, NATIVE
+    }
+
+    private final long nanos;
+    private final Source source;
+    private final String message;
+
+    /**
+     * Constructs a TraceEvent.
+     *
+     * @param nanos
+     *      The time of the event, on the System.nanoTime() clock.
+     * @param source
+     *      Where the event was recorded.
+     * @param message
+     *      A description of the event.
+     */
+    public TraceEvent(long nanos, Source source, String message) {
+        this.nanos = nanos;
+        this.source = source;
+        this.message = message;
+    }
+
+    /**
+     * Get the time of this event.
+     *
+     * @return The time of the event, on the System.nanoTime() clock. Events
+     *      recorded by C++ are converted from cycles, so their times are only
+     *      as precise as the calibration described in
+     *      TimeTrace.cyclesToNanoTime.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return nanos + " [" + source + "] " + message;
+    }
+}
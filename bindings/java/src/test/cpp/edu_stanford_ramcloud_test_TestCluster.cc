@@ -55,6 +55,45 @@ JNIEXPORT void JNICALL Java_edu_stanford_ramcloud_test_TestCluster_createMockClu
     env->ReleasePrimitiveArrayCritical(pointers, reinterpret_cast<void*>(pointerPointer), 0);
 }
 
+/**
+ * Creates a mock cluster with one master whose log cleaner is enabled, for
+ * running benchmarks that write far more data than fits in the log.
+ *
+ * \param env
+ *      The current JNI environment.
+ * \param clazz
+ *      The calling Java class.
+ * \param pointers
+ *      A java long array to store the resulting pointers of the
+ *      RAMCloud and cluster objects.
+ * \param logMegabytes
+ *      The size of the master's log.
+ * \param maxObjectDataSize
+ *      The largest value the master accepts, in bytes.
+ */
+JNIEXPORT void JNICALL Java_edu_stanford_ramcloud_test_TestCluster_createBenchmarkCluster
+(JNIEnv *env, jclass clazz, jlongArray pointers, jint logMegabytes,
+        jint maxObjectDataSize) {
+    Logger::get().setLogLevels(1);
+
+    Context* context = new Context();
+    MockCluster* cluster = new MockCluster(context);
+    ServerConfig config = ServerConfig::forTesting();
+    config.services = {WireFormat::MASTER_SERVICE,
+                       WireFormat::PING_SERVICE};
+    config.localLocator = "mock:host=master1";
+    config.maxObjectDataSize = maxObjectDataSize;
+    config.master.logBytes = static_cast<uint64_t>(logMegabytes) * 1024 * 1024;
+    config.master.disableLogCleaner = false;
+    cluster->addServer(config);
+    RamCloud* ramcloud = new RamCloud(context, "mock:host=coordinator");
+
+    uint64_t* pointerPointer = static_cast<uint64_t*>(env->GetPrimitiveArrayCritical(pointers, 0));
+    pointerPointer[0] = reinterpret_cast<uint64_t>(cluster);
+    pointerPointer[1] = reinterpret_cast<uint64_t>(ramcloud);
+    env->ReleasePrimitiveArrayCritical(pointers, reinterpret_cast<void*>(pointerPointer), 0);
+}
+
 /**
  * Deletes a mock cluster and RAMCloud object.
  *
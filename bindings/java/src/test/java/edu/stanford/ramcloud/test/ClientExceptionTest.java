@@ -0,0 +1,80 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.*;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for ClientException class.
+ */
+public class ClientExceptionTest {
+    private static ClientException check(Status status) {
+        try {
+            ClientException.checkStatus(status.ordinal());
+        } catch (ClientException e) {
+            return e;
+        }
+        return null;
+    }
+
+    @Test
+    public void checkStatus_ok() {
+        assertNull(check(Status.STATUS_OK));
+    }
+
+    @Test
+    public void checkStatus_rejectRulesShared() {
+        ClientException first = check(Status.STATUS_WRONG_VERSION);
+        assertTrue(first instanceof ClientException.WrongVersionException);
+        assertSame(first, check(Status.STATUS_WRONG_VERSION));
+        assertEquals(0, first.getStackTrace().length);
+        assertTrue(check(Status.STATUS_OBJECT_DOESNT_EXIST)
+                instanceof ClientException.ObjectDoesntExistException);
+        assertTrue(check(Status.STATUS_OBJECT_EXISTS)
+                instanceof ClientException.ObjectExistsException);
+    }
+
+    @Test
+    public void checkStatus_otherErrorsHaveStackTrace() {
+        ClientException first = check(Status.STATUS_TIMEOUT);
+        assertTrue(first instanceof ClientException.TimeoutException);
+        assertNotSame(first, check(Status.STATUS_TIMEOUT));
+        assertTrue(first.getStackTrace().length > 0);
+        assertTrue(new ClientException.WrongVersionException()
+                .getStackTrace().length > 0);
+    }
+
+    @Test
+    public void checkUnexpectedStatus() {
+        assertEquals(Status.STATUS_OK, ClientException.checkUnexpectedStatus(
+                Status.STATUS_OK.ordinal()));
+        assertEquals(Status.STATUS_OBJECT_DOESNT_EXIST,
+                ClientException.checkUnexpectedStatus(
+                        Status.STATUS_OBJECT_DOESNT_EXIST.ordinal()));
+        assertEquals(Status.STATUS_WRONG_VERSION,
+                ClientException.checkUnexpectedStatus(
+                        Status.STATUS_WRONG_VERSION.ordinal()));
+    }
+
+    @Test(expectedExceptions = ClientException.TableDoesntExistException.class)
+    public void checkUnexpectedStatus_throws() {
+        ClientException.checkUnexpectedStatus(
+                Status.STATUS_TABLE_DOESNT_EXIST.ordinal());
+    }
+}
@@ -0,0 +1,154 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.metrics.*;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import javax.management.ObjectName;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for ClientMetrics class.
+ */
+public class ClientMetricsTest {
+    @Test
+    public void record() {
+        ClientMetrics metrics = new ClientMetrics();
+        long start = metrics.start();
+        assertTrue(start != 0);
+        metrics.record(Operation.READ, 5, start, true);
+        metrics.record(Operation.READ, 6, start, false);
+        metrics.record(Operation.MULTI_READ, ClientMetrics.NO_TABLE, start,
+                       true);
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getOperation(Operation.READ).getCount());
+        assertEquals(1,
+                snapshot.getOperation(Operation.READ).getFailureCount());
+        assertEquals(1, snapshot.getOperation(5, Operation.READ).getCount());
+        assertEquals(0,
+                snapshot.getOperation(5, Operation.READ).getFailureCount());
+        assertEquals(1,
+                snapshot.getOperation(6, Operation.READ).getFailureCount());
+        assertNull(snapshot.getOperation(Operation.WRITE));
+        assertEquals(2, snapshot.getTables().size());
+        assertNotNull(snapshot.getOperation(Operation.MULTI_READ));
+        metrics.close();
+    }
+
+    @Test
+    public void setEnabled() {
+        ClientMetrics metrics = new ClientMetrics();
+        metrics.setEnabled(false);
+        assertEquals(0, metrics.start());
+        metrics.record(Operation.WRITE, 1, System.nanoTime(), true);
+        assertTrue(metrics.snapshot().getOperations().isEmpty());
+        metrics.close();
+    }
+
+    @Test
+    public void reset() {
+        ClientMetrics metrics = new ClientMetrics();
+        metrics.record(Operation.WRITE, 1, metrics.start(), true);
+        metrics.reset();
+        assertEquals(0, metrics.getOperation(Operation.WRITE).getCount());
+        assertEquals(0,
+                metrics.getTableOperation(1, Operation.WRITE).getCount());
+        metrics.close();
+    }
+
+    @Test
+    public void mbeans() throws Exception {
+        ClientMetrics metrics = new ClientMetrics();
+        metrics.record(Operation.REMOVE, 77, metrics.start(), true);
+        ObjectName pattern = new ObjectName(
+                "edu.stanford.ramcloud:type=ClientMetrics,table=77,*");
+        assertEquals(0, ManagementFactory.getPlatformMBeanServer()
+                .queryNames(pattern, null).size());
+        metrics.registerMBeans();
+        metrics.record(Operation.READ, 77, metrics.start(), true);
+        assertEquals(2, ManagementFactory.getPlatformMBeanServer()
+                .queryNames(pattern, null).size());
+        pattern = new ObjectName("edu.stanford.ramcloud:type=ClientMetrics,"
+                + "table=77,operation=remove,*");
+        ObjectName name = ManagementFactory.getPlatformMBeanServer()
+                .queryNames(pattern, null).iterator().next();
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(name, "Count"));
+        metrics.close();
+        assertEquals(0, ManagementFactory.getPlatformMBeanServer()
+                .queryNames(pattern, null).size());
+    }
+
+    @Test
+    public void phaseTiming() {
+        ClientMetrics metrics = new ClientMetrics();
+        ByteBuffer phaseBuffer =
+                ByteBuffer.allocateDirect(ClientMetrics.PHASE_BUFFER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        metrics.attachPhaseBuffer(phaseBuffer);
+        assertEquals(0, metrics.mark());
+        metrics.setPhaseTimingEnabled(true);
+        assertEquals(0x53484150, phaseBuffer.getInt(0));
+
+        phaseBuffer.putLong(8, 99);
+        long start = metrics.start();
+        assertEquals(0, phaseBuffer.getLong(8));
+        long callStart = metrics.mark();
+        // Pretend C++ spent all of the call in an RPC.
+        phaseBuffer.putLong(8, 1000).putLong(16, 1000);
+        long callEnd = callStart + 5000;
+        metrics.record(Operation.READ, 3, start, callStart, callEnd, true);
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getPhase(Operation.READ, Phase.RPC)
+                .getCount());
+        assertEquals(1000, snapshot.getPhase(Operation.READ, Phase.RPC)
+                .getMaxLatencyNanos());
+        assertEquals(0, snapshot.getPhase(Operation.READ, Phase.NATIVE)
+                .getMaxLatencyNanos());
+        assertEquals(4000, snapshot.getPhase(Operation.READ, Phase.JNI)
+                .getMaxLatencyNanos());
+        assertNull(snapshot.getPhase(Operation.READ, Phase.UPCALL));
+
+        metrics.start();
+        phaseBuffer.putLong(8, 3000).putLong(16, 1000).putLong(24, 500);
+        metrics.recordMulti(Operation.MULTI_READ, start, true);
+        snapshot = metrics.snapshot();
+        assertEquals(500, snapshot.getPhase(Operation.MULTI_READ, Phase.UPCALL)
+                .getMaxLatencyNanos());
+        assertEquals(1500, snapshot.getPhase(Operation.MULTI_READ,
+                Phase.NATIVE).getMaxLatencyNanos());
+        assertNull(snapshot.getPhase(Operation.MULTI_READ, Phase.DECODE));
+
+        metrics.setPhaseTimingEnabled(false);
+        assertEquals(0, phaseBuffer.getInt(0));
+        assertEquals(0, metrics.mark());
+        metrics.close();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void setPhaseTimingEnabled_noBuffer() {
+        ClientMetrics metrics = new ClientMetrics();
+        try {
+            metrics.setPhaseTimingEnabled(true);
+        } finally {
+            metrics.close();
+        }
+    }
+}
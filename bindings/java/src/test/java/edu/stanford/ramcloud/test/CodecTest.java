@@ -0,0 +1,124 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.codec.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for the built-in codecs.
+ */
+public class CodecTest {
+    private static class Point {
+        int x;
+        long y;
+
+        Point(int x, long y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private static final RecordCodec<Point> POINT_CODEC =
+            new RecordCodec<Point>(12) {
+        @Override
+        protected void writeFields(Point point, ByteBuffer buffer) {
+            buffer.putInt(point.x).putLong(point.y);
+        }
+
+        @Override
+        protected Point readFields(ByteBuffer buffer) {
+            return new Point(buffer.getInt(), buffer.getLong());
+        }
+    };
+
+    private static <T> ByteBuffer encode(Codec<T> codec, T value) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 1); // Codecs must start at the position.
+        codec.encode(value, buffer);
+        assertEquals(1 + codec.encodedLength(value), buffer.position());
+        buffer.flip();
+        buffer.get();
+        return buffer;
+    }
+
+    @Test
+    public void longCodec() {
+        ByteBuffer buffer = encode(LongCodec.INSTANCE, 0x0102030405060708L);
+        assertEquals(8, buffer.get(1));
+        assertEquals(0x0102030405060708L,
+                     (long) LongCodec.INSTANCE.decode(buffer, 8));
+        assertEquals(9, buffer.position());
+    }
+
+    @Test(expectedExceptions = ClientException.InvalidObjectException.class)
+    public void longCodec_wrongLength() {
+        LongCodec.INSTANCE.decode(ByteBuffer.allocate(4), 4);
+    }
+
+    @Test
+    public void utf8Codec() {
+        String[] values = {"", "ascii", "caf\u00e9", "\u20ac100",
+                           "\ud83d\ude00 smile"};
+        for (String value : values) {
+            byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected.length,
+                         Utf8Codec.INSTANCE.encodedLength(value));
+            ByteBuffer buffer = encode(Utf8Codec.INSTANCE, value);
+            byte[] actual = new byte[expected.length];
+            buffer.duplicate().get(actual);
+            assertArrayEquals(expected, actual);
+            assertEquals(value,
+                         Utf8Codec.INSTANCE.decode(buffer, expected.length));
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void utf8Codec_unpairedSurrogate() {
+        String value = "a\ud800b";
+        assertEquals(3, Utf8Codec.INSTANCE.encodedLength(value));
+        ByteBuffer buffer = encode(Utf8Codec.INSTANCE, value);
+        assertEquals("a?b", Utf8Codec.INSTANCE.decode(buffer, 3));
+    }
+
+    @Test
+    public void recordCodec() {
+        ByteBuffer buffer = encode(POINT_CODEC, new Point(7, -3L));
+        Point point = POINT_CODEC.decode(buffer, 12);
+        assertEquals(7, point.x);
+        assertEquals(-3L, point.y);
+    }
+
+    @Test(expectedExceptions = ClientException.InvalidObjectException.class)
+    public void recordCodec_wrongLength() {
+        POINT_CODEC.decode(ByteBuffer.allocate(16), 16);
+    }
+
+    private static void assertArrayEquals(byte[] expected, byte[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i]);
+        }
+    }
+}
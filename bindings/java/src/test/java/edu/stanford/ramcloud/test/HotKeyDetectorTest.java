@@ -0,0 +1,155 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.metrics.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for HotKeyDetector.
+ */
+public class HotKeyDetectorTest {
+    private HotKeyDetector detector;
+
+    @BeforeMethod
+    public void setUp() {
+        detector = new HotKeyDetector(1, 4);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        detector.close();
+    }
+
+    @Test
+    public void report_hotKey() {
+        byte[] hot = "hot".getBytes();
+        for (int i = 0; i < 1000; i++) {
+            detector.sample(7, hot);
+            detector.sample(7, ("cold" + i).getBytes());
+        }
+        HotKeyReport report = detector.report();
+        assertEquals(2000, report.getOperations());
+        assertEquals(4, report.getKeys().size());
+        HotKey key = report.getKeys().get(0);
+        assertEquals(7, key.getTableId());
+        assertEquals("hot", new String(key.getKey()));
+        assertEquals(KeyHash.getHash(7, hot), key.getKeyHash());
+        assertTrue(key.getCount() >= 1000);
+        assertTrue(key.getCount() < 1100);
+        assertEquals(0.5, key.getShare(), 0.05);
+
+        HotRange range = report.getRanges().get(0);
+        assertEquals(7, range.getTableId());
+        assertTrue(Long.compareUnsigned(range.getStartKeyHash(),
+                                        key.getKeyHash()) <= 0);
+        assertTrue(Long.compareUnsigned(range.getEndKeyHash(),
+                                        key.getKeyHash()) >= 0);
+        assertTrue(range.getCount() >= 1000);
+    }
+
+    @Test
+    public void report_startsNewInterval() {
+        detector.sample(1, "a".getBytes());
+        detector.report();
+        HotKeyReport report = detector.report();
+        assertEquals(0, report.getOperations());
+        assertEquals(0, report.getKeys().size());
+        assertEquals(0, report.getRanges().size());
+        assertSame(report, detector.getLatest());
+    }
+
+    @Test
+    public void report_separatesTables() {
+        for (int i = 0; i < 10; i++) {
+            detector.sample(1, 42L);
+        }
+        detector.sample(2, 42L);
+        List<HotKey> keys = detector.report().getKeys();
+        assertEquals(2, keys.size());
+        assertEquals(1, keys.get(0).getTableId());
+        assertEquals(10, keys.get(0).getCount());
+        assertEquals(2, keys.get(1).getTableId());
+        assertEquals(1, keys.get(1).getCount());
+        assertEquals(42L, LongKeys.fromBytes(keys.get(0).getKey()));
+    }
+
+    @Test
+    public void report_listener() {
+        List<HotKeyReport> reports = new ArrayList<>();
+        detector.addListener(reports::add);
+        detector.sample(1, "a".getBytes());
+        HotKeyReport report = detector.report();
+        assertEquals(1, reports.size());
+        assertSame(report, reports.get(0));
+        assertEquals(1, detector.getHotKeys().length);
+        assertEquals("table 1 key \"a\": 1 ops (100.0%)",
+                     detector.getHotKeys()[0]);
+    }
+
+    @Test
+    public void sampleInterval() {
+        HotKeyDetector sampled = new HotKeyDetector(10, 4);
+        try {
+            for (int i = 0; i < 100000; i++) {
+                sampled.sample(1, "a".getBytes());
+            }
+            HotKeyReport report = sampled.report();
+            assertEquals(100000, report.getOperations(), 5000);
+            assertEquals(report.getOperations(),
+                         report.getKeys().get(0).getCount());
+        } finally {
+            sampled.close();
+        }
+    }
+
+    @Test
+    public void reset() {
+        detector.sample(1, "a".getBytes());
+        assertEquals(1, detector.getCurrentOperations());
+        detector.reset();
+        assertEquals(0, detector.getCurrentOperations());
+        assertEquals(0, detector.report().getKeys().size());
+    }
+
+    @Test
+    public void mbean() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName pattern = new ObjectName(
+                "edu.stanford.ramcloud:type=HotKeyDetector,*");
+        int before = server.queryNames(pattern, null).size();
+        HotKeyDetector published = new HotKeyDetector();
+        assertEquals(before, server.queryNames(pattern, null).size());
+        published.registerMBean();
+        published.registerMBean();
+        assertEquals(before + 1, server.queryNames(pattern, null).size());
+        published.close();
+        assertEquals(before, server.queryNames(pattern, null).size());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void constructor_badSampleInterval() {
+        new HotKeyDetector(0, 4);
+    }
+}
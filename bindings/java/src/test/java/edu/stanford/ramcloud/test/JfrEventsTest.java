@@ -0,0 +1,146 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.Status;
+import edu.stanford.ramcloud.jfr.*;
+import edu.stanford.ramcloud.multiop.MultiReadHandler;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static edu.stanford.ramcloud.test.ClientTestClusterSetup.*;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for the JDK Flight Recorder events.
+ */
+public class JfrEventsTest {
+    /**
+     * Runs body with a recording of all RAMCloud events over the given
+     * threshold, and returns the events recorded.
+     */
+    static List<RecordedEvent> record(Duration threshold, Runnable body)
+            throws IOException {
+        Path file = Files.createTempFile("ramcloud", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(RAMCloudReadEvent.class).withThreshold(threshold);
+            recording.enable(RAMCloudMultiOpEvent.class)
+                    .withThreshold(threshold);
+            recording.enable(RAMCloudTransactionCommitEvent.class)
+                    .withThreshold(threshold);
+            recording.enable(RAMCloudEnumerationBatchEvent.class)
+                    .withThreshold(threshold);
+            recording.start();
+            body.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void available() {
+        assertTrue(Events.isAvailable());
+        assertTrue(Events.beginRead() instanceof RAMCloudReadEvent);
+    }
+
+    @Test
+    public void readEvent() throws IOException {
+        List<RecordedEvent> events = record(Duration.ZERO, () -> {
+            RAMCloudReadEvent event = new RAMCloudReadEvent();
+            event.begin();
+            event.finish(5, 3, 100,
+                         Status.STATUS_OBJECT_DOESNT_EXIST.ordinal());
+        });
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals("edu.stanford.ramcloud.Read",
+                     event.getEventType().getName());
+        assertEquals(5, event.getLong("tableId"));
+        assertEquals(3, event.getInt("keySize"));
+        assertEquals(100, event.getInt("valueSize"));
+        assertEquals("STATUS_OBJECT_DOESNT_EXIST", event.getString("status"));
+    }
+
+    @Test
+    public void readEvent_cluster() throws IOException {
+        long tableId = ramcloud.createTable("jfrTable");
+        try {
+            ramcloud.write(tableId, "key", "testValue");
+            List<RecordedEvent> events = record(
+                    Duration.ZERO, () -> ramcloud.read(tableId, "key"));
+            assertEquals(1, events.size());
+            assertEquals(tableId, events.get(0).getLong("tableId"));
+            assertEquals(3, events.get(0).getInt("keySize"));
+            assertEquals("testValue".length(),
+                         events.get(0).getInt("valueSize"));
+        } finally {
+            ramcloud.dropTable("jfrTable");
+        }
+    }
+
+    @Test
+    public void multiOpEvent() throws IOException {
+        List<RecordedEvent> events = record(Duration.ZERO, () -> {
+            RAMCloudMultiOpEvent event = new RAMCloudMultiOpEvent();
+            event.begin();
+            event.finish(MultiReadHandler.class, 10, 200, 400, 1,
+                         Status.STATUS_OBJECT_DOESNT_EXIST.ordinal());
+        });
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(MultiReadHandler.class.getName(),
+                     event.getClass("handler").getName());
+        assertEquals(10, event.getInt("batchSize"));
+        assertEquals(1, event.getInt("failures"));
+    }
+
+    @Test
+    public void transactionCommitEvent() throws IOException {
+        List<RecordedEvent> events = record(Duration.ZERO, () -> {
+            RAMCloudTransactionCommitEvent event =
+                    new RAMCloudTransactionCommitEvent();
+            event.begin();
+            event.finish("commit", 4, true, 0);
+        });
+        assertEquals(1, events.size());
+        assertEquals("commit", events.get(0).getString("mode"));
+        assertEquals(4, events.get(0).getInt("operations"));
+        assertTrue(events.get(0).getBoolean("committed"));
+        assertEquals("STATUS_OK", events.get(0).getString("status"));
+    }
+
+    @Test
+    public void belowThreshold() throws IOException {
+        List<RecordedEvent> events = record(Duration.ofSeconds(10), () -> {
+            RAMCloudEnumerationBatchEvent event =
+                    new RAMCloudEnumerationBatchEvent();
+            event.begin();
+            event.finish(1, 1000, 0);
+        });
+        assertEquals(0, events.size());
+    }
+}
@@ -0,0 +1,62 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.*;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for the KeyHash class. Expected values were generated with
+ * Key::getHash from the C++ library.
+ */
+public class KeyHashTest {
+    @Test
+    public void getHash_emptyKey() {
+        assertEquals(0L, KeyHash.getHash(0, new byte[0]));
+        assertEquals(0x4610abe56eff5cb5L, KeyHash.getHash(1, new byte[0]));
+    }
+
+    @Test
+    public void getHash_tailOnly() {
+        assertEquals(0x85555565f6597889L, KeyHash.getHash(0, "a".getBytes()));
+        assertEquals(0xb1a12364749fbe80L, KeyHash.getHash(7, "key".getBytes()));
+        assertEquals(0xb5fac49c87181482L,
+                     KeyHash.getHash(1, "This is the key".getBytes()));
+    }
+
+    @Test
+    public void getHash_multipleBlocks() {
+        byte[] key = "0123456789abcdef0123456789".getBytes();
+        assertEquals(0x849a02423668b6ccL, KeyHash.getHash(0, key));
+        assertEquals(0x9160f3c325314281L, KeyHash.getHash(7, key));
+    }
+
+    @Test
+    public void getHash_onlyLowTableIdBitsUsed() {
+        byte[] key = "key".getBytes();
+        assertEquals(KeyHash.getHash(1, key),
+                     KeyHash.getHash(0x100000001L, key));
+    }
+
+    @Test
+    public void getHash_offset() {
+        byte[] key = "xxkeyxx".getBytes();
+        assertEquals(KeyHash.getHash(7, "key".getBytes()),
+                     KeyHash.getHash(7, key, 2, 3));
+    }
+}
@@ -0,0 +1,200 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import static edu.stanford.ramcloud.ClientException.*;
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.stream.*;
+import static edu.stanford.ramcloud.test.ClientTestClusterSetup.*;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+/**
+ * Unit tests for RAMCloudOutputStream and RAMCloudInputStream. The mock
+ * cluster only accepts 1 KB objects, so small chunks are used throughout.
+ */
+public class LargeObjectStreamTest {
+    private long tableId;
+    private byte[] key;
+
+    @BeforeMethod
+    public void beforeMethod(Method method) {
+        key = method.getName().getBytes();
+    }
+
+    @BeforeClass
+    public void largeObjectStreamTestSetup() {
+        tableId = ramcloud.createTable("largeObjectTable");
+    }
+
+    @AfterClass
+    public void largeObjectStreamTestCleanUp() {
+        ramcloud.dropTable("largeObjectTable");
+    }
+
+    private static byte[] makeValue(int length) {
+        byte[] value = new byte[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = (byte) (i * 31);
+        }
+        return value;
+    }
+
+    private byte[] readAll(RAMCloudInputStream in) throws IOException {
+        byte[] out = new byte[(int) in.getLength()];
+        int read = 0;
+        int n;
+        while ((n = in.read(out, read, Math.min(100, out.length - read))) > 0) {
+            read += n;
+        }
+        assertEquals(out.length, read);
+        assertEquals(-1, in.read());
+        return out;
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        byte[] value = makeValue(10000);
+        RAMCloudOutputStream out =
+                new RAMCloudOutputStream(ramcloud, tableId, key, 256);
+        out.write(value, 0, 5000);
+        for (int i = 5000; i < value.length; i++) {
+            out.write(value[i]);
+        }
+        out.close();
+
+        LargeObject object = LargeObject.find(ramcloud, tableId, key);
+        assertEquals(value.length, object.getLength());
+        assertEquals(40, object.getNumChunks());
+
+        RAMCloudInputStream in = new RAMCloudInputStream(ramcloud, tableId, key);
+        assertArrayEquals(value, readAll(in));
+        LargeObject.remove(ramcloud, tableId, key);
+    }
+
+    @Test
+    public void write_empty() throws IOException {
+        new RAMCloudOutputStream(ramcloud, tableId, key, 256).close();
+        RAMCloudInputStream in = new RAMCloudInputStream(ramcloud, tableId, key);
+        assertEquals(0, in.getLength());
+        assertEquals(-1, in.read());
+        LargeObject.remove(ramcloud, tableId, key);
+    }
+
+    @Test
+    public void write_replacesPreviousValue() throws IOException {
+        byte[] first = makeValue(3000);
+        RAMCloudOutputStream out =
+                new RAMCloudOutputStream(ramcloud, tableId, key, 256);
+        out.write(first);
+        out.close();
+        assertEquals(12, LargeObject.find(ramcloud, tableId, key).getNumChunks());
+
+        byte[] second = makeValue(700);
+        out = new RAMCloudOutputStream(ramcloud, tableId, key, 256);
+        out.write(second);
+        out.close();
+
+        RAMCloudInputStream in = new RAMCloudInputStream(ramcloud, tableId, key);
+        assertArrayEquals(second, readAll(in));
+        assertEquals(3, LargeObject.find(ramcloud, tableId, key).getNumChunks());
+        LargeObject.remove(ramcloud, tableId, key);
+    }
+
+    @Test
+    public void write_replacesPlainObject() throws IOException {
+        ramcloud.write(tableId, key, "plain".getBytes(), null);
+        byte[] value = makeValue(700);
+        RAMCloudOutputStream out =
+                new RAMCloudOutputStream(ramcloud, tableId, key, 256);
+        out.write(value);
+        out.close();
+        RAMCloudInputStream in = new RAMCloudInputStream(ramcloud, tableId, key);
+        assertArrayEquals(value, readAll(in));
+        LargeObject.remove(ramcloud, tableId, key);
+    }
+
+    @Test
+    public void write_interleavedWriters() throws IOException {
+        byte[] first = makeValue(3000);
+        byte[] second = makeValue(700);
+        RAMCloudOutputStream out1 =
+                new RAMCloudOutputStream(ramcloud, tableId, key, 256);
+        RAMCloudOutputStream out2 =
+                new RAMCloudOutputStream(ramcloud, tableId, key, 256);
+        out1.write(first);
+        out2.write(second);
+        out2.close();
+        out1.close();
+
+        // The stream closed last wins.
+        RAMCloudInputStream in = new RAMCloudInputStream(ramcloud, tableId, key);
+        assertArrayEquals(first, readAll(in));
+        assertEquals(12, LargeObject.find(ramcloud, tableId, key).getNumChunks());
+        LargeObject.remove(ramcloud, tableId, key);
+    }
+
+    @Test
+    public void read_skip() throws IOException {
+        byte[] value = makeValue(2000);
+        RAMCloudOutputStream out =
+                new RAMCloudOutputStream(ramcloud, tableId, key, 256);
+        out.write(value);
+        out.close();
+
+        RAMCloudInputStream in = new RAMCloudInputStream(ramcloud, tableId, key);
+        assertEquals(1500, in.skip(1500));
+        assertEquals(value[1500] & 0xff, in.read());
+        assertEquals(499, in.skip(1000));
+        assertEquals(-1, in.read());
+        LargeObject.remove(ramcloud, tableId, key);
+    }
+
+    @Test
+    (
+        expectedExceptions = ObjectDoesntExistException.class
+    )
+    public void read_doesntExist() {
+        new RAMCloudInputStream(ramcloud, tableId, key);
+    }
+
+    @Test
+    (
+        expectedExceptions = IllegalArgumentException.class
+    )
+    public void read_notLargeObject() {
+        ramcloud.write(tableId, key, "plain".getBytes(), null);
+        try {
+            new RAMCloudInputStream(ramcloud, tableId, key);
+        } finally {
+            ramcloud.remove(tableId, key);
+        }
+    }
+
+    @Test
+    public void remove() throws IOException {
+        RAMCloudOutputStream out =
+                new RAMCloudOutputStream(ramcloud, tableId, key, 256);
+        out.write(makeValue(1000));
+        out.close();
+        LargeObject.remove(ramcloud, tableId, key);
+        assertNull(LargeObject.find(ramcloud, tableId, key));
+    }
+}
@@ -0,0 +1,113 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.perf.*;
+import edu.stanford.ramcloud.perf.OperationMix.Operation;
+
+import java.util.Random;
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for the workload definitions of LoadGenerator.
+ */
+public class LoadGeneratorTest {
+    private static final int SAMPLES = 100000;
+
+    private int[] sample(KeyDistribution keys) {
+        Random random = new Random(1);
+        int[] counts = new int[keys.getRecordCount()];
+        for (int i = 0; i < SAMPLES; i++) {
+            int key = keys.next(random);
+            assertTrue(key >= 0 && key < counts.length);
+            counts[key]++;
+        }
+        return counts;
+    }
+
+    @Test
+    public void keyDistribution_uniform() {
+        int[] counts = sample(KeyDistribution.parse("uniform", 10));
+        for (int count : counts) {
+            assertEquals(SAMPLES / 10, count, SAMPLES / 100);
+        }
+    }
+
+    @Test
+    public void keyDistribution_zipfian() {
+        int[] counts = sample(KeyDistribution.parse("zipfian", 1000));
+        // With theta 0.99 the most popular key gets about 13% of requests.
+        assertTrue(counts[0] > SAMPLES / 10);
+        assertTrue(counts[0] > counts[1]);
+        assertTrue(counts[1] > counts[10]);
+        assertTrue(counts[10] > counts[999]);
+    }
+
+    @Test
+    public void keyDistribution_hotspot() {
+        int[] counts = sample(KeyDistribution.parse("hotspot:0.1:0.9", 100));
+        int hot = 0;
+        for (int i = 0; i < 10; i++) {
+            hot += counts[i];
+        }
+        assertEquals(0.9, (double) hot / SAMPLES, 0.01);
+    }
+
+    @Test
+    public void keyDistribution_parseErrors() {
+        String[] specs = {"gaussian", "zipfian:x", "zipfian:0",
+                          "hotspot:1.5", "uniform:1"};
+        for (String spec : specs) {
+            try {
+                KeyDistribution.parse(spec, 10);
+                fail(spec);
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+
+    @Test
+    public void operationMix_parse() {
+        OperationMix mix = OperationMix.parse("read=3,rmw=1");
+        assertEquals(0.75, mix.getFraction(Operation.READ), 1e-9);
+        assertEquals(0.0, mix.getFraction(Operation.WRITE), 1e-9);
+        assertEquals(0.25, mix.getFraction(Operation.READ_MODIFY_WRITE),
+                     1e-9);
+
+        Random random = new Random(1);
+        int[] counts = new int[Operation.values().length];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[mix.next(random).ordinal()]++;
+        }
+        assertEquals(0, counts[Operation.WRITE.ordinal()]);
+        assertEquals(0.25,
+                (double) counts[Operation.READ_MODIFY_WRITE.ordinal()]
+                / SAMPLES, 0.01);
+    }
+
+    @Test
+    public void operationMix_parseErrors() {
+        String[] specs = {"", "read", "scan=1", "read=-1", "read=0"};
+        for (String spec : specs) {
+            try {
+                OperationMix.parse(spec);
+                fail(spec);
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+}
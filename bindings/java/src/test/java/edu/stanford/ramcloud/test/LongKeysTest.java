@@ -0,0 +1,71 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for LongKeys class and long keys in RAMCloudObject.
+ */
+public class LongKeysTest {
+    @Test
+    public void toBytes() {
+        long key = 0x0102030405060708L;
+        byte[] expected = ByteBuffer.allocate(8).putLong(key).array();
+        byte[] actual = LongKeys.toBytes(key);
+        for (int i = 0; i < 8; i++) {
+            assertEquals(expected[i], actual[i]);
+        }
+        assertEquals(key, LongKeys.fromBytes(actual));
+        assertEquals(-1L, LongKeys.fromBytes(LongKeys.toBytes(-1L)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void fromBytes_wrongLength() {
+        LongKeys.fromBytes(new byte[7]);
+    }
+
+    @Test
+    public void putAndGet_byteOrder() {
+        long key = 0x0102030405060708L;
+        ByteBuffer little = ByteBuffer.allocate(8)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer big = ByteBuffer.allocate(8);
+        LongKeys.put(little, key);
+        LongKeys.put(big, key);
+        for (int i = 0; i < 8; i++) {
+            assertEquals(big.get(i), little.get(i));
+        }
+        little.flip();
+        assertEquals(key, LongKeys.get(little));
+    }
+
+    @Test
+    public void ramcloudObject() {
+        RAMCloudObject obj = new RAMCloudObject(42L, null, 1);
+        assertTrue(obj.hasLongKey());
+        assertEquals(42L, obj.getLongKey());
+        assertEquals(42, obj.getKeyBytes()[7]);
+        obj.setKeyBytes(LongKeys.toBytes(7L));
+        assertFalse(obj.hasLongKey());
+        assertEquals(7L, obj.getLongKey());
+    }
+}
@@ -0,0 +1,109 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.multiop.*;
+import static edu.stanford.ramcloud.test.ClientTestClusterSetup.*;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unit tests for the MixedMultiOpHandler class
+ */
+public class MixedMultiOpHandlerTest {
+    @Test
+    public void writeRequest_read() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(50);
+        byte[] key = "This is the key".getBytes();
+        MultiReadObject obj = new MultiReadObject(1, key);
+        MixedMultiOpHandler handler = new MixedMultiOpHandler(buffer, 0, 0);
+        Boolean success = (Boolean) invoke(
+                handler, "writeRequest",
+                new Class[] {ByteBuffer.class, MultiOpObject.class},
+                buffer, obj);
+        assertTrue(success);
+        assertEquals(key.length + 23, buffer.position());
+        buffer.rewind();
+        assertEquals(0, buffer.get());
+        assertEquals(1, buffer.getLong());
+        assertEquals(key.length, buffer.getShort());
+        byte[] keyCheck = new byte[key.length];
+        buffer.get(keyCheck);
+        assertArrayEquals(key, keyCheck);
+    }
+
+    @Test
+    public void writeRequest_increment() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(100);
+        byte[] key = "This is the key".getBytes();
+        MultiIncrementObject obj = new MultiIncrementObject(1, key, 5L);
+        MixedMultiOpHandler handler = new MixedMultiOpHandler(buffer, 0, 0);
+        Boolean success = (Boolean) invoke(
+                handler, "writeRequest",
+                new Class[] {ByteBuffer.class, MultiOpObject.class},
+                buffer, obj);
+        assertTrue(success);
+        assertEquals(key.length + 39, buffer.position());
+        buffer.rewind();
+        assertEquals(3, buffer.get());
+        assertEquals(1, buffer.getLong());
+        assertEquals(key.length, buffer.getShort());
+        buffer.position(buffer.position() + key.length);
+        assertEquals(5, buffer.getLong());
+        assertEquals(0.0, buffer.getDouble(), 0.0);
+    }
+
+    @Test
+    public void writeRequest_overflow() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(30);
+        byte[] key = "This is the key".getBytes();
+        byte[] value = "This is the value".getBytes();
+        MultiWriteObject obj = new MultiWriteObject(1, key, value);
+        MixedMultiOpHandler handler = new MixedMultiOpHandler(buffer, 0, 0);
+        Boolean success = (Boolean) invoke(
+                handler, "writeRequest",
+                new Class[] {ByteBuffer.class, MultiOpObject.class},
+                buffer, obj);
+        assertFalse(success);
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void readResponse() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(50);
+        buffer.putLong(3)
+                .putLong(42)
+                .putLong(7)
+                .rewind();
+        MultiIncrementObject increment =
+                new MultiIncrementObject(0, (byte[]) null, 1L);
+        MultiRemoveObject remove = new MultiRemoveObject(0, (byte[]) null);
+        MixedMultiOpHandler handler = new MixedMultiOpHandler(buffer, 0, 0);
+        invoke(handler, "readResponse",
+               new Class[] {ByteBuffer.class, MultiOpObject.class},
+               buffer, increment);
+        invoke(handler, "readResponse",
+               new Class[] {ByteBuffer.class, MultiOpObject.class},
+               buffer, remove);
+        assertEquals(3, increment.getVersion());
+        assertEquals(42, increment.getNewValueInt64());
+        assertEquals(7, remove.getVersion());
+    }
+}
@@ -23,6 +23,7 @@ import org.testng.annotations.*;
 import static org.testng.AssertJUnit.*;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * Unit tests for the MultiReadHandler class
@@ -39,7 +40,7 @@ public class MultiReadHandlerTest {
                 new Class[] {ByteBuffer.class, MultiReadObject.class},
                 buffer, obj);
         assertTrue(success);
-        assertEquals(key.length + 10, buffer.position());
+        assertEquals(key.length + 22, buffer.position());
         buffer.rewind();
         assertEquals(1, buffer.getLong());
         assertEquals(key.length, buffer.getShort());
@@ -48,6 +49,41 @@ public class MultiReadHandlerTest {
         assertArrayEquals(key, keyCheck);
     }
 
+    @Test
+    public void writeRequest_longKey() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(50)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        MultiReadObject obj = new MultiReadObject(1, 0x0102030405060708L);
+        MultiReadHandler handler = new MultiReadHandler(buffer, 0, 0);
+        invoke(handler, "writeRequest",
+               new Class[] {ByteBuffer.class, MultiReadObject.class},
+               buffer, obj);
+        assertEquals(8 + 22, buffer.position());
+        assertEquals(8, buffer.getShort(8));
+        byte[] keyCheck = new byte[8];
+        buffer.position(10);
+        buffer.get(keyCheck);
+        assertArrayEquals(LongKeys.toBytes(0x0102030405060708L), keyCheck);
+        assertEquals(1, keyCheck[0]);
+    }
+
+    @Test
+    public void writeRequest_knownVersion() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(50);
+        byte[] key = "This is the key".getBytes();
+        MultiReadObject obj = new MultiReadObject(1, key);
+        obj.setKnownVersion(5);
+        MultiReadHandler handler = new MultiReadHandler(buffer, 0, 0);
+        invoke(handler, "writeRequest",
+               new Class[] {ByteBuffer.class, MultiReadObject.class},
+               buffer, obj);
+        byte[] rules = new byte[12];
+        buffer.position(10 + key.length);
+        buffer.get(rules);
+        byte[] expected = {5,0,0,0,0,0,0,0,0,0,1,0};
+        assertArrayEquals(expected, rules);
+    }
+
     @Test
     public void writeRequest_overflow() {
         ByteBuffer buffer = ByteBuffer.allocateDirect(12);
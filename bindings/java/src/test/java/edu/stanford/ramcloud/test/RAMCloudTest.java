@@ -16,10 +16,15 @@
 package edu.stanford.ramcloud.test;
 
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.List;
 
 import static edu.stanford.ramcloud.ClientException.*;
 import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.codec.*;
+import edu.stanford.ramcloud.metrics.*;
 import edu.stanford.ramcloud.multiop.*;
+import edu.stanford.ramcloud.server.*;
 import static edu.stanford.ramcloud.test.ClientTestClusterSetup.*;
 
 import org.testng.annotations.*;
@@ -113,6 +118,142 @@ public class RAMCloudTest {
         }
     }
 
+    @Test
+    public void read_longKey() {
+        long version = ramcloud.write(tableId, 1234L, "testValue".getBytes());
+        RAMCloudObject obj = ramcloud.read(tableId, 1234L);
+        assertEquals(1234L, obj.getLongKey());
+        assertEquals("testValue", obj.getValue());
+        assertEquals(version, obj.getVersion());
+        // The long key is the same object as its byte encoding.
+        assertEquals("testValue",
+                ramcloud.read(tableId, LongKeys.toBytes(1234L)).getValue());
+        MultiReadObject[] reads = {new MultiReadObject(tableId, 1234L)};
+        ramcloud.read(reads);
+        assertEquals("testValue", reads[0].getValue());
+        ramcloud.remove(tableId, 1234L);
+    }
+
+    @Test
+    public void remove_longKeyWithRejectRules() {
+        long version = ramcloud.write(tableId, 1234L, "testValue".getBytes());
+        RejectRules rules = new RejectRules();
+        rules.setGivenVersion(version + 1);
+        rules.rejectIfVersionNeGiven(true);
+        try {
+            ramcloud.remove(tableId, 1234L, rules);
+            fail();
+        } catch (WrongVersionException ex) {
+            // Good
+        }
+        assertEquals("testValue", ramcloud.read(tableId, 1234L).getValue());
+        rules.setGivenVersion(version);
+        assertEquals(version, ramcloud.remove(tableId, 1234L, rules));
+    }
+
+    @Test
+    public void metrics() {
+        ramcloud.getClientMetrics().reset();
+        ramcloud.write(tableId, key, "testValue");
+        ramcloud.read(tableId, key);
+        try {
+            ramcloud.read(tableId, key + "missing");
+        } catch (ObjectDoesntExistException e) {
+        }
+        MetricsSnapshot snapshot = ramcloud.metrics();
+        OperationSnapshot reads = snapshot.getOperation(tableId,
+                                                        Operation.READ);
+        assertEquals(2, reads.getCount());
+        assertEquals(1, reads.getFailureCount());
+        assertTrue(reads.getMaxLatencyNanos() > 0);
+        assertEquals(1, snapshot.getOperation(Operation.WRITE).getCount());
+    }
+
+    @Test
+    public void hotKeyDetector() {
+        HotKeyDetector detector = new HotKeyDetector(1, 4);
+        ramcloud.setHotKeyDetector(detector);
+        try {
+            ramcloud.write(tableId, key, "testValue");
+            ramcloud.read(tableId, key);
+            ramcloud.read(tableId, 1234L);
+            ramcloud.read(new MultiReadObject[] {
+                    new MultiReadObject(tableId, key.getBytes())});
+            HotKeyReport report = detector.report();
+            assertEquals(4, report.getOperations());
+            assertEquals(key, new String(report.getKeys().get(0).getKey()));
+            assertEquals(3, report.getKeys().get(0).getCount());
+        } finally {
+            ramcloud.setHotKeyDetector(null);
+            detector.close();
+        }
+        ramcloud.read(tableId, key);
+        assertEquals(0, detector.report().getOperations());
+    }
+
+    @Test
+    public void tryRead() {
+        long version = ramcloud.write(tableId, key, "testValue");
+        RAMCloudObject obj = new RAMCloudObject();
+        assertEquals(Status.STATUS_OK,
+                ramcloud.tryRead(tableId, key.getBytes(), null, obj));
+        assertEquals("testValue", obj.getValue());
+        assertEquals(version, obj.getVersion());
+
+        RAMCloudObject missing = new RAMCloudObject();
+        assertEquals(Status.STATUS_OBJECT_DOESNT_EXIST,
+                ramcloud.tryRead(tableId, (key + "missing").getBytes(), null,
+                                 missing));
+        assertNull(missing.getValueBytes());
+    }
+
+    @Test
+    public void tryRead_nullResult() {
+        ramcloud.write(tableId, key, "testValue");
+        assertEquals(Status.STATUS_OK,
+                ramcloud.tryRead(tableId, key.getBytes(), null, null));
+        assertEquals(Status.STATUS_OBJECT_DOESNT_EXIST,
+                ramcloud.tryRead(tableId, (key + "missing").getBytes(), null,
+                                 null));
+    }
+
+    @Test
+    public void tryRead_reusesValueArray() {
+        ramcloud.write(tableId, key, "testValue");
+        RAMCloudObject obj = new RAMCloudObject();
+        ramcloud.tryRead(tableId, key.getBytes(), null, obj);
+        byte[] value = obj.getValueBytes();
+
+        ramcloud.write(tableId, key, "valueTest");
+        ramcloud.tryRead(tableId, key.getBytes(), null, obj);
+        assertSame(value, obj.getValueBytes());
+        assertEquals("valueTest", obj.getValue());
+
+        ramcloud.write(tableId, key, "longerValue");
+        ramcloud.tryRead(tableId, key.getBytes(), null, obj);
+        assertEquals("longerValue", obj.getValue());
+    }
+
+    @Test
+    public void tryWrite() {
+        long version = ramcloud.write(tableId, key, "testValue");
+        RejectRules rules = new RejectRules();
+        rules.setGivenVersion(version + 1);
+        rules.rejectIfVersionNeGiven(true);
+        assertEquals(Status.STATUS_WRONG_VERSION,
+                ramcloud.tryWrite(tableId, key.getBytes(),
+                                  "newValue".getBytes(), rules, null));
+        assertEquals("testValue", ramcloud.read(tableId, key).getValue());
+
+        rules.setGivenVersion(version);
+        RAMCloudObject obj = new RAMCloudObject();
+        assertEquals(Status.STATUS_OK,
+                ramcloud.tryWrite(tableId, key.getBytes(),
+                                  "newValue".getBytes(), rules, obj));
+        assertEquals(ramcloud.read(tableId, key).getVersion(),
+                     obj.getVersion());
+    }
+
     @Test
     public void read_byteKeyWithRejectRules() {
         long version = ramcloud.write(tableId, key, "testValue");
@@ -321,6 +462,17 @@ public class RAMCloudTest {
         assertNotNull(it);
     }
 
+    @Test
+    public void getTabletMap() {
+        TabletMap map = ramcloud.getTabletMap();
+        Tablet[] tablets = map.getTablets(tableId);
+        assertEquals(1, tablets.length);
+        assertEquals("mock:host=master1", tablets[0].getServiceLocator());
+        Tablet tablet = map.lookup(tableId, key.getBytes());
+        assertSame(tablets[0], tablet);
+        assertTrue(tablet.contains(KeyHash.getHash(tableId, key.getBytes())));
+    }
+
     @Test
     public void read_multi() {
         int count = 200;
@@ -371,6 +523,176 @@ public class RAMCloudTest {
         }
     }
 
+    @Test
+    public void read_multiStreaming() {
+        int count = 300;
+        final MultiReadObject[] reads = new MultiReadObject[count];
+        for (int i = 0; i < count; i++) {
+            String key = this.key + i;
+            if (i != 7) {
+                ramcloud.write(tableId, key, "value" + i);
+            }
+            reads[i] = new MultiReadObject(tableId, key.getBytes());
+        }
+        final int[] seen = new int[1];
+        ramcloud.read(reads, new MultiReadConsumer() {
+            public void accept(int index, Status status, long version,
+                               ByteBuffer value) {
+                assertEquals(seen[0]++, index);
+                if (index == 7) {
+                    assertEquals(Status.STATUS_OBJECT_DOESNT_EXIST, status);
+                    assertNull(value);
+                    return;
+                }
+                assertEquals(Status.STATUS_OK, status);
+                byte[] bytes = new byte[value.remaining()];
+                value.get(bytes);
+                assertEquals("value" + index, new String(bytes));
+            }
+        });
+        assertEquals(count, seen[0]);
+        assertNull(reads[0].getValueBytes());
+        for (int i = 0; i < count; i++) {
+            ramcloud.remove(tableId, this.key + i);
+        }
+    }
+
+    @Test
+    public void read_multiStreamingConsumerThrows() {
+        int count = 300;
+        MultiReadObject[] reads = new MultiReadObject[count];
+        for (int i = 0; i < count; i++) {
+            ramcloud.write(tableId, key + i, "value" + i);
+            reads[i] = new MultiReadObject(tableId, key + i);
+        }
+        final IllegalStateException thrown = new IllegalStateException();
+        final int[] seen = new int[1];
+        try {
+            ramcloud.read(reads, new MultiReadConsumer() {
+                public void accept(int index, Status status, long version,
+                                   ByteBuffer value) {
+                    if (seen[0]++ == 3) {
+                        throw thrown;
+                    }
+                }
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(thrown, e);
+        }
+        assertEquals(4, seen[0]);
+        for (int i = 0; i < count; i++) {
+            ramcloud.remove(tableId, key + i);
+        }
+    }
+
+    @Test
+    public void read_multiKnownVersion() {
+        ramcloud.write(tableId, key + 0, "value0");
+        ramcloud.write(tableId, key + 1, "value1");
+        MultiReadObject[] reads = new MultiReadObject[] {
+            new MultiReadObject(tableId, key + 0),
+            new MultiReadObject(tableId, key + 1)
+        };
+        ramcloud.read(reads);
+        for (MultiReadObject read : reads) {
+            assertFalse(read.isUnchanged());
+            read.setKnownVersion(read.getVersion());
+        }
+        long oldVersion = reads[0].getVersion();
+        long newVersion = ramcloud.write(tableId, key + 1, "value1b");
+        ramcloud.read(reads);
+        assertTrue(reads[0].isUnchanged());
+        assertEquals(oldVersion, reads[0].getVersion());
+        assertEquals("value0", reads[0].getValue());
+        assertFalse(reads[1].isUnchanged());
+        assertEquals(Status.STATUS_OK, reads[1].getStatus());
+        assertEquals(newVersion, reads[1].getVersion());
+        assertEquals("value1b", reads[1].getValue());
+        ramcloud.remove(tableId, key + 0);
+        ramcloud.remove(tableId, key + 1);
+    }
+
+    @Test
+    public void batch_writeAndRead() {
+        int count = 1000;
+        WriteBatch writes = new WriteBatch();
+        ReadBatch reads = new ReadBatch();
+        for (int i = 0; i < count; i++) {
+            writes.add(tableId, key + i, "value" + i);
+            reads.add(tableId, key + i);
+        }
+        reads.add(tableId, key + count);
+        ramcloud.write(writes);
+        ramcloud.read(reads);
+        for (int i = 0; i < count; i++) {
+            assertEquals(Status.STATUS_OK, writes.getStatus(i));
+            assertEquals(Status.STATUS_OK, reads.getStatus(i));
+            assertEquals(writes.getVersion(i), reads.getVersion(i));
+            assertEquals("value" + i, new String(reads.getValueBytes(i)));
+            ramcloud.remove(tableId, key + i);
+        }
+        assertEquals(Status.STATUS_OBJECT_DOESNT_EXIST,
+                     reads.getStatus(count));
+        assertNull(reads.getValue(count));
+    }
+
+    @Test
+    public void codec_readAndWriteValue() {
+        ramcloud.writeValue(tableId, key.getBytes(), 42L, LongCodec.INSTANCE);
+        assertEquals(43L, ramcloud.incrementInt64(tableId, key.getBytes(), 1,
+                                                  null));
+        assertEquals(43L, (long) ramcloud.readValue(tableId, key.getBytes(),
+                                                    LongCodec.INSTANCE));
+        ramcloud.writeValue(tableId, key.getBytes(), "caf\u00e9",
+                            Utf8Codec.INSTANCE);
+        assertEquals("caf\u00e9", ramcloud.readValue(tableId, key.getBytes(),
+                                                      Utf8Codec.INSTANCE));
+    }
+
+    @Test
+    public void codec_writeValueWrongLength() {
+        Codec<String> codec = new Codec<String>() {
+            public int encodedLength(String value) {
+                return 1;
+            }
+            public void encode(String value, ByteBuffer buffer) {
+                buffer.put(value.getBytes());
+            }
+            public String decode(ByteBuffer buffer, int length) {
+                return null;
+            }
+        };
+        try {
+            ramcloud.writeValue(tableId, key.getBytes(), "testValue", codec);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        try {
+            ramcloud.read(tableId, key);
+            fail();
+        } catch (ObjectDoesntExistException e) {
+            // Good
+        }
+    }
+
+    @Test
+    public void codec_batch() {
+        WriteBatch writes = new WriteBatch();
+        ReadBatch reads = new ReadBatch();
+        for (int i = 0; i < 10; i++) {
+            writes.add(tableId, (key + i).getBytes(), (long) i,
+                       LongCodec.INSTANCE);
+            reads.add(tableId, key + i);
+        }
+        ramcloud.write(writes);
+        ramcloud.read(reads);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, (long) reads.getValue(i, LongCodec.INSTANCE));
+            ramcloud.remove(tableId, key + i);
+        }
+    }
+
     @Test
     public void write_multi() {
         int count = 200;
@@ -471,4 +793,77 @@ public class RAMCloudTest {
             assertEquals(Status.STATUS_TABLE_DOESNT_EXIST, removes[i].getStatus());
         }
     }
+
+    @Test
+    public void execute_multi() {
+        ramcloud.write(tableId, key + "Read", "readValue");
+        long removeVersion = ramcloud.write(tableId, key + "Remove", "value");
+        ramcloud.write(tableId, key + "Counter", new byte[8]);
+        MultiReadObject read = new MultiReadObject(tableId, key + "Read");
+        MultiWriteObject write = new MultiWriteObject(tableId, key + "Write",
+                                                      "writeValue");
+        MultiRemoveObject remove = new MultiRemoveObject(tableId,
+                                                         key + "Remove");
+        MultiIncrementObject increment =
+                new MultiIncrementObject(tableId, key + "Counter", 5L);
+        MultiReadObject missing = new MultiReadObject(tableId, key + "Missing");
+        ramcloud.execute(new MultiOpObject[] {
+                read, write, remove, increment, missing});
+
+        assertEquals(Status.STATUS_OK, read.getStatus());
+        assertEquals("readValue", read.getValue());
+        assertEquals(Status.STATUS_OK, write.getStatus());
+        assertEquals("writeValue",
+                     ramcloud.read(tableId, key + "Write").getValue());
+        assertEquals(Status.STATUS_OK, remove.getStatus());
+        assertEquals(removeVersion, remove.getVersion());
+        assertEquals(Status.STATUS_OK, increment.getStatus());
+        assertEquals(5, increment.getNewValueInt64());
+        assertEquals(Status.STATUS_OBJECT_DOESNT_EXIST, missing.getStatus());
+
+        ramcloud.remove(tableId, key + "Read");
+        ramcloud.remove(tableId, key + "Write");
+        ramcloud.remove(tableId, key + "Counter");
+    }
+
+    @Test
+    public void getMasters() {
+        List<ServerInfo> masters = ramcloud.getMasters();
+        assertEquals(1, masters.size());
+        assertEquals("mock:host=master1", masters.get(0).getServiceLocator());
+        assertTrue(masters.get(0).isUp());
+    }
+
+    @Test
+    public void getServerConfig() {
+        ServerConfig config = ramcloud.getServerConfig("mock:host=master1");
+        assertEquals("mock:host=master1", config.getLocalLocator());
+        assertNotNull(config.getMaster());
+        assertTrue(config.getSegmentSize() > 0);
+    }
+
+    @Test
+    public void getLogMetrics() {
+        LogMetrics metrics = ramcloud.getLogMetrics("mock:host=master1");
+        assertTrue(metrics.getTotalSeglets() > 0);
+        assertTrue(metrics.getTicksPerSecond() > 0);
+    }
+
+    @Test
+    public void getServerStatistics() {
+        ramcloud.write(tableId, key, "value");
+        ServerStatistics stats =
+                ramcloud.getServerStatistics("mock:host=master1");
+        boolean found = false;
+        for (ServerStatistics.TabletStatistics tablet : stats.getTablets()) {
+            found |= tablet.getTableId() == tableId;
+        }
+        assertTrue(found);
+        ramcloud.remove(tableId, key);
+    }
+
+    @Test(expectedExceptions = ClientException.class)
+    public void getLogMetrics_badLocator() {
+        ramcloud.getLogMetrics("mock:host=nobody");
+    }
 }
@@ -0,0 +1,268 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.CompletableFuture;
+
+import edu.stanford.ramcloud.*;
+import static edu.stanford.ramcloud.test.ClientTestClusterSetup.*;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for RAMCloudTransaction class.
+ */
+public class RAMCloudTransactionTest {
+    private long tableId;
+    private String key;
+
+    /**
+     * The key that each method will use to test with will be the
+     * method name.
+     */
+    @BeforeMethod
+    public void beforeMethod(Method method) {
+        key = method.getName();
+    }
+
+    @BeforeClass
+    public void RAMCloudTransactionTestSetup() {
+        tableId = ramcloud.createTable("transactionTestTable");
+    }
+
+    @AfterClass
+    public void RAMCloudTransactionTestCleanUp() {
+        ramcloud.dropTable("transactionTestTable");
+    }
+
+    @Test
+    public void readAll() {
+        int count = 50;
+        byte[][] keys = new byte[count + 1][];
+        for (int i = 0; i < count; i++) {
+            ramcloud.write(tableId, key + i, "value" + i);
+            keys[i] = (key + i).getBytes();
+        }
+        keys[count] = (key + "missing").getBytes();
+        RAMCloudTransaction tx = new RAMCloudTransaction(ramcloud);
+        RAMCloudObject[] objects = tx.readAll(tableId, keys);
+        assertEquals(count + 1, objects.length);
+        for (int i = 0; i < count; i++) {
+            assertEquals("value" + i, objects[i].getValue());
+        }
+        assertNull(objects[count]);
+        assertTrue(tx.commit());
+        tx.close();
+        for (int i = 0; i < count; i++) {
+            ramcloud.remove(tableId, key + i);
+        }
+    }
+
+    @Test
+    public void read_version() {
+        long version = ramcloud.write(tableId, key, "value");
+        RAMCloudTransaction tx = new RAMCloudTransaction(ramcloud);
+        assertEquals(version, tx.read(tableId, key).getVersion());
+        tx.write(tableId, key + "new", "value");
+        assertEquals(0, tx.read(tableId, key + "new").getVersion());
+        tx.close();
+        ramcloud.remove(tableId, key);
+    }
+
+    @Test
+    public void incrementInt64() {
+        RAMCloudTransaction tx = new RAMCloudTransaction(ramcloud);
+        assertEquals(5, tx.incrementInt64(tableId, key, 5));
+        assertEquals(2, tx.incrementInt64(tableId, key, -3));
+        assertTrue(tx.commit());
+        tx.close();
+        assertEquals(2, ramcloud.incrementInt64(tableId, key.getBytes(), 0,
+                                                null));
+        ramcloud.remove(tableId, key);
+    }
+
+    @Test
+    public void incrementDouble_bufferWrites() {
+        RAMCloudTransaction tx = new RAMCloudTransaction(ramcloud, true);
+        assertEquals(1.5, tx.incrementDouble(tableId, key, 1.5), 0.0);
+        assertEquals(4.0, tx.incrementDouble(tableId, key, 2.5), 0.0);
+        assertTrue(tx.commit());
+        tx.close();
+        byte[] value = ramcloud.read(tableId, key).getValueBytes();
+        assertEquals(4.0, ByteBuffer.wrap(value)
+                .order(ByteOrder.LITTLE_ENDIAN).getDouble(), 0.0);
+        ramcloud.remove(tableId, key);
+    }
+
+    @Test(expectedExceptions = ClientException.InvalidObjectException.class)
+    public void incrementInt64_wrongSize() {
+        ramcloud.write(tableId, key, "abc");
+        RAMCloudTransaction tx = new RAMCloudTransaction(ramcloud);
+        try {
+            tx.incrementInt64(tableId, key, 1);
+        } finally {
+            tx.close();
+            ramcloud.remove(tableId, key);
+        }
+    }
+
+    @Test
+    public void bufferWrites() {
+        ramcloud.write(tableId, key + "removed", "old");
+        ramcloud.write(tableId, key + "unbuffered", "value");
+        RAMCloudTransaction tx = new RAMCloudTransaction(ramcloud, true);
+        assertTrue(tx.isBufferingWrites());
+        tx.write(tableId, key, "first");
+        tx.write(tableId, key, "second");
+        tx.remove(tableId, key + "removed");
+        assertEquals("second", tx.read(tableId, key).getValue());
+        assertNull(tx.read(tableId, key + "removed"));
+        RAMCloudObject[] objects = tx.readAll(tableId, new byte[][] {
+            key.getBytes(),
+            (key + "unbuffered").getBytes(),
+            (key + "removed").getBytes()
+        });
+        assertEquals("second", objects[0].getValue());
+        assertEquals("value", objects[1].getValue());
+        assertNull(objects[2]);
+        assertEquals("old", ramcloud.read(tableId, key + "removed").getValue());
+        assertTrue(tx.commit());
+        tx.close();
+        assertEquals("second", ramcloud.read(tableId, key).getValue());
+        try {
+            ramcloud.read(tableId, key + "removed");
+            fail();
+        } catch (ClientException.ObjectDoesntExistException e) {
+        }
+        ramcloud.remove(tableId, key);
+        ramcloud.remove(tableId, key + "unbuffered");
+    }
+
+    @Test
+    public void bufferWrites_incrementCountedOnce() throws Exception {
+        RAMCloudTransaction tx = new RAMCloudTransaction(ramcloud, true);
+        Field operations =
+                RAMCloudTransaction.class.getDeclaredField("operations");
+        operations.setAccessible(true);
+        tx.incrementInt64(tableId, key.getBytes(), 1);
+        assertEquals(1, operations.getInt(tx));
+        tx.incrementInt64(tableId, key.getBytes(), 1);
+        assertEquals(2, operations.getInt(tx));
+        tx.close();
+    }
+
+    @Test
+    public void commitAsync() {
+        int count = 10;
+        RAMCloudTransaction[] txs = new RAMCloudTransaction[count];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[count];
+        for (int i = 0; i < count; i++) {
+            txs[i] = new RAMCloudTransaction(ramcloud);
+            txs[i].write(tableId, key + i, "value" + i);
+            futures[i] = txs[i].commitAsync();
+            assertSame(futures[i], txs[i].commitAsync());
+        }
+        assertEquals(count, ramcloud.getPendingCommitCount());
+        ramcloud.pollUntilDone(CompletableFuture.allOf(futures));
+        assertEquals(0, ramcloud.getPendingCommitCount());
+        for (int i = 0; i < count; i++) {
+            assertEquals(Boolean.TRUE, futures[i].join());
+            txs[i].close();
+            assertEquals("value" + i,
+                         ramcloud.read(tableId, key + i).getValue());
+            ramcloud.remove(tableId, key + i);
+        }
+    }
+
+    @Test
+    public void commitAsync_closeBeforeDone() {
+        RAMCloudTransaction tx = new RAMCloudTransaction(ramcloud);
+        tx.write(tableId, key, "value");
+        CompletableFuture<Boolean> future = tx.commitAsync();
+        tx.close();
+        assertTrue(future.isCancelled());
+        assertEquals(0, ramcloud.getPendingCommitCount());
+        ramcloud.remove(tableId, key);
+    }
+
+    @Test
+    public void clear() {
+        ramcloud.write(tableId, key, "old");
+        RAMCloudTransaction tx = new RAMCloudTransaction(ramcloud);
+        tx.write(tableId, key, "discarded");
+        tx.clear();
+        assertEquals("old", tx.read(tableId, key).getValue());
+        tx.write(tableId, key, "new");
+        assertTrue(tx.commit());
+        tx.clear();
+        tx.write(tableId, key, "newer");
+        assertTrue(tx.commit());
+        tx.close();
+        assertEquals("newer", ramcloud.read(tableId, key).getValue());
+        ramcloud.remove(tableId, key);
+    }
+
+    @Test
+    public void transactionPool() {
+        TransactionPool pool = new TransactionPool(ramcloud, 1);
+        RAMCloudTransaction first = pool.acquire();
+        RAMCloudTransaction second = pool.acquire();
+        assertNotSame(first, second);
+        first.write(tableId, key, "value");
+        pool.release(first);
+        pool.release(second);
+        assertEquals(1, pool.getIdleCount());
+        RAMCloudTransaction reused = pool.acquire();
+        assertSame(first, reused);
+        assertTrue(reused.commit());
+        pool.release(reused);
+        pool.close();
+        assertEquals(0, pool.getIdleCount());
+        try {
+            ramcloud.read(tableId, key);
+            fail();
+        } catch (ClientException.ObjectDoesntExistException e) {
+        }
+    }
+
+    @Test
+    public void runTransaction() {
+        ramcloud.write(tableId, key, "1");
+        long commits = ramcloud.getTransactionMetrics().getCommits();
+        String result = ramcloud.runTransaction(tx -> {
+            String value = tx.read(tableId, key).getValue();
+            tx.write(tableId, key, value + "2");
+            return value;
+        });
+        assertEquals("1", result);
+        assertEquals("12", ramcloud.read(tableId, key).getValue());
+        assertEquals(commits + 1,
+                     ramcloud.getTransactionMetrics().getCommits());
+        ramcloud.remove(tableId, key);
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void runTransaction_bodyThrows() {
+        ramcloud.runTransaction(tx -> {
+            throw new RuntimeException();
+        });
+    }
+}
@@ -0,0 +1,129 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.multiop.*;
+import static edu.stanford.ramcloud.test.ClientTestClusterSetup.*;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * Unit tests for the ReadBatch and ReadBatchHandler classes
+ */
+public class ReadBatchHandlerTest {
+    private static void setBatch(ReadBatchHandler handler, ReadBatch batch)
+            throws Exception {
+        Field field = ReadBatchHandler.class.getDeclaredField("batch");
+        field.setAccessible(true);
+        field.set(handler, batch);
+    }
+
+    @Test
+    public void add_grow() {
+        ReadBatch batch = new ReadBatch(1);
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, batch.add(i, "key" + i));
+        }
+        assertEquals(5000, batch.size());
+        assertEquals(4321, batch.getTableId(4321));
+        assertArrayEquals("key4321".getBytes(), batch.getKeyBytes(4321));
+        assertEquals(-1, batch.getVersion(4321));
+        assertEquals(-1, batch.getValueLength(4321));
+        batch.clear();
+        assertEquals(0, batch.size());
+        assertEquals(0, batch.add(1, "again"));
+        assertArrayEquals("again".getBytes(), batch.getKeyBytes(0));
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void getTableId_outOfBounds() {
+        ReadBatch batch = new ReadBatch();
+        batch.add(1, "key");
+        batch.getTableId(1);
+    }
+
+    @Test
+    public void loadRequest() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(60);
+        ReadBatch batch = new ReadBatch();
+        batch.add(1, "unused");
+        byte[] key = "This is the key".getBytes();
+        batch.add(7, key);
+        ReadBatchHandler handler = new ReadBatchHandler(buffer, 0, 0);
+        setBatch(handler, batch);
+        Boolean success = (Boolean) invoke(
+                handler, "loadRequest",
+                new Class[] {ByteBuffer.class, int.class},
+                buffer, 1);
+        assertTrue(success);
+        assertEquals(key.length + 22, buffer.position());
+        buffer.rewind();
+        assertEquals(7, buffer.getLong());
+        assertEquals(key.length, buffer.getShort());
+        byte[] keyCheck = new byte[key.length];
+        buffer.get(keyCheck);
+        assertArrayEquals(key, keyCheck);
+    }
+
+    @Test
+    public void loadRequest_overflow() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(30);
+        ReadBatch batch = new ReadBatch();
+        batch.add(1, "This is the key");
+        ReadBatchHandler handler = new ReadBatchHandler(buffer, 0, 0);
+        setBatch(handler, batch);
+        Boolean success = (Boolean) invoke(
+                handler, "loadRequest",
+                new Class[] {ByteBuffer.class, int.class},
+                buffer, 0);
+        assertFalse(success);
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void unloadResult() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(50);
+        byte[] value = "This is the value".getBytes();
+        buffer.putLong(3)
+                .putInt(value.length)
+                .put(value)
+                .putInt(42)
+                .rewind();
+        ReadBatch batch = new ReadBatch();
+        batch.add(1, "key0");
+        batch.add(1, "key1");
+        assertNull(batch.getStatus(0));
+        ReadBatchHandler handler = new ReadBatchHandler(buffer, 0, 0);
+        setBatch(handler, batch);
+        Class[] args = new Class[] {ByteBuffer.class, int.class, int.class};
+        invoke(handler, "unloadResult", args, buffer, 0, 0);
+        invoke(handler, "unloadResult", args, buffer, 1,
+               Status.STATUS_OBJECT_DOESNT_EXIST.ordinal());
+        assertEquals(42, buffer.getInt());
+        assertEquals(Status.STATUS_OK, batch.getStatus(0));
+        assertEquals(3, batch.getVersion(0));
+        assertArrayEquals(value, batch.getValueBytes(0));
+        assertEquals(value.length, batch.getValue(0).remaining());
+        assertEquals(Status.STATUS_OBJECT_DOESNT_EXIST, batch.getStatus(1));
+        assertEquals(-1, batch.getVersion(1));
+        assertNull(batch.getValue(1));
+    }
+}
@@ -0,0 +1,231 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.server.*;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for the classes decoding server statistics.
+ */
+public class ServerStatsTest {
+    /**
+     * Builds serialized protocol buffers for the tests.
+     */
+    private static class Message {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private void little(long value, int length) {
+            for (int i = 0; i < length; i++) {
+                out.write((int) (value >>> (8 * i)) & 0xFF);
+            }
+        }
+
+        Message varint(int field, long value) {
+            varint(field << 3);
+            varint(value);
+            return this;
+        }
+
+        Message fixed64(int field, long value) {
+            varint(field << 3 | 1);
+            little(value, 8);
+            return this;
+        }
+
+        Message fixed32(int field, int value) {
+            varint(field << 3 | 5);
+            little(value, 4);
+            return this;
+        }
+
+        Message doubleField(int field, double value) {
+            return fixed64(field, Double.doubleToLongBits(value));
+        }
+
+        Message bytes(int field, byte[] value) {
+            varint(field << 3 | 2);
+            varint(value.length);
+            out.write(value, 0, value.length);
+            return this;
+        }
+
+        Message string(int field, String value) {
+            return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Message message(int field, Message value) {
+            return bytes(field, value.toBytes());
+        }
+
+        byte[] toBytes() {
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    public void serverConfig() {
+        byte[] message = new Message()
+                .string(1, "coordinator")
+                .string(2, "mock:host=master1")
+                .string(4, "MASTER_SERVICE")
+                .varint(5, 1)
+                .fixed32(7, 8 * 1024 * 1024)
+                .message(12, new Message()
+                         .fixed64(1, 1L << 32)
+                         .doubleField(5, 8.0)
+                         .string(7, "tombstoneRatio")
+                         .fixed32(9, 3))
+                .fixed32(99, 7) // Unknown fields are skipped.
+                .toBytes();
+        ServerConfig config = ServerConfig.parse(message);
+        assertEquals("coordinator", config.getCoordinatorLocator());
+        assertEquals("mock:host=master1", config.getLocalLocator());
+        assertEquals("MASTER_SERVICE", config.getServices());
+        assertTrue(config.isDetectFailures());
+        assertEquals(8 * 1024 * 1024, config.getSegmentSize());
+        assertEquals(1L << 32, config.getMaster().getLogBytes());
+        assertEquals(8.0, config.getMaster().getBackupDiskExpansionFactor());
+        assertEquals("tombstoneRatio", config.getMaster().getCleanerBalancer());
+        assertEquals(3, config.getMaster().getNumReplicas());
+        assertNull(config.getBackup());
+    }
+
+    @Test
+    public void logMetrics() {
+        byte[] message = new Message()
+                .doubleField(1, 1000.0)
+                .fixed64(7, 12345)
+                .message(9, new Message()
+                         .fixed32(1, 10)
+                         .message(9, new Message()
+                                  .fixed64(6, 4)
+                                  .fixed64(8, 1)
+                                  .fixed64(8, 2))
+                         .message(10, new Message()
+                                  .fixed64(8, 5)
+                                  .fixed64(11, 6)
+                                  .message(30, new Message()
+                                           .fixed64(1, 10))))
+                .message(10, new Message()
+                         .fixed64(1, 110)
+                         .fixed64(2, 100)
+                         .fixed64(7, 25))
+                .message(11, new Message().fixed64(2, 9))
+                .toBytes();
+        LogMetrics metrics = LogMetrics.parse(message);
+        assertEquals(1000.0, metrics.getTicksPerSecond());
+        assertEquals(2.5, metrics.ticksToSeconds(2500));
+        assertEquals(12345, metrics.getBytesAppended());
+        assertEquals(4, metrics.getCompactor().getSegmentsCompacted());
+        assertEquals(5, metrics.getCleaner().getSegmentsCleaned());
+        assertEquals(6, metrics.getCleaner().getRuns());
+        assertEquals(100, metrics.getUsableSeglets());
+        assertEquals(25, metrics.getFreeSeglets());
+        assertEquals(0.75, metrics.getMemoryUtilization());
+        assertEquals(9, metrics.getSegmentsOnDisk());
+    }
+
+    @Test
+    public void serverStatistics() {
+        byte[] message = new Message()
+                .message(1, new Message()
+                         .varint(1, 7)
+                         .varint(2, 0)
+                         .varint(3, -1L)
+                         .varint(4, 300))
+                .message(2, new Message()
+                         .message(1, new Message()
+                                  .string(1, "hashTable")
+                                  .fixed64(2, 10)
+                                  .fixed64(3, 2)
+                                  .fixed64(4, 500)))
+                .toBytes();
+        ServerStatistics stats = ServerStatistics.parse(message);
+        assertEquals(1, stats.getTablets().size());
+        assertEquals(7, stats.getTablets().get(0).getTableId());
+        assertEquals(-1L, stats.getTablets().get(0).getEndKeyHash());
+        assertEquals(300, stats.getTablets().get(0).getReadsAndWrites());
+        assertEquals(1, stats.getLocks().size());
+        assertEquals("hashTable", stats.getLocks().get(0).getName());
+        assertEquals(500, stats.getLocks().get(0).getContendedNanos());
+    }
+
+    @Test
+    public void perfStats() {
+        long[] before = new long[PerfStats.Counter.values().length];
+        long[] after = before.clone();
+        after[PerfStats.Counter.READ_COUNT.ordinal()] = 2000;
+        after[PerfStats.Counter.WORKER_ACTIVE_CYCLES.ordinal()] = 500;
+        PerfStats first = new PerfStats(1, 1000, 1000.0, before);
+        PerfStats second = new PerfStats(1, 3000, 1000.0, after);
+        assertEquals(2.0, second.getSecondsSince(first));
+        assertEquals(1000.0,
+                     second.getRate(first, PerfStats.Counter.READ_COUNT));
+        assertEquals(0.25, second.getUtilization(
+                first, PerfStats.Counter.WORKER_ACTIVE_CYCLES));
+        assertTrue(Double.isNaN(
+                first.getRate(first, PerfStats.Counter.READ_COUNT)));
+
+        // Older servers may send fewer counters.
+        PerfStats shorter = new PerfStats(1, 0, 1.0, new long[] {5});
+        assertEquals(5, shorter.get(PerfStats.Counter.READ_COUNT));
+        assertEquals(0, shorter.get(PerfStats.Counter.NETWORK_INPUT_BYTES));
+    }
+
+    @Test
+    public void masterSample() {
+        long[] counters = new long[PerfStats.Counter.values().length];
+        ServerInfo master = new ServerInfo(1, "mock:host=master1",
+                                           ServerInfo.MASTER_SERVICE,
+                                           ServerInfo.STATUS_UP);
+        PerfStats stats = new PerfStats(1, 1000, 1000.0, counters);
+        MasterSample first = new MasterSample(master, 0, stats, null, null);
+        assertTrue(Double.isNaN(first.getRate(PerfStats.Counter.READ_COUNT)));
+        counters[PerfStats.Counter.WRITE_COUNT.ordinal()] = 10;
+        MasterSample second = new MasterSample(
+                master, 1, new PerfStats(1, 2000, 1000.0, counters), stats,
+                null);
+        assertEquals(10.0, second.getRate(PerfStats.Counter.WRITE_COUNT));
+    }
+
+    @Test
+    public void serverMetrics() {
+        HashMap<String, Long> before = new HashMap<>();
+        before.put("master.readCount", 5L);
+        HashMap<String, Long> after = new HashMap<>();
+        after.put("master.readCount", 12L);
+        after.put("master.writeCount", 3L);
+        ServerMetrics difference =
+                new ServerMetrics(after).difference(new ServerMetrics(before));
+        assertEquals(7, difference.get("master.readCount"));
+        assertEquals(3, difference.get("master.writeCount"));
+        assertEquals(0, difference.get("missing"));
+    }
+}
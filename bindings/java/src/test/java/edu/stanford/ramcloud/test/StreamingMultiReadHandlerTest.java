@@ -0,0 +1,121 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.multiop.*;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Unit tests for the StreamingMultiReadHandler class
+ */
+public class StreamingMultiReadHandlerTest {
+    /**
+     * Answers each batch without C++, reporting every object as missing.
+     */
+    private static class FakeHandler extends StreamingMultiReadHandler {
+        private final ByteBuffer buffer;
+        int batches;
+
+        FakeHandler(ByteBuffer buffer) {
+            super(buffer, 0, 0);
+            this.buffer = buffer;
+        }
+
+        @Override
+        protected void callCppHandle(long byteBufferPointer,
+                                     long phaseTimesPointer) {
+            batches++;
+            int startIndex = buffer.getInt(8);
+            int numObjects = buffer.getInt(12);
+            buffer.rewind();
+            buffer.putInt(startIndex).putInt(numObjects);
+            for (int i = 0; i < numObjects; i++) {
+                buffer.putInt(Status.STATUS_OBJECT_DOESNT_EXIST.ordinal());
+            }
+            try {
+                Method unloadBuffer =
+                        MultiOpHandler.class.getDeclaredMethod("unloadBuffer");
+                unloadBuffer.setAccessible(true);
+                unloadBuffer.invoke(this);
+            } catch (ReflectiveOperationException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private MultiReadObject[] request(int count) {
+        MultiReadObject[] reads = new MultiReadObject[count];
+        for (int i = 0; i < count; i++) {
+            reads[i] = new MultiReadObject(1, ("key" + i).getBytes());
+        }
+        return reads;
+    }
+
+    @Test
+    public void handle() {
+        FakeHandler handler = new FakeHandler(ByteBuffer.allocateDirect(1000));
+        handler.setBatchLimit(2);
+        final int[] seen = new int[1];
+        handler.handle(request(5), new MultiReadConsumer() {
+            public void accept(int index, Status status, long version,
+                               ByteBuffer value) {
+                assertEquals(seen[0]++, index);
+                assertEquals(Status.STATUS_OBJECT_DOESNT_EXIST, status);
+                assertNull(value);
+            }
+        });
+        assertEquals(5, seen[0]);
+        assertEquals(3, handler.batches);
+    }
+
+    @Test
+    public void handle_consumerThrowsStopsRequest() {
+        FakeHandler handler = new FakeHandler(ByteBuffer.allocateDirect(1000));
+        handler.setBatchLimit(2);
+        final IllegalStateException thrown = new IllegalStateException();
+        final int[] seen = new int[1];
+        try {
+            handler.handle(request(6), new MultiReadConsumer() {
+                public void accept(int index, Status status, long version,
+                                   ByteBuffer value) {
+                    seen[0]++;
+                    throw thrown;
+                }
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(thrown, e);
+        }
+        assertEquals(1, seen[0]);
+        assertEquals(1, handler.batches);
+
+        // The handler can be reused after a failed request.
+        seen[0] = 0;
+        handler.handle(request(2), new MultiReadConsumer() {
+            public void accept(int index, Status status, long version,
+                               ByteBuffer value) {
+                seen[0]++;
+            }
+        });
+        assertEquals(2, seen[0]);
+    }
+}
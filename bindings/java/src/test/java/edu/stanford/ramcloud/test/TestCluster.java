@@ -19,8 +19,25 @@ public class TestCluster {
         createMockCluster(pointers);
     }
 
+    /**
+     * Construct a new TestCluster with one master sized for benchmarks: its
+     * log cleaner runs, so objects can be overwritten indefinitely.
+     *
+     * @param logMegabytes
+     *      The size of the master's log.
+     * @param maxObjectDataSize
+     *      The largest value the master accepts, in bytes. At most 32 KB.
+     */
+    public TestCluster(int logMegabytes, int maxObjectDataSize) {
+        pointers = new long[2];
+        createBenchmarkCluster(pointers, logMegabytes, maxObjectDataSize);
+    }
+
     // Native methods documented in corresponding C++ file.
     private static native void createMockCluster(long[] pointers);
+    private static native void createBenchmarkCluster(long[] pointers,
+                                                      int logMegabytes,
+                                                      int maxObjectDataSize);
     private static native void destroy(long[] pointers);
 
     /**
@@ -0,0 +1,53 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.perf.*;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for TimeDist class.
+ */
+public class TimeDistTest {
+    @Test
+    public void percentiles() {
+        long[] nanos = new long[1000];
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = nanos.length - i;
+        }
+        TimeDist dist = new TimeDist(nanos, nanos.length);
+        assertEquals(1e-09, dist.min, 1e-15);
+        assertEquals(501e-09, dist.p50, 1e-15);
+        assertEquals(901e-09, dist.p90, 1e-15);
+        assertEquals(991e-09, dist.p99, 1e-15);
+        assertEquals(1000e-09, dist.p999, 1e-15);
+        // Too few samples for these to be meaningful.
+        assertEquals(0.0, dist.p9999, 0.0);
+        assertEquals(0.0, dist.p99999, 0.0);
+    }
+
+    @Test
+    public void percentiles_partial() {
+        long[] nanos = {30, 10, 20, 1000};
+        TimeDist dist = new TimeDist(nanos, 3);
+        assertEquals(10e-09, dist.min, 1e-15);
+        assertEquals(20e-09, dist.p50, 1e-15);
+        assertEquals(0.0, dist.p90, 0.0);
+        assertEquals(1000, nanos[3]);
+    }
+}
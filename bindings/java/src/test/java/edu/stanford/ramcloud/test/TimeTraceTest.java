@@ -0,0 +1,129 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.trace.*;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for the Java TimeTrace and the merging of traces.
+ */
+public class TimeTraceTest {
+    @BeforeMethod
+    public void setUp() {
+        TimeTrace.reset();
+    }
+
+    @Test
+    public void record_getEvents() {
+        TimeTrace.record(100, "point a", 0, 0, 0, 0);
+        TimeTrace.record(200, "point b %d %d", 7, 8, 0, 0);
+        List<TraceEvent> events = TimeTrace.getEvents();
+        assertEquals(2, events.size());
+        assertEquals(100, events.get(0).getNanos());
+        assertEquals("point a", events.get(0).getMessage());
+        assertEquals("point b 7 8", events.get(1).getMessage());
+        assertEquals(TraceEvent.Source.JAVA, events.get(1).getSource());
+    }
+
+    @Test
+    public void getEvents_wrapAround() {
+        for (int i = 0; i < (1 << 14) + 10; i++) {
+            TimeTrace.record(i, "event %d", i, 0, 0, 0);
+        }
+        List<TraceEvent> events = TimeTrace.getEvents();
+        assertEquals(1 << 14, events.size());
+        assertEquals(10, events.get(0).getNanos());
+        assertEquals("event 10", events.get(0).getMessage());
+        assertEquals((1 << 14) + 9,
+                     events.get(events.size() - 1).getNanos());
+    }
+
+    @Test
+    public void getEvents_otherThread() throws InterruptedException {
+        TimeTrace.record(300, "main", 0, 0, 0, 0);
+        Thread thread = new Thread(
+                () -> TimeTrace.record(200, "other", 0, 0, 0, 0));
+        thread.start();
+        thread.join();
+        TimeTrace.record(400, "main again", 0, 0, 0, 0);
+        List<TraceEvent> events = TimeTrace.getEvents();
+        assertEquals(2, events.size());
+        assertEquals("main", events.get(0).getMessage());
+        assertEquals("main again", events.get(1).getMessage());
+    }
+
+    @Test
+    public void getEvents_grow() {
+        for (int i = 0; i < 1000; i++) {
+            TimeTrace.record(i, "event %d", i, 0, 0, 0);
+        }
+        List<TraceEvent> events = TimeTrace.getEvents();
+        assertEquals(1000, events.size());
+        assertEquals("event 0", events.get(0).getMessage());
+        assertEquals("event 999", events.get(999).getMessage());
+    }
+
+    @Test
+    public void getEvents_exitedThreadRemoved() throws InterruptedException {
+        TimeTrace.record(100, "main", 0, 0, 0, 0);
+        Thread thread = new Thread(
+                () -> TimeTrace.record(350, "exited", 0, 0, 0, 0));
+        thread.start();
+        thread.join();
+        // Starting to trace in another thread drops the buffer of the thread
+        // that exited.
+        thread = new Thread(() -> TimeTrace.record(300, "other", 0, 0, 0, 0));
+        thread.start();
+        thread.join();
+        TimeTrace.record(400, "main again", 0, 0, 0, 0);
+        List<TraceEvent> events = TimeTrace.getEvents();
+        assertEquals(2, events.size());
+        assertEquals("other", events.get(0).getMessage());
+        assertEquals("main again", events.get(1).getMessage());
+    }
+
+    @Test
+    public void getEvents_badFormat() {
+        TimeTrace.record(100, "bad %s %q", 1, 0, 0, 0);
+        assertEquals("bad %s %q", TimeTrace.getEvents().get(0).getMessage());
+    }
+
+    @Test
+    public void cyclesToNanoTime() {
+        assertEquals(1500, TimeTrace.cyclesToNanoTime(3000, 1000, 500, 2e9));
+        assertEquals(0, TimeTrace.cyclesToNanoTime(0, 1000, 500, 2e9));
+    }
+
+    @Test
+    public void timeline() {
+        List<TraceEvent> java = Arrays.asList(
+                new TraceEvent(100, TraceEvent.Source.JAVA, "a"),
+                new TraceEvent(300, TraceEvent.Source.JAVA, "c"));
+        List<TraceEvent> cpp = Arrays.asList(
+                new TraceEvent(50, TraceEvent.Source.NATIVE, "too old"),
+                new TraceEvent(200, TraceEvent.Source.NATIVE, "b"));
+        Timeline timeline = new Timeline(java, cpp);
+        assertEquals(3, timeline.getEvents().size());
+        assertEquals("     0.0 ns (+   0.0 ns): [java] a\n"
+                + "   100.0 ns (+ 100.0 ns): [c++] b\n"
+                + "   200.0 ns (+ 100.0 ns): [java] c", timeline.toString());
+    }
+}
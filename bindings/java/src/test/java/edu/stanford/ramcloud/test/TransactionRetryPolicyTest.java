@@ -0,0 +1,103 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.*;
+
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Unit tests for TransactionRetryPolicy class.
+ */
+public class TransactionRetryPolicyTest {
+    @Test
+    public void getBackoffNanos() {
+        TransactionRetryPolicy policy = new TransactionRetryPolicy();
+        policy.setInitialBackoff(100, TimeUnit.NANOSECONDS);
+        policy.setMaxBackoff(1000, TimeUnit.NANOSECONDS);
+        for (int i = 0; i < 100; i++) {
+            long first = policy.getBackoffNanos(1);
+            assertTrue(first >= 50 && first <= 100);
+            long third = policy.getBackoffNanos(3);
+            assertTrue(third >= 200 && third <= 400);
+            long capped = policy.getBackoffNanos(10);
+            assertTrue(capped >= 500 && capped <= 1000);
+            long overflow = policy.getBackoffNanos(Integer.MAX_VALUE);
+            assertTrue(overflow >= 500 && overflow <= 1000);
+        }
+    }
+
+    @Test
+    public void defaults() {
+        TransactionRetryPolicy policy = new TransactionRetryPolicy();
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(100),
+                     policy.getInitialBackoffNanos());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100),
+                     policy.getMaxBackoffNanos());
+        assertEquals(TimeUnit.SECONDS.toNanos(10), policy.getDeadlineNanos());
+        assertEquals(Integer.MAX_VALUE, policy.getMaxAttempts());
+    }
+
+    @Test
+    public void shouldRetry_maxAttempts() {
+        TransactionRetryPolicy policy = new TransactionRetryPolicy();
+        policy.setMaxAttempts(3);
+        assertEquals(3, policy.getMaxAttempts());
+        assertTrue(policy.shouldRetry(1, 0, 0));
+        assertTrue(policy.shouldRetry(2, 0, 0));
+        assertFalse(policy.shouldRetry(3, 0, 0));
+
+        policy.setMaxAttempts(1);
+        assertFalse(policy.shouldRetry(1, 0, 0));
+    }
+
+    @Test
+    public void shouldRetry_deadline() {
+        TransactionRetryPolicy policy = new TransactionRetryPolicy();
+        policy.setDeadline(1, TimeUnit.MILLISECONDS);
+        assertEquals(1000000, policy.getDeadlineNanos());
+        assertTrue(policy.shouldRetry(1, 400000, 600000));
+        assertFalse(policy.shouldRetry(1, 400000, 600001));
+        assertFalse(policy.shouldRetry(1, 2000000, 0));
+
+        policy.setDeadline(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        assertTrue(policy.shouldRetry(1, 1000000,
+                                      policy.getMaxBackoffNanos()));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void setInitialBackoff_negative() {
+        new TransactionRetryPolicy().setInitialBackoff(-1,
+                                                       TimeUnit.MICROSECONDS);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void setMaxBackoff_negative() {
+        new TransactionRetryPolicy().setMaxBackoff(-1, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void setDeadline_negative() {
+        new TransactionRetryPolicy().setDeadline(-1, TimeUnit.SECONDS);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void setMaxAttempts_zero() {
+        new TransactionRetryPolicy().setMaxAttempts(0);
+    }
+}
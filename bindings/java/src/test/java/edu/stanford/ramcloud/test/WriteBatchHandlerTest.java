@@ -0,0 +1,169 @@
+/* Copyright (c) 2014 Stanford University
+ *
+ * Permission to use, copy, modify, and distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR(S) DISCLAIM ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL AUTHORS BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package edu.stanford.ramcloud.test;
+
+import edu.stanford.ramcloud.*;
+import edu.stanford.ramcloud.codec.*;
+import edu.stanford.ramcloud.multiop.*;
+import static edu.stanford.ramcloud.test.ClientTestClusterSetup.*;
+
+import org.testng.annotations.*;
+import static org.testng.AssertJUnit.*;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * Unit tests for the WriteBatch and WriteBatchHandler classes
+ */
+public class WriteBatchHandlerTest {
+    private static void setBatch(WriteBatchHandler handler, WriteBatch batch)
+            throws Exception {
+        Field field = WriteBatchHandler.class.getDeclaredField("batch");
+        field.setAccessible(true);
+        field.set(handler, batch);
+    }
+
+    @Test
+    public void add_grow() {
+        WriteBatch batch = new WriteBatch(1);
+        String value = "a";
+        for (int j = 0; j < 10; j++) {
+            value += value;
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, batch.add(i, "key" + i, value + i));
+        }
+        assertEquals(100, batch.size());
+        assertArrayEquals("key99".getBytes(), batch.getKeyBytes(99));
+        assertEquals(value.length() + 2, batch.getValueLength(99));
+    }
+
+    @Test
+    public void add_codecThrows() {
+        WriteBatch batch = new WriteBatch();
+        batch.add(1, "key0", "value0");
+        Codec<String> codec = new Codec<String>() {
+            public int encodedLength(String value) {
+                return 100;
+            }
+            public void encode(String value, ByteBuffer buffer) {
+                buffer.put(value.getBytes());
+                throw new IllegalStateException();
+            }
+            public String decode(ByteBuffer buffer, int length) {
+                return null;
+            }
+        };
+        try {
+            batch.add(1, "key1".getBytes(), "value1", codec);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        assertEquals(1, batch.size());
+        assertEquals(1, batch.add(1, "key2".getBytes(), "value22",
+                                  Utf8Codec.INSTANCE));
+        assertEquals(6, batch.getValueLength(0));
+        assertEquals(7, batch.getValueLength(1));
+        assertArrayEquals("key2".getBytes(), batch.getKeyBytes(1));
+    }
+
+    @Test
+    public void add_codecWrongLength() {
+        WriteBatch batch = new WriteBatch();
+        Codec<String> codec = new Codec<String>() {
+            public int encodedLength(String value) {
+                return 1;
+            }
+            public void encode(String value, ByteBuffer buffer) {
+                buffer.put(value.getBytes());
+            }
+            public String decode(ByteBuffer buffer, int length) {
+                return null;
+            }
+        };
+        try {
+            batch.add(1, "key1".getBytes(), "value1", codec);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        assertEquals(0, batch.size());
+    }
+
+    @Test
+    public void loadRequest() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(80);
+        WriteBatch batch = new WriteBatch();
+        byte[] key = "This is the key".getBytes();
+        byte[] value = "This is the value".getBytes();
+        batch.add(1, "unused", "unused");
+        batch.add(7, key, value);
+        WriteBatchHandler handler = new WriteBatchHandler(buffer, 0, 0);
+        setBatch(handler, batch);
+        Boolean success = (Boolean) invoke(
+                handler, "loadRequest",
+                new Class[] {ByteBuffer.class, int.class},
+                buffer, 1);
+        assertTrue(success);
+        assertEquals(key.length + value.length + 26, buffer.position());
+        buffer.rewind();
+        assertEquals(7, buffer.getLong());
+        assertEquals(key.length, buffer.getShort());
+        byte[] keyCheck = new byte[key.length];
+        buffer.get(keyCheck);
+        assertArrayEquals(key, keyCheck);
+        assertEquals(value.length, buffer.getInt());
+        byte[] valueCheck = new byte[value.length];
+        buffer.get(valueCheck);
+        assertArrayEquals(value, valueCheck);
+    }
+
+    @Test
+    public void loadRequest_overflow() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(40);
+        WriteBatch batch = new WriteBatch();
+        batch.add(1, "This is the key", "This is the value");
+        WriteBatchHandler handler = new WriteBatchHandler(buffer, 0, 0);
+        setBatch(handler, batch);
+        Boolean success = (Boolean) invoke(
+                handler, "loadRequest",
+                new Class[] {ByteBuffer.class, int.class},
+                buffer, 0);
+        assertFalse(success);
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void unloadResult() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(50);
+        buffer.putLong(3).putInt(42).rewind();
+        WriteBatch batch = new WriteBatch();
+        batch.add(1, "key0", "value0");
+        batch.add(1, "key1", "value1");
+        assertNull(batch.getStatus(0));
+        WriteBatchHandler handler = new WriteBatchHandler(buffer, 0, 0);
+        setBatch(handler, batch);
+        Class[] args = new Class[] {ByteBuffer.class, int.class, int.class};
+        invoke(handler, "unloadResult", args, buffer, 0, 0);
+        invoke(handler, "unloadResult", args, buffer, 1,
+               Status.STATUS_WRONG_VERSION.ordinal());
+        assertEquals(42, buffer.getInt());
+        assertEquals(3, batch.getVersion(0));
+        assertEquals(Status.STATUS_OK, batch.getStatus(0));
+        assertEquals(-1, batch.getVersion(1));
+        assertEquals(Status.STATUS_WRONG_VERSION, batch.getStatus(1));
+    }
+}
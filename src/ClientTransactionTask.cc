@@ -48,6 +48,29 @@ ClientTransactionTask::ClientTransactionTask(RamCloud* ramcloud)
     RAMCLOUD_TEST_LOG("Constructor called.");
 }
 
+/**
+ * Return this task to the state of a newly constructed task so that it can
+ * represent a new transaction, keeping any memory it has already allocated
+ * where possible.  Must only be called when no commit is in progress (the task
+ * has either not been started or is done).
+ */
+void
+ClientTransactionTask::reset()
+{
+    readOnly = true;
+    participantCount = 0;
+    participantList.reset();
+    state = INIT;
+    decision = WireFormat::TxDecision::UNDECIDED;
+    lease = {0, 0, 0};
+    txId = 0;
+    prepareRpcs.clear();
+    decisionRpcs.clear();
+    commitCache.clear();
+    nextCacheEntry = commitCache.end();
+    startTime = 0;
+}
+
 /**
  * Find and return the cache entry identified by the given key.
  *
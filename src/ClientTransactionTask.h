@@ -85,6 +85,7 @@ class ClientTransactionTask : public RpcTracker::TrackedRpc {
                 (state == DECISION && nextCacheEntry == commitCache.end()));
     }
     void performTask();
+    void reset();
 
   PRIVATE:
     // Forward declaration of RPCs
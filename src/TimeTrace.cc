@@ -36,6 +36,28 @@ TimeTrace::createThreadBuffer()
     }
 }
 
+/**
+ * Return all of the trace records from all of the thread-local buffers,
+ * merged in time order, without formatting their timestamps. This allows
+ * callers such as the Java bindings to combine the trace with events
+ * recorded elsewhere.
+ *
+ * \param[out] records
+ *      The records are appended here.
+ */
+void
+TimeTrace::getRecords(std::vector<Record>* records)
+{
+    std::vector<TimeTrace::Buffer*> buffers;
+    activeReaders.add(1);
+    {
+        SpinLock::Guard guard(mutex);
+        buffers = threadBuffers;
+    }
+    TimeTrace::printInternal(&buffers, NULL, records);
+    activeReaders.add(-1);
+}
+
 /**
  * Return a string containing all of the trace records from all of the
  * thread-local buffers.
@@ -68,10 +90,14 @@ TimeTrace::getTrace()
  *      from some traces.
  * \param s
  *      If non-NULL, refers to a string that will hold a printout of the
- *      time trace. If NULL, the trace will be printed on the system log.
+ *      time trace. If NULL, the trace will be printed on the system log,
+ *      unless records is non-NULL.
+ * \param records
+ *      If non-NULL, the events are appended here instead of being printed.
  */
 void
-TimeTrace::printInternal(std::vector<TimeTrace::Buffer*>* buffers, string* s)
+TimeTrace::printInternal(std::vector<TimeTrace::Buffer*>* buffers, string* s,
+        std::vector<Record>* records)
 {
     bool printedAnything = false;
 
@@ -106,8 +132,10 @@ TimeTrace::printInternal(std::vector<TimeTrace::Buffer*>* buffers, string* s)
             startTime = event->timestamp;
         }
     }
-    RAMCLOUD_LOG(NOTICE, "Starting TSC %lu, cyclesPerSec %.0f", startTime,
-            Cycles::perSecond());
+    if (records == NULL) {
+        RAMCLOUD_LOG(NOTICE, "Starting TSC %lu, cyclesPerSec %.0f", startTime,
+                Cycles::perSecond());
+    }
 
     // Skip all events before the starting time.
     for (uint32_t i = 0; i < buffers->size(); i++) {
@@ -151,7 +179,14 @@ TimeTrace::printInternal(std::vector<TimeTrace::Buffer*>* buffers, string* s)
 
         char message[1000];
         double ns = Cycles::toSeconds(event->timestamp - startTime) * 1e09;
-        if (s != NULL) {
+        if (records != NULL) {
+#pragma GCC diagnostic push
+#pragma GCC diagnostic ignored "-Wformat-nonliteral"
+            snprintf(message, sizeof(message), event->format, event->arg0,
+                     event->arg1, event->arg2, event->arg3);
+#pragma GCC diagnostic pop
+            records->push_back({event->timestamp, message});
+        } else if (s != NULL) {
             if (s->length() != 0) {
                 s->append("\n");
             }
@@ -184,7 +219,7 @@ TimeTrace::printInternal(std::vector<TimeTrace::Buffer*>* buffers, string* s)
         prevTime = ns;
     }
 
-    if (!printedAnything) {
+    if (!printedAnything && records == NULL) {
         if (s != NULL) {
             s->append("No time trace events to print");
         } else {
@@ -53,6 +53,18 @@ namespace RAMCloud {
 class TimeTrace {
   public:
     class Buffer;
+
+    /**
+     * One event of a merged trace, as returned by getRecords.
+     */
+    struct Record {
+        /// Time when the event occurred, in Cycles::rdtsc ticks.
+        uint64_t timestamp;
+        /// The event's format string, with its arguments filled in.
+        string message;
+    };
+
+    static void getRecords(std::vector<Record>* records);
     static string getTrace();
     static void printToLog();
     static void printToLogBackground(Dispatch* dispatch);
@@ -105,7 +117,7 @@ class TimeTrace {
     TimeTrace();
     static void createThreadBuffer();
     static void printInternal(std::vector<TimeTrace::Buffer*>* traces,
-            string* s);
+            string* s, std::vector<Record>* records = NULL);
 
     /**
      * This class is used to print the time trace to the log in the
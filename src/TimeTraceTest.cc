@@ -53,6 +53,31 @@ class TimeTraceTest : public ::testing::Test {
     DISALLOW_COPY_AND_ASSIGN(TimeTraceTest);
 };
 
+TEST_F(TimeTraceTest, getRecords) {
+    TimeTrace::record(100, "point a");
+    buffer.record(100, "point b %d", 7);
+    TimeTrace::threadBuffers.push_back(&buffer);
+    std::vector<TimeTrace::Record> records;
+    TimeTrace::getRecords(&records);
+    TimeTrace::threadBuffers.pop_back();
+    ASSERT_EQ(2U, records.size());
+    EXPECT_EQ(100U, records[0].timestamp);
+    EXPECT_EQ("point a", records[0].message);
+    EXPECT_EQ(100U, records[1].timestamp);
+    EXPECT_EQ("point b 7", records[1].message);
+    EXPECT_EQ(0, TimeTrace::activeReaders.load());
+}
+
+TEST_F(TimeTraceTest, printInternal_records) {
+    buffer.record(100, "point a");
+    buffer.record(200, "point b %d", 99);
+    std::vector<TimeTrace::Record> records;
+    TimeTrace::printInternal(&buffers, NULL, &records);
+    ASSERT_EQ(2U, records.size());
+    EXPECT_EQ("point b 99", records[1].message);
+    EXPECT_EQ("", TestLog::get());
+}
+
 TEST_F(TimeTraceTest, getTrace) {
     TimeTrace::record(100, "point a");
     buffer.record(100, "point b");
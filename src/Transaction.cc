@@ -48,10 +48,7 @@ Transaction::commit()
 {
     ClientTransactionTask* task = taskPtr.get();
 
-    if (!commitStarted) {
-        commitStarted = true;
-        ramcloud->transactionManager->startTransactionTask(taskPtr);
-    }
+    startCommit();
 
     while (!task->allDecisionsSent()) {
         ramcloud->transactionManager->poll();
@@ -78,10 +75,7 @@ Transaction::sync()
 {
     ClientTransactionTask* task = taskPtr.get();
 
-    if (!commitStarted) {
-        commitStarted = true;
-        ramcloud->transactionManager->startTransactionTask(taskPtr);
-    }
+    startCommit();
 
     while (!task->isReady()) {
         ramcloud->transactionManager->poll();
@@ -104,6 +98,55 @@ Transaction::commitAndSync()
     return commit();
 }
 
+/**
+ * Start committing the transaction without waiting for a decision.  The commit
+ * makes progress whenever the ClientTransactionManager and the RamCloud object
+ * are polled; once isCommitReady returns true, commit returns the outcome
+ * without blocking.  Calling this method more than once has no effect.
+ */
+void
+Transaction::startCommit()
+{
+    if (!commitStarted) {
+        commitStarted = true;
+        ramcloud->transactionManager->startTransactionTask(taskPtr);
+    }
+}
+
+/**
+ * Check whether a commit started with startCommit has reached a decision and
+ * sent it to all participant servers, so that commit will not block.
+ *
+ * \return
+ *      True if the commit decision is available, false otherwise.
+ */
+bool
+Transaction::isCommitReady()
+{
+    return commitStarted && taskPtr.get()->allDecisionsSent();
+}
+
+/**
+ * Discard all state of this transaction so that the object can be used for a
+ * new transaction attempt, as if it had just been constructed.  This is
+ * cheaper than destroying the object and constructing a new one: when no
+ * other module still holds the ClientTransactionTask (for instance because
+ * its decision RPCs are still in flight), the task is reset in place rather
+ * than reallocated.
+ */
+void
+Transaction::reset()
+{
+    if (taskPtr.use_count() == 1 &&
+            (!commitStarted || taskPtr.get()->isReady())) {
+        taskPtr.get()->reset();
+    } else {
+        taskPtr.reset(new ClientTransactionTask(ramcloud));
+    }
+    commitStarted = false;
+    nextReadBatchPtr.reset();
+}
+
 /**
  * Read the current contents of an object as part of this transaction.
  *
@@ -121,13 +164,18 @@ Transaction::commitAndSync()
  * \param[out] objectExists
  *      If non-NULL, the ObjectDoesntExistException is not thrown and a flag
  *      indicating the existence of the object is returned here.
+ * \param[out] version
+ *      If non-NULL, the version of the object when it was first read by this
+ *      transaction is returned here; this is the version the commit depends
+ *      on.  0 is returned if the object did not exist or was not read from a
+ *      server (e.g. it was written by this transaction before being read).
  */
 void
 Transaction::read(uint64_t tableId, const void* key, uint16_t keyLength,
-        Buffer* value, bool* objectExists)
+        Buffer* value, bool* objectExists, uint64_t* version)
 {
     ReadOp readOp(this, tableId, key, keyLength, value);
-    readOp.wait(objectExists);
+    readOp.wait(objectExists, version);
 }
 
 /**
@@ -340,9 +388,14 @@ Transaction::ReadOp::isReady()
  * \param[out] objectExists
  *      If non-NULL, the ObjectDoesntExistException is not thrown and a flag
  *      indicating the existence of the object is returned here.
+ * \param[out] version
+ *      If non-NULL, the version of the object when it was first read by this
+ *      transaction is returned here; this is the version the commit depends
+ *      on.  0 is returned if the object did not exist or was not read from a
+ *      server (e.g. it was written by this transaction before being read).
  */
 void
-Transaction::ReadOp::wait(bool* objectExists)
+Transaction::ReadOp::wait(bool* objectExists, uint64_t* version)
 {
     if (expect_false(transaction->commitStarted)) {
         throw TxOpAfterCommit(HERE);
@@ -357,7 +410,7 @@ Transaction::ReadOp::wait(bool* objectExists)
     bool objectFound = true;
 
     if (entry == NULL) {
-        uint64_t version;
+        uint64_t readVersion;
         uint32_t dataLength = 0;
         const void* data = NULL;
 
@@ -366,7 +419,7 @@ Transaction::ReadOp::wait(bool* objectExists)
             // If no entry exists in cache an rpc must have been issued.
             assert(singleRequest->readRpc);
 
-            singleRequest->readRpc->wait(&version, &objectFound);
+            singleRequest->readRpc->wait(&readVersion, &objectFound);
             if (objectFound)
                 data = buf->getValue(&dataLength);
         } else {
@@ -381,7 +434,7 @@ Transaction::ReadOp::wait(bool* objectExists)
 
             switch (batchedRequest->request.status) {
                 case STATUS_OK:
-                    version = batchedRequest->request.version;
+                    readVersion = batchedRequest->request.version;
                     data = buf->getValue(&dataLength);
                     break;
                 case STATUS_OBJECT_DOESNT_EXIST:
@@ -402,7 +455,7 @@ Transaction::ReadOp::wait(bool* objectExists)
         entry->type = ClientTransactionTask::CacheEntry::READ;
         if (objectFound) {
             entry->rejectRules.doesntExist = true;
-            entry->rejectRules.givenVersion = version;
+            entry->rejectRules.givenVersion = readVersion;
             entry->rejectRules.versionNeGiven = true;
         } else {
             // Object did not exists at the time of the read so remember to
@@ -420,6 +473,12 @@ Transaction::ReadOp::wait(bool* objectExists)
         objectFound = false;
     }
 
+    if (version != NULL) {
+        *version = 0;
+        if (objectFound && entry->rejectRules.versionNeGiven)
+            *version = entry->rejectRules.givenVersion;
+    }
+
     if (objectExists == NULL) {
         if (!objectFound)
             throw ObjectDoesntExistException(HERE);
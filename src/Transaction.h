@@ -58,9 +58,13 @@ class Transaction {
     bool commit();
     void sync();
     bool commitAndSync();
+    void startCommit();
+    bool isCommitReady();
+    void reset();
 
     void read(uint64_t tableId, const void* key, uint16_t keyLength,
-            Buffer* value, bool* objectExists = NULL);
+            Buffer* value, bool* objectExists = NULL,
+            uint64_t* version = NULL);
 
     void remove(uint64_t tableId, const void* key, uint16_t keyLength);
 
@@ -76,7 +80,7 @@ class Transaction {
         ReadOp(Transaction* transaction, uint64_t tableId, const void* key,
                uint16_t keyLength, Buffer* value, bool batch = false);
         bool isReady();
-        void wait(bool* objectExists = NULL);
+        void wait(bool* objectExists = NULL, uint64_t* version = NULL);
 
       PRIVATE:
         Transaction* transaction;       /// Pointer to associated transaction.
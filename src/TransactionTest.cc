@@ -148,6 +148,43 @@ TEST_F(TransactionTest, commit_internalError) {
     EXPECT_THROW(transaction->commit(), InternalError);
 }
 
+TEST_F(TransactionTest, startCommit) {
+    ramcloud->write(tableId1, "0", 1, "abcdef", 6);
+
+    Buffer value;
+    transaction->read(tableId1, "0", 1, &value);
+    transaction->write(tableId1, "0", 1, "hello", 5);
+
+    EXPECT_FALSE(transaction->isCommitReady());
+    transaction->startCommit();
+    EXPECT_TRUE(transaction->commitStarted);
+    while (!transaction->isCommitReady()) {
+        ramcloud->transactionManager->poll();
+        ramcloud->poll();
+    }
+    EXPECT_TRUE(transaction->commit());
+}
+
+TEST_F(TransactionTest, reset) {
+    ramcloud->write(tableId1, "0", 1, "abcdef", 6);
+
+    transaction->write(tableId1, "0", 1, "hello", 5);
+    ClientTransactionTask* task = transaction->taskPtr.get();
+    transaction->reset();
+    EXPECT_EQ(task, transaction->taskPtr.get());
+    EXPECT_FALSE(transaction->commitStarted);
+    Key key(tableId1, "0", 1);
+    EXPECT_TRUE(task->findCacheEntry(key) == NULL);
+
+    // A task still held by the transaction manager is not reused.
+    transaction->write(tableId1, "0", 1, "hello", 5);
+    transaction->startCommit();
+    transaction->reset();
+    EXPECT_NE(task, transaction->taskPtr.get());
+    EXPECT_EQ(ClientTransactionTask::INIT,
+              transaction->taskPtr.get()->state);
+}
+
 TEST_F(TransactionTest, sync_basic) {
     ramcloud->write(tableId1, "0", 1, "abcdef", 6);
 
@@ -252,6 +289,35 @@ TEST_F(TransactionTest, read_basic) {
     EXPECT_EQ(3U, entry->rejectRules.givenVersion);
 }
 
+TEST_F(TransactionTest, read_version) {
+    ramcloud->write(tableId1, "0", 1, "abcdef", 6);
+    ramcloud->write(tableId1, "0", 1, "abcdef", 6);
+
+    Buffer value;
+    bool exists = false;
+    uint64_t version = 0;
+    transaction->read(tableId1, "0", 1, &value, &exists, &version);
+    EXPECT_TRUE(exists);
+    EXPECT_EQ(2U, version);
+
+    // Later reads and writes still report the version first read.
+    transaction->write(tableId1, "0", 1, "hello", 5);
+    version = 0;
+    transaction->read(tableId1, "0", 1, &value, &exists, &version);
+    EXPECT_EQ(2U, version);
+
+    transaction->write(tableId1, "1", 1, "hello", 5);
+    version = 5;
+    transaction->read(tableId1, "1", 1, &value, &exists, &version);
+    EXPECT_TRUE(exists);
+    EXPECT_EQ(0U, version);
+
+    version = 5;
+    transaction->read(tableId1, "2", 1, &value, &exists, &version);
+    EXPECT_FALSE(exists);
+    EXPECT_EQ(0U, version);
+}
+
 TEST_F(TransactionTest, read_noObject) {
     Key key(tableId1, "0", 1);
     EXPECT_TRUE(task->findCacheEntry(key) == NULL);